@@ -4,6 +4,7 @@ import feign.HeaderMap;
 import feign.Param;
 import feign.QueryMap;
 import feign.RequestLine;
+import feign.Response;
 import jasper.domain.Ext;
 import jasper.domain.Plugin;
 import jasper.domain.Ref;
@@ -38,6 +39,8 @@ public interface JasperClient {
 	List<Ref> refPull(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/ref")
 	List<Ref> refPull(URI baseUri, @HeaderMap Map<String, Object> headers, @QueryMap Map<String, Object> params);
+	@RequestLine("GET /pub/api/v1/repl/ref/stream")
+	Response refStream(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/ref/cursor?origin={origin}")
 	Instant refCursor(URI baseUri, @Param("origin") String origin);
 	@RequestLine("GET /pub/api/v1/repl/ref/cursor?origin={origin}")
@@ -51,6 +54,8 @@ public interface JasperClient {
 	List<Ext> extPull(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/ext")
 	List<Ext> extPull(URI baseUri, @HeaderMap Map<String, Object> headers, @QueryMap Map<String, Object> params);
+	@RequestLine("GET /pub/api/v1/repl/ext/stream")
+	Response extStream(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/ext/cursor?origin={origin}")
 	Instant extCursor(URI baseUri, @Param("origin") String origin);
 	@RequestLine("GET /pub/api/v1/repl/ext/cursor?origin={origin}")
@@ -64,6 +69,8 @@ public interface JasperClient {
 	List<User> userPull(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/user")
 	List<User> userPull(URI baseUri, @HeaderMap Map<String, Object> headers, @QueryMap Map<String, Object> params);
+	@RequestLine("GET /pub/api/v1/repl/user/stream")
+	Response userStream(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/user/cursor?origin={origin}")
 	Instant userCursor(URI baseUri, @Param("origin") String origin);
 	@RequestLine("GET /pub/api/v1/repl/user/cursor?origin={origin}")
@@ -77,6 +84,8 @@ public interface JasperClient {
 	List<Plugin> pluginPull(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/plugin")
 	List<Plugin> pluginPull(URI baseUri, @HeaderMap Map<String, Object> headers, @QueryMap Map<String, Object> params);
+	@RequestLine("GET /pub/api/v1/repl/plugin/stream")
+	Response pluginStream(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/plugin/cursor?origin={origin}")
 	Instant pluginCursor(URI baseUri, @Param("origin") String origin);
 	@RequestLine("GET /pub/api/v1/repl/plugin/cursor?origin={origin}")
@@ -90,6 +99,8 @@ public interface JasperClient {
 	List<Template> templatePull(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/template")
 	List<Template> templatePull(URI baseUri, @HeaderMap Map<String, Object> headers, @QueryMap Map<String, Object> params);
+	@RequestLine("GET /pub/api/v1/repl/template/stream")
+	Response templateStream(URI baseUri, @QueryMap Map<String, Object> params);
 	@RequestLine("GET /pub/api/v1/repl/template/cursor?origin={origin}")
 	Instant templateCursor(URI baseUri, @Param("origin") String origin);
 	@RequestLine("GET /pub/api/v1/repl/template/cursor?origin={origin}")
@@ -0,0 +1,106 @@
+package jasper.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Response;
+import jasper.domain.Ext;
+import jasper.domain.Plugin;
+import jasper.domain.Ref;
+import jasper.domain.Template;
+import jasper.domain.User;
+import jasper.domain.proj.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads the newline delimited JSON replication streams. Entities are handed
+ * over in batches as they arrive, so a full origin pull only ever holds one
+ * batch in memory. If the connection drops the stream is reopened from the
+ * modified date of the last ingested batch.
+ */
+@Component
+public class JasperStreamClient {
+	private static final Logger logger = LoggerFactory.getLogger(JasperStreamClient.class);
+
+	private static final int MAX_RESUME = 3;
+
+	@Autowired
+	JasperClient client;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	public interface Batch<T> {
+		/**
+		 * @return false to stop reading the stream
+		 */
+		boolean ingest(List<T> batch);
+	}
+
+	public void refStream(URI baseUri, Map<String, Object> params, int batchSize, Batch<Ref> fn) throws IOException {
+		stream(Ref.class, p -> client.refStream(baseUri, p), params, batchSize, fn);
+	}
+
+	public void extStream(URI baseUri, Map<String, Object> params, int batchSize, Batch<Ext> fn) throws IOException {
+		stream(Ext.class, p -> client.extStream(baseUri, p), params, batchSize, fn);
+	}
+
+	public void userStream(URI baseUri, Map<String, Object> params, int batchSize, Batch<User> fn) throws IOException {
+		stream(User.class, p -> client.userStream(baseUri, p), params, batchSize, fn);
+	}
+
+	public void pluginStream(URI baseUri, Map<String, Object> params, int batchSize, Batch<Plugin> fn) throws IOException {
+		stream(Plugin.class, p -> client.pluginStream(baseUri, p), params, batchSize, fn);
+	}
+
+	public void templateStream(URI baseUri, Map<String, Object> params, int batchSize, Batch<Template> fn) throws IOException {
+		stream(Template.class, p -> client.templateStream(baseUri, p), params, batchSize, fn);
+	}
+
+	<T extends Cursor> void stream(Class<T> type, Function<Map<String, Object>, Response> open, Map<String, Object> params, int batchSize, Batch<T> fn) throws IOException {
+		var reader = objectMapper.readerFor(type);
+		var query = new HashMap<>(params);
+		var resume = 0;
+		while (true) {
+			try (var response = open.apply(query)) {
+				if (response.status() < 200 || response.status() >= 300) throw FeignException.errorStatus("stream", response);
+				if (response.body() == null) return;
+				var batch = new ArrayList<T>(batchSize);
+				try (var lines = new BufferedReader(new InputStreamReader(response.body().asInputStream(), UTF_8))) {
+					String line;
+					while ((line = lines.readLine()) != null) {
+						if (line.isBlank()) continue;
+						batch.add(reader.readValue(line));
+						if (batch.size() < batchSize) continue;
+						if (!fn.ingest(batch)) return;
+						query.put("modifiedAfter", batch.getLast().getModified());
+						batch = new ArrayList<>(batchSize);
+						resume = 0;
+					}
+				}
+				if (!batch.isEmpty()) fn.ingest(batch);
+				return;
+			} catch (JsonProcessingException e) {
+				throw e;
+			} catch (IOException e) {
+				if (++resume > MAX_RESUME) throw e;
+				logger.warn("Replication stream interrupted, resuming after {}", query.get("modifiedAfter"), e);
+			}
+		}
+	}
+}
@@ -4,7 +4,11 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.annotation.Counted;
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
+import jasper.component.Storage.BackupFile;
 import jasper.component.Storage.Zipped;
 import jasper.config.Props;
 import jasper.domain.Ext;
@@ -22,34 +26,44 @@ import jasper.repository.TemplateRepository;
 import jasper.repository.UserRepository;
 import jasper.service.dto.BackupOptionsDto;
 import jasper.util.JsonArrayStreamDataSupplier;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StreamUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import static jasper.component.FileCache.CACHE;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
 @Component
 public class Backup {
 	private final Logger logger = LoggerFactory.getLogger(Backup.class);
 	private static final String BACKUPS = "backups";
+	private static final String MANIFEST = "manifest.json";
 
 	@Autowired
 	Props props;
@@ -81,13 +95,37 @@ public class Backup {
 	@Autowired
 	PlatformTransactionManager transactionManager;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	StatCache statCache;
+
+	@Autowired
+	ConfigCache configs;
+
 	@Autowired
 	Optional<Storage> storage;
 
 	public record BackupStream(InputStream inputStream, long size) {}
 
+	/**
+	 * Contents of the manifest.json written into every backup, used as the
+	 * starting point for the next incremental backup.
+	 *
+	 * @param created time the backup was started
+	 * @param cache content hash of every cache file at the time of the backup
+	 */
+	public record BackupManifest(Instant created, Map<String, BackupFile> cache) {}
+
+	/**
+	 * Write each entity type to its own zip entry on its own thread with its own
+	 * read-only transaction, with up to {@link Props#getBackupThreads()} running at
+	 * once. Entries are compressed by the thread writing them.
+	 * If a previous backup is given, only entities modified since it was taken
+	 * and cache files with different content are included.
+	 */
 	@Async
-	@Transactional(readOnly = true)
 	@Counted(value = "jasper.backup")
 	public void createBackup(String origin, String id, BackupOptionsDto options) throws IOException {
 		if (storage.isEmpty()) {
@@ -96,31 +134,98 @@ public class Backup {
 		}
 		var start = Instant.now();
 		logger.info("{} Creating Backup", origin);
+		var previous = manifest(origin, options.getPrevious());
+		var newerThan = options.getNewerThan() == null && previous != null ? previous.created() : options.getNewerThan();
+		var cache = new AtomicReference<Map<String, BackupFile>>();
 		try (var zipped = storage.get().zipAt(origin, BACKUPS, id + ".zip")) {
-			if (options.isRef()) {
-				backupRepo(refRepository, origin, options.getNewerThan(), zipped.out("ref.json"), false);
-			}
-			if (options.isExt()) {
-				backupRepo(extRepository, origin, options.getNewerThan(), zipped.out("ext.json"));
-			}
-			if (options.isUser()) {
-				backupRepo(userRepository, origin, options.getNewerThan(), zipped.out("user.json"));
-			}
-			if (options.isPlugin()) {
-				backupRepo(pluginRepository, origin, options.getNewerThan(), zipped.out("plugin.json"));
-			}
-			if (options.isTemplate()) {
-				backupRepo(templateRepository, origin, options.getNewerThan(), zipped.out("template.json"));
+			var permits = new Semaphore(props.getBackupThreads());
+			var tasks = new ArrayList<Future<?>>();
+			try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				if (options.isRef()) {
+					tasks.add(backupRepo(executor, permits, refRepository, origin, newerThan, zipped, "ref.json", false));
+				}
+				if (options.isExt()) {
+					tasks.add(backupRepo(executor, permits, extRepository, origin, newerThan, zipped, "ext.json", true));
+				}
+				if (options.isUser()) {
+					tasks.add(backupRepo(executor, permits, userRepository, origin, newerThan, zipped, "user.json", true));
+				}
+				if (options.isPlugin()) {
+					tasks.add(backupRepo(executor, permits, pluginRepository, origin, newerThan, zipped, "plugin.json", true));
+				}
+				if (options.isTemplate()) {
+					tasks.add(backupRepo(executor, permits, templateRepository, origin, newerThan, zipped, "template.json", true));
+				}
+				if (options.isCache()) {
+					tasks.add(executor.submit(() -> {
+						if (previous == null && newerThan != null) {
+							// Without a manifest to compare against only the modified time can be used
+							backupCache(origin, newerThan, zipped);
+						} else {
+							cache.set(storage.get().backup(origin, CACHE, zipped, previous == null || previous.cache() == null ? Map.of() : previous.cache()));
+						}
+						return null;
+					}));
+				}
+				for (var t : tasks) t.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException io) throw io;
+				throw new RuntimeException(e.getCause());
 			}
-			if (options.isCache()) {
-				backupCache(origin, options.getNewerThan(), zipped);
+			try (var out = zipped.out(MANIFEST)) {
+				objectMapper.writeValue(out, new BackupManifest(start, cache.get()));
 			}
 		}
 		logger.info("{} Finished Backup in {}", origin, Duration.between(start, Instant.now()));
 	}
 
-	void backupRepo(StreamMixin<?> repo, String origin, Instant newerThan, OutputStream out) throws IOException {
-		backupRepo(repo, origin, newerThan, out, true);
+	private Future<?> backupRepo(ExecutorService executor, Semaphore permits, StreamMixin<?> repo, String origin, Instant newerThan, Zipped zipped, String filename, boolean evict) {
+		return executor.submit(() -> {
+			permits.acquire();
+			try {
+				var transactionTemplate = new TransactionTemplate(transactionManager);
+				transactionTemplate.setReadOnly(true);
+				transactionTemplate.executeWithoutResult(status -> {
+					try {
+						backupRepo(repo, origin, newerThan, zipped.out(filename), evict);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			} finally {
+				permits.release();
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Read the manifest of a previous backup.
+	 *
+	 * @return null if there is no previous backup or it has no manifest
+	 */
+	private BackupManifest manifest(String origin, String id) {
+		if (isBlank(id)) return null;
+		if (!exists(origin, id)) {
+			logger.warn("{} Previous backup {} not found, creating a full backup", origin, id);
+			return null;
+		}
+		try (var zipped = storage.get().streamZip(origin, BACKUPS, id + ".zip");
+			 var in = zipped.in(MANIFEST)) {
+			if (in == null) {
+				logger.warn("{} Previous backup {} has no manifest, creating a full backup", origin, id);
+				return null;
+			}
+			return objectMapper.readValue(in, BackupManifest.class);
+		} catch (IOException e) {
+			logger.warn("{} Could not read manifest of previous backup {}, creating a full backup", origin, id, e);
+			return null;
+		}
 	}
 
 	void backupRepo(StreamMixin<?> repo, String origin, Instant newerThan, OutputStream out, boolean evict) throws IOException {
@@ -207,73 +312,186 @@ public class Backup {
 		var start = Instant.now();
 		logger.info("{} Restoring Backup", origin);
 		try (var zipped = storage.get().streamZip(origin, BACKUPS, id + ".zip")) {
+			restore(origin, zipped, options);
+			if (options == null || options.isCache()) {
+				restoreCache(origin, zipped);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		logger.info("{} Finished Restore in {}", origin, Duration.between(start, Instant.now()));
+	}
+
+	/**
+	 * Restore all entity files in the zip. Each file is parsed on its own thread,
+	 * and parsed batches are written by up to {@link Props#getRestoreThreads()}
+	 * writers at once. Metadata for restored Refs is generated in one pass at the end.
+	 */
+	void restore(String origin, Zipped zipped, BackupOptionsDto options) throws IOException {
+		var writers = new Semaphore(props.getRestoreThreads());
+		var files = new ArrayList<Future<?>>();
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
 			if (options == null || options.isRef()) {
-				restoreRepo(refRepository, origin, zipped.list("ref.*\\.json"), Ref.class);
+				restoreFiles(executor, writers, origin, zipped.list("ref.*\\.json"), Ref.class, files);
 			}
 			if (options == null || options.isExt()) {
-				restoreRepo(extRepository, origin, zipped.list("ext.*\\.json"), Ext.class);
+				restoreFiles(executor, writers, origin, zipped.list("ext.*\\.json"), Ext.class, files);
 			}
 			if (options == null || options.isUser()) {
-				restoreRepo(userRepository, origin, zipped.list("user.*\\.json"), User.class);
+				restoreFiles(executor, writers, origin, zipped.list("user.*\\.json"), User.class, files);
 			}
 			if (options == null || options.isPlugin()) {
-				restoreRepo(pluginRepository, origin, zipped.list("plugin.*\\.json"), Plugin.class);
+				restoreFiles(executor, writers, origin, zipped.list("plugin.*\\.json"), Plugin.class, files);
 			}
 			if (options == null || options.isTemplate()) {
-				restoreRepo(templateRepository, origin, zipped.list("template.*\\.json"), Template.class);
-			}
-			if (options == null || options.isCache()) {
-				restoreCache(origin, zipped);
+				restoreFiles(executor, writers, origin, zipped.list("template.*\\.json"), Template.class, files);
 			}
-		} catch (IOException e) {
+			// Writes are submitted while parsing, so wait for parsing to finish before closing
+			for (var f : files) f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			logger.error("{} Failed to restore", origin, e.getCause());
 		}
-		logger.info("{} Finished Restore in {}", origin, Duration.between(start, Instant.now()));
+		if (options == null || options.isRef()) {
+			backfill(origin);
+			statCache.evictOrigin(origin);
+		}
+		// Upserts bypass ingest, so no user or template updates are sent
+		if (options == null || options.isUser()) configs.clearUserCache();
+		if (options == null || options.isTemplate()) configs.clearTemplateCache();
 	}
 
-	<T extends Cursor> void restoreRepo(JpaRepository<T, ?> repo, String origin, Iterator<InputStream> files, Class<T> type) {
-		files.forEachRemaining(file -> {
-			restoreRepo(repo, origin, file, type);
-		});
-    }
+	private <T extends Cursor> void restoreFiles(ExecutorService executor, Semaphore writers, String origin, Iterator<InputStream> files, Class<T> type, List<Future<?>> futures) {
+		files.forEachRemaining(file -> futures.add(executor.submit(() -> restoreFile(executor, writers, origin, file, type))));
+	}
 
-	<T extends Cursor> void restoreRepo(JpaRepository<T, ?> repo, String origin, InputStream file, Class<T> type) {
+	/**
+	 * Restore a single entity file with one writer.
+	 */
+	<T extends Cursor> void restoreRepo(String origin, InputStream file, Class<T> type) {
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			restoreFile(executor, new Semaphore(1), origin, file, type);
+		}
+		if (type == Ref.class) statCache.evictOrigin(origin);
+		if (type == User.class) configs.clearUserCache();
+		if (type == Template.class) configs.clearTemplateCache();
+	}
+
+	private <T extends Cursor> void restoreFile(ExecutorService executor, Semaphore writers, String origin, InputStream file, Class<T> type) {
 		if (file == null) return; // Silently ignore missing files
-		var done = new AtomicBoolean(false);
-		var it = new JsonArrayStreamDataSupplier<>(file, type, objectMapper);
-		int count = 0;
+		var count = 0L;
+		try (file) {
+			var it = new JsonArrayStreamDataSupplier<>(file, type, objectMapper);
+			var batch = new ArrayList<T>(props.getRestoreBatchSize());
+			while (it.hasNext()) {
+				var t = it.next();
+				if (t == null) continue;
+				t.setOrigin(origin);
+				batch.add(t);
+				if (batch.size() == props.getRestoreBatchSize()) {
+					write(executor, writers, origin, batch, type);
+					count += batch.size();
+					logger.info("{} {} {} restored...", origin, type.getSimpleName(), count);
+					batch = new ArrayList<>(props.getRestoreBatchSize());
+				}
+			}
+			if (!batch.isEmpty()) {
+				write(executor, writers, origin, batch, type);
+				count += batch.size();
+			}
+			logger.info("{} {} {} restored...", origin, type.getSimpleName(), count);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			logger.error("{} Failed to restore {}", origin, type.getSimpleName(), e);
+		}
+	}
+
+	private <T extends Cursor> void write(ExecutorService executor, Semaphore writers, String origin, List<T> batch, Class<T> type) throws InterruptedException {
+		writers.acquire();
+		executor.submit(() -> {
+			try {
+				upsert(origin, batch, type);
+			} finally {
+				writers.release();
+			}
+		});
+	}
+
+	/**
+	 * Insert or update a batch in one transaction using JDBC batching.
+	 * If the batch fails it is retried one entity at a time, skipping
+	 * entities that violate a constraint.
+	 */
+	private <T extends Cursor> void upsert(String origin, List<T> batch, Class<T> type) {
+		var sample = Timer.start(meterRegistry);
 		try {
-			while (!done.get()) {
-				if (count > 0) logger.info("{} {} {} restored...", origin, type.getSimpleName(), count * props.getRestoreBatchSize());
-				var lastBatchCount = count * props.getRestoreBatchSize();
-				TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
-				transactionTemplate.execute(status -> {
-					for (var i = 0; i < props.getRestoreBatchSize(); i++) {
-						if (!it.hasNext()) {
-							done.set(true);
-							logger.info("{} {} {} restored...", origin, type.getSimpleName(), lastBatchCount + i);
-							return null;
-						}
-						var t = it.next();
-						try {
-							t.setOrigin(origin);
-							repo.save(t);
-						} catch (Exception e) {
-							try {
-								logger.error("{} Skipping {} {} due to constraint violation", origin, type.getSimpleName(), objectMapper.writeValueAsString(t), e);
-							} catch (JsonProcessingException ex) {
-								logger.error("{} Skipping {} {} due to constraint violation", origin, type.getSimpleName(), type, e);
-							}
-						}
+			if (upsert(batch)) {
+				restored(type, "restored").increment(batch.size());
+				return;
+			}
+			for (var t : batch) {
+				if (upsert(List.of(t))) {
+					restored(type, "restored").increment();
+				} else {
+					restored(type, "skipped").increment();
+					try {
+						logger.error("{} Skipping {} {} due to constraint violation", origin, type.getSimpleName(), objectMapper.writeValueAsString(t));
+					} catch (JsonProcessingException ex) {
+						logger.error("{} Skipping {} {} due to constraint violation", origin, type.getSimpleName(), type);
 					}
-					return null;
-				});
-				count++;
+				}
 			}
-		} catch (Exception e) {
-			logger.error("Failed to restore", e);
+		} finally {
+			sample.stop(Timer.builder("jasper.restore.batch")
+				.description("Time to write a batch of restored entities")
+				.tag("type", type.getSimpleName())
+				.register(meterRegistry));
+		}
+	}
+
+	private boolean upsert(List<?> batch) {
+		try (var session = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).openStatelessSession()) {
+			session.setJdbcBatchSize(batch.size());
+			var tx = session.beginTransaction();
+			try {
+				for (var t : batch) session.upsert(t);
+				tx.commit();
+				return true;
+			} catch (Exception e) {
+				logger.debug("Restore batch failed", e);
+				if (tx.isActive()) tx.rollback();
+				return false;
+			}
+		}
+	}
+
+	private Counter restored(Class<?> type, String status) {
+		return Counter.builder("jasper.restore.entities")
+			.description("Entities restored from backups")
+			.tag("type", type.getSimpleName())
+			.tag("status", status)
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Index responses and generate metadata for restored Refs.
+	 * Refs restored with metadata are left as is.
+	 */
+	private void backfill(String origin) {
+		var start = Instant.now();
+		while (backfillRepository.backfillResponses(origin, props.getBackfillBatchSize()) > 0) {
+			logger.info("{} Indexing restored responses...", origin);
+		}
+		var count = 0;
+		while (props.getBackfillBatchSize() == backfillRepository.backfillMetadata(origin, props.getBackfillBatchSize())) {
+			count += props.getBackfillBatchSize();
+			logger.info("{} Generating restored metadata... {} done", origin, count);
 		}
-    }
+		logger.info("{} Finished restored metadata in {}", origin, Duration.between(start, Instant.now()));
+	}
 
 	private void restoreCache(String origin, Zipped backup) {
 		try {
@@ -301,6 +519,9 @@ public class Backup {
 	public void regen(String origin) {
 		var start = Instant.now();
 		logger.info("{} Starting Backfill", origin);
+		while (backfillRepository.backfillResponses(origin, props.getBackfillBatchSize()) > 0) {
+			logger.info("{} Indexing responses...", origin);
+		}
 		refRepository.dropMetadata(origin);
 		logger.info("{} Cleared old metadata", origin);
 		int count = 0;
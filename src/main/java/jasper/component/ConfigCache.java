@@ -2,6 +2,8 @@ package jasper.component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jasper.component.dto.ComponentDtoMapper;
 import jasper.config.Config.SecurityConfig;
@@ -24,6 +26,7 @@ import org.apache.sshd.common.config.keys.KeyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.integration.annotation.ServiceActivator;
@@ -31,11 +34,14 @@ import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 import java.security.interfaces.RSAPublicKey;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static jasper.domain.User.merge;
 import static jasper.domain.proj.HasOrigin.fromParts;
@@ -87,8 +93,15 @@ public class ConfigCache {
 	@Autowired
 	ConfigCache self;
 
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	Set<String> configCacheTags = ConcurrentHashMap.newKeySet();
 	Set<Consumer<ServerConfig>> rootListeners = ConcurrentHashMap.newKeySet();
+	Set<Runnable> clearListeners = ConcurrentHashMap.newKeySet();
 
 	@PostConstruct
 	public void init() {
@@ -134,6 +147,7 @@ public class ConfigCache {
 		"external-user-cache"
 	}, allEntries = true)
 	public void clearUserCache() {
+		clearListeners.forEach(Runnable::run);
 		logger.info("Cleared user cache.");
 	}
 
@@ -157,9 +171,113 @@ public class ConfigCache {
 		"template-dto-page-cache",
 	}, allEntries = true)
 	public void clearTemplateCache() {
+		clearListeners.forEach(Runnable::run);
 		logger.debug("Cleared template cache.");
 	}
 
+	/**
+	 * Evict cached config plugins with this tag.
+	 * Config cache keys start with the tag, but the origin cannot be recovered
+	 * from every key, so all origins are evicted.
+	 */
+	public void clearConfigCache(Collection<String> tags) {
+		evict(key -> tags.contains(keyTag(key)), "config-cache");
+		logger.debug("Cleared config cache for {}.", tags);
+	}
+
+	/**
+	 * Evict cached users related to this user.
+	 * Users are merged across the protected and private versions of a tag, so both are evicted.
+	 */
+	public void clearUserCache(String tag, String origin) {
+		evict(key -> stripPrefix(keyTag(key)).equals(stripPrefix(tag)), "user-cache", "user-dto-cache");
+		evict(key -> true, "user-dto-page-cache", "external-user-cache");
+		logger.debug("Cleared user cache for {}{}.", tag, origin);
+	}
+
+	public void clearPluginCache(String tag, String origin) {
+		evict(key -> relatedTag(tag, keyTag(key)) && relatedOrigin(origin, keyOrigin(key)),
+			"plugin-cache", "plugin-config-cache", "plugin-dto-cache");
+		evict(key -> true, "plugin-dto-page-cache");
+		logger.debug("Cleared plugin cache for {}{}.", tag, origin);
+	}
+
+	/**
+	 * Evict cached templates that may be affected by this template, which
+	 * includes parent and child tags and, for security config, sub-origins.
+	 */
+	public void clearTemplateCache(String tag, String origin) {
+		evict(key -> relatedTag(tag, keyTag(key)) && (relatedOrigin(origin, keyOrigin(key)) || isServerKey(key)),
+			"template-cache", "template-config-cache", "template-cache-wrapped", "template-schemas-cache", "template-defaults-cache", "template-dto-cache");
+		evict(key -> true, "template-dto-page-cache");
+		logger.debug("Cleared template cache for {}{}.", tag, origin);
+	}
+
+	private void evict(Predicate<Object> matches, String... names) {
+		for (var name : names) {
+			var cache = cacheManager.getCache(name);
+			if (cache == null) continue;
+			if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+				var evicted = new AtomicInteger();
+				caffeine.asMap().keySet().removeIf(key -> matches.test(key) && evicted.incrementAndGet() > 0);
+				if (evicted.get() > 0) evictions(name).increment(evicted.get());
+			} else {
+				cache.clear();
+			}
+		}
+	}
+
+	private Counter evictions(String name) {
+		return Counter.builder("jasper.cache.evicted")
+			.description("Cache entries evicted by updates")
+			.tag("cache", name)
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Cache keys are a tag followed by an origin, which starts with '@'.
+	 */
+	private static String keyTag(Object key) {
+		var k = key.toString();
+		var i = k.indexOf('@');
+		return i == -1 ? k : k.substring(0, i);
+	}
+
+	private static String keyOrigin(Object key) {
+		var k = key.toString();
+		var i = k.indexOf('@');
+		return i == -1 ? "" : k.substring(i);
+	}
+
+	/**
+	 * The server and index config are keyed without the local origin they are read from.
+	 */
+	private static boolean isServerKey(Object key) {
+		return key.equals("_config/server") || key.equals("_config/index");
+	}
+
+	private static String stripPrefix(String tag) {
+		return tag.startsWith("+") || tag.startsWith("_") ? tag.substring(1) : tag;
+	}
+
+	/**
+	 * Tags are related if either is a parent of the other, ignoring the
+	 * protected or private prefix. The empty tag is related to every tag.
+	 */
+	static boolean relatedTag(String changed, String cached) {
+		var a = stripPrefix(changed);
+		var b = stripPrefix(cached);
+		return a.isEmpty() || b.isEmpty() || a.equals(b) || b.startsWith(a + "/") || a.startsWith(b + "/");
+	}
+
+	/**
+	 * The cached origin is the changed origin or one of its sub-origins.
+	 */
+	static boolean relatedOrigin(String changed, String cached) {
+		if (isEmpty(changed)) return cached.isEmpty();
+		return cached.equals(changed) || cached.startsWith(changed + ".");
+	}
+
 	@Cacheable("user-cache")
 	public User getUser(String qualifiedTag) {
 		if (isEmpty(qualifiedTag)) return null;
@@ -279,6 +397,13 @@ public class ConfigCache {
 		rootListeners.add(listener);
 	}
 
+	/**
+	 * Run the listener whenever all users or all templates are cleared.
+	 */
+	public void onClear(Runnable listener) {
+		clearListeners.add(listener);
+	}
+
 	@ServiceActivator(inputChannel = "templateRxChannel")
 	public void handleTemplateUpdate(Message<TemplateDto> message) {
 		var template = message.getPayload();
@@ -307,7 +432,7 @@ public class ConfigCache {
 		return new SecurityConfig().wrap(props);
 	}
 
-	@Cacheable("template-schemas-cache")
+	@Cacheable(value = "template-schemas-cache", key = "#tag + #origin")
 	public List<TemplateDto> getSchemas(String tag, String origin) {
 		return templateRepository.findAllForTagAndOriginWithSchema(tag, origin)
 			.stream()
@@ -315,7 +440,7 @@ public class ConfigCache {
 			.toList();
 	}
 
-	@Cacheable("template-defaults-cache")
+	@Cacheable(value = "template-defaults-cache", key = "#tag + #origin")
 	public List<TemplateDto> getDefaults(String tag, String origin) {
 		return templateRepository.findAllForTagAndOriginWithDefaults(tag, origin)
 			.stream()
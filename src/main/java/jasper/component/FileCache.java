@@ -2,12 +2,15 @@ package jasper.component;
 
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jasper.domain.Ref;
 import jasper.errors.NotFoundException;
 import jasper.errors.ScrapeProtocolException;
 import jasper.plugin.Cache;
 import jasper.repository.RefRepository;
 import jasper.repository.filter.RefFilter;
+import jasper.util.SingleFlight;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,6 +62,21 @@ public class FileCache {
 	@Autowired
 	Tagger tagger;
 
+	@Autowired
+	StatCache statCache;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private SingleFlight fetches;
+	private SingleFlight thumbnails;
+
+	@PostConstruct
+	void init() {
+		fetches = new SingleFlight("cache.fetch", meterRegistry);
+		thumbnails = new SingleFlight("cache.thumbnail", meterRegistry);
+	}
+
 	@Timed(value = "jasper.cache")
 	@Bulkhead(name = "recycler")
 	public void clearDeleted(String origin) {
@@ -122,7 +140,7 @@ public class FileCache {
 	public InputStream fetch(String url, String origin, boolean refresh) {
 		var existingCache = cache(url, origin);
 		if (bannedOrBroken(existingCache, refresh)) return null;
-		if (!refresh && existingCache != null && !existingCache.isNoStore() && storage.exists(origin, CACHE, existingCache.getId())) {
+		if (!refresh && stored(existingCache, origin)) {
 			return storage.stream(origin, CACHE, existingCache.getId());
 		}
 		if (url.startsWith("cache:")) {
@@ -135,6 +153,25 @@ public class FileCache {
 			}
 		}
 		if (hasMatchingTag(stat(url, origin), "+plugin/error")) return null;
+		return fetches.run(origin + " " + url,
+			() -> {
+				// A download may have finished between the check above and taking the lead
+				var current = cache(url, origin);
+				if (!refresh && stored(current, origin)) return storage.stream(origin, CACHE, current.getId());
+				return download(url, origin, current);
+			},
+			() -> cached(url, origin));
+	}
+
+	private boolean stored(Cache cache, String origin) {
+		return cache != null && !cache.isNoStore() && isNotBlank(cache.getId()) && storage.exists(origin, CACHE, cache.getId());
+	}
+
+	/**
+	 * Scrape the URL into the cache and record it in the _plugin/cache plugin.
+	 * Only called by a single thread for each URL and origin at a time.
+	 */
+	private InputStream download(String url, String origin, Cache existingCache) {
 		String mimeType;
 		String id;
 		try (var res = fetch.doScrape(url, origin)) {
@@ -184,8 +221,19 @@ public class FileCache {
 		}
 	}
 
+	/**
+	 * Stream what a concurrent download stored, without scraping again.
+	 */
+	private InputStream cached(String url, String origin) {
+		var cache = cache(url, origin);
+		if (bannedOrBroken(cache)) return null;
+		var id = cache != null ? cache.getId() : url.startsWith("cache:") ? url.substring("cache:".length()) : null;
+		if (isBlank(id) || !storage.exists(origin, CACHE, id)) return null;
+		return storage.stream(origin, CACHE, id);
+	}
+
 	private Ref stat(String url, String origin) {
-		return refRepository.findOneByUrlAndOrigin(url, origin).orElse(null);
+		return statCache.stat(url, origin);
 	}
 
 	private Cache cache(String url, String origin) {
@@ -218,43 +266,71 @@ public class FileCache {
 		}
 		if (storage.exists(origin, CACHE, thumbnailId)) {
 			return fetch(thumbnailUrl, origin);
-		} else {
-			var is = fetch(url, origin);
-			if (is == null) return null;
-			var data = images.thumbnail(is);
-			if (data == null) {
-				// Returning null means the full size image is already small enough to be a thumbnail
-				// Set this as a thumbnail to disable future attempts
-				if (fullSize != null) fullSize.setThumbnail(true);
-				tagger.plugin(url, origin, "_plugin/cache", fullSize, "-_plugin/delta/cache");
-				return storage.stream(origin, CACHE, id);
+		}
+		var fullSizeId = id;
+		return thumbnails.run(origin + " " + thumbnailId,
+			() -> {
+				// A thumbnail may have been generated between the check above and taking the lead
+				if (storage.exists(origin, CACHE, thumbnailId)) return storage.stream(origin, CACHE, thumbnailId);
+				return generateThumbnail(url, origin, fullSizeId, fullSize, existingCache);
+			},
+			() -> cachedThumbnail(url, origin, fullSizeId));
+	}
+
+	/**
+	 * Resize the full size image and store it as the thumbnail.
+	 * Only called by a single thread for each thumbnail at a time.
+	 */
+	private InputStream generateThumbnail(String url, String origin, String id, Cache fullSize, Cache existingCache) {
+		var thumbnailId = "t_" + id;
+		var thumbnailUrl = "cache:" + thumbnailId;
+		var is = fetch(url, origin);
+		if (is == null) return null;
+		var data = images.thumbnail(is);
+		if (data == null) {
+			// Returning null means the full size image is already small enough to be a thumbnail
+			// Set this as a thumbnail to disable future attempts
+			if (fullSize != null) fullSize.setThumbnail(true);
+			tagger.plugin(url, origin, "_plugin/cache", fullSize, "-_plugin/delta/cache");
+			return storage.stream(origin, CACHE, id);
+		}
+		try {
+			if (storage.exists(origin, CACHE, thumbnailId)) {
+				storage.delete(origin, CACHE, thumbnailId);
 			}
-			try {
-				if (storage.exists(origin, CACHE, thumbnailId)) {
-					storage.delete(origin, CACHE, thumbnailId);
-				}
-				storage.storeAt(origin, CACHE, thumbnailId, data);
-				var cache = Cache.builder()
-					.id(thumbnailId)
-					.thumbnail(true)
-					.mimeType("image/png")
-					.contentLength((long) data.length)
-					.build();
-				tagger.plugin(thumbnailUrl, origin, "_plugin/cache", cache, "plugin/thumbnail");
-				return new ByteArrayInputStream(data);
-			} catch (Exception e) {
-				var err = tagger.plugin(thumbnailUrl, origin, "_plugin/cache", Cache.builder().thumbnail(true).build());
-				tagger.attachError(origin, err, "Error creating thumbnail", getMessage(e));
-				if (configs.getRemote(origin) != null) {
-					var cache = existingCache != null ? existingCache : Cache.builder().build();
-					cache.setBan(true);
-					tagger.plugin(url, origin, "_plugin/cache", cache);
-				}
-				return null;
+			storage.storeAt(origin, CACHE, thumbnailId, data);
+			var cache = Cache.builder()
+				.id(thumbnailId)
+				.thumbnail(true)
+				.mimeType("image/png")
+				.contentLength((long) data.length)
+				.build();
+			tagger.plugin(thumbnailUrl, origin, "_plugin/cache", cache, "plugin/thumbnail");
+			return new ByteArrayInputStream(data);
+		} catch (Exception e) {
+			var err = tagger.plugin(thumbnailUrl, origin, "_plugin/cache", Cache.builder().thumbnail(true).build());
+			tagger.attachError(origin, err, "Error creating thumbnail", getMessage(e));
+			if (configs.getRemote(origin) != null) {
+				var cache = existingCache != null ? existingCache : Cache.builder().build();
+				cache.setBan(true);
+				tagger.plugin(url, origin, "_plugin/cache", cache);
 			}
+			return null;
 		}
 	}
 
+	/**
+	 * Stream the thumbnail a concurrent call generated, or the full size image
+	 * if it turned out to be small enough.
+	 */
+	private InputStream cachedThumbnail(String url, String origin, String id) {
+		var thumbnailId = "t_" + id;
+		if (storage.exists(origin, CACHE, thumbnailId)) return storage.stream(origin, CACHE, thumbnailId);
+		var fullSize = cache(url, origin);
+		if (fullSize != null && fullSize.isThumbnail() && storage.exists(origin, CACHE, id)) return storage.stream(origin, CACHE, id);
+		return null;
+	}
+
 	@Timed(value = "jasper.cache")
 	public Ref save(String origin, String title, InputStream in, String mimeType, String ...tags) throws IOException {
 		var id = storage.store(origin, CACHE, in);
@@ -8,6 +8,7 @@ import jakarta.persistence.RollbackException;
 import jasper.config.Props;
 import jasper.domain.Metadata;
 import jasper.domain.Ref;
+import jasper.domain.RefId;
 import jasper.errors.AlreadyExistsException;
 import jasper.errors.DuplicateModifiedDateException;
 import jasper.errors.InvalidPushException;
@@ -28,10 +29,18 @@ import org.springframework.transaction.support.TransactionTemplate;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static jasper.component.Meta.expandTags;
 import static jasper.util.DbConstraint.isPkViolation;
 import static jasper.util.DbConstraint.isUniqueModifiedOriginViolation;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
 
 @Component
 public class Ingest {
@@ -58,6 +67,9 @@ public class Ingest {
 	@Autowired
 	Messages messages;
 
+	@Autowired
+	StatCache statCache;
+
 	@Autowired
 	PlatformTransactionManager transactionManager;
 
@@ -72,6 +84,7 @@ public class Ingest {
 		meta.ref(rootOrigin, ref);
 		ensureCreateUniqueModified(ref);
 		meta.sources(rootOrigin, ref, null);
+		statCache.evict(ref.getUrl(), ref.getOrigin());
 		messages.updateRef(ref);
 	}
 
@@ -84,6 +97,7 @@ public class Ingest {
 		meta.ref(rootOrigin, ref);
 		ensureUpdateUniqueModified(ref);
 		meta.sources(rootOrigin, ref, maybeExisting.get());
+		statCache.evict(ref.getUrl(), ref.getOrigin());
 		messages.updateRef(ref);
 	}
 
@@ -96,6 +110,7 @@ public class Ingest {
 		meta.response(rootOrigin, ref);
 		ensureUpdateUniqueModified(ref);
 		meta.responseSource(rootOrigin, ref, maybeExisting.get());
+		statCache.evict(ref.getUrl(), ref.getOrigin());
 		messages.updateRef(ref);
 	}
 
@@ -105,6 +120,7 @@ public class Ingest {
 		meta.ref(rootOrigin, ref);
 		ensureSilentUniqueModified(ref);
 		meta.sources(rootOrigin, ref, maybeExisting.orElse(null));
+		statCache.evict(ref.getUrl(), ref.getOrigin());
 		messages.updateSilentRef(ref);
 	}
 
@@ -127,9 +143,111 @@ public class Ingest {
 		}
 		pushUniqueModified(ref);
 		if (generateMetadata) meta.sources(rootOrigin, ref, maybeExisting);
+		statCache.evict(ref.getUrl(), ref.getOrigin());
 		messages.updateRef(ref);
 	}
 
+	/**
+	 * Batch version of {@link #push(String, Ref, boolean, boolean)}.
+	 * Existing Refs are looked up once per origin, new Refs are written with
+	 * JDBC batch inserts in a single transaction, and source metadata is
+	 * updated once for the whole batch.
+	 * If the batch write fails every Ref is retried individually so conflicts
+	 * are reported per row.
+	 *
+	 * @return failed Refs in the order they were given
+	 */
+	@Timed(value = "jasper.ref.batch", histogram = true)
+	public List<PushFailure> push(String rootOrigin, List<Ref> refs, boolean validation, boolean stripInvalidPlugins) {
+		// Keyed by position in refs so failures are returned in order
+		var failures = new TreeMap<Integer, PushFailure>();
+		var batch = new ArrayList<Ref>(refs.size());
+		var positions = new ArrayList<Integer>(refs.size());
+		for (var i = 0; i < refs.size(); i++) {
+			var ref = refs.get(i);
+			try {
+				if (validation) validate.ref(rootOrigin, ref, stripInvalidPlugins);
+				batch.add(ref);
+				positions.add(i);
+			} catch (RuntimeException e) {
+				failures.put(i, new PushFailure(ref, e));
+			}
+		}
+		if (batch.isEmpty()) return new ArrayList<>(failures.values());
+		var existing = findExisting(batch);
+		var generated = new ArrayList<Ref>();
+		var inserts = new ArrayList<Ref>(batch.size());
+		var updates = new ArrayList<Ref>();
+		for (var ref : batch) {
+			if (ref.getModified() == null || ref.getModified().isAfter(Instant.now().minus(5, ChronoUnit.MINUTES))) {
+				rng.update(rootOrigin, ref, existing.get(id(ref)));
+				meta.ref(rootOrigin, ref);
+				generated.add(ref);
+			} else {
+				ref.setMetadata(Metadata
+					.builder()
+					.modified(null)
+					.regen(true)
+					.expandedTags(expandTags(ref.getTags()))
+					.build());
+			}
+			if (existing.containsKey(id(ref))) {
+				updates.add(ref);
+			} else {
+				inserts.add(ref);
+			}
+		}
+		List<Ref> written = batch;
+		try {
+			new TransactionTemplate(transactionManager).execute(status -> {
+				// Bulk updates run before any persist so they do not force a flush per Ref
+				var persist = new ArrayList<>(inserts);
+				for (var ref : updates) {
+					if (pushAsyncMetadata(ref) == 0) persist.add(ref);
+				}
+				for (var ref : persist) em.persist(ref);
+				em.flush();
+				return null;
+			});
+		} catch (RuntimeException e) {
+			logger.debug("{} Batch push of {} Refs failed, retrying individually", rootOrigin, batch.size(), e);
+			written = new ArrayList<>(batch.size());
+			for (var i = 0; i < batch.size(); i++) {
+				var ref = batch.get(i);
+				try {
+					pushUniqueModified(ref);
+					written.add(ref);
+				} catch (RuntimeException ex) {
+					failures.put(positions.get(i), new PushFailure(ref, ex));
+				}
+			}
+			generated.retainAll(written);
+		}
+		meta.sources(rootOrigin, generated, existing);
+		for (var ref : written) {
+			statCache.evict(ref.getUrl(), ref.getOrigin());
+			messages.updateRef(ref);
+		}
+		return new ArrayList<>(failures.values());
+	}
+
+	public record PushFailure(Ref ref, RuntimeException error) { }
+
+	private Map<RefId, Ref> findExisting(List<Ref> refs) {
+		var result = new HashMap<RefId, Ref>();
+		var byOrigin = refs.stream().collect(groupingBy(Ref::getOrigin, mapping(Ref::getUrl, toSet())));
+		for (var e : byOrigin.entrySet()) {
+			for (var ref : refRepository.findAllByOriginAndUrlIn(e.getKey(), e.getValue())) {
+				result.put(id(ref), ref);
+			}
+		}
+		return result;
+	}
+
+	private static RefId id(Ref ref) {
+		return new RefId(ref.getUrl(), ref.getOrigin());
+	}
+
 	@Transactional
 	@Timed(value = "jasper.ref", histogram = true)
 	public void delete(String rootOrigin, String url, String origin) {
@@ -137,6 +255,7 @@ public class Ingest {
 		if (maybeExisting.isEmpty()) return;
 		messages.deleteRef(maybeExisting.get());
 		refRepository.deleteByUrlAndOrigin(url, origin);
+		statCache.evict(url, origin);
 		meta.sources(rootOrigin, null, maybeExisting.get());
 	}
 
@@ -227,18 +346,7 @@ public class Ingest {
 
 	void pushUniqueModified(Ref ref) {
 		try {
-			var updated = refRepository.pushAsyncMetadata(
-				ref.getUrl(),
-				ref.getOrigin(),
-				ref.getTitle(),
-				ref.getComment(),
-				ref.getTags(),
-				ref.getSources(),
-				ref.getAlternateUrls(),
-				ref.getPlugins(),
-				ref.getMetadata(),
-				ref.getPublished(),
-				ref.getModified());
+			var updated = pushAsyncMetadata(ref);
 			if (updated == 0) {
 				refRepository.save(ref);
 			}
@@ -255,4 +363,19 @@ public class Ingest {
 		}
 	}
 
+	private int pushAsyncMetadata(Ref ref) {
+		return refRepository.pushAsyncMetadata(
+			ref.getUrl(),
+			ref.getOrigin(),
+			ref.getTitle(),
+			ref.getComment(),
+			ref.getTags(),
+			ref.getSources(),
+			ref.getAlternateUrls(),
+			ref.getPlugins(),
+			ref.getMetadata(),
+			ref.getPublished(),
+			ref.getModified());
+	}
+
 }
@@ -1,7 +1,13 @@
 package jasper.component;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.annotation.Timed;
 import jasper.component.dto.Bundle;
+import jasper.domain.Ext;
+import jasper.domain.Plugin;
+import jasper.domain.Ref;
+import jasper.domain.Template;
+import jasper.domain.User;
 import jasper.errors.ModifiedException;
 import jasper.errors.NotFoundException;
 import org.slf4j.Logger;
@@ -9,7 +15,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.List;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
 
 @Component
 public class IngestBundle {
@@ -33,86 +47,133 @@ public class IngestBundle {
 	@Autowired
 	Tagger tagger;
 
+	@Autowired
+	ObjectMapper objectMapper;
+
 	private record Log(String title, String message) {}
 
 	@Timed(value = "jasper.bundle", histogram = true)
 	public void createOrUpdate(Bundle bundle, String origin, String parentUrl) {
 		var logs = new ArrayList<Log>();
-		if (bundle.getRef() != null) for (var ref : bundle.getRef()) {
-			ref.setOrigin(origin);
-			try {
-				try {
-					ingestRef.update(origin, ref);
-				} catch (ModifiedException e) {
-					logger.warn("Duplicate ingesting Ref {}", ref.getUrl());
-				} catch (NotFoundException e) {
-					ingestRef.create(origin, ref);
+		if (bundle.getRef() != null) for (var ref : bundle.getRef()) ref(ref, origin, logs);
+		if (bundle.getExt() != null) for (var ext : bundle.getExt()) ext(ext, origin, logs);
+		if (bundle.getUser() != null) for (var user : bundle.getUser()) user(user, origin, logs);
+		if (bundle.getPlugin() != null) for (var plugin : bundle.getPlugin()) plugin(plugin, origin, logs);
+		if (bundle.getTemplate() != null) for (var template : bundle.getTemplate()) template(template, origin, logs);
+		for (var log : logs) tagger.attachError(parentUrl, origin, log.title, log.message);
+	}
+
+	/**
+	 * Ingest a JSON bundle while it is being parsed, so each entity is written
+	 * as soon as it has been read and the whole bundle is never held in memory.
+	 * The stream may contain several bundles one after another, such as one
+	 * bundle per line. Entities read before a parse error are kept.
+	 */
+	@Timed(value = "jasper.bundle", histogram = true)
+	public void createOrUpdate(InputStream json, String origin, String parentUrl) throws IOException {
+		var logs = new ArrayList<Log>();
+		try (var parser = objectMapper.createParser(json)) {
+			while (parser.nextToken() == START_OBJECT) {
+				while (parser.nextToken() == FIELD_NAME) {
+					var field = parser.currentName();
+					if (parser.nextToken() != START_ARRAY) {
+						parser.skipChildren();
+						continue;
+					}
+					while (parser.nextToken() != END_ARRAY) {
+						switch (field) {
+							case "ref" -> ref(objectMapper.readValue(parser, Ref.class), origin, logs);
+							case "ext" -> ext(objectMapper.readValue(parser, Ext.class), origin, logs);
+							case "user" -> user(objectMapper.readValue(parser, User.class), origin, logs);
+							case "plugin" -> plugin(objectMapper.readValue(parser, Plugin.class), origin, logs);
+							case "template" -> template(objectMapper.readValue(parser, Template.class), origin, logs);
+							default -> parser.skipChildren();
+						}
+					}
 				}
-			} catch (Exception e) {
-				logger.error("Error ingesting Ref {}", ref.getUrl(), e);
-				logs.add(new Log("Error ingesting Ref " + ref.getUrl(), e.getMessage()));
 			}
+		} finally {
+			for (var log : logs) tagger.attachError(parentUrl, origin, log.title, log.message);
 		}
-		if (bundle.getExt() != null) for (var ext : bundle.getExt()) {
-			ext.setOrigin(origin);
+	}
+
+	private void ref(Ref ref, String origin, List<Log> logs) {
+		ref.setOrigin(origin);
+		try {
 			try {
-				try {
-					ingestExt.update(ext);
-				} catch (ModifiedException e) {
-					logger.error("Duplicate ingesting Ext {}", ext.getTag());
-				} catch (NotFoundException e) {
-					ingestExt.create(ext);
-				}
-			} catch (Exception e) {
-				logger.error("Error ingesting Ext {}", ext.getTag(), e);
-				logs.add(new Log("Error ingesting Ext " + ext.getTag(), e.getMessage()));
+				ingestRef.update(origin, ref);
+			} catch (ModifiedException e) {
+				logger.warn("Duplicate ingesting Ref {}", ref.getUrl());
+			} catch (NotFoundException e) {
+				ingestRef.create(origin, ref);
 			}
+		} catch (Exception e) {
+			logger.error("Error ingesting Ref {}", ref.getUrl(), e);
+			logs.add(new Log("Error ingesting Ref " + ref.getUrl(), e.getMessage()));
 		}
-		if (bundle.getUser() != null) for (var user : bundle.getUser()) {
-			user.setOrigin(origin);
+	}
+
+	private void ext(Ext ext, String origin, List<Log> logs) {
+		ext.setOrigin(origin);
+		try {
 			try {
-				try {
-					ingestUser.update(user);
-				} catch (ModifiedException e) {
-					logger.error("Duplicate ingesting User {}", user.getTag());
-				} catch (NotFoundException e) {
-					ingestUser.create(user);
-				}
-			} catch (Exception e) {
-				logger.error("Error ingesting User {}", user.getTag(), e);
-				logs.add(new Log("Error ingesting User " + user.getTag(), e.getMessage()));
+				ingestExt.update(ext);
+			} catch (ModifiedException e) {
+				logger.error("Duplicate ingesting Ext {}", ext.getTag());
+			} catch (NotFoundException e) {
+				ingestExt.create(ext);
 			}
+		} catch (Exception e) {
+			logger.error("Error ingesting Ext {}", ext.getTag(), e);
+			logs.add(new Log("Error ingesting Ext " + ext.getTag(), e.getMessage()));
 		}
-		if (bundle.getPlugin() != null) for (var plugin : bundle.getPlugin()) {
-			plugin.setOrigin(origin);
+	}
+
+	private void user(User user, String origin, List<Log> logs) {
+		user.setOrigin(origin);
+		try {
 			try {
-				try {
-					ingestPlugin.update(plugin);
-				} catch (ModifiedException e) {
-					logger.error("Duplicate ingesting Plugin {}", plugin.getTag());
-				} catch (NotFoundException e) {
-					ingestPlugin.create(plugin);
-				}
-			} catch (Exception e) {
-				logger.error("Error ingesting Plugin {}", plugin.getTag(), e);
-				logs.add(new Log("Error ingesting Plugin " + plugin.getTag(), e.getMessage()));
+				ingestUser.update(user);
+			} catch (ModifiedException e) {
+				logger.error("Duplicate ingesting User {}", user.getTag());
+			} catch (NotFoundException e) {
+				ingestUser.create(user);
 			}
+		} catch (Exception e) {
+			logger.error("Error ingesting User {}", user.getTag(), e);
+			logs.add(new Log("Error ingesting User " + user.getTag(), e.getMessage()));
 		}
-		if (bundle.getTemplate() != null) for (var template : bundle.getTemplate()) {
-			template.setOrigin(origin);
+	}
+
+	private void plugin(Plugin plugin, String origin, List<Log> logs) {
+		plugin.setOrigin(origin);
+		try {
 			try {
-				try {
-					ingestTemplate.update(template);
-				} catch (ModifiedException e) {
-					logger.error("Duplicate ingesting Template {}", template.getTag());
-				} catch (NotFoundException e) {
-					ingestTemplate.create(template);
-				}
-			} catch (Exception e) {
-				logger.error("Error ingesting Template {}", template.getTag(), e);
-				logs.add(new Log("Error ingesting Template " + template.getTag(), e.getMessage()));
+				ingestPlugin.update(plugin);
+			} catch (ModifiedException e) {
+				logger.error("Duplicate ingesting Plugin {}", plugin.getTag());
+			} catch (NotFoundException e) {
+				ingestPlugin.create(plugin);
 			}
+		} catch (Exception e) {
+			logger.error("Error ingesting Plugin {}", plugin.getTag(), e);
+			logs.add(new Log("Error ingesting Plugin " + plugin.getTag(), e.getMessage()));
+		}
+	}
+
+	private void template(Template template, String origin, List<Log> logs) {
+		template.setOrigin(origin);
+		try {
+			try {
+				ingestTemplate.update(template);
+			} catch (ModifiedException e) {
+				logger.error("Duplicate ingesting Template {}", template.getTag());
+			} catch (NotFoundException e) {
+				ingestTemplate.create(template);
+			}
+		} catch (Exception e) {
+			logger.error("Error ingesting Template {}", template.getTag(), e);
+			logs.add(new Log("Error ingesting Template " + template.getTag(), e.getMessage()));
 		}
-		for (var log : logs) tagger.attachError(parentUrl, origin, log.title, log.message);
 	}
 }
@@ -1,10 +1,16 @@
 package jasper.component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jasper.component.dto.ComponentDtoMapper;
+import jasper.config.Props;
 import jasper.domain.Ext;
 import jasper.domain.Plugin;
 import jasper.domain.Ref;
+import jasper.domain.RefId;
 import jasper.domain.Template;
 import jasper.domain.User;
 import jasper.domain.proj.HasTags;
@@ -19,12 +25,16 @@ import org.springframework.context.event.EventListener;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static jasper.component.Replicator.deletorTag;
 import static jasper.domain.proj.HasOrigin.formatOrigin;
@@ -71,18 +81,118 @@ public class Messages {
 	@Autowired
 	ObjectMapper objectMapper;
 
+	@Autowired
+	TaskScheduler taskScheduler;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	Props props;
+
 	boolean ready = false;
+	private volatile boolean closed = false;
+
+	/**
+	 * A Ref update waiting for the debounce window.
+	 *
+	 * @param modified version of the Ref this update was sent for, delete notices use the deleted version
+	 */
+	private record PendingRef(Ref ref, Instant modified, boolean delete, boolean notify) {
+		/**
+		 * Updates are sent from async threads and may arrive out of order.
+		 * A delete supersedes updates to the version it deleted.
+		 */
+		boolean supersedes(PendingRef other) {
+			if (modified == null || other.modified == null) return other.modified == null;
+			if (modified.equals(other.modified)) return delete || !other.delete;
+			return modified.isAfter(other.modified);
+		}
+	}
+	private final Map<RefId, PendingRef> pending = new ConcurrentHashMap<>();
+	private Counter coalescedCounter;
+	private Counter sentCounter;
+
+	@PostConstruct
+	public void initMetrics() {
+		coalescedCounter = Counter.builder("jasper.messages.ref")
+			.description("Ref update messages merged into a pending message")
+			.tag("result", "coalesced")
+			.register(meterRegistry);
+		sentCounter = Counter.builder("jasper.messages.ref")
+			.description("Ref update messages sent")
+			.tag("result", "sent")
+			.register(meterRegistry);
+	}
 
 	@EventListener(ApplicationReadyEvent.class)
 	public void init() {
 		ready = true;
 	}
 
+	/**
+	 * Send any Ref updates still waiting for their debounce window.
+	 */
+	@PreDestroy
+	public void flushPending() {
+		closed = true;
+		for (var key : pending.keySet()) flush(key);
+	}
+
 	@Async
 	public void updateRef(Ref ref) {
-		// TODO: Debounce
+		debounce(new PendingRef(ref, ref.getModified(), false, true));
+	}
+
+	@Async
+	public void updateSilentRef(Ref ref) {
+		debounce(new PendingRef(ref, ref.getModified(), false, false));
+	}
+
+	@Async
+	public void updateMetadata(Ref ref) {
+		debounce(new PendingRef(ref, ref.getModified(), false, false));
+	}
+
+	/**
+	 * Hold Ref updates for the debounce window so multiple updates to the same
+	 * Ref are only mapped and sent once. Tag and response notifications are sent
+	 * if any of the coalesced updates requested them. The newest version of the
+	 * Ref is kept, regardless of the order the updates arrived in.
+	 */
+	private void debounce(PendingRef update) {
+		var ref = update.ref();
+		if (closed || props.getMessageDebounceMs() <= 0) {
+			sendRef(ref, update.notify());
+			return;
+		}
+		var key = new RefId(ref.getUrl(), ref.getOrigin());
+		var schedule = new AtomicBoolean(false);
+		pending.compute(key, (k, p) -> {
+			if (p == null) {
+				schedule.set(true);
+				return update;
+			}
+			coalescedCounter.increment();
+			var latest = update.supersedes(p) ? update : p;
+			return new PendingRef(latest.ref(), latest.modified(), latest.delete(), update.notify() || p.notify());
+		});
+		if (schedule.get()) {
+			// Keep slow sends off the scheduler shared with the cron jobs
+			taskScheduler.schedule(() -> taskExecutor.execute(() -> flush(key)), Instant.now().plusMillis(props.getMessageDebounceMs()));
+		}
+	}
+
+	private void flush(RefId key) {
+		var p = pending.remove(key);
+		if (p != null) sendRef(p.ref(), p.notify());
+	}
+
+	private void sendRef(Ref ref, boolean notify) {
+		sentCounter.increment();
 		var update = mapper.domainToDto(ref);
 		sendAndRetry(() -> refTxChannel.send(createMessage(update, refHeaders(ref.getOrigin(), update))));
+		if (!notify) return;
 		if (update.getTags() != null) {
 			for (var path : ref.getExpandedTags()) {
 				var headers = tagHeaders(ref.getOrigin(), path);
@@ -102,23 +212,9 @@ public class Messages {
 		sendAndRetry(() -> cursorTxChannel.send(createMessage(ref.getModified(), originHeaders(ref.getOrigin()))));
 	}
 
-	@Async
-	public void updateSilentRef(Ref ref) {
-		// TODO: Debounce
-		var update = mapper.domainToDto(ref);
-		sendAndRetry(() -> refTxChannel.send(createMessage(update, refHeaders(ref.getOrigin(), update))));
-	}
-
-	@Async
-	public void updateMetadata(Ref ref) {
-		// TODO: Debounce
-		var update = mapper.domainToDto(ref);
-		sendAndRetry(() -> refTxChannel.send(createMessage(update, refHeaders(ref.getOrigin(), update))));
-	}
-
 	@Async
 	public void deleteRef(Ref ref) {
-		updateRef(deleteNotice(ref));
+		debounce(new PendingRef(deleteNotice(ref), ref.getModified(), true, true));
 	}
 
 	@Async
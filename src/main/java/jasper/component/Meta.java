@@ -3,9 +3,10 @@ package jasper.component;
 import io.micrometer.core.annotation.Timed;
 import jasper.domain.Metadata;
 import jasper.domain.Ref;
+import jasper.domain.RefId;
 import jasper.domain.Ref_;
 import jasper.repository.RefRepository;
-import jasper.repository.RefRepositoryCustom;
+import jasper.repository.ResponseRepository;
 import jasper.repository.spec.OriginSpec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +17,9 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import static jasper.domain.proj.Tag.matchesTemplate;
 import static jasper.repository.spec.OriginSpec.isUnderOrigin;
@@ -25,7 +28,11 @@ import static jasper.repository.spec.RefSpec.hasResponse;
 import static jasper.repository.spec.RefSpec.isUrl;
 import static jasper.repository.spec.RefSpec.isUrls;
 import static java.time.Instant.now;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 import static org.springframework.data.domain.Sort.Order.desc;
 import static org.springframework.data.domain.Sort.by;
 
@@ -37,29 +44,28 @@ public class Meta {
 	RefRepository refRepository;
 
 	@Autowired
-	RefRepositoryCustom refRepositoryCustom;
+	ResponseRepository responseRepository;
 
 	@Autowired
 	Messages messages;
 
-	private record UserUrlResponse(String tag, List<String> responses) { }
-
 	@Timed(value = "jasper.meta", histogram = true)
 	public void ref(String rootOrigin, Ref ref) {
 		if (ref == null) return;
+		var userResponses = responseRepository.findAllUserPluginTagsInResponses(ref.getUrl(), rootOrigin);
+		var userTags = userResponses.stream()
+			.filter(r -> rootOrigin.equals(r[2]))
+			.map(r -> (String) r[0])
+			.collect(toSet());
 		ref.setMetadata(Metadata
 			.builder()
 			.expandedTags(expandTags(ref.getTags()))
-			.responses(refRepository.findAllResponsesWithoutTag(ref.getUrl(), rootOrigin, "internal"))
-			.internalResponses(refRepository.findAllResponsesWithTag(ref.getUrl(), rootOrigin, "internal"))
-			.userUrls(refRepositoryCustom.findAllUserPluginTagsInResponses(ref.getUrl(), rootOrigin)
-				.stream()
-				.map(tag -> new UserUrlResponse(
-					tag,
-					refRepository.findAllResponsesWithTag(ref.getUrl(), rootOrigin, tag)))
-				.filter(p -> !p.responses.isEmpty())
-				.collect(toMap(UserUrlResponse::tag, UserUrlResponse::responses)))
-			.plugins(refRepositoryCustom.countPluginTagsInResponses(ref.getUrl(), rootOrigin)
+			.responses(responseRepository.findAllResponses(ref.getUrl(), rootOrigin, false))
+			.internalResponses(responseRepository.findAllResponses(ref.getUrl(), rootOrigin, true))
+			.userUrls(userResponses.stream()
+				.filter(r -> userTags.contains((String) r[0]))
+				.collect(groupingBy(r -> (String) r[0], mapping(r -> (String) r[1], toList()))))
+			.plugins(responseRepository.countPluginTagsInResponses(ref.getUrl(), rootOrigin)
 				.stream()
 				.collect(toMap(r -> (String) r[0], r -> ((Number) r[1]).longValue())))
 			.build()
@@ -126,32 +132,7 @@ public class Meta {
 			List<Ref> sources = refRepository.findAll(isUrls(ref.getSources()).and(isUnderOrigin(rootOrigin)));
 			for (var source : sources) {
 				if (source.getUrl().equals(ref.getUrl())) continue;
-				var metadata = source.getMetadata();
-				if (metadata == null) {
-					logger.debug("Ref missing metadata: {}", ref.getUrl());
-					metadata = Metadata
-						.builder()
-						.responses(new ArrayList<>())
-						.internalResponses(new ArrayList<>())
-						.plugins(new HashMap<>())
-						.build();
-				}
-				if (ref.hasTag("internal")) {
-					metadata.addInternalResponse(ref.getUrl());
-				} else {
-					metadata.addResponse(ref.getUrl());
-				}
-				if (existing != null) {
-					metadata.removePlugins(existing.getExpandedTags().stream()
-							.filter(tag -> matchesTemplate("plugin", tag))
-							.toList(),
-						ref.getUrl());
-				}
-				metadata.addPlugins(ref.getExpandedTags().stream()
-					.filter(tag -> matchesTemplate("plugin", tag))
-					.toList(),
-					ref.getUrl());
-				source.setMetadata(metadata);
+				addResponse(source, ref, existing);
 				try {
 					refRepository.save(source);
 					messages.updateMetadata(source);
@@ -188,15 +169,96 @@ public class Meta {
 		}
 	}
 
-	private void removeSource(String rootOrigin, Ref source, Ref existing) {
+	/**
+	 * Batch version of {@link #sources(String, Ref, Ref)} for newly pushed Refs.
+	 * Each source is loaded once, updated with every response in the batch, and
+	 * saved once.
+	 */
+	@Timed(value = "jasper.meta", histogram = true)
+	public void sources(String rootOrigin, List<Ref> refs, Map<RefId, Ref> existing) {
+		if (refs.isEmpty()) return;
+		var urls = new LinkedHashSet<String>();
+		for (var ref : refs) {
+			refRepository.updateObsolete(ref.getUrl(), rootOrigin);
+			if (ref.getSources() != null) urls.addAll(ref.getSources());
+			var e = existing.get(new RefId(ref.getUrl(), ref.getOrigin()));
+			if (e != null && e.getSources() != null) urls.addAll(e.getSources());
+		}
+		if (urls.isEmpty()) return;
+		List<Ref> sources = refRepository.findAll(isUrls(new ArrayList<>(urls)).and(isUnderOrigin(rootOrigin)));
+		for (var source : sources) {
+			var changed = false;
+			for (var ref : refs) {
+				if (source.getUrl().equals(ref.getUrl())) continue;
+				var e = existing.get(new RefId(ref.getUrl(), ref.getOrigin()));
+				if (isSource(ref.getSources(), source)) {
+					addResponse(source, ref, e);
+					changed = true;
+				} else if (e != null && isSource(e.getSources(), source) && source.getMetadata() != null) {
+					removeResponse(source, e);
+					changed = true;
+				}
+			}
+			if (!changed) continue;
+			try {
+				refRepository.save(source);
+				messages.updateMetadata(source);
+			} catch (DataAccessException e) {
+				logger.error("{} Error updating source metadata for {} {}",
+					rootOrigin, source.getOrigin(), source.getUrl(), e);
+			}
+		}
+	}
+
+	private static boolean isSource(List<String> sources, Ref source) {
+		if (sources == null) return false;
+		if (sources.contains(source.getUrl())) return true;
+		return source.getAlternateUrls() != null && source.getAlternateUrls().stream().anyMatch(sources::contains);
+	}
+
+	private void addResponse(Ref source, Ref ref, Ref existing) {
+		var metadata = source.getMetadata();
+		if (metadata == null) {
+			logger.debug("Ref missing metadata: {}", ref.getUrl());
+			metadata = Metadata
+				.builder()
+				.responses(new ArrayList<>())
+				.internalResponses(new ArrayList<>())
+				.plugins(new HashMap<>())
+				.build();
+		}
+		if (ref.hasTag("internal")) {
+			metadata.addInternalResponse(ref.getUrl());
+		} else {
+			metadata.addResponse(ref.getUrl());
+		}
+		if (existing != null) {
+			metadata.removePlugins(existing.getExpandedTags().stream()
+					.filter(tag -> matchesTemplate("plugin", tag))
+					.toList(),
+				ref.getUrl());
+		}
+		metadata.addPlugins(ref.getExpandedTags().stream()
+			.filter(tag -> matchesTemplate("plugin", tag))
+			.toList(),
+			ref.getUrl());
+		source.setMetadata(metadata);
+	}
+
+	private void removeResponse(Ref source, Ref existing) {
 		var metadata = source.getMetadata();
-		if (metadata == null) return;
 		metadata.remove(existing.getUrl());
 		metadata.removePlugins(existing.getExpandedTags().stream()
 				.filter(tag -> matchesTemplate("plugin", tag))
 				.toList(),
 			existing.getUrl());
 		source.setMetadata(metadata);
+	}
+
+	private void removeSource(String rootOrigin, Ref source, Ref existing) {
+		var metadata = source.getMetadata();
+		if (metadata == null) return;
+		removeResponse(source, existing);
 		try {
 			refRepository.save(source);
 		} catch (DataAccessException e) {
@@ -5,19 +5,31 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jasper.domain.Ref;
 import jasper.plugin.Oembed;
+import jasper.repository.RefRepository;
+import jasper.repository.filter.RefFilter;
+import jasper.service.dto.RefDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.messaging.Message;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
+import static jasper.domain.proj.HasTags.hasMatchingTag;
+
 @Component
 public class OembedProviders {
 	private static final Logger logger = LoggerFactory.getLogger(OembedProviders.class);
@@ -26,7 +38,7 @@ public class OembedProviders {
 	Ingest ingest;
 
 	@Autowired
-	ConfigCache configs;
+	RefRepository refRepository;
 
 	@Value("classpath:providers.json")
 	Resource defaultProviders;
@@ -34,6 +46,8 @@ public class OembedProviders {
 	@Autowired
 	ObjectMapper objectMapper;
 
+	private final Map<String, ProviderIndex> providers = new ConcurrentHashMap<>();
+
 	@Async
 	public void defaults(String origin) throws IOException {
 		create(origin, objectMapper.readValue(defaultProviders.getFile(), new TypeReference<List<Oembed>>() {}));
@@ -56,20 +70,94 @@ public class OembedProviders {
 	}
 
 	public Oembed.Endpoints getProvider(String origin, String url) {
-		var providers = configs.getAllConfigs(origin, "+plugin/oembed", Oembed.class);
-		for (var p : providers) {
-			if (p == null) continue;
+		return providers.computeIfAbsent(origin, this::load).match(url);
+	}
+
+	@ServiceActivator(inputChannel = "refRxChannel")
+	public void handleRefUpdate(Message<RefDto> message) {
+		var ref = message.getPayload();
+		var index = providers.get(ref.getOrigin());
+		if (index == null) return;
+		if (hasMatchingTag(ref, "+plugin/oembed") || index.urls().contains(ref.getUrl())) {
+			logger.debug("{} oEmbed provider updated: {}", ref.getOrigin(), ref.getUrl());
+			providers.remove(ref.getOrigin());
+		}
+	}
+
+	private ProviderIndex load(String origin) {
+		var refs = refRepository.findAll(RefFilter.builder()
+			.origin(origin)
+			.query("+plugin/oembed").build().spec());
+		var index = new ProviderIndex(new HashSet<>(), new HashMap<>(), new ArrayList<>(), new ArrayList<>());
+		var order = 0;
+		for (var ref : refs) {
+			index.urls().add(ref.getUrl());
+			var p = ref.getPlugin("+plugin/oembed", Oembed.class);
+			if (p == null || p.getEndpoints() == null) continue;
 			for (var e : p.getEndpoints()) {
 				if (e.getSchemes() == null || e.getSchemes().isEmpty()) {
-					if (url.startsWith(p.getProvider_url())) return e;
+					if (p.getProvider_url() != null) index.prefixes().add(new Scheme(order++, p.getProvider_url(), null, e));
 					continue;
 				}
 				for (var s : e.getSchemes()) {
-					var regex = Pattern.quote(s).replace("*", "\\E.*\\Q");
-					if (url.matches(regex)) return e;
+					var scheme = new Scheme(order++, s, Pattern.compile(Pattern.quote(s).replace("*", "\\E.*\\Q")), e);
+					var host = host(s);
+					if (host == null || host.contains("*")) {
+						index.wildcards().add(scheme);
+					} else {
+						index.hosts().computeIfAbsent(host, h -> new ArrayList<>()).add(scheme);
+					}
 				}
 			}
 		}
-		return null;
+		logger.debug("{} Compiled {} oEmbed provider schemes", origin, order);
+		return index;
+	}
+
+	/**
+	 * Host part of a URL or URL scheme, or null if it has none.
+	 */
+	static String host(String url) {
+		var start = url.indexOf("://");
+		if (start == -1) return null;
+		start += 3;
+		var end = start;
+		while (end < url.length() && "/?#".indexOf(url.charAt(end)) == -1) end++;
+		return url.substring(start, end);
 	}
+
+	/**
+	 * Compiled oEmbed schemes for an origin. Schemes with a literal host are
+	 * indexed by host, so a lookup only tests the schemes for that host and
+	 * the few with a wildcard host. When several providers match, the first
+	 * one loaded wins.
+	 *
+	 * @param urls URLs of the provider Refs this index was built from
+	 */
+	record ProviderIndex(Set<String> urls, Map<String, List<Scheme>> hosts, List<Scheme> wildcards, List<Scheme> prefixes) {
+		Oembed.Endpoints match(String url) {
+			Scheme best = null;
+			var host = host(url);
+			if (host != null) best = first(hosts.getOrDefault(host, List.of()), url, null);
+			best = first(wildcards, url, best);
+			for (var s : prefixes) {
+				if (best != null && best.order() < s.order()) break;
+				if (url.startsWith(s.scheme())) {
+					best = s;
+					break;
+				}
+			}
+			return best == null ? null : best.endpoint();
+		}
+
+		private static Scheme first(List<Scheme> schemes, String url, Scheme best) {
+			for (var s : schemes) {
+				if (best != null && best.order() < s.order()) break;
+				if (s.pattern().matcher(url).matches()) return s;
+			}
+			return best;
+		}
+	}
+
+	record Scheme(int order, String scheme, Pattern pattern, Oembed.Endpoints endpoint) {}
 }
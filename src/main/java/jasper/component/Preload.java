@@ -4,7 +4,6 @@ import io.micrometer.core.annotation.Counted;
 import jakarta.annotation.PostConstruct;
 import jasper.config.Props;
 import jasper.domain.*;
-import jasper.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,21 +23,6 @@ public class Preload {
 	@Autowired
 	Props props;
 
-	@Autowired
-	RefRepository refRepository;
-
-	@Autowired
-	ExtRepository extRepository;
-
-	@Autowired
-	UserRepository userRepository;
-
-	@Autowired
-	PluginRepository pluginRepository;
-
-	@Autowired
-	TemplateRepository templateRepository;
-
 	@Autowired
 	Optional<Storage> storage;
 
@@ -70,11 +54,7 @@ public class Preload {
 		var start = Instant.now();
 		logger.info("{} Preloading static files {}", origin, id);
 		try (var zipped = storage.get().streamZip(origin, PRELOAD, id)) {
-			backup.restoreRepo(refRepository, origin, zipped.list("ref.*\\.json"), Ref.class);
-			backup.restoreRepo(extRepository, origin, zipped.list("ext.*\\.json"), Ext.class);
-			backup.restoreRepo(userRepository, origin, zipped.list("user.*\\.json"), User.class);
-			backup.restoreRepo(pluginRepository, origin, zipped.list("plugin.*\\.json"), Plugin.class);
-			backup.restoreRepo(templateRepository, origin, zipped.list("template.*\\.json"), Template.class);
+			backup.restore(origin, zipped, null);
 		} catch (Throwable e) {
 			logger.error("{} Error preloading {}", origin, id, e);
 		}
@@ -93,15 +73,15 @@ public class Preload {
 			var filename = id.toLowerCase();
 			var inputStream = storage.get().stream(origin, PRELOAD, id);
 			if (filename.matches("ref.*\\.json")) {
-				backup.restoreRepo(refRepository, origin, inputStream, Ref.class);
+				backup.restoreRepo(origin, inputStream, Ref.class);
 			} else if (filename.matches("ext.*\\.json")) {
-				backup.restoreRepo(extRepository, origin, inputStream, Ext.class);
+				backup.restoreRepo(origin, inputStream, Ext.class);
 			} else if (filename.matches("user.*\\.json")) {
-				backup.restoreRepo(userRepository, origin, inputStream, User.class);
+				backup.restoreRepo(origin, inputStream, User.class);
 			} else if (filename.matches("plugin.*\\.json")) {
-				backup.restoreRepo(pluginRepository, origin, inputStream, Plugin.class);
+				backup.restoreRepo(origin, inputStream, Plugin.class);
 			} else if (filename.matches("template.*\\.json")) {
-				backup.restoreRepo(templateRepository, origin, inputStream, Template.class);
+				backup.restoreRepo(origin, inputStream, Template.class);
 			}
 		} catch (Throwable e) {
 			logger.error("{} Error preloading JSON file {}", origin, id, e);
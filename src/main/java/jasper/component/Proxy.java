@@ -36,9 +36,12 @@ public class Proxy {
 	@Autowired
 	Images images;
 
+	@Autowired
+	StatCache statCache;
+
 	@Timed(value = "jasper.proxy")
 	public Ref stat(String url, String origin) {
-		return refRepository.findOneByUrlAndOrigin(url, origin).orElse(null);
+		return statCache.stat(url, origin);
 	}
 
 	@Timed(value = "jasper.proxy")
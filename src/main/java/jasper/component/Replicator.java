@@ -2,12 +2,20 @@ package jasper.component;
 
 import feign.FeignException;
 import feign.RetryableException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jasper.client.JasperClient;
+import jasper.client.JasperStreamClient;
+import jasper.client.JasperStreamClient.Batch;
 import jasper.client.dto.JasperMapper;
+import jasper.domain.Ext;
+import jasper.domain.Plugin;
 import jasper.domain.Ref;
-import jasper.domain.Ref_;
+import jasper.domain.Template;
+import jasper.domain.User;
 import jasper.domain.proj.HasTags;
 import jasper.errors.AlreadyExistsException;
 import jasper.errors.DuplicateModifiedDateException;
@@ -16,6 +24,7 @@ import jasper.errors.InvalidPushException;
 import jasper.errors.InvalidTemplateException;
 import jasper.errors.OperationForbiddenOnOriginException;
 import jasper.errors.PullLocalException;
+import jasper.plugin.Pull;
 import jasper.repository.ExtRepository;
 import jasper.repository.PluginRepository;
 import jasper.repository.RefRepository;
@@ -27,7 +36,7 @@ import org.apache.http.conn.HttpHostConnectException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 import javax.net.ssl.SSLHandshakeException;
@@ -37,6 +46,9 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 
 import static jasper.client.JasperClient.params;
 import static jasper.domain.proj.HasOrigin.origin;
@@ -51,8 +63,9 @@ import static jasper.util.Logging.getMessage;
 import static java.io.InputStream.nullInputStream;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static org.apache.commons.lang3.StringUtils.isBlank;
-import static org.springframework.data.domain.Sort.by;
 
 @Component
 public class Replicator {
@@ -76,6 +89,9 @@ public class Replicator {
 	@Autowired
 	JasperClient client;
 
+	@Autowired
+	JasperStreamClient stream;
+
 	@Autowired
 	Ingest ingestRef;
 
@@ -106,9 +122,19 @@ public class Replicator {
 	@Autowired
 	Optional<FileCache> fileCache;
 
+	@Autowired
+	ExecutorService taskExecutor;
+
+	@Autowired
+	BulkheadRegistry bulkheadRegistry;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	boolean fileCacheMissingError = false;
 
 	private record Log(String title, String message) {}
+	private record EntityPull(String entity, Callable<List<Log>> fn) {}
 
 	@Timed(value = "jasper.repl", histogram = true)
 	public Fetch.FileRequest fetch(String url, HasTags remote) {
@@ -184,193 +210,240 @@ public class Replicator {
 		var localOrigin = subOrigin(remote.getOrigin(), config.getLocal());
 		var remoteOrigin = origin(config.getRemote());
 		var defaultBatchSize = pull.getBatchSize() == 0 ? root.getMaxReplEntityBatch() : min(pull.getBatchSize(), root.getMaxPullEntityBatch());
-		var logs = new ArrayList<Log>();
+		var logs = synchronizedList(new ArrayList<Log>());
+		Batch<Plugin> plugins = pluginList -> {
+			for (var plugin : pluginList) {
+				plugin.setOrigin(localOrigin);
+				logger.trace("{} Ingesting pulled plugin {}: {}",
+					remote.getOrigin(), plugin.getName(), plugin.getQualifiedTag());
+				try {
+					ingestPlugin.push(plugin);
+				} catch (AlreadyExistsException e) {
+					// Indicates a double pull
+					logger.warn("{} Pulling plugin skipped (double pull detected) {}: {}",
+						remote.getOrigin(), remote.getTitle(), remote.getUrl());
+					return false;
+				} catch (DuplicateModifiedDateException e) {
+					// Should not be possible
+					logger.error("{} Skipping plugin with duplicate modified date {}: {}",
+						remote.getOrigin(), plugin.getName(), plugin.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of plugin with duplicate modified date %s: %s".formatted(
+							plugin.getName(), plugin.getTag()), ""+plugin.getModified()));
+				} catch (InvalidPushException e) {
+					// Indicates a double pull
+					logger.error("{} Skipping plugin with invalid data {}: {}",
+						remote.getOrigin(), plugin.getName(), plugin.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of plugin with invalid data %s: %s".formatted(
+							plugin.getName(), plugin.getTag()), ""+plugin.getModified()));
+				}
+			}
+			return true;
+		};
+		Batch<Template> templates = templateList -> {
+			for (var template : templateList) {
+				template.setOrigin(localOrigin);
+				logger.trace("{} Ingesting pulled template {}: {}",
+					remote.getOrigin(), template.getName(), template.getQualifiedTag());
+				try {
+					ingestTemplate.push(template);
+				} catch (AlreadyExistsException e) {
+					// Indicates a double pull
+					logger.warn("{} Pulling template skipped (double pull detected) {}: {}",
+						remote.getOrigin(), remote.getTitle(), remote.getUrl());
+					return false;
+				} catch (DuplicateModifiedDateException e) {
+					// Should not be possible
+					logger.error("{} Skipping template with duplicate modified date {}: {}",
+						remote.getOrigin(), template.getName(), template.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of template with duplicate modified date %s: %s".formatted(
+							template.getName(), template.getTag()), ""+template.getModified()));
+				} catch (InvalidPushException e) {
+					// Should not be possible
+					logger.error("{} Skipping template with invalid data {}: {}",
+						remote.getOrigin(), template.getName(), template.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of template with invalid data %s: %s".formatted(
+							template.getName(), template.getTag()), ""+template.getModified()));
+				}
+			}
+			return true;
+		};
+		Batch<Ref> refs = refList -> {
+			for (var ref : refList) {
+				ref.setOrigin(localOrigin);
+				pull.migrate(ref, config);
+				if (pull.isCachePrefetch() && ref.getUrl().startsWith("cache:") && (fileCache.isEmpty() || !fileCache.get().cacheExists(ref.getUrl(), localOrigin)) ||
+					pull.isCacheProxyPrefetch() && ref.hasPlugin("_plugin/cache") && (fileCache.isEmpty() || !fileCache.get().cacheExists("cache:" + getCache(ref).getId(), localOrigin))) {
+					ref.addTag("_plugin/delta/cache");
+				}
+				logger.trace("{} Ingesting pulled ref {}: {}",
+					remote.getOrigin(), ref.getTitle(), ref.getUrl());
+			}
+			for (var failure : ingestRef.push(rootOrigin, refList, pull.isValidatePlugins(), pull.isStripInvalidPlugins())) {
+				var ref = failure.ref();
+				var e = failure.error();
+				if (e instanceof AlreadyExistsException) {
+					// Indicates a double pull
+					logger.warn("{} Pulling batch skipped (double pull detected) {}: {}",
+						remote.getOrigin(), remote.getTitle(), remote.getUrl());
+					return false;
+				} else if (e instanceof DuplicateModifiedDateException) {
+					// Should not be possible
+					logger.error("{} Pulling Ref skipped with duplicate modified date {} {}: {}",
+						remote.getOrigin(), ref.getModified(), remote.getTitle(), remote.getUrl());
+					logs.add(new Log(
+						"Pulling Ref skipped with duplicate modified date (%s): %s".formatted(
+							remote.getTitle(), remote.getUrl()), ""+ref.getModified()));
+				} else if (e instanceof InvalidPushException) {
+					// Should not be possible
+					logger.error("{} Pulling Ref skipped with invalid data {} {}: {}",
+						remote.getOrigin(), ref.getModified(), remote.getTitle(), remote.getUrl());
+					logs.add(new Log(
+						"Pulling Ref skipped with invalid data (%s): %s".formatted(
+							remote.getTitle(), remote.getUrl()), ""+ref.getModified()));
+				} else if (e instanceof InvalidPluginException) {
+					logger.warn("{} Failed Plugin Validation! Skipping replication of Ref ({}) {}: {}",
+						remote.getOrigin(), localOrigin, remote.getTitle(), remote.getUrl());
+					logs.add(new Log(
+						"Failed Plugin Validation! Skipping replication of Ref (%s) %s: %s".formatted(
+							localOrigin, remote.getTitle(), remote.getUrl()), getMessage(e)));
+				} else {
+					throw e;
+				}
+			}
+			return true;
+		};
+		Batch<Ext> exts = extList -> {
+			for (var ext : extList) {
+				ext.setOrigin(localOrigin);
+				logger.trace("{} Ingesting pulled ext {}: {}",
+					remote.getOrigin(), ext.getName(), ext.getQualifiedTag());
+				try {
+					ingestExt.push(rootOrigin, ext, pull.isValidateTemplates(), pull.isStripInvalidTemplates());
+				} catch (AlreadyExistsException e) {
+					// Indicates a double pull
+					logger.warn("{} Pulling Ext skipped (double pull detected) {}: {}",
+						remote.getOrigin(), remote.getTitle(), remote.getUrl());
+					return false;
+				} catch (DuplicateModifiedDateException e) {
+					// Should not be possible
+					logger.error("{} Skipping Ext with duplicate modified date {}: {}",
+						remote.getOrigin(), ext.getName(), ext.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of template with duplicate modified date %s: %s".formatted(
+							ext.getName(), ext.getTag()), ""+ext.getModified()));
+				} catch (InvalidTemplateException e) {
+					logger.warn("{} Failed Template Validation! Skipping replication of ext {}: {}",
+						remote.getOrigin(), ext.getName(), ext.getQualifiedTag());
+					tagger.attachLogs(remote.getOrigin(), remote,
+						"Failed Template Validation! Skipping replication of ext %s: %s".formatted(
+							ext.getName(), ext.getQualifiedTag()), getMessage(e));
+				}
+			}
+			return true;
+		};
+		Batch<User> users = userList -> {
+			for (var user : userList) {
+				user.setOrigin(localOrigin);
+				user.setKey(null);
+				pull.migrate(user, config);
+				logger.trace("{} Ingesting pulled user {}: {}",
+					remote.getOrigin(), user.getName(), user.getQualifiedTag());
+				try {
+					ingestUser.push(user);
+				} catch (AlreadyExistsException e) {
+					// Indicates a double pull
+					logger.warn("{} Pulling User skipped (double pull detected) {}: {}",
+						remote.getOrigin(), remote.getTitle(), remote.getUrl());
+					return false;
+				} catch (DuplicateModifiedDateException e) {
+					// Should not be possible
+					logger.error("{} Skipping User with duplicate modified date {}: {}",
+						remote.getOrigin(), user.getName(), user.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of user with duplicate modified date %s: %s".formatted(
+							user.getName(), user.getTag()), ""+user.getModified()));
+				} catch (InvalidPushException e) {
+					// Should not be possible
+					logger.error("{} Skipping user with invalid data {}: {}",
+						remote.getOrigin(), user.getName(), user.getQualifiedTag());
+					logs.add(new Log(
+						"Skipping replication of user with invalid data %s: %s".formatted(
+							user.getName(), user.getTag()), ""+user.getModified()));
+				}
+			}
+			return true;
+		};
 		tunnel.proxy(remote, baseUri -> {
 			try {
-				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, pluginRepository.getCursor(localOrigin), (skip, size, after) -> {
-					var pluginList = client.pluginPull(baseUri, params(
-						"size", size,
-						"origin", remoteOrigin,
-						"modifiedAfter", after));
-					for (var plugin : pluginList) {
-						plugin.setOrigin(localOrigin);
-						logger.trace("{} Ingesting pulled plugin {}: {}",
-							remote.getOrigin(), plugin.getName(), plugin.getQualifiedTag());
-						try {
-							ingestPlugin.push(plugin);
-						} catch (AlreadyExistsException e) {
-							// Indicates a double pull
-							logger.warn("{} Pulling plugin skipped (double pull detected) {}: {}",
-								remote.getOrigin(), remote.getTitle(), remote.getUrl());
-							return null;
-						} catch (DuplicateModifiedDateException e) {
-							// Should not be possible
-							logger.error("{} Skipping plugin with duplicate modified date {}: {}",
-								remote.getOrigin(), plugin.getName(), plugin.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of plugin with duplicate modified date %s: %s".formatted(
-									plugin.getName(), plugin.getTag()), ""+plugin.getModified()));
-						} catch (InvalidPushException e) {
-							// Indicates a double pull
-							logger.error("{} Skipping plugin with invalid data {}: {}",
-								remote.getOrigin(), plugin.getName(), plugin.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of plugin with invalid data %s: %s".formatted(
-									plugin.getName(), plugin.getTag()), ""+plugin.getModified()));
-						}
-					}
-					return pluginList.size() == size ? pluginList.getLast().getModified() : null;
-				}));
-				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, templateRepository.getCursor(localOrigin), (skip, size, after) -> {
-					var templateList = client.templatePull(baseUri, params(
-						"size", size,
-						"origin", remoteOrigin,
-						"modifiedAfter", after));
-					for (var template : templateList) {
-						template.setOrigin(localOrigin);
-						logger.trace("{} Ingesting pulled template {}: {}",
-							remote.getOrigin(), template.getName(), template.getQualifiedTag());
-						try {
-							ingestTemplate.push(template);
-						} catch (AlreadyExistsException e) {
-							// Indicates a double pull
-							logger.warn("{} Pulling template skipped (double pull detected) {}: {}",
-								remote.getOrigin(), remote.getTitle(), remote.getUrl());
-							return null;
-						} catch (DuplicateModifiedDateException e) {
-							// Should not be possible
-							logger.error("{} Skipping template with duplicate modified date {}: {}",
-								remote.getOrigin(), template.getName(), template.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of template with duplicate modified date %s: %s".formatted(
-									template.getName(), template.getTag()), ""+template.getModified()));
-						} catch (InvalidPushException e) {
-							// Should not be possible
-							logger.error("{} Skipping template with invalid data {}: {}",
-								remote.getOrigin(), template.getName(), template.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of template with invalid data %s: %s".formatted(
-									template.getName(), template.getTag()), ""+template.getModified()));
-						}
-					}
-					return templateList.size() == size ? templateList.getLast().getModified() : null;
-				}));
-				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, refRepository.getCursor(localOrigin), (skip, size, after) -> {
-					logger.trace("{} Pulling batch {}", localOrigin, size);
-					var refList = client.refPull(baseUri, params(
-						"query", pull.getQuery(),
-						"size", size,
-						"origin", remoteOrigin,
-						"modifiedAfter", after));
-					for (var ref : refList) {
-						ref.setOrigin(localOrigin);
-						pull.migrate(ref, config);
-						if (pull.isCachePrefetch() && ref.getUrl().startsWith("cache:") && (fileCache.isEmpty() || !fileCache.get().cacheExists(ref.getUrl(), localOrigin)) ||
-							pull.isCacheProxyPrefetch() && ref.hasPlugin("_plugin/cache") && (fileCache.isEmpty() || !fileCache.get().cacheExists("cache:" + getCache(ref).getId(), localOrigin))) {
-							ref.addTag("_plugin/delta/cache");
-						}
-						logger.trace("{} Ingesting pulled ref {}: {}",
-							remote.getOrigin(), ref.getTitle(), ref.getUrl());
-						try {
-							ingestRef.push(rootOrigin, ref, pull.isValidatePlugins(), pull.isStripInvalidPlugins());
-						} catch (AlreadyExistsException e) {
-							// Indicates a double pull
-							logger.warn("{} Pulling batch skipped (double pull detected) {}: {}",
-								remote.getOrigin(), remote.getTitle(), remote.getUrl());
-							return null;
-						} catch (DuplicateModifiedDateException e) {
-							// Should not be possible
-							logger.error("{} Pulling Ref skipped with duplicate modified date {} {}: {}",
-								remote.getOrigin(), ref.getModified(), remote.getTitle(), remote.getUrl());
-							logs.add(new Log(
-								"Pulling Ref skipped with duplicate modified date (%s): %s".formatted(
-									remote.getTitle(), remote.getUrl()), ""+ref.getModified()));
-						} catch (InvalidPushException e) {
-							// Should not be possible
-							logger.error("{} Pulling Ref skipped with invalid data {} {}: {}",
-								remote.getOrigin(), ref.getModified(), remote.getTitle(), remote.getUrl());
-							logs.add(new Log(
-								"Pulling Ref skipped with invalid data (%s): %s".formatted(
-									remote.getTitle(), remote.getUrl()), ""+ref.getModified()));
-						} catch (InvalidPluginException e) {
-							logger.warn("{} Failed Plugin Validation! Skipping replication of Ref ({}) {}: {}",
-								remote.getOrigin(), localOrigin, remote.getTitle(), remote.getUrl());
-							logs.add(new Log(
-								"Failed Plugin Validation! Skipping replication of Ref (%s) %s: %s".formatted(
-									localOrigin, remote.getTitle(), remote.getUrl()), getMessage(e)));
-						}
-					}
-					return refList.size() == size ? refList.getLast().getModified() : null;
-				}));
-				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, extRepository.getCursor(localOrigin), (skip, size, after) -> {
-					var extList = client.extPull(baseUri, params(
-						"size", size,
-						"origin", remoteOrigin,
-						"modifiedAfter", after));
-					for (var ext : extList) {
-						ext.setOrigin(localOrigin);
-						logger.trace("{} Ingesting pulled ext {}: {}",
-							remote.getOrigin(), ext.getName(), ext.getQualifiedTag());
-						try {
-							ingestExt.push(rootOrigin, ext, pull.isValidateTemplates(), pull.isStripInvalidTemplates());
-						} catch (AlreadyExistsException e) {
-							// Indicates a double pull
-							logger.warn("{} Pulling Ext skipped (double pull detected) {}: {}",
-								remote.getOrigin(), remote.getTitle(), remote.getUrl());
-							return null;
-						} catch (DuplicateModifiedDateException e) {
-							// Should not be possible
-							logger.error("{} Skipping Ext with duplicate modified date {}: {}",
-								remote.getOrigin(), ext.getName(), ext.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of template with duplicate modified date %s: %s".formatted(
-									ext.getName(), ext.getTag()), ""+ext.getModified()));
-						} catch (InvalidTemplateException e) {
-							logger.warn("{} Failed Template Validation! Skipping replication of ext {}: {}",
-								remote.getOrigin(), ext.getName(), ext.getQualifiedTag());
-							tagger.attachLogs(remote.getOrigin(), remote,
-								"Failed Template Validation! Skipping replication of ext %s: %s".formatted(
-									ext.getName(), ext.getQualifiedTag()), getMessage(e));
-						}
-					}
-					return extList.size() == size ? extList.getLast().getModified() : null;
-				}));
-				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, userRepository.getCursor(localOrigin), (skip, size, after) -> {
-					var userList = client.userPull(baseUri, params(
-						"size", size,
-						"origin", remoteOrigin,
-						"modifiedAfter", after));
-					for (var user : userList) {
-						user.setOrigin(localOrigin);
-						user.setKey(null);
-						pull.migrate(user, config);
-						logger.trace("{} Ingesting pulled user {}: {}",
-							remote.getOrigin(), user.getName(), user.getQualifiedTag());
-						try {
-							ingestUser.push(user);
-						} catch (AlreadyExistsException e) {
-							// Indicates a double pull
-							logger.warn("{} Pulling User skipped (double pull detected) {}: {}",
-								remote.getOrigin(), remote.getTitle(), remote.getUrl());
-							return null;
-						} catch (DuplicateModifiedDateException e) {
-							// Should not be possible
-							logger.error("{} Skipping User with duplicate modified date {}: {}",
-								remote.getOrigin(), user.getName(), user.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of user with duplicate modified date %s: %s".formatted(
-									user.getName(), user.getTag()), ""+user.getModified()));
-						} catch (InvalidPushException e) {
-							// Should not be possible
-							logger.error("{} Skipping user with invalid data {}: {}",
-								remote.getOrigin(), user.getName(), user.getQualifiedTag());
-							logs.add(new Log(
-								"Skipping replication of user with invalid data %s: %s".formatted(
-									user.getName(), user.getTag()), ""+user.getModified()));
-						}
-					}
-					return userList.size() == size ? userList.getLast().getModified() : null;
-				}));
+				logs.addAll(pullPhase(remote, pull, List.of(
+					new EntityPull("plugin", () -> pullAll(remote, pull, defaultBatchSize, pluginRepository.getCursor(localOrigin),
+						after -> stream.pluginStream(baseUri, params(
+							"origin", remoteOrigin,
+							"modifiedAfter", after), defaultBatchSize, plugins),
+						(skip, size, after) -> {
+							var pluginList = client.pluginPull(baseUri, params(
+								"size", size,
+								"origin", remoteOrigin,
+								"modifiedAfter", after));
+							if (!plugins.ingest(pluginList)) return null;
+							return pluginList.size() == size ? pluginList.getLast().getModified() : null;
+						})),
+					new EntityPull("template", () -> pullAll(remote, pull, defaultBatchSize, templateRepository.getCursor(localOrigin),
+						after -> stream.templateStream(baseUri, params(
+							"origin", remoteOrigin,
+							"modifiedAfter", after), defaultBatchSize, templates),
+						(skip, size, after) -> {
+							var templateList = client.templatePull(baseUri, params(
+								"size", size,
+								"origin", remoteOrigin,
+								"modifiedAfter", after));
+							if (!templates.ingest(templateList)) return null;
+							return templateList.size() == size ? templateList.getLast().getModified() : null;
+						})))));
+				logs.addAll(pullPhase(remote, pull, List.of(
+					new EntityPull("ref", () -> pullAll(remote, pull, defaultBatchSize, refRepository.getCursor(localOrigin),
+						after -> stream.refStream(baseUri, params(
+							"query", pull.getQuery(),
+							"origin", remoteOrigin,
+							"modifiedAfter", after), defaultBatchSize, refs),
+						(skip, size, after) -> {
+							logger.trace("{} Pulling batch {}", localOrigin, size);
+							var refList = client.refPull(baseUri, params(
+								"query", pull.getQuery(),
+								"size", size,
+								"origin", remoteOrigin,
+								"modifiedAfter", after));
+							if (!refs.ingest(refList)) return null;
+							return refList.size() == size ? refList.getLast().getModified() : null;
+						})),
+					new EntityPull("ext", () -> pullAll(remote, pull, defaultBatchSize, extRepository.getCursor(localOrigin),
+						after -> stream.extStream(baseUri, params(
+							"origin", remoteOrigin,
+							"modifiedAfter", after), defaultBatchSize, exts),
+						(skip, size, after) -> {
+							var extList = client.extPull(baseUri, params(
+								"size", size,
+								"origin", remoteOrigin,
+								"modifiedAfter", after));
+							if (!exts.ingest(extList)) return null;
+							return extList.size() == size ? extList.getLast().getModified() : null;
+						})),
+					new EntityPull("user", () -> pullAll(remote, pull, defaultBatchSize, userRepository.getCursor(localOrigin),
+						after -> stream.userStream(baseUri, params(
+							"origin", remoteOrigin,
+							"modifiedAfter", after), defaultBatchSize, users),
+						(skip, size, after) -> {
+							var userList = client.userPull(baseUri, params(
+								"size", size,
+								"origin", remoteOrigin,
+								"modifiedAfter", after));
+							if (!users.ingest(userList)) return null;
+							return userList.size() == size ? userList.getLast().getModified() : null;
+						})))));
 			} catch (FeignException e) {
 				// Temporary connection issue, ignore
 				logger.warn("{} Error pulling {} from origin ({}) {}: {} {}",
@@ -402,14 +475,13 @@ public class Replicator {
 			try {
 				var defaultBatchSize = push.getBatchSize() == 0 ? root.getMaxReplEntityBatch() : min(push.getBatchSize(), root.getMaxPushEntityBatch());
 				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, client.pluginCursor(baseUri, remoteOrigin), (skip, size, after) -> {
-					var pluginList = pluginRepository.findAll(
+					var pluginList = skipFirst(pluginRepository.findSlice(
 							TagFilter.builder()
 								.origin(localOrigin)
 								.query(push.getQuery())
 								.modifiedAfter(after)
 								.build().spec(),
-							PageRequest.of(skip, size, by(Ref_.MODIFIED)))
-						.getContent();
+							skip + size), skip);
 					logger.debug("{} Pushing {} plugins to {}", remote.getOrigin(), pluginList.size(), remoteOrigin);
 					if (!pluginList.isEmpty()) {
 						client.pluginPush(baseUri, remoteOrigin, pluginList);
@@ -417,14 +489,13 @@ public class Replicator {
 					return pluginList.size() == size ? pluginList.getLast().getModified() : null;
 				}));
 				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, client.templateCursor(baseUri, remoteOrigin), (skip, size, after) -> {
-					var templateList = templateRepository.findAll(
+					var templateList = skipFirst(templateRepository.findSlice(
 							TagFilter.builder()
 								.origin(localOrigin)
 								.query(push.getQuery())
 								.modifiedAfter(after)
 								.build().spec(),
-							PageRequest.of(skip, size, by(Ref_.MODIFIED)))
-						.getContent();
+							skip + size), skip);
 					logger.debug("{} Pushing {} templates to {}", remote.getOrigin(), templateList.size(), remoteOrigin);
 					if (!templateList.isEmpty()) {
 						client.templatePush(baseUri, remoteOrigin, templateList);
@@ -432,15 +503,14 @@ public class Replicator {
 					return templateList.size() == size ? templateList.getLast().getModified() : null;
 				}));
 				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, client.refCursor(baseUri, remoteOrigin), (skip, size, after) -> {
-					var refList = refRepository.findAll(
+					var refList = skipFirst(refRepository.findSlice(
 							RefFilter.builder()
 								.origin(localOrigin)
 								.query(push.getQuery())
 								.modifiedAfter(after)
 								.build().spec(),
-							PageRequest.of(skip, size, by(Ref_.MODIFIED)))
-						.map(mapper::domainToDto)
-						.getContent();
+							skip + size)
+						.map(mapper::domainToDto), skip);
 					logger.debug("{} Pushing {} refs to {}", remote.getOrigin(), refList.size(), remoteOrigin);
 					if (!refList.isEmpty()) {
 						client.refPush(baseUri, remoteOrigin, refList);
@@ -480,14 +550,13 @@ public class Replicator {
 					return refList.size() == size ? refList.getLast().getModified() : null;
 				}));
 				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, client.extCursor(baseUri, remoteOrigin), (skip, size, after) -> {
-					var extList = extRepository.findAll(
+					var extList = skipFirst(extRepository.findSlice(
 							TagFilter.builder()
 								.origin(localOrigin)
 								.query(push.getQuery())
 								.modifiedAfter(after)
 								.build().spec(),
-							PageRequest.of(skip, size, by(Ref_.MODIFIED)))
-						.getContent();
+							skip + size), skip);
 					logger.debug("{} Pushing {} exts to {}", remote.getOrigin(), extList.size(), remoteOrigin);
 					if (!extList.isEmpty()) {
 						client.extPush(baseUri, remoteOrigin, extList);
@@ -495,15 +564,14 @@ public class Replicator {
 					return extList.size() == size ? extList.getLast().getModified() : null;
 				}));
 				logs.addAll(expBackoff(remote.getOrigin(), defaultBatchSize, client.userCursor(baseUri, remoteOrigin), (skip, size, after) -> {
-					var userList = userRepository.findAll(
+					var userList = skipFirst(userRepository.findSlice(
 							TagFilter.builder()
 								.origin(localOrigin)
 								.query(push.getQuery())
 								.modifiedAfter(after)
 								.build().spec(),
-							PageRequest.of(skip, size, by(Ref_.MODIFIED)))
-						.map(mapper::domainToDto)
-						.getContent();
+							skip + size)
+						.map(mapper::domainToDto), skip);
 					logger.debug("{} Pushing {} users to {}", remote.getOrigin(), userList.size(), remoteOrigin);
 					if (!userList.isEmpty()) {
 						client.userPush(baseUri, remoteOrigin, userList);
@@ -526,6 +594,62 @@ public class Replicator {
 		});
 	}
 
+	/**
+	 * Run each entity pull in order, or concurrently if parallel pulls are enabled.
+	 * Any failure is rethrown after the remaining pulls in the phase have finished.
+	 */
+	private List<Log> pullPhase(Ref remote, Pull pull, List<EntityPull> phase) throws Exception {
+		var logs = new ArrayList<Log>();
+		if (!pull.isParallel()) {
+			for (var p : phase) logs.addAll(timed(remote, p));
+			return logs;
+		}
+		var futures = phase.stream().map(p -> supplyAsync(() -> {
+			try {
+				return bulkheadRegistry.bulkhead("repl-stream").executeCallable(() -> timed(remote, p));
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, taskExecutor)).toList();
+		Exception first = null;
+		for (var f : futures) {
+			try {
+				logs.addAll(f.join());
+			} catch (CompletionException e) {
+				if (first == null) first = e.getCause() instanceof Exception cause ? cause : e;
+			}
+		}
+		if (first != null) throw first;
+		return logs;
+	}
+
+	private List<Log> timed(Ref remote, EntityPull p) throws Exception {
+		return Timer.builder("jasper.repl.pull")
+			.description("Duration of pulling one entity type from a remote origin")
+			.tag("entity", p.entity())
+			.tag("origin", remote.getOrigin())
+			.register(meterRegistry)
+			.recordCallable(p.fn());
+	}
+
+	/**
+	 * Pull everything after the cursor in one streaming request, falling back to
+	 * paged pulls if the remote does not support streaming.
+	 */
+	private List<Log> pullAll(Ref remote, Pull pull, int batchSize, Instant modifiedAfter, StreamPull stream, ExpBackoff fn) throws IOException {
+		if (pull.isStream()) {
+			try {
+				stream.pull(modifiedAfter);
+				return List.of();
+			} catch (FeignException e) {
+				if (e.status() != 404) throw e;
+				logger.debug("{} Remote does not support streaming replication, falling back to paged pull {}: {}",
+					remote.getOrigin(), remote.getTitle(), remote.getUrl());
+			}
+		}
+		return expBackoff(remote.getOrigin(), batchSize, modifiedAfter, fn);
+	}
+
 	private List<Log> expBackoff(String origin, int batchSize, Instant modifiedAfter, ExpBackoff fn) {
 		var logs = new ArrayList<Log>();
 		var skip = 0;
@@ -559,6 +683,11 @@ public class Replicator {
 		return logs;
 	}
 
+	private static <T> List<T> skipFirst(Slice<T> slice, int skip) {
+		var content = slice.getContent();
+		return content.subList(min(skip, content.size()), content.size());
+	}
+
 	public static boolean isDeletorTag(String tag) {
 		tag = localTag(tag);
 		return tag.equals("deleted") || tag.endsWith("/deleted");
@@ -579,4 +708,8 @@ public class Replicator {
 		Instant fetch(int skip, int size, Instant after) throws FeignException;
 	}
 
+	interface StreamPull {
+		void pull(Instant after) throws IOException;
+	}
+
 }
@@ -119,6 +119,12 @@ public class ScriptRunner {
 				output = pythonVm.runPython(config.getRequirements(), config.getScript(), input, config.getTimeoutMs());
 				break;
 			case "shell":
+				if (config.getFormat().equalsIgnoreCase("json")) {
+					// Ingest entities while the script is still writing them instead of buffering the output
+					shell.runShellScript(config.getScript(), input, config.getTimeoutMs(),
+						out -> ingest.createOrUpdate(out, ref.getOrigin(), ref.getUrl()));
+					return;
+				}
 				output = shell.runShellScript(config.getScript(), input, config.getTimeoutMs());
 				break;
 			default:
@@ -0,0 +1,110 @@
+package jasper.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jasper.domain.Ref;
+import jasper.domain.RefId;
+import jasper.repository.RefRepository;
+import jasper.service.dto.RefDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.apache.commons.lang3.SerializationUtils.clone;
+
+/**
+ * Short lived cache of Ref lookups by URL and origin, so serving a cached file
+ * reads the Ref and its _plugin/cache descriptor once instead of once for each
+ * of fetch, stat and cache.
+ * Ingest evicts written Refs once they are committed, and Refs written by other
+ * nodes are evicted when their update is received. Missing Refs are cached too.
+ * Callers each get their own detached copy, so they may modify it freely.
+ */
+@Component
+public class StatCache {
+	private static final Duration TTL = Duration.ofSeconds(30);
+
+	@Autowired
+	RefRepository refRepository;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private final Cache<RefId, Optional<Ref>> cache = Caffeine.newBuilder()
+		.maximumSize(10_000)
+		.expireAfterWrite(TTL)
+		.recordStats()
+		.build();
+
+	@PostConstruct
+	public void init() {
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "stat-cache", "cache.manager", "statCache");
+	}
+
+	public Ref stat(String url, String origin) {
+		return cache.get(new RefId(url, origin), id -> refRepository.findOneByUrlAndOrigin(url, origin).map(StatCache::copy))
+			.map(StatCache::copy)
+			.orElse(null);
+	}
+
+	/**
+	 * Evict a Ref now, and again once the current transaction completes so a
+	 * lookup racing the commit cannot keep the old Ref cached.
+	 */
+	public void evict(String url, String origin) {
+		var id = new RefId(url, origin);
+		evict(key -> key.equals(id));
+	}
+
+	/**
+	 * Evict every Ref in an origin after a bulk delete or restore.
+	 */
+	public void evictOrigin(String origin) {
+		evict(key -> key.getOrigin().equals(origin));
+	}
+
+	private void evict(Predicate<RefId> keys) {
+		cache.asMap().keySet().removeIf(keys);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				cache.asMap().keySet().removeIf(keys);
+			}
+		});
+	}
+
+	private static Ref copy(Ref ref) {
+		var copy = new Ref();
+		copy.setUrl(ref.getUrl());
+		copy.setOrigin(ref.getOrigin());
+		copy.setTitle(ref.getTitle());
+		copy.setComment(ref.getComment());
+		copy.setTags(ref.getTags() == null ? null : new ArrayList<>(ref.getTags()));
+		copy.setSources(ref.getSources() == null ? null : new ArrayList<>(ref.getSources()));
+		copy.setAlternateUrls(ref.getAlternateUrls() == null ? null : new ArrayList<>(ref.getAlternateUrls()));
+		copy.setPlugins(ref.getPlugins() == null ? null : ref.getPlugins().deepCopy());
+		copy.setMetadata(ref.getMetadata() == null ? null : clone(ref.getMetadata()));
+		copy.setPublished(ref.getPublished());
+		copy.setCreated(ref.getCreated());
+		copy.setModified(ref.getModified());
+		return copy;
+	}
+
+	@ServiceActivator(inputChannel = "refRxChannel")
+	public void handleRefUpdate(Message<RefDto> message) {
+		var ref = message.getPayload();
+		evict(ref.getUrl(), ref.getOrigin());
+	}
+}
@@ -12,6 +12,7 @@ import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static jasper.domain.proj.HasOrigin.formatOrigin;
 import static jasper.domain.proj.HasOrigin.origin;
@@ -36,6 +37,13 @@ public interface Storage {
 	Zipped zipAt(String origin, String namespace, String id) throws IOException;
 	void delete(String origin, String namespace, String id) throws IOException;
 	void backup(String origin, String namespace, Zipped backup, Instant modifiedAfter) throws IOException;
+	/**
+	 * Copy files into a backup, skipping files with the same content as in the previous backup.
+	 *
+	 * @param previous files in the previous backup by name, empty to copy every file
+	 * @return every file in the namespace by name
+	 */
+	Map<String, BackupFile> backup(String origin, String namespace, Zipped backup, Map<String, BackupFile> previous) throws IOException;
 	void restore(String origin, String namespace, Zipped backup) throws IOException;
 
 	default String originTenant(String origin) {
@@ -64,4 +72,9 @@ public interface Storage {
 	}
 
 	record StorageRef(String id, long size) {}
+
+	/**
+	 * @param modified last modified time in milliseconds, used to avoid hashing unchanged files again
+	 */
+	record BackupFile(long size, long modified, String sha256) {}
 }
@@ -25,13 +25,22 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
 @Profile("storage")
 @Component
 public class StorageImplLocal implements Storage {
@@ -202,6 +211,56 @@ public class StorageImplLocal implements Storage {
 		}
 	}
 
+	@Override
+	public Map<String, BackupFile> backup(String origin, String namespace, Zipped backup, Map<String, BackupFile> previous) throws IOException {
+		var files = new ConcurrentHashMap<String, BackupFile>();
+		if (!dir(origin, namespace).toFile().exists()) return files;
+		Files.createDirectories(backup.get(namespace));
+		var copied = new AtomicInteger();
+		var workers = new Semaphore(props.getBackupThreads());
+		var tasks = new ArrayList<Future<?>>();
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+			 var w = Files.walk(dir(origin, namespace))) {
+			for (var it = w.filter(Files::isRegularFile).iterator(); it.hasNext(); ) {
+				var f = it.next();
+				workers.acquire();
+				tasks.add(executor.submit(() -> {
+					try {
+						var name = f.getFileName().toString();
+						var last = previous.get(name);
+						var file = backupFile(f, last);
+						files.put(name, file);
+						if (last == null || !last.sha256().equals(file.sha256())) {
+							Files.copy(f, backup.get(namespace, name));
+							copied.incrementAndGet();
+						}
+						return null;
+					} finally {
+						workers.release();
+					}
+				}));
+			}
+			for (var t : tasks) t.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException io) throw io;
+			throw new IOException(e.getCause());
+		}
+		logger.info("{} Backed up {} of {} files in {}", origin, copied.get(), files.size(), namespace);
+		return files;
+	}
+
+	private BackupFile backupFile(Path f, BackupFile last) throws IOException {
+		var size = Files.size(f);
+		var modified = Files.getLastModifiedTime(f).toMillis();
+		if (last != null && last.size() == size && last.modified() == modified) return last;
+		try (var in = Files.newInputStream(f)) {
+			return new BackupFile(size, modified, sha256Hex(in));
+		}
+	}
+
 	@Override
 	public void restore(String origin, String namespace, Zipped backup) throws IOException {
 		if (!Files.exists(backup.get(namespace))) return;
@@ -247,7 +306,10 @@ public class StorageImplLocal implements Storage {
 			this.namespace = namespace;
 			this.id = id;
 			this.create = create;
-			zipfs = FileSystems.newFileSystem(path(origin, namespace, create ? "_" + id : id), Map.of("create", create ? "true" : "false"));
+			// Buffer new entries in temp files so concurrent writers do not hold the whole backup in memory
+			zipfs = FileSystems.newFileSystem(path(origin, namespace, create ? "_" + id : id), Map.of(
+				"create", create ? "true" : "false",
+				"useTempFile", create));
 		}
 
 		@Override
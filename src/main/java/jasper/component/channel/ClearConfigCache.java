@@ -14,8 +14,14 @@ import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static jasper.component.Replicator.deletedTag;
+import static jasper.component.Replicator.isDeletorTag;
+
 @Component
 public class ClearConfigCache {
 
@@ -30,11 +36,14 @@ public class ClearConfigCache {
 
 	private AtomicBoolean clearingConfig = new AtomicBoolean(false);
 	private AtomicBoolean clearConfigAgain = new AtomicBoolean(false);
+	private Set<String> pendingTags = ConcurrentHashMap.newKeySet();
 
 	@Order(Ordered.HIGHEST_PRECEDENCE)
 	@ServiceActivator(inputChannel = "tagRxChannel")
 	public void handleTagUpdate(Message<String> message) {
-		if (!configs.isConfigTag((String) message.getHeaders().get("tag"))) return;
+		var tag = (String) message.getHeaders().get("tag");
+		if (!configs.isConfigTag(tag)) return;
+		pendingTags.add(tag);
 		if (clearingConfig.compareAndSet(false, true)) {
 			clearConfig();
 		} else {
@@ -50,28 +59,40 @@ public class ClearConfigCache {
 	}
 
 	private void clearConfig() {
-		configs.clearConfigCache();
+		var tags = new HashSet<String>();
+		for (var it = pendingTags.iterator(); it.hasNext(); ) {
+			tags.add(it.next());
+			it.remove();
+		}
+		if (!tags.isEmpty()) configs.clearConfigCache(tags);
 		taskScheduler.schedule(this::checkIfClearingAgain, Instant.now().plusMillis(props.getClearCacheCooldownSec() * 1000L));
 	}
 
 	@Order(Ordered.HIGHEST_PRECEDENCE)
 	@ServiceActivator(inputChannel = "userRxChannel")
 	public void handleUserUpdate(Message<UserDto> message) {
-		// TODO: clear caches by origin
-		configs.clearUserCache();
+		var user = message.getPayload();
+		configs.clearUserCache(updatedTag(user.getTag()), user.getOrigin());
 	}
 
 	@Order(Ordered.HIGHEST_PRECEDENCE)
 	@ServiceActivator(inputChannel = "pluginRxChannel")
 	public void handlePluginUpdate(Message<PluginDto> message) {
-		// TODO: clear caches by origin
-		configs.clearPluginCache();
+		var plugin = message.getPayload();
+		configs.clearPluginCache(updatedTag(plugin.getTag()), plugin.getOrigin());
 	}
 
 	@Order(Ordered.HIGHEST_PRECEDENCE)
 	@ServiceActivator(inputChannel = "templateRxChannel")
 	public void handleTemplateUpdate(Message<TemplateDto> message) {
-		// TODO: clear caches by origin
-		configs.clearTemplateCache();
+		var template = message.getPayload();
+		configs.clearTemplateCache(updatedTag(template.getTag()), template.getOrigin());
+	}
+
+	/**
+	 * Delete notices carry the deletor tag, evict the deleted tag instead.
+	 */
+	private static String updatedTag(String tag) {
+		return isDeletorTag(tag) ? deletedTag(tag) : tag;
 	}
 }
@@ -1,7 +1,11 @@
 package jasper.component.channel;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jasper.component.ConfigCache;
 import jasper.repository.IndexRepository;
+import jasper.repository.IndexRepository.BuildProgress;
 import jasper.service.dto.TemplateDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,9 +14,28 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
 import static jasper.domain.proj.HasOrigin.origin;
+import static jasper.repository.IndexRepository.ALTS;
+import static jasper.repository.IndexRepository.EXPANDED_TAGS;
+import static jasper.repository.IndexRepository.FULLTEXT;
+import static jasper.repository.IndexRepository.MODIFIED;
+import static jasper.repository.IndexRepository.ORIGIN_SUBTREE;
+import static jasper.repository.IndexRepository.PUBLISHED;
+import static jasper.repository.IndexRepository.SOURCES;
+import static jasper.repository.IndexRepository.TAGS;
+import static java.util.concurrent.CompletableFuture.runAsync;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 @Component
@@ -25,6 +48,30 @@ public class Index {
 	@Autowired
 	ConfigCache configs;
 
+	@Autowired
+	ExecutorService taskExecutor;
+
+	@Autowired
+	TaskScheduler taskScheduler;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	private final Map<String, BuildProgress> progress = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void initMetrics() {
+		for (var index : List.of(TAGS, EXPANDED_TAGS, SOURCES, ALTS, FULLTEXT, PUBLISHED, MODIFIED)) {
+			Gauge.builder("jasper.index.build.progress", progress, p -> p.containsKey(index) ? p.get(index).ratio() : Double.NaN)
+				.description("Fraction of a concurrent index build completed")
+				.tag("index", index)
+				.register(meterRegistry);
+		}
+		Gauge.builder("jasper.index.build.active", progress, Map::size)
+			.description("Concurrent index builds running")
+			.register(meterRegistry);
+	}
+
 	@ServiceActivator(inputChannel = "templateRxChannel")
 	public void handleTemplateUpdate(Message<TemplateDto> message) {
 		if (!configs.root().script("_config/index", "")) return;
@@ -35,11 +82,38 @@ public class Index {
 
 	@EventListener(ApplicationReadyEvent.class)
 	public void init() {
+		taskExecutor.execute(this::buildOriginIndexes);
 		if (!configs.root().script("_config/index", "")) return;
 		updateIndex();
 	}
 
+	/**
+	 * Origin subtree queries compare in the C collation, so they need their
+	 * own expression indexes. Build them concurrently so startup never holds
+	 * a lock that blocks writes.
+	 */
+	private void buildOriginIndexes() {
+		for (var name : ORIGIN_SUBTREE) {
+			try {
+				indexRepository.buildConcurrently(name);
+			} catch (Exception e) {
+				logger.error("Failed to build index {}", name, e);
+			}
+		}
+	}
+
+	/**
+	 * Progress of index builds currently running in the database.
+	 */
+	public List<BuildProgress> progress() {
+		return indexRepository.progress();
+	}
+
 	public void updateIndex() {
+		if (configs.index().isConcurrent()) {
+			taskExecutor.execute(this::updateIndexConcurrently);
+			return;
+		}
 		logger.info("Updating DB indices");
 		var index = configs.index();
 		if (index.isTags()) {
@@ -90,4 +164,62 @@ public class Index {
 		}
 	}
 
+	/**
+	 * Build and drop indexes without blocking writes. Builds run in parallel
+	 * up to maxConcurrentBuilds. Updates are serialized so a config change
+	 * during a build waits for it to finish.
+	 */
+	private synchronized void updateIndexConcurrently() {
+		logger.info("Updating DB indices concurrently");
+		var index = configs.index();
+		var build = new ArrayList<String>();
+		var drop = new ArrayList<String>();
+		(index.isTags() ? build : drop).addAll(List.of(TAGS, EXPANDED_TAGS));
+		(index.isSources() ? build : drop).add(SOURCES);
+		(index.isAlts() ? build : drop).add(ALTS);
+		(index.isFulltext() ? build : drop).add(FULLTEXT);
+		(index.isPublished() ? build : drop).add(PUBLISHED);
+		(index.isModified() ? build : drop).add(MODIFIED);
+		for (var name : drop) {
+			try {
+				indexRepository.dropConcurrently(name);
+			} catch (Exception e) {
+				logger.error("Failed to drop index {}", name, e);
+			}
+		}
+		var permits = new Semaphore(Math.max(1, index.getMaxConcurrentBuilds()));
+		var poll = taskScheduler.scheduleAtFixedRate(this::pollProgress, Duration.ofSeconds(5));
+		try {
+			CompletableFuture.allOf(build.stream()
+				.map(name -> runAsync(() -> {
+					permits.acquireUninterruptibly();
+					try {
+						indexRepository.buildConcurrently(name);
+					} catch (Exception e) {
+						logger.error("Failed to build index {}", name, e);
+					} finally {
+						permits.release();
+					}
+				}, taskExecutor))
+				.toArray(CompletableFuture[]::new)).join();
+		} finally {
+			poll.cancel(false);
+			progress.clear();
+		}
+		logger.info("Finished updating DB indices");
+	}
+
+	private void pollProgress() {
+		try {
+			var running = new ConcurrentHashMap<String, BuildProgress>();
+			for (var p : indexRepository.progress()) {
+				if (p.index() != null) running.put(p.index().replaceFirst("_new$", ""), p);
+			}
+			progress.keySet().retainAll(running.keySet());
+			progress.putAll(running);
+		} catch (Exception e) {
+			logger.warn("Failed to read index build progress", e);
+		}
+	}
+
 }
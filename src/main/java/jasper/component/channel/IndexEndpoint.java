@@ -0,0 +1,25 @@
+package jasper.component.channel;
+
+import jasper.repository.IndexRepository.BuildProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Management endpoint reporting progress of running index builds.
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexEndpoint {
+
+	@Autowired
+	Index index;
+
+	@ReadOperation
+	public List<BuildProgress> progress() {
+		return index.progress();
+	}
+}
@@ -0,0 +1,33 @@
+package jasper.component.channel;
+
+import jasper.component.vm.Venvs;
+import jasper.service.dto.PluginDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Build python venvs when a script plugin is saved, so the first run of the
+ * script does not wait on pip.
+ */
+@Profile("scripts")
+@Component
+public class PrewarmVenvs {
+
+	@Autowired
+	Venvs venvs;
+
+	@ServiceActivator(inputChannel = "pluginRxChannel")
+	public void handlePluginUpdate(Message<PluginDto> message) {
+		var config = message.getPayload().getConfig();
+		if (config == null) return;
+		if (!"python".equalsIgnoreCase(config.path("language").asText())) return;
+		var requirements = config.path("requirements").asText();
+		if (isBlank(requirements)) return;
+		venvs.prewarm(requirements);
+	}
+}
@@ -91,9 +91,7 @@ public class Pull {
 	@EventListener(ApplicationReadyEvent.class)
 	public void init() {
 		configs.rootUpdate(root -> {
-			for (var origin : root.scriptOrigins("+plugin/origin/pull")) {
-				watch.addWatch(origin, "+plugin/origin/pull", this::watch);
-			}
+			watch.setWatch("+plugin/origin/pull", root.scriptOrigins("+plugin/origin/pull"), this::watch);
 		});
 	}
 
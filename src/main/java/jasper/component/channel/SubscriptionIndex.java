@@ -0,0 +1,60 @@
+package jasper.component.channel;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index from tag to subscriber.
+ * Matching looks up each prefix of the tags a message carries, so the cost
+ * depends on the message and not on the number of subscriptions.
+ * The empty tag subscribes to every message.
+ */
+public class SubscriptionIndex<T> {
+	private final Map<String, T> subscriptions = new ConcurrentHashMap<>();
+
+	public void put(String tag, T subscriber) {
+		subscriptions.put(tag, subscriber);
+	}
+
+	public T get(String tag) {
+		return subscriptions.get(tag);
+	}
+
+	public void remove(String tag) {
+		subscriptions.remove(tag);
+	}
+
+	public boolean isEmpty() {
+		return subscriptions.isEmpty();
+	}
+
+	public Set<String> tags() {
+		return subscriptions.keySet();
+	}
+
+	/**
+	 * Subscribers with a tag equal to or a parent of any of the given tags,
+	 * equivalent to checking each subscription with
+	 * {@link jasper.domain.proj.HasTags#hasMatchingTag}.
+	 */
+	public Map<String, T> match(List<String> tags) {
+		var result = new LinkedHashMap<String, T>();
+		var all = subscriptions.get("");
+		if (all != null) result.put("", all);
+		if (tags == null || subscriptions.isEmpty()) return result;
+		for (var tag : tags) {
+			var t = tag;
+			while (!result.containsKey(t)) {
+				var s = subscriptions.get(t);
+				if (s != null) result.put(t, s);
+				var i = t.lastIndexOf('/');
+				if (i == -1) break;
+				t = t.substring(0, i);
+			}
+		}
+		return result;
+	}
+}
@@ -1,6 +1,8 @@
 package jasper.component.channel;
 
-import jasper.domain.Ref_;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jasper.config.Props;
 import jasper.domain.proj.HasTags;
 import jasper.repository.RefRepository;
 import jasper.repository.filter.RefFilter;
@@ -10,21 +12,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static jasper.domain.proj.HasOrigin.origin;
-import static jasper.domain.proj.HasTags.hasMatchingTag;
 import static org.apache.commons.lang3.StringUtils.isBlank;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.springframework.data.domain.Sort.by;
 
 @Component()
 public class Watch {
@@ -33,45 +33,56 @@ public class Watch {
 	@Autowired
 	RefRepository refRepository;
 
-	Map<String, Map<String, Watcher>> watchers = new ConcurrentHashMap<>();
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	Props props;
+
+	Map<String, SubscriptionIndex<Watcher>> watchers = new ConcurrentHashMap<>();
+	/**
+	 * Tags each Ref URL was last notified for, by origin. A Ref that loses a
+	 * watched tag is notified one last time.
+	 */
 	Map<String, Map<String, Set<String>>> watching = new ConcurrentHashMap<>();
 
 	/**
 	 * Register a watcher to watch all Refs in an origin.
 	 */
 	public void addWatch(String origin, Watcher w) {
-		watchers.computeIfAbsent(origin, o -> new ConcurrentHashMap<>()).put("", w);
+		watchers.computeIfAbsent(origin, o -> new SubscriptionIndex<>()).put("", w);
 	}
 
 	/**
 	 * Register a watcher for all tagged Refs in an origin.
 	 */
 	public void addWatch(String origin, String tag, Watcher w) {
-		watchers.computeIfAbsent(origin, o -> new ConcurrentHashMap<>()).put(tag, w);
+		watchers.computeIfAbsent(origin, o -> new SubscriptionIndex<>()).put(tag, w);
+	}
+
+	/**
+	 * Register a watcher for all tagged Refs in the given origins, removing
+	 * it from any other origins. Call again when the server config changes.
+	 */
+	public void setWatch(String tag, Collection<String> origins, Watcher w) {
+		watchers.forEach((origin, index) -> {
+			if (!origins.contains(origin)) index.remove(tag);
+		});
+		for (var origin : origins) addWatch(origin, tag, w);
 	}
 
 	@EventListener(ApplicationReadyEvent.class)
 	public void init() {
 		try {
 			for (var origin : watchers.keySet()) {
-				for (var tag : watchers.get(origin).keySet()) {
+				for (var tag : watchers.get(origin).tags()) {
 					if (isBlank(tag)) continue;
-					Instant lastModified = null;
-					while (true) {
-						var maybeRef = refRepository.findAll(RefFilter.builder()
-							.origin(origin)
-							.query(tag)
-							.modifiedAfter(lastModified)
-							.build().spec(), PageRequest.of(0, 1, by(Ref_.MODIFIED)));
-						if (maybeRef.isEmpty()) break;
-						var ref = maybeRef.getContent().getFirst();
-						lastModified = ref.getModified();
-						try {
-							watchers.get(origin).get(tag).notify(ref);
-						} catch (Exception e) {
-							logger.warn("Error starting watcher", e);
-						}
-					}
+					Timer.builder("jasper.watch.backfill")
+						.description("Time to notify a watcher of existing Refs on startup")
+						.tag("origin", origin)
+						.tag("tag", tag)
+						.register(meterRegistry)
+						.record(() -> backfill(origin, tag));
 				}
 			}
 		} catch (Exception e) {
@@ -79,29 +90,46 @@ public class Watch {
 		}
 	}
 
+	private void backfill(String origin, String tag) {
+		var watcher = watchers.get(origin).get(tag);
+		Instant lastModified = null;
+		while (true) {
+			var refs = refRepository.findSlice(RefFilter.builder()
+				.origin(origin)
+				.query(tag)
+				.modifiedAfter(lastModified)
+				.build().spec(), props.getWatchBatchSize());
+			for (var ref : refs) {
+				try {
+					watcher.notify(ref);
+				} catch (Exception e) {
+					logger.warn("Error starting watcher", e);
+				}
+			}
+			if (!refs.hasNext()) break;
+			lastModified = refs.getContent().getLast().getModified();
+		}
+	}
+
 	@ServiceActivator(inputChannel = "refRxChannel")
 	public void handleRefUpdate(Message<RefDto> message) {
 		var origin = origin(message.getHeaders().get("origin").toString());
-		if (!watchers.containsKey(origin)) return;
+		var index = watchers.get(origin);
+		if (index == null) return;
 		var ref = message.getPayload();
-		for (var tag : watchers.get(origin).keySet()) {
-			var set = watching
-				.computeIfAbsent(origin, o -> new ConcurrentHashMap<>())
-				.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet());
-			if (isNotBlank(tag)) {
-				if (!set.contains(ref.getUrl())) {
-					if (!hasMatchingTag(ref, tag)) continue;
-					set.add(ref.getUrl());
-				}
-			}
-			try {
-				watchers.get(origin).get(tag).notify(ref);
-			} finally {
-				if (isNotBlank(tag) && !hasMatchingTag(ref, tag)) {
-					set.remove(ref.getUrl());
-				}
+		var notify = index.match(ref.getTags());
+		var urls = watching.computeIfAbsent(origin, o -> new ConcurrentHashMap<>());
+		var current = new HashSet<>(notify.keySet());
+		current.remove("");
+		var previous = current.isEmpty() ? urls.remove(ref.getUrl()) : urls.put(ref.getUrl(), current);
+		if (previous != null) {
+			for (var tag : previous) {
+				if (notify.containsKey(tag)) continue;
+				var w = index.get(tag);
+				if (w != null) notify.put(tag, w);
 			}
 		}
+		for (var w : notify.values()) w.notify(ref);
 	}
 
 	public interface Watcher {
@@ -65,12 +65,8 @@ public class Cron {
 	@PostConstruct
 	public void init() {
 		configs.rootUpdate(root -> {
-			for (var origin : root.scriptOrigins("+plugin/cron")) {
-				watch.addWatch(origin, "+plugin/cron", this::schedule);
-			}
-			for (var origin : root.scriptOrigins("+plugin/user/run")) {
-				watch.addWatch(origin, "+plugin/user/run", this::run);
-			}
+			watch.setWatch("+plugin/cron", root.scriptOrigins("+plugin/cron"), this::schedule);
+			watch.setWatch("+plugin/user/run", root.scriptOrigins("+plugin/user/run"), this::run);
 		});
 	}
 
@@ -1,9 +1,12 @@
 package jasper.component.delta;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jasper.component.ConfigCache;
 import jasper.component.ScriptExecutorFactory;
+import jasper.component.channel.SubscriptionIndex;
+import jasper.config.Props;
 import jasper.domain.Ref;
-import jasper.domain.Ref_;
 import jasper.domain.proj.HasTags;
 import jasper.errors.NotFoundException;
 import jasper.repository.RefRepository;
@@ -15,7 +18,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
 import org.springframework.scheduling.TaskScheduler;
@@ -33,7 +35,6 @@ import static jasper.domain.proj.HasTags.hasPluginResponse;
 import static jasper.util.Logging.getMessage;
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.springframework.data.domain.Sort.by;
 
 /**
  * An async service runs on Refs by querying a tag.
@@ -59,8 +60,14 @@ public class Async {
 	@Autowired
 	ConfigCache configs;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	Props props;
+
 	Map<String, CompletableFuture<?>> refs = new ConcurrentHashMap<>();
-	Map<String, AsyncRunner> tags = new ConcurrentHashMap<>();
+	SubscriptionIndex<AsyncRunner> tags = new SubscriptionIndex<>();
 
 	/**
 	 * Register a runner for a tag.
@@ -98,9 +105,8 @@ public class Async {
 			if (isEmpty(configs.root().getScriptSelectors())) throw new RuntimeException();
 			if (ud.getTags() == null) throw new RuntimeException();
 			if (hasMatchingTag(ud, "+plugin/error")) throw new RuntimeException();
-			tags.forEach((tag, v) -> {
+			tags.match(ud.getTags()).forEach((tag, v) -> {
 				logger.trace("{} Checking for Async Tag ({} {}): {} Tags: {} Whitelisted: {}", origin, tag, configs.root().script(tag, ud) ? "☑️" : "🚩️", ud.getUrl(), ud.getTags(), configs.root().getScriptSelectors());
-				if (!hasMatchingTag(ud, tag)) return;
 				if (!configs.root().script(tag, ud)) return;
 				if (isNotBlank(v.signature()) && hasPluginResponse(ud, v.signature())) return;
 				logger.debug("{} Async Tag ({}): {}", origin, tag, ud.getUrl());
@@ -136,39 +142,47 @@ public class Async {
 	}
 
 	private void backfill(String origin) {
-		Instant lastModified = null;
-		while (true) {
-			var maybeRef = refRepository.findAll(RefFilter.builder()
-				.origin(origin)
-				.query(trackingQuery())
-				.modifiedAfter(lastModified != null ? lastModified : Instant.now().minus(1, ChronoUnit.DAYS))
-				.build().spec(), PageRequest.of(0, 1, by(Ref_.MODIFIED)));
-			if (maybeRef.isEmpty()) return;
-			var ref = maybeRef.getContent().getFirst();
-			lastModified = ref.getModified();
-			tags.forEach((tag, v) -> {
-				if (!v.backfill()) return;
-				if (!configs.root().script(tag, ref)) return;
-				if (!hasMatchingTag(ref, tag)) return;
-				// TODO: Only check plugin responses in the same origin
-				if (isNotBlank(v.signature()) && ref.hasPluginResponse(v.signature())) return;
-				refs.compute(getKey(ref), (u, existing) -> {
-					if (existing != null && !existing.isDone()) {
-						logger.debug("{} Async tag trying to run before finishing {} ", origin, tag);
-						return existing;
+		Timer.builder("jasper.async.backfill")
+			.description("Time to check existing Refs for async tags on startup")
+			.tag("origin", origin)
+			.register(meterRegistry)
+			.record(() -> {
+				Instant lastModified = Instant.now().minus(1, ChronoUnit.DAYS);
+				while (true) {
+					var batch = refRepository.findSlice(RefFilter.builder()
+						.origin(origin)
+						.query(trackingQuery())
+						.modifiedAfter(lastModified)
+						.build().spec(), props.getWatchBatchSize());
+					for (var ref : batch) backfill(origin, ref);
+					if (!batch.hasNext()) return;
+					lastModified = batch.getContent().getLast().getModified();
+				}
+			});
+	}
+
+	private void backfill(String origin, Ref ref) {
+		tags.match(ref.getTags()).forEach((tag, v) -> {
+			if (!v.backfill()) return;
+			if (!configs.root().script(tag, ref)) return;
+			// TODO: Only check plugin responses in the same origin
+			if (isNotBlank(v.signature()) && ref.hasPluginResponse(v.signature())) return;
+			refs.compute(getKey(ref), (u, existing) -> {
+				if (existing != null && !existing.isDone()) {
+					logger.debug("{} Async tag trying to run before finishing {} ", origin, tag);
+					return existing;
+				}
+				return scriptExecutorFactory.run(tag, origin, ref.getUrl(), () -> {
+					try {
+						v.run(ref);
+					} catch (NotFoundException e) {
+						logger.debug("{} Plugin not installed {} ", ref.getOrigin(), getMessage(e));
+					} catch (Exception e) {
+						logger.error("{} Error in async tag {} ", ref.getOrigin(), tag, e);
 					}
-					return scriptExecutorFactory.run(tag, origin, ref.getUrl(), () -> {
-						try {
-							v.run(ref);
-						} catch (NotFoundException e) {
-							logger.debug("{} Plugin not installed {} ", ref.getOrigin(), getMessage(e));
-						} catch (Exception e) {
-							logger.error("{} Error in async tag {} ", ref.getOrigin(), tag, e);
-						}
-					});
 				});
 			});
-		}
+		});
 	}
 
 	private String getKey(HasTags ref) {
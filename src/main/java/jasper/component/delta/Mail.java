@@ -78,7 +78,7 @@ public class Mail implements Async.AsyncRunner {
 				.map(to -> to.tag + (isNotBlank(to.origin) ? ("@" + to.origin) : ""))
 				.toArray(String[]::new);
 			var query = String.join("|", concat(stream(inboxUserTags), stream(outboxUserTags)).toArray(String[]::new));
-			emails = extRepository.findAll(new TagQuery(query).spec())
+			emails = extRepository.findAll(TagQuery.of(query).spec())
 				.stream()
 				.filter(ext -> ext.getConfig().has("email"))
 				.map(ext -> ext.getConfig().get("email").asText())
@@ -10,9 +10,9 @@ import com.rometools.rome.io.FeedException;
 import com.rometools.rome.io.ParsingFeedException;
 import com.rometools.rome.io.SyndFeedInput;
 import com.rometools.rome.io.XmlReader;
-import feign.FeignException;
-import jasper.client.JasperClient;
-import jasper.client.dto.JasperMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jasper.component.HttpClientFactory;
 import jasper.component.Ingest;
 import jasper.component.Sanitizer;
@@ -25,6 +25,8 @@ import jasper.plugin.Feed;
 import jasper.plugin.Thumbnail;
 import jasper.plugin.Video;
 import jasper.repository.RefRepository;
+import jasper.security.Auth;
+import jasper.security.AuthFactory;
 import jasper.security.HostCheck;
 import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.HttpGet;
@@ -32,7 +34,6 @@ import org.jdom2.input.JDOMParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.net.ssl.SSLException;
@@ -46,15 +47,15 @@ import java.time.Year;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 
 import static jasper.plugin.Cron.getCron;
 import static jasper.plugin.Feed.getFeed;
-import static jasper.security.Auth.LOCAL_ORIGIN_HEADER;
-import static jasper.security.Auth.USER_ROLE_HEADER;
-import static jasper.security.Auth.USER_TAG_HEADER;
 import static jasper.security.AuthoritiesConstants.USER;
 import static jasper.util.Logging.getMessage;
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -64,15 +65,6 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 public class RssParser {
 	private static final Logger logger = LoggerFactory.getLogger(RssParser.class);
 
-	@Value("http://localhost:${server.port}")
-	String api;
-
-	@Autowired
-	JasperClient jasperClient;
-
-	@Autowired
-	JasperMapper mapper;
-
 	@Autowired
 	HostCheck hostCheck;
 
@@ -91,6 +83,12 @@ public class RssParser {
 	@Autowired
 	HttpClientFactory httpClientFactory;
 
+	@Autowired
+	AuthFactory authFactory;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	public void runScript(Ref ref, String scriptTag) {
 		logger.info("{} Scraping {} feed: {}.", ref.getOrigin(), ref.getTitle(), ref.getUrl());
 		try {
@@ -145,8 +143,10 @@ public class RssParser {
 				}
 			}
 			request.setHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/100.0.4896.75 Safari/537.36");
+			var fetch = Timer.start(meterRegistry);
 			try (var response = client.execute(request)) {
 				if (response.getStatusLine().getStatusCode() == 304) {
+					fetch.stop(timer("fetch"));
 					if (lastScrape == null) {
 						logger.info("{} Feed {} not modified", feed.getOrigin(), feed.getTitle());
 					} else {
@@ -155,61 +155,122 @@ public class RssParser {
 					return;
 				}
 				try (var stream = response.getEntity().getContent()) {
+					// Feed changes are collected and written once, before the entries that depend on them
+					var dirty = false;
 					if (!config.isDisableEtag()) {
 						var etag = response.getFirstHeader(HttpHeaders.ETAG);
 						if (etag != null && (config.getEtag() == null || !config.getEtag().equals(etag.getValue()))) {
 							config.setEtag(etag.getValue());
 							feed.setPlugin(scriptTag, config);
-							ingest.update(feed.getOrigin(), feed);
+							dirty = true;
 						} else if (etag == null && config.getEtag() != null) {
 							config.setEtag(null);
 							feed.setPlugin(scriptTag, config);
-							ingest.update(feed.getOrigin(), feed);
+							dirty = true;
 						}
 					}
 					var syndFeed = new SyndFeedInput().build(new XmlReader(stream));
+					fetch.stop(timer("fetch"));
+					var sample = Timer.start(meterRegistry);
 					if (syndFeed.getImage() != null) {
 						var image = syndFeed.getImage().getUrl();
 						cacheLater(image, feed.getOrigin());
 						if (!feed.hasTag("plugin/thumbnail")) {
 							feed.setPlugin("plugin/thumbnail", Thumbnail.builder().url(image).build());
-							ingest.update(feed.getOrigin(), feed);
+							dirty = true;
 						}
 					}
+					var entries = new LinkedHashMap<String, SyndEntry>();
 					for (var entry : syndFeed.getEntries().reversed()) {
 						try {
-							var link = entryLink(feed, config, entry);
-							if (refRepository.existsByUrlAndOrigin(link, feed.getOrigin())) {
-								logger.debug("{} Skipping RSS entry in feed {} which already exists. {} {}",
-									feed.getOrigin(), feed.getTitle(), entry.getTitle(), entry.getLink());
-								continue;
-							}
+							entries.putIfAbsent(entryLink(feed, config, entry), entry);
+						} catch (Exception e) {
+							logger.error("{} Error processing entry {}: {}", feed.getOrigin(), feed.getUrl(), entry.getLink());
+							tagger.attachLogs(feed.getOrigin(), feed, "Error processing entry " + entry.getLink(), getMessage(e));
+						}
+					}
+					var existing = entries.isEmpty()
+						? Set.<String>of()
+						: new HashSet<>(refRepository.findAllUrlsByOriginAndUrlIn(feed.getOrigin(), entries.keySet()));
+					var refs = new ArrayList<Ref>();
+					for (var e : entries.entrySet()) {
+						var link = e.getKey();
+						var entry = e.getValue();
+						if (existing.contains(link)) {
+							logger.debug("{} Skipping RSS entry in feed {} which already exists. {} {}",
+								feed.getOrigin(), feed.getTitle(), entry.getTitle(), entry.getLink());
+							continue;
+						}
+						try {
 							var ref = parseEntry(feed, config, link, entry, config.getDefaultThumbnail());
 							ref.setOrigin(feed.getOrigin());
 							if (ref.getPublished().isBefore(feed.getPublished())) {
 								logger.warn("{} RSS entry in feed {} which was published before feed publish date. {} {}",
 									feed.getOrigin(), feed.getTitle(), ref.getTitle(), ref.getUrl());
 								feed.setPublished(ref.getPublished().minus(1, ChronoUnit.DAYS));
-								ingest.update(feed.getOrigin(), feed);
+								dirty = true;
 							}
-							jasperClient.refPush(URI.create(api), authorHeaders(feed), feed.getOrigin(), List.of(mapper.domainToDto(ref)));
-						} catch (NotFoundException e) {
+							refs.add(ref);
+						} catch (NotFoundException ex) {
 							logger.debug("{} Skipping RSS entry in feed {} which failed matching conditions. {} {}",
 								feed.getOrigin(), feed.getTitle(), entry.getTitle(), entry.getLink());
-						} catch (FeignException.Forbidden | FeignException.Unauthorized e) {
-							logger.warn("{} Feed scrape blocked: author not authorized. {}", feed.getOrigin(), feed.getUrl());
-							tagger.attachError(feed.getUrl(), feed.getOrigin(), "Author not authorized to add tags", e.contentUTF8());
-							return; // addTags apply to all entries; if one fails, all will fail
-						} catch (Exception e) {
+						} catch (Exception ex) {
 							logger.error("{} Error processing entry {}: {}", feed.getOrigin(), feed.getUrl(), entry.getLink());
-							tagger.attachLogs(feed.getOrigin(), feed, "Error processing entry " + entry.getLink(), getMessage(e));
+							tagger.attachLogs(feed.getOrigin(), feed, "Error processing entry " + entry.getLink(), getMessage(ex));
 						}
 					}
+					if (dirty) ingest.update(feed.getOrigin(), feed);
+					ingestEntries(feed, refs);
+					sample.stop(timer("ingest"));
+					DistributionSummary.builder("jasper.feed.entries")
+						.description("New entries ingested per feed scrape")
+						.publishPercentileHistogram()
+						.register(meterRegistry)
+						.record(refs.size());
 				}
 			}
 		}
 	}
 
+	/**
+	 * Push new entries in one batch as the first author of the feed.
+	 */
+	private void ingestEntries(Ref feed, List<Ref> refs) {
+		if (refs.isEmpty()) return;
+		var authors = HasTags.authors(feed);
+		var auth = authFactory.create(authors.isEmpty() ? "" : authors.getFirst(), feed.getOrigin(), USER);
+		for (var ref : refs) {
+			if (!auth.canWriteRef(ref)) {
+				logger.warn("{} Feed scrape blocked: author not authorized. {}", feed.getOrigin(), feed.getUrl());
+				tagger.attachError(feed.getUrl(), feed.getOrigin(), "Author not authorized to add tags", denied(auth, ref));
+				return; // addTags apply to all entries; if one fails, all will fail
+			}
+		}
+		for (var failure : ingest.push(auth.getOrigin(), refs, true, false)) {
+			logger.error("{} Error processing entry {}: {}", feed.getOrigin(), feed.getUrl(), failure.ref().getUrl());
+			tagger.attachLogs(feed.getOrigin(), feed, "Error processing entry " + failure.ref().getUrl(), getMessage(failure.error()));
+		}
+	}
+
+	/**
+	 * Explain why the author may not push this entry.
+	 */
+	private static String denied(Auth auth, Ref ref) {
+		if (!auth.canWriteRef(ref.getUrl(), ref.getOrigin())) {
+			return "User " + auth.getPrincipal() + " may not write " + ref.getUrl();
+		}
+		var tags = ref.getTags() == null ? List.<String>of() : ref.getTags().stream().filter(t -> !auth.canAddTag(t)).toList();
+		return "User " + auth.getPrincipal() + " may not add tags " + String.join(", ", tags);
+	}
+
+	private Timer timer(String phase) {
+		return Timer.builder("jasper.feed")
+			.description("Time to fetch and ingest a feed")
+			.tag("phase", phase)
+			.publishPercentileHistogram()
+			.register(meterRegistry);
+	}
+
 	private String entryLink(Ref feed, Feed config, SyndEntry entry) {
 		var link = entry.getLink();
 		if (entry.getUri() != null && entry.getUri().startsWith(link)) {
@@ -409,15 +470,6 @@ public class RssParser {
 		}
 	}
 
-	private Map<String, Object> authorHeaders(Ref feed) {
-		var authors = HasTags.authors(feed);
-		return Map.of(
-			LOCAL_ORIGIN_HEADER, Objects.toString(feed.getOrigin(), ""),
-			USER_TAG_HEADER, authors.isEmpty() ? "" : authors.getFirst(),
-			USER_ROLE_HEADER, USER
-		);
-	}
-
 	private void cacheLater(String url, String origin) {
 		if (isBlank(url)) return;
 		var ref = refRepository.findOneByUrlAndOrigin(url, origin).orElse(null);
@@ -1,6 +1,8 @@
 package jasper.component.vm;
 
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import jasper.config.Props;
 import jasper.errors.ScriptException;
 import org.slf4j.Logger;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 
 import static jasper.component.vm.RunProcess.runProcess;
 
@@ -19,9 +23,19 @@ import static jasper.component.vm.RunProcess.runProcess;
 public class JavaScript {
 	private static final Logger logger = LoggerFactory.getLogger(JavaScript.class);
 
+	/**
+	 * Node cannot dup file descriptors, so the shell moves the frame pipes to
+	 * fds 3 and 4 before starting the worker, with stdout sent to stderr and
+	 * stdin read from /dev/null.
+	 */
+	private static final String FRAME_FDS = "exec 3>&1 4<&0 1>&2 0</dev/null; exec \"$0\" \"$@\"";
+
 	@Autowired
 	Props props;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	@Value("http://localhost:${server.port}")
 	String api;
 
@@ -55,8 +69,118 @@ public class JavaScript {
 		});
 	""";
 
+	// language=JavaScript
+	private final String nodeWorkerScript = """
+		const fs = require('fs');
+		const util = require('util');
+		const { Writable } = require('stream');
+		const api = process.argv[1];
+		const AsyncFunction = Object.getPrototypeOf(async function(){}).constructor;
+		class Exit {}
+		let job = null;
+		// Frames use fds 3 and 4, set up by the launcher, so output written straight to fd 1 cannot corrupt them
+		const write = frame => {
+		  const json = Buffer.from(JSON.stringify(frame), 'utf-8');
+		  const data = Buffer.concat([Buffer.from(json.length + '\\n'), json]);
+		  for (let sent = 0; sent < data.length;) sent += fs.writeSync(3, data, sent);
+		};
+		const run = ({ script, input }) => {
+		  const current = job = { out: [], err: [], timers: new Set(), settled: false, done: false };
+		  const finish = code => {
+		    if (current.done) return;
+		    current.done = true;
+		    current.timers.forEach(clearTimeout);
+		    if (job === current) job = null;
+		    write({ out: current.out.join(''), err: current.err.join(''), code, dirty: !current.settled, rss: process.memoryUsage().rss });
+		  };
+		  const sink = chunks => new Writable({
+		    write(chunk, encoding, callback) {
+		      if (!current.done) chunks.push(chunk.toString());
+		      callback();
+		    }
+		  });
+		  const scriptConsole = new console.Console({ stdout: sink(current.out), stderr: sink(current.err) });
+		  current.fail = err => {
+		    if (err instanceof Exit) return;
+		    if (!current.done) scriptConsole.error(err);
+		    finish(1);
+		  };
+		  const check = () => {
+		    if (current.settled && current.timers.size === 0) finish(0);
+		  };
+		  const scriptSetTimeout = (fn, ms, ...args) => {
+		    const timer = setTimeout(() => {
+		      current.timers.delete(timer);
+		      try {
+		        fn(...args);
+		      } catch (err) {
+		        return current.fail(err);
+		      }
+		      check();
+		    }, ms);
+		    current.timers.add(timer);
+		    return timer;
+		  };
+		  const patchedFs = {
+		    ...fs,
+		    readFileSync: (path, options) => {
+		      if (path === 0) return input;
+		      return fs.readFileSync(path, options);
+		    }
+		  };
+		  const patchedRequire = (mod) => {
+		    if (mod === 'fs') return patchedFs;
+		    return require(mod);
+		  };
+		  const scriptProcess = {
+		    env: { JASPER_API: api },
+		    exit: (code) => {
+		      finish(code || 0);
+		      throw new Exit();
+		    },
+		  };
+		  try {
+		    new AsyncFunction('require', 'console', 'setTimeout', 'process', script)(patchedRequire, scriptConsole, scriptSetTimeout, scriptProcess)
+		      .then(() => {
+		        current.settled = true;
+		        // Let unhandled rejections from the script report before finishing
+		        setImmediate(check);
+		      }, err => {
+		        current.settled = true;
+		        current.fail(err);
+		      });
+		  } catch (err) {
+		    current.fail(err);
+		  }
+		};
+		const uncaught = err => {
+		  if (err instanceof Exit) return;
+		  if (job) return job.fail(err);
+		  // Late errors from a script that already exited
+		  console.error(err);
+		};
+		process.on('uncaughtException', uncaught);
+		process.on('unhandledRejection', uncaught);
+		const frames = fs.createReadStream(null, { fd: 4 });
+		let buffer = Buffer.alloc(0);
+		frames.on('data', chunk => {
+		  buffer = Buffer.concat([buffer, chunk]);
+		  for (let i = buffer.indexOf(10); i >= 0; i = buffer.indexOf(10)) {
+		    const length = parseInt(buffer.subarray(0, i).toString(), 10);
+		    if (buffer.length < i + 1 + length) return;
+		    const frame = JSON.parse(buffer.subarray(i + 1, i + 1 + length).toString('utf-8'));
+		    buffer = buffer.subarray(i + 1 + length);
+		    run(frame);
+		  }
+		});
+		frames.on('end', () => process.exit(0));
+	""";
+
+	private WorkerPool pool;
+
 	@Timed("jasper.vm")
 	public String runJavaScript(String targetScript, String inputString, int timeoutMs) throws ScriptException, IOException {
+		if (props.getScriptPoolSize() > 0) return pool().run(props.getNode(), targetScript, inputString, timeoutMs);
 		var process = new ProcessBuilder(props.getNode(), "-e", nodeVmWrapperScript, ""+timeoutMs, api).start();
 		try (var writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
 			writer.write(targetScript);
@@ -68,4 +192,26 @@ public class JavaScript {
 		}
 		return runProcess(process, timeoutMs);
 	}
+
+	synchronized WorkerPool pool() {
+		if (pool == null) {
+			pool = new WorkerPool("javascript", props.getScriptPoolSize(), props.getScriptPoolMaxRuns(), props.getScriptPoolMaxMemoryMb() * 1024L * 1024L,
+				Duration.ofSeconds(props.getScriptPoolMaxIdleSec()),
+				node -> List.of("sh", "-c", FRAME_FDS, node, "-e", nodeWorkerScript, api),
+				meterRegistry);
+		}
+		return pool;
+	}
+
+	/**
+	 * Stop pooled workers that have been idle too long.
+	 */
+	public synchronized void expireWorkers() {
+		if (pool != null) pool.expireIdle();
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		if (pool != null) pool.close();
+	}
 }
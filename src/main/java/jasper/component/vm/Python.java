@@ -1,6 +1,9 @@
 package jasper.component.vm;
 
 import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jasper.config.Props;
 import jasper.errors.ScriptException;
 import org.slf4j.Logger;
@@ -12,42 +15,29 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
-import java.nio.file.attribute.FileTime;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.List;
 
 import static jasper.component.vm.RunProcess.runProcess;
-import static java.lang.System.getProperty;
-import static java.nio.file.Files.createDirectories;
-import static java.nio.file.Files.exists;
-import static java.nio.file.Files.setAttribute;
-import static java.nio.file.Files.writeString;
-import static java.security.MessageDigest.getInstance;
-import static java.time.Instant.now;
-import static org.apache.commons.codec.binary.Hex.encodeHexString;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
 @Component
 public class Python {
 	private static final Logger logger = LoggerFactory.getLogger(Python.class);
-	private static final Duration UPDATE_COOLDOWN = Duration.of(15, ChronoUnit.MINUTES);
 
 	@Autowired
 	Props props;
 
+	@Autowired
+	Venvs venvs;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	@Value("http://localhost:${server.port}")
 	String api;
 
-	private final Map<String, Instant> lastUpdate = new HashMap<>();
-	private final ConcurrentHashMap<String, ReentrantLock> venvLocks = new ConcurrentHashMap<>();
 
 	// language=Python
 	private final String pythonVmWrapperScript = """
@@ -68,42 +58,85 @@ if process.returncode != 0:
 	sys.exit(process.returncode)
 	""";
 
+	// language=Python
+	private final String pythonWorkerScript = """
+import io, json, os, resource, sys, tempfile, traceback
+os.environ['JASPER_API'] = sys.argv[1]
+# Move frames to private fds, so output written straight to fd 1 cannot corrupt them
+frames_in, frames_out = os.fdopen(os.dup(0), 'rb'), os.fdopen(os.dup(1), 'wb')
+null = os.open(os.devnull, os.O_RDONLY)
+os.dup2(null, 0)
+os.close(null)
+os.dup2(2, 1)
+def read_frame():
+	header = frames_in.readline()
+	if not header:
+		return None
+	return json.loads(frames_in.read(int(header)))
+def write_frame(frame):
+	data = json.dumps(frame).encode()
+	frames_out.write(str(len(data)).encode() + b'\\n' + data)
+	frames_out.flush()
+def rss():
+	try:
+		with open('/proc/self/statm') as f:
+			return int(f.read().split()[1]) * os.sysconf('SC_PAGE_SIZE')
+	except OSError:
+		return resource.getrusage(resource.RUSAGE_SELF).ru_maxrss * 1024
+while (job := read_frame()) is not None:
+	# Capture fd 1 as well, so output from subprocesses and C extensions is kept
+	capture = tempfile.TemporaryFile()
+	os.dup2(capture.fileno(), 1)
+	out = open(1, 'w', encoding='utf-8', buffering=1, closefd=False)
+	err = io.TextIOWrapper(io.BytesIO(), encoding='utf-8', write_through=True)
+	sys.stdin = io.TextIOWrapper(io.BytesIO(job['input'].encode()), encoding='utf-8')
+	sys.stdout, sys.stderr = out, err
+	code = 0
+	try:
+		exec(compile(job['script'], '<string>', 'exec'), {'__name__': '__main__'})
+	except SystemExit as e:
+		if isinstance(e.code, int) or e.code is None:
+			code = e.code or 0
+		else:
+			print(e.code, file=err)
+			code = 1
+	except BaseException:
+		traceback.print_exc()
+		code = 1
+	finally:
+		sys.stdin, sys.stdout, sys.stderr = sys.__stdin__, sys.__stdout__, sys.__stderr__
+		if not out.closed:
+			out.flush()
+		os.dup2(2, 1)
+	capture.seek(0)
+	output = capture.read().decode('utf-8', 'replace')
+	capture.close()
+	write_frame({
+		'out': output,
+		'err': err.buffer.getvalue().decode(),
+		'code': code,
+		'rss': rss(),
+	})
+	""";
+
+	private WorkerPool pool;
+
+	@PostConstruct
+	public void init() {
+		// Pooled workers keep the packages they imported, so restart them after an upgrade
+		venvs.onUpgrade(this::closeWorkers);
+	}
+
 	@Timed("jasper.vm")
 	public String runPython(String requirements, String targetScript, String inputString, int timeoutMs) throws ScriptException, IOException, NoSuchAlgorithmException {
-		var python = props.getPython();
-		if (isNotBlank(requirements)) {
-			var requirementsHash = encodeHexString(getInstance("SHA-256").digest(requirements.getBytes(StandardCharsets.UTF_8)));
-			var tmpDir = Objects.toString(getProperty("java.io.tmpdir"), "/tmp");
-			var venv = Paths.get(tmpDir).resolve(requirementsHash).toAbsolutePath();
-			var requirementsFile = Paths.get(venv + "/requirements.txt");
-
-			var lock = venvLocks.computeIfAbsent(requirementsHash, k -> new ReentrantLock());
-			lock.lock();
-			try {
-				// Create virtual environment if it doesn't exist
-				if (!exists(requirementsFile)) {
-					var venvProcess = new ProcessBuilder(python, "-m", "venv", venv.toString()).start();
-					runProcess(venvProcess, 60_000);
-					createDirectories(venv);
-					writeString(requirementsFile, requirements);
-				}
-				python = venv.resolve("bin/python").toString();
-
-				if (!lastUpdate.containsKey(requirementsHash) || lastUpdate.get(requirementsHash).isBefore(now().minus(UPDATE_COOLDOWN))) {
-					lastUpdate.put(requirementsHash, now());
-					// Mark requirements.txt as accessed to prevent deletion for 24 hours
-					var now = FileTime.from(now());
-					setAttribute(requirementsFile, "lastAccessTime", now);
-					setAttribute(requirementsFile, "lastModifiedTime", now);
-					// Install requirements using pip
-					var pip = venv.resolve("bin/pip").toString();
-					var pipProcess = new ProcessBuilder(pip, "install", "--upgrade", "-r", requirementsFile.toString()).start();
-					runProcess(pipProcess, 300_000);
-				}
-			} finally {
-				lock.unlock();
-			}
+		if (isBlank(requirements)) return run(props.getPython(), targetScript, inputString, timeoutMs);
+		try (var venv = venvs.lease(requirements)) {
+			return run(venv.python(), targetScript, inputString, timeoutMs);
 		}
+	}
+
+	private String run(String python, String targetScript, String inputString, int timeoutMs) throws ScriptException, IOException {
+		if (props.getScriptPoolSize() > 0) return pool().run(python, targetScript, inputString, timeoutMs);
 		var scriptProcess = new ProcessBuilder(python, "-c", pythonVmWrapperScript, ""+timeoutMs, api).start();
 		try (OutputStreamWriter writer = new OutputStreamWriter(scriptProcess.getOutputStream(), StandardCharsets.UTF_8)) {
 			writer.write(targetScript);
@@ -115,4 +148,40 @@ if process.returncode != 0:
 		}
 		return runProcess(scriptProcess, timeoutMs);
 	}
+
+	synchronized WorkerPool pool() {
+		if (pool == null) {
+			pool = new WorkerPool("python", props.getScriptPoolSize(), props.getScriptPoolMaxRuns(), props.getScriptPoolMaxMemoryMb() * 1024L * 1024L,
+				Duration.ofSeconds(props.getScriptPoolMaxIdleSec()),
+				python -> List.of(python, "-c", pythonWorkerScript, api),
+				meterRegistry);
+		}
+		return pool;
+	}
+
+	private synchronized void closeWorkers(String python) {
+		if (pool != null) pool.close(python);
+	}
+
+	/**
+	 * Evict least recently used venvs, along with their pooled workers.
+	 */
+	public void evictVenvs() throws IOException {
+		var evicted = venvs.evict();
+		synchronized (this) {
+			if (pool != null) evicted.forEach(pool::close);
+		}
+	}
+
+	/**
+	 * Stop pooled workers that have been idle too long.
+	 */
+	public synchronized void expireWorkers() {
+		if (pool != null) pool.expireIdle();
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		if (pool != null) pool.close();
+	}
 }
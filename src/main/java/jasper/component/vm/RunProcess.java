@@ -4,11 +4,18 @@ import jasper.errors.ScriptException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getMessage;
 
 public class RunProcess {
 	private static final Logger logger = LoggerFactory.getLogger(RunProcess.class);
@@ -43,10 +50,90 @@ public class RunProcess {
 		return output.toString();
 	}
 
-	private static void joinReaders(Thread outputThread, Thread errorThread) {
+	/**
+	 * Run a process, handing its output to the consumer as it is written
+	 * instead of buffering it. The consumer reads on its own thread, so a slow
+	 * consumer fills the pipe and blocks the process rather than using heap.
+	 * Output left unread by the consumer is discarded, and the process is
+	 * stopped if the consumer fails. The timeout only applies to the process;
+	 * output still buffered when it exits is consumed before returning. If the
+	 * process times out the consumer is cancelled, and it has stopped by the
+	 * time this returns.
+	 */
+	public static void streamProcess(Process process, int timeoutMs, OutputConsumer consumer) throws ScriptException {
+		final var errors = new StringBuffer();
+		final var failure = new AtomicReference<Exception>();
+		final var cancelled = new AtomicBoolean();
+		var outputThread = Thread.ofVirtual().start(() -> {
+			try (var stream = new CancellableInputStream(process.getInputStream(), cancelled)) {
+				consumer.accept(stream);
+				stream.transferTo(OutputStream.nullOutputStream());
+			} catch (Exception e) {
+				failure.set(e);
+				destroyTree(process);
+			}
+		});
+		var errorThread = Thread.ofVirtual().start(() -> readStream(process.getErrorStream(), errors, "error"));
+
+		boolean finished;
+		try {
+			finished = process.waitFor(timeoutMs, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			destroyTree(process);
+			cancel(outputThread, cancelled);
+			joinReaders(errorThread);
+			Thread.currentThread().interrupt();
+			throw new ScriptException("Script execution interrupted", errors.toString());
+		}
+		destroyTree(process);
+		if (!finished) {
+			cancel(outputThread, cancelled);
+			joinReaders(errorThread);
+			throw new ScriptException("Script execution timed out", errors.toString());
+		}
 		try {
-			outputThread.join(READER_THREAD_JOIN_TIMEOUT_MS);
-			errorThread.join(READER_THREAD_JOIN_TIMEOUT_MS);
+			outputThread.join();
+		} catch (InterruptedException e) {
+			cancel(outputThread, cancelled);
+			joinReaders(errorThread);
+			Thread.currentThread().interrupt();
+			throw new ScriptException("Script execution interrupted", errors.toString());
+		}
+		joinReaders(errorThread);
+		if (failure.get() != null) {
+			throw new ScriptException("Error reading script output: " + getMessage(failure.get()), errors.toString());
+		}
+		var exitCode = process.exitValue();
+		if (exitCode != 0) {
+			throw new ScriptException("Script execution failed with exit code: " + exitCode, errors.toString());
+		}
+	}
+
+	/**
+	 * Stop the consumer reading any more output and wait for it to return.
+	 */
+	private static void cancel(Thread consumer, AtomicBoolean cancelled) {
+		cancelled.set(true);
+		consumer.interrupt();
+		var interrupted = false;
+		while (true) {
+			try {
+				consumer.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	public interface OutputConsumer {
+		void accept(InputStream output) throws IOException;
+	}
+
+	private static void joinReaders(Thread ...readers) {
+		try {
+			for (var reader : readers) reader.join(READER_THREAD_JOIN_TIMEOUT_MS);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 		}
@@ -64,7 +151,41 @@ public class RunProcess {
 		}
 	}
 
-	private static void destroyTree(Process process) {
+	/**
+	 * Fails every read once cancelled, even if the process left output in the pipe.
+	 */
+	private static class CancellableInputStream extends FilterInputStream {
+		private final AtomicBoolean cancelled;
+
+		CancellableInputStream(InputStream in, AtomicBoolean cancelled) {
+			super(in);
+			this.cancelled = cancelled;
+		}
+
+		private void check() throws IOException {
+			if (cancelled.get()) throw new InterruptedIOException("Script output cancelled");
+		}
+
+		@Override
+		public int read() throws IOException {
+			check();
+			return super.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			check();
+			return super.read(b, off, len);
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			check();
+			return super.skip(n);
+		}
+	}
+
+	static void destroyTree(Process process) {
 		// Snapshot descendants before killing the parent, since they reparent once it exits
 		var descendants = process.descendants().toList();
 		// Destroy the parent first so it cannot spawn new children
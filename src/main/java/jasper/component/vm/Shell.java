@@ -1,6 +1,7 @@
 package jasper.component.vm;
 
 import io.micrometer.core.annotation.Timed;
+import jasper.component.vm.RunProcess.OutputConsumer;
 import jasper.config.Props;
 import jasper.errors.ScriptException;
 import org.slf4j.Logger;
@@ -14,6 +15,7 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 
 import static jasper.component.vm.RunProcess.runProcess;
+import static jasper.component.vm.RunProcess.streamProcess;
 
 @Component
 public class Shell {
@@ -44,6 +46,18 @@ EOF
 
 	@Timed("jasper.vm")
 	public String runShellScript(String targetScript, String inputString, int timeoutMs) throws ScriptException, IOException {
+		return runProcess(start(targetScript, inputString, timeoutMs), timeoutMs);
+	}
+
+	/**
+	 * Run a script, handing its stdout to the consumer while the script is still running.
+	 */
+	@Timed("jasper.vm")
+	public void runShellScript(String targetScript, String inputString, int timeoutMs, OutputConsumer consumer) throws ScriptException, IOException {
+		streamProcess(start(targetScript, inputString, timeoutMs), timeoutMs, consumer);
+	}
+
+	private Process start(String targetScript, String inputString, int timeoutMs) throws IOException {
 		var process = new ProcessBuilder(props.getShell(), "-c", wrapperScript, props.getShell(), String.valueOf(timeoutMs), api).start();
 		try (var writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
 			writer.write(targetScript);
@@ -54,6 +68,6 @@ EOF
 		} catch (IOException e) {
 			logger.warn("Script terminated before receiving input.");
 		}
-		return runProcess(process, timeoutMs);
+		return process;
 	}
 }
@@ -0,0 +1,393 @@
+package jasper.component.vm;
+
+import jasper.config.Props;
+import jasper.errors.ScriptException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static jasper.component.vm.RunProcess.runProcess;
+import static java.lang.System.getProperty;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.setLastModifiedTime;
+import static java.nio.file.Files.writeString;
+import static java.security.MessageDigest.getInstance;
+import static java.time.Instant.now;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.sizeOfDirectory;
+import static org.apache.commons.lang3.StringUtils.isNumeric;
+
+/**
+ * Content addressed python venvs, one per distinct requirements.txt.
+ * Venvs are built ahead of time when a script plugin is saved, share a pip
+ * wheel cache, and are refreshed in the background, so scripts only wait on
+ * pip if their venv was never pre-warmed. Venvs are not relocatable, so each
+ * refresh builds a new generation in its own directory, {@code <hash>-<n>}.
+ * Scripts hold a {@link Lease} on the generation they run in, and the old
+ * generation is deleted once its leases are closed.
+ * Venvs and wheel cache files are evicted least recently used first once
+ * together they exceed the disk budget.
+ */
+@Component
+public class Venvs {
+	private static final Logger logger = LoggerFactory.getLogger(Venvs.class);
+	private static final Duration UPDATE_COOLDOWN = Duration.of(15, ChronoUnit.MINUTES);
+	private static final Duration TOUCH_COOLDOWN = Duration.of(1, ChronoUnit.MINUTES);
+	/**
+	 * Written once a venv is fully installed. The modified time records the last use.
+	 */
+	private static final String READY = ".ready";
+	private static final String WHEEL_CACHE = ".pip-cache";
+
+	@Autowired
+	Props props;
+
+	@Autowired
+	ExecutorService taskExecutor;
+
+	private final Map<String, Instant> lastUpdate = new ConcurrentHashMap<>();
+	private final Map<String, Instant> lastUsed = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+	/**
+	 * The generation new leases are given, by requirements hash.
+	 */
+	private final ConcurrentHashMap<String, Generation> current = new ConcurrentHashMap<>();
+	/**
+	 * pip runs share the wheel cache, trimming it waits for them to finish.
+	 */
+	private final ReentrantReadWriteLock wheelCache = new ReentrantReadWriteLock();
+	private final List<Consumer<String>> upgradeListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * A venv in use by a script. The venv is not deleted until the lease is closed.
+	 */
+	public record Lease(String python, Lock lock) implements AutoCloseable {
+		@Override
+		public void close() {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * One build of a venv. Leases hold the read lock, and the write lock is
+	 * taken to drain the generation before it is deleted.
+	 */
+	private record Generation(int number, Path path, ReentrantReadWriteLock usage) {
+		String python() {
+			return path.resolve("bin/python").toString();
+		}
+	}
+
+	/**
+	 * Called with the python binary of a venv generation after it was replaced
+	 * by an upgrade, so interpreters that already imported the old packages can
+	 * be stopped.
+	 */
+	public void onUpgrade(Consumer<String> listener) {
+		upgradeListeners.add(listener);
+	}
+
+	/**
+	 * Lease the venv for these requirements, building the venv if it is not
+	 * ready yet.
+	 */
+	public Lease lease(String requirements) throws IOException, ScriptException, NoSuchAlgorithmException {
+		var hash = hash(requirements);
+		while (true) {
+			var gen = ready(hash, requirements);
+			var lock = gen.usage().readLock();
+			lock.lock();
+			// Replaced by an upgrade or evicted before the lock was taken
+			if (current.get(hash) != gen) {
+				lock.unlock();
+				continue;
+			}
+			try {
+				touch(hash, gen.path());
+			} catch (IOException | RuntimeException e) {
+				lock.unlock();
+				throw e;
+			}
+			if (claimUpdate(hash)) taskExecutor.execute(() -> upgrade(hash));
+			return new Lease(gen.python(), lock);
+		}
+	}
+
+	/**
+	 * Build the venv for these requirements in the background.
+	 */
+	public void prewarm(String requirements) {
+		taskExecutor.execute(() -> {
+			try {
+				var hash = hash(requirements);
+				if (current.containsKey(hash)) return;
+				var gen = ready(hash, requirements);
+				touch(hash, gen.path());
+			} catch (Exception e) {
+				logger.warn("Failed to pre-warm python venv: {}", e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Delete least recently used venvs and wheel cache files until the total
+	 * size is within the disk budget.
+	 * Venvs used within the update cooldown are kept, since scripts may still be running in them.
+	 * Wheel cache files are only trimmed while no pip install is running.
+	 *
+	 * @return python binaries of the deleted venvs
+	 */
+	public List<String> evict() throws IOException {
+		var root = root();
+		if (!exists(root)) return List.of();
+		record Entry(String hash, Path path, Instant used, long size) { }
+		var entries = new ArrayList<Entry>();
+		try (var dirs = Files.list(root)) {
+			for (var venv : dirs.toList()) {
+				var name = venv.getFileName().toString();
+				if (name.startsWith(".") || !Files.isDirectory(venv)) continue;
+				var hash = hashOf(name);
+				var marker = venv.resolve(READY);
+				var used = getLastModifiedTime(exists(marker) ? marker : venv).toInstant();
+				var gen = current.get(hash);
+				if (gen != null && gen.path().equals(venv)) used = lastUsed.getOrDefault(hash, used);
+				entries.add(new Entry(hash, venv, used, sizeOfDirectory(venv.toFile())));
+			}
+		}
+		var cache = root.resolve(WHEEL_CACHE);
+		if (exists(cache)) {
+			try (var files = Files.walk(cache)) {
+				for (var file : files.filter(Files::isRegularFile).toList()) {
+					entries.add(new Entry(null, file, getLastModifiedTime(file).toInstant(), Files.size(file)));
+				}
+			}
+		}
+		var budget = props.getVenvDiskBudgetMb() * 1024L * 1024L;
+		var total = entries.stream().mapToLong(Entry::size).sum();
+		var cutoff = now().minus(UPDATE_COOLDOWN);
+		var evicted = new ArrayList<String>();
+		var trimCache = false;
+		entries.sort(Comparator.comparing(Entry::used));
+		try {
+			for (var e : entries) {
+				if (total <= budget) break;
+				if (e.hash() == null) {
+					if (!trimCache && !(trimCache = wheelCache.writeLock().tryLock())) continue;
+					Files.deleteIfExists(e.path());
+					total -= e.size();
+					continue;
+				}
+				if (e.used().isAfter(cutoff)) continue;
+				// Held by builds and upgrades, including while an old generation drains
+				var lock = lock(e.hash());
+				if (!lock.tryLock()) continue;
+				try {
+					var gen = current.get(e.hash());
+					if (gen != null && gen.path().equals(e.path())) {
+						if (!gen.usage().writeLock().tryLock()) continue;
+						try {
+							current.remove(e.hash(), gen);
+							delete(e.path());
+						} finally {
+							gen.usage().writeLock().unlock();
+						}
+						lastUsed.remove(e.hash());
+						lastUpdate.remove(e.hash());
+					} else {
+						// Left behind by a restart or a failed upgrade, never leased
+						delete(e.path());
+					}
+					total -= e.size();
+					evicted.add(e.path().resolve("bin/python").toString());
+					logger.info("Evicted python venv {} last used {}", e.path().getFileName(), e.used());
+				} finally {
+					lock.unlock();
+				}
+			}
+		} finally {
+			if (trimCache) wheelCache.writeLock().unlock();
+		}
+		return evicted;
+	}
+
+	Path root() {
+		return Paths.get(Objects.toString(getProperty("java.io.tmpdir"), "/tmp")).resolve("jasper-venv");
+	}
+
+	/**
+	 * The current generation, building the first one if no generation is ready.
+	 */
+	private Generation ready(String hash, String requirements) throws IOException, ScriptException {
+		var gen = current.get(hash);
+		if (gen != null) return gen;
+		var lock = lock(hash);
+		lock.lock();
+		try {
+			gen = current.get(hash);
+			if (gen != null) return gen;
+			gen = latest(hash);
+			if (gen == null) {
+				gen = build(hash, 0, requirements, false);
+				lastUpdate.put(hash, now());
+			}
+			current.put(hash, gen);
+			return gen;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The newest generation left ready on disk by a previous run.
+	 */
+	private Generation latest(String hash) throws IOException {
+		var root = root();
+		if (!exists(root)) return null;
+		Generation latest = null;
+		try (var dirs = Files.list(root)) {
+			for (var venv : dirs.toList()) {
+				var name = venv.getFileName().toString();
+				if (!name.startsWith(hash + "-") || !hash.equals(hashOf(name)) || !exists(venv.resolve(READY))) continue;
+				var number = Integer.parseInt(name.substring(hash.length() + 1));
+				if (latest == null || number > latest.number()) latest = generation(hash, number);
+			}
+		}
+		return latest;
+	}
+
+	private Generation build(String hash, int number, String requirements, boolean upgrade) throws IOException, ScriptException {
+		var gen = generation(hash, number);
+		// Remove partial installs
+		if (exists(gen.path())) delete(gen.path());
+		createDirectories(root().resolve(WHEEL_CACHE));
+		install(gen.path(), requirements, upgrade);
+		writeString(gen.path().resolve(READY), "");
+		return gen;
+	}
+
+	void install(Path venv, String requirements, boolean upgrade) throws IOException, ScriptException {
+		runProcess(new ProcessBuilder(props.getPython(), "-m", "venv", venv.toString()).start(), 60_000);
+		writeString(venv.resolve("requirements.txt"), requirements);
+		pip(venv, upgrade);
+	}
+
+	/**
+	 * Build the next generation with upgraded packages while scripts keep
+	 * running in the current one. New leases switch to the next generation
+	 * at once, and the old one is deleted when its last lease is closed.
+	 */
+	private void upgrade(String hash) {
+		var lock = lock(hash);
+		if (!lock.tryLock()) return;
+		try {
+			var old = current.get(hash);
+			if (old == null) return;
+			var next = build(hash, old.number() + 1, readString(old.path().resolve("requirements.txt")), true);
+			current.put(hash, next);
+			var drain = old.usage().writeLock();
+			drain.lock();
+			try {
+				delete(old.path());
+			} finally {
+				drain.unlock();
+			}
+			upgradeListeners.forEach(l -> l.accept(old.python()));
+		} catch (Exception e) {
+			logger.warn("Failed to upgrade python venv {}: {}", hash, e.getMessage());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void pip(Path venv, boolean upgrade) throws IOException, ScriptException {
+		var command = new ArrayList<>(List.of(venv.resolve("bin/pip").toString(), "install"));
+		if (upgrade) command.add("--upgrade");
+		command.addAll(List.of(
+			"--cache-dir", root().resolve(WHEEL_CACHE).toString(),
+			"-r", venv.resolve("requirements.txt").toString()));
+		var cache = wheelCache.readLock();
+		cache.lock();
+		try {
+			runProcess(new ProcessBuilder(command).start(), 300_000);
+		} finally {
+			cache.unlock();
+		}
+	}
+
+	private Generation generation(String hash, int number) {
+		// Fair, so draining is not starved by scripts that leased the generation before it was replaced
+		return new Generation(number, root().resolve(hash + "-" + number), new ReentrantReadWriteLock(true));
+	}
+
+	private ReentrantLock lock(String hash) {
+		return locks.computeIfAbsent(hash, k -> new ReentrantLock());
+	}
+
+	private static void delete(Path venv) throws IOException {
+		// Drop the marker first so a partly deleted venv is never used
+		Files.deleteIfExists(venv.resolve(READY));
+		deleteDirectory(venv.toFile());
+	}
+
+	/**
+	 * The requirements hash of a venv directory, {@code <hash>-<n>}.
+	 */
+	private static String hashOf(String name) {
+		var dash = name.lastIndexOf('-');
+		return dash == -1 || !isNumeric(name.substring(dash + 1)) ? name : name.substring(0, dash);
+	}
+
+	/**
+	 * Claim the next background upgrade once the cooldown has passed.
+	 */
+	private boolean claimUpdate(String hash) {
+		var now = now();
+		var prev = lastUpdate.get(hash);
+		if (prev == null) return lastUpdate.putIfAbsent(hash, now) == null;
+		if (prev.isAfter(now.minus(UPDATE_COOLDOWN))) return false;
+		return lastUpdate.replace(hash, prev, now);
+	}
+
+	/**
+	 * Record a use in memory, and in the ready marker at most once per minute.
+	 */
+	private void touch(String hash, Path venv) throws IOException {
+		var now = now();
+		var prev = lastUsed.put(hash, now);
+		if (prev != null && prev.isAfter(now.minus(TOUCH_COOLDOWN))) return;
+		var marker = venv.resolve(READY);
+		if (exists(marker)) setLastModifiedTime(marker, FileTime.from(now));
+	}
+
+	static String hash(String requirements) throws NoSuchAlgorithmException {
+		return encodeHexString(getInstance("SHA-256").digest(requirements.getBytes(StandardCharsets.UTF_8)));
+	}
+}
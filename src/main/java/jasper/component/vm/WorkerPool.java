@@ -0,0 +1,302 @@
+package jasper.component.vm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jasper.errors.ScriptException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static jasper.component.vm.RunProcess.destroyTree;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.lang3.exception.ExceptionUtils.getMessage;
+
+/**
+ * Pool of long-lived interpreter workers, kept separately for each executable
+ * so every python venv gets its own workers.
+ * A worker reads a length prefixed JSON frame with the script and its input on
+ * stdin and answers with a length prefixed frame holding the script output and
+ * exit code, so interpreter startup is only paid when a worker is spawned.
+ * Timeouts kill the worker like a one-off process would be killed. Workers are
+ * recycled after a script fails, after maxRuns scripts, or once their resident
+ * memory exceeds maxMemoryBytes, and stopped once idle for longer than maxIdle.
+ */
+public class WorkerPool {
+	private static final Logger logger = LoggerFactory.getLogger(WorkerPool.class);
+	private static final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final String runtime;
+	private final int size;
+	private final int maxRuns;
+	private final long maxMemoryBytes;
+	private final Duration maxIdle;
+	private final Function<String, List<String>> command;
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+	private final Counter spawned;
+	private final Counter reused;
+	private final Counter saturated;
+	private volatile boolean closed;
+
+	public WorkerPool(String runtime, int size, int maxRuns, long maxMemoryBytes, Duration maxIdle, Function<String, List<String>> command, MeterRegistry meterRegistry) {
+		this.runtime = runtime;
+		this.size = size;
+		this.maxRuns = maxRuns;
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.maxIdle = maxIdle;
+		this.command = command;
+		this.meterRegistry = meterRegistry;
+		spawned = Counter.builder("jasper.vm.pool.workers")
+			.tag("runtime", runtime)
+			.tag("result", "spawn")
+			.register(meterRegistry);
+		reused = Counter.builder("jasper.vm.pool.workers")
+			.tag("runtime", runtime)
+			.tag("result", "reuse")
+			.register(meterRegistry);
+		saturated = Counter.builder("jasper.vm.pool.saturated")
+			.description("Scripts that had to wait for a free worker")
+			.tag("runtime", runtime)
+			.register(meterRegistry);
+		Gauge.builder("jasper.vm.pool.active", this, WorkerPool::active)
+			.tag("runtime", runtime)
+			.register(meterRegistry);
+		Gauge.builder("jasper.vm.pool.idle", this, WorkerPool::idle)
+			.tag("runtime", runtime)
+			.register(meterRegistry);
+	}
+
+	public String run(String executable, String script, String input, int timeoutMs) throws ScriptException, IOException {
+		var slot = slots.computeIfAbsent(executable, Slot::new);
+		acquire(slot, timeoutMs);
+		try {
+			var worker = slot.take();
+			Result result;
+			try {
+				result = worker.run(script, input, timeoutMs);
+			} catch (TimeoutException e) {
+				recycle(worker, "timeout");
+				throw new ScriptException("Script execution timed out", worker.errors.toString());
+			} catch (InterruptedException e) {
+				recycle(worker, "interrupted");
+				Thread.currentThread().interrupt();
+				throw new ScriptException("Script execution interrupted", worker.errors.toString());
+			} catch (ExecutionException e) {
+				var exitCode = exitCode(worker.process);
+				recycle(worker, "crash");
+				throw new ScriptException("Script execution failed with exit code: " + exitCode, worker.errors + getMessage(e.getCause()));
+			}
+			if (result.code() != 0) {
+				recycle(worker, "error");
+				throw new ScriptException("Script execution failed with exit code: " + result.code(), result.err() + result.out());
+			}
+			if (result.dirty()) {
+				recycle(worker, "exit");
+			} else if (worker.runs >= maxRuns) {
+				recycle(worker, "runs");
+			} else if (result.rss() > maxMemoryBytes) {
+				recycle(worker, "memory");
+			} else if (closed || slots.get(executable) != slot) {
+				recycle(worker, "closed");
+			} else {
+				worker.idleSince = System.nanoTime();
+				slot.idle.offerFirst(worker);
+			}
+			return result.out();
+		} finally {
+			slot.permits.release();
+		}
+	}
+
+	public void close() {
+		closed = true;
+		for (var slot : slots.values()) {
+			Worker worker;
+			while ((worker = slot.idle.pollFirst()) != null) recycle(worker, "closed");
+		}
+	}
+
+	/**
+	 * Stop the idle workers for an executable, such as a venv that is being deleted.
+	 * Busy workers are stopped when they finish.
+	 */
+	public void close(String executable) {
+		var slot = slots.remove(executable);
+		if (slot == null) return;
+		Worker worker;
+		while ((worker = slot.idle.pollFirst()) != null) recycle(worker, "closed");
+	}
+
+	/**
+	 * Stop workers idle for longer than maxIdle, and forget executables left
+	 * without workers, such as venvs that are no longer used.
+	 */
+	public void expireIdle() {
+		var now = System.nanoTime();
+		for (var slot : slots.values()) {
+			for (var worker : slot.idle) {
+				if (now - worker.idleSince >= maxIdle.toNanos() && slot.idle.remove(worker)) recycle(worker, "idle");
+			}
+			if (slot.idle.isEmpty() && slot.permits.availablePermits() == size) slots.remove(slot.executable, slot);
+		}
+	}
+
+	int active() {
+		return slots.values().stream().mapToInt(s -> size - s.permits.availablePermits()).sum();
+	}
+
+	int idle() {
+		return slots.values().stream().mapToInt(s -> s.idle.size()).sum();
+	}
+
+	private void acquire(Slot slot, int timeoutMs) throws ScriptException {
+		if (slot.permits.tryAcquire()) return;
+		saturated.increment();
+		try {
+			if (slot.permits.tryAcquire(timeoutMs, MILLISECONDS)) return;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ScriptException("Script execution interrupted", "");
+		}
+		throw new ScriptException("Script execution timed out", "All " + size + " " + runtime + " workers busy");
+	}
+
+	private void recycle(Worker worker, String reason) {
+		logger.debug("Recycling {} worker after {} runs: {}", runtime, worker.runs, reason);
+		Counter.builder("jasper.vm.pool.recycled")
+			.tag("runtime", runtime)
+			.tag("reason", reason)
+			.register(meterRegistry)
+			.increment();
+		try {
+			worker.stdin.close();
+		} catch (IOException ignored) { }
+		destroyTree(worker.process);
+	}
+
+	private static String exitCode(Process process) {
+		try {
+			if (process.waitFor(1, TimeUnit.SECONDS)) return "" + process.exitValue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "unknown";
+	}
+
+	private record Result(String out, String err, int code, long rss, boolean dirty) {
+		static Result of(JsonNode frame) {
+			return new Result(
+				frame.path("out").asText(""),
+				frame.path("err").asText(""),
+				frame.path("code").asInt(1),
+				frame.path("rss").asLong(0),
+				frame.path("dirty").asBoolean(false));
+		}
+	}
+
+	private class Slot {
+		final String executable;
+		final Semaphore permits = new Semaphore(size);
+		final BlockingDeque<Worker> idle = new LinkedBlockingDeque<>();
+
+		Slot(String executable) {
+			this.executable = executable;
+		}
+
+		Worker take() throws IOException {
+			Worker worker;
+			while ((worker = idle.pollFirst()) != null) {
+				if (worker.process.isAlive()) {
+					reused.increment();
+					return worker;
+				}
+				recycle(worker, "crash");
+			}
+			spawned.increment();
+			return new Worker(command.apply(executable));
+		}
+	}
+
+	private static class Worker {
+		final Process process;
+		final OutputStream stdin;
+		final InputStream stdout;
+		// StringBuffer is thread-safe, since the reader thread appends while runs reset it
+		final StringBuffer errors = new StringBuffer();
+		int runs;
+		volatile long idleSince;
+
+		Worker(List<String> command) throws IOException {
+			process = new ProcessBuilder(command).start();
+			stdin = process.getOutputStream();
+			stdout = new BufferedInputStream(process.getInputStream());
+			Thread.ofVirtual().start(() -> {
+				try (var reader = new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8)) {
+					var buffer = new char[8192];
+					int read;
+					while ((read = reader.read(buffer)) != -1) errors.append(buffer, 0, read);
+				} catch (IOException e) {
+					logger.debug("Error reading worker error stream: {}", e.getMessage());
+				}
+			});
+		}
+
+		Result run(String script, String input, int timeoutMs) throws TimeoutException, InterruptedException, ExecutionException {
+			errors.setLength(0);
+			runs++;
+			var job = objectMapper.createObjectNode()
+				.put("script", script)
+				.put("input", input);
+			// Write and read off the calling thread so a stuck worker cannot outlive the timeout
+			var task = new FutureTask<>(() -> {
+				writeFrame(stdin, job);
+				return Result.of(readFrame(stdout));
+			});
+			Thread.ofVirtual().start(task);
+			return task.get(timeoutMs, MILLISECONDS);
+		}
+	}
+
+	private static void writeFrame(OutputStream out, JsonNode frame) throws IOException {
+		var data = objectMapper.writeValueAsBytes(frame);
+		out.write((data.length + "\n").getBytes(StandardCharsets.UTF_8));
+		out.write(data);
+		out.flush();
+	}
+
+	private static JsonNode readFrame(InputStream in) throws IOException {
+		var header = new StringBuilder();
+		int c;
+		while ((c = in.read()) != '\n') {
+			if (c == -1) throw new EOFException("Worker exited");
+			header.append((char) c);
+		}
+		try {
+			return objectMapper.readTree(in.readNBytes(Integer.parseInt(header.toString().trim())));
+		} catch (NumberFormatException e) {
+			throw new IOException("Unexpected worker output: " + header);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package jasper.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jasper.component.ConfigCache;
 import jasper.management.SecurityMetersService;
 import jasper.security.jwt.TokenProvider;
@@ -53,8 +54,8 @@ public class AuthConfig {
 	@Primary
 	@Bean
 	@Profile("jwt")
-	TokenProvider tokenProvider(Props props, ConfigCache configs, SecurityMetersService securityMetersService, RestTemplate restTemplate) {
-		return new TokenProviderImpl(props, configs, securityMetersService, restTemplate);
+	TokenProvider tokenProvider(Props props, ConfigCache configs, SecurityMetersService securityMetersService, RestTemplate restTemplate, MeterRegistry meterRegistry) {
+		return new TokenProviderImpl(props, configs, securityMetersService, restTemplate, meterRegistry);
 	}
 
 	@Primary
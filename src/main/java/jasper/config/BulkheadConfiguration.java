@@ -51,6 +51,22 @@ public class BulkheadConfiguration {
 			.build());
 	}
 
+	@Bean
+	public Bulkhead replStreamBulkhead() {
+		return registry.bulkhead("repl-stream", BulkheadConfig.custom()
+			.maxConcurrentCalls(configs.root().getMaxReplStreams())
+			.maxWaitDuration(ofMinutes(15))
+			.build());
+	}
+
+	@Bean
+	public Bulkhead replServeBulkhead() {
+		return registry.bulkhead("repl-serve", BulkheadConfig.custom()
+			.maxConcurrentCalls(configs.root().getMaxServedReplStreams())
+			.maxWaitDuration(ofSeconds(0))
+			.build());
+	}
+
 	@Bean
 	public Bulkhead fetchBulkhead() {
 		return registry.bulkhead("fetch", BulkheadConfig.custom()
@@ -76,6 +92,8 @@ public class BulkheadConfiguration {
 			updateBulkheadConfig(httpBulkhead(), configs.root().getMaxConcurrentRequests());
 			updateBulkheadConfig(scriptBulkhead(), configs.root().getMaxConcurrentScripts());
 			updateBulkheadConfig(replBulkhead(), configs.root().getMaxConcurrentReplication());
+			updateBulkheadConfig(replStreamBulkhead(), configs.root().getMaxReplStreams());
+			updateBulkheadConfig(replServeBulkhead(), configs.root().getMaxServedReplStreams());
 			updateBulkheadConfig(fetchBulkhead(), configs.root().getMaxConcurrentFetch());
 		}
 	}
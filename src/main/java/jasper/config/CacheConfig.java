@@ -76,17 +76,17 @@ public class CacheConfig {
 			.recordStats()
 			.build());
 		cacheManager.registerCustomCache("template-cache-wrapped", Caffeine.newBuilder()
-			.maximumSize(1)
+			.maximumSize(10_000)
 			.expireAfterAccess(1, TimeUnit.DAYS)
 			.recordStats()
 			.build());
 		cacheManager.registerCustomCache("template-schemas-cache", Caffeine.newBuilder()
-			.maximumSize(1)
+			.maximumSize(10_000)
 			.expireAfterAccess(1, TimeUnit.DAYS)
 			.recordStats()
 			.build());
 		cacheManager.registerCustomCache("template-defaults-cache", Caffeine.newBuilder()
-			.maximumSize(1)
+			.maximumSize(10_000)
 			.expireAfterAccess(1, TimeUnit.DAYS)
 			.recordStats()
 			.build());
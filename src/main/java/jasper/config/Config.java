@@ -160,6 +160,16 @@ public interface Config {
 		 */
 		@Builder.Default
 		private int maxConcurrentReplication = 3;
+		/**
+		 * Maximum concurrent entity streams across all parallel replication pulls. Default 9.
+		 */
+		@Builder.Default
+		private int maxReplStreams = 9;
+		/**
+		 * Maximum concurrent replication streams served to remote pulls. Default 20.
+		 */
+		@Builder.Default
+		private int maxServedReplStreams = 20;
 		/**
 		 * Maximum HTTP requests per origin every 500 nanoseconds. Default 50.
 		 */
@@ -196,6 +206,8 @@ public interface Config {
 			if (server.getMaxConcurrentRequests() != null) wrapped = wrapped.withMaxConcurrentRequests(server.getMaxConcurrentRequests());
 			if (server.getMaxConcurrentScripts() != null) wrapped = wrapped.withMaxConcurrentScripts(server.getMaxConcurrentScripts());
 			if (server.getMaxConcurrentReplication() != null) wrapped = wrapped.withMaxConcurrentReplication(server.getMaxConcurrentReplication());
+			if (server.getMaxReplStreams() != null) wrapped = wrapped.withMaxReplStreams(server.getMaxReplStreams());
+			if (server.getMaxServedReplStreams() != null) wrapped = wrapped.withMaxServedReplStreams(server.getMaxServedReplStreams());
 			if (server.getMaxConcurrentFetch() != null) wrapped = wrapped.withMaxConcurrentFetch(server.getMaxConcurrentFetch());
 			return wrapped;
 		}
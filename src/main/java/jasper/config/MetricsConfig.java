@@ -5,6 +5,8 @@ import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jasper.repository.filter.TagQuery;
 import jasper.repository.spec.QualifiedTag;
 import jasper.security.Auth;
 import org.apache.logging.log4j.util.Strings;
@@ -37,6 +39,11 @@ public class MetricsConfig {
 		return new TimedAspect(registry, this::tagFactory);
 	}
 
+	@Bean
+	MeterBinder tagQueryCacheMetrics() {
+		return TagQuery::monitor;
+	}
+
 	private Iterable<Tag> tagFactory(ProceedingJoinPoint pjp) {
 		return Tags.of(
 			"class", pjp.getStaticPart().getSignature().getDeclaringTypeName(),
@@ -126,10 +126,18 @@ public class Props {
 	 * Size of buffer in bytes used to cache JSON in RAM before flushing to disk during backup.
 	 */
 	private int backupBufferSize = 1000000;
+	/**
+	 * Number of entity exports or cache file copies to run at once when creating a backup.
+	 */
+	private int backupThreads = 4;
 	/**
 	 * Number of entities to restore in each transaction.
 	 */
 	private int restoreBatchSize = 500;
+	/**
+	 * Number of batches to write at once when restoring a backup.
+	 */
+	private int restoreThreads = 4;
 	/**
 	 * Number of entities to generate Metadata for in each transaction when backfilling.
 	 */
@@ -139,6 +147,11 @@ public class Props {
 	 * Set to 0 to disable idle detection and always run backfill.
 	 */
 	private int backfillIdleSec = 0;
+	/**
+	 * Number of Refs to load in each query when notifying watchers and async
+	 * tags of existing Refs on startup.
+	 */
+	private int watchBatchSize = 500;
 	/**
 	 * Number of seconds to throttle clearing the config cache.
 	 */
@@ -147,6 +160,16 @@ public class Props {
 	 * Number of seconds to throttle pushing after modification.
 	 */
 	private int pushCooldownSec = 1;
+	/**
+	 * Number of seconds a replication stream may hold its database cursor open.
+	 * The puller resumes from the last entity it received. Set to 0 to disable.
+	 */
+	private int replStreamTimeoutSec = 600;
+	/**
+	 * Number of milliseconds to coalesce Ref update messages before sending.
+	 * Only the latest update for each Ref is sent. Set to 0 to send immediately.
+	 */
+	private int messageDebounceMs = 50;
 
 	/**
 	 * Path to the folder to use for storage. Used by the backup system.
@@ -164,6 +187,28 @@ public class Props {
 	 * Path to shell binary for running shell scripts.
 	 */
 	private String shell = "/usr/bin/bash";
+	/**
+	 * Disk budget in MB for python venvs. Least recently used venvs are deleted first.
+	 */
+	private int venvDiskBudgetMb = 10_000;
+	/**
+	 * Number of warm interpreter workers to keep for the javascript runtime and for each python venv.
+	 * Workers are reused between scripts, so global state is not isolated between runs.
+	 * Set to 0 to start a new process for every script.
+	 */
+	private int scriptPoolSize = 0;
+	/**
+	 * Number of scripts a pooled worker runs before it is replaced.
+	 */
+	private int scriptPoolMaxRuns = 100;
+	/**
+	 * Resident memory in MB above which a pooled worker is replaced.
+	 */
+	private int scriptPoolMaxMemoryMb = 512;
+	/**
+	 * Seconds a pooled worker may stay idle before it is stopped.
+	 */
+	private int scriptPoolMaxIdleSec = 600;
 	/**
 	 * HTTP address of an instance where storage is enabled.
 	 */
@@ -274,6 +319,14 @@ public class Props {
 		 * Override the server maximum concurrent replication push/pull operations.
 		 */
 		private Integer maxConcurrentReplication;
+		/**
+		 * Override the server maximum concurrent entity streams across all parallel replication pulls.
+		 */
+		private Integer maxReplStreams;
+		/**
+		 * Override the server maximum concurrent replication streams served to remote pulls.
+		 */
+		private Integer maxServedReplStreams;
 		/**
 		 * Override the server maximum concurrent fetch operations (scraping).
 		 */
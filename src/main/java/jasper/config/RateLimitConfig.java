@@ -24,11 +24,11 @@ import org.springframework.messaging.Message;
 import org.springframework.web.filter.GenericFilterBean;
 
 import java.io.IOException;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static java.lang.String.format;
-import static java.time.Duration.ofNanos;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 @Configuration
@@ -44,14 +44,33 @@ public class RateLimitConfig {
 	@Autowired
 	Bulkhead httpBulkhead;
 
+	@Autowired
+	Optional<RedisRateLimiter> redisRateLimiter;
+
 	private final ConcurrentHashMap<String, RateLimiter> originRateLimiters = new ConcurrentHashMap<>();
 	private RateLimiter getOriginRateLimiter(String origin) {
 		return originRateLimiters.computeIfAbsent(origin, k -> RateLimiter.of("http-" + origin, RateLimiterConfig.custom()
 				.limitForPeriod(configs.security(origin).getMaxRequests())
-				.limitRefreshPeriod(ofNanos(500))
+				.limitRefreshPeriod(RedisRateLimiter.PERIOD)
 				.build()));
 	}
 
+	/**
+	 * Use the cluster wide limit if Redis is enabled, otherwise the local limit.
+	 */
+	private boolean acquireOriginPermission(String origin) {
+		var local = getOriginRateLimiter(origin);
+		return redisRateLimiter
+			.map(r -> r.acquirePermission("http-" + origin, configs.security(origin).getMaxRequests(), local))
+			.orElseGet(local::acquirePermission);
+	}
+
+	private boolean acquireHttpPermission(RateLimiter local) {
+		return redisRateLimiter
+			.map(r -> r.acquirePermission("http", configs.root().getMaxConcurrentRequests(), local))
+			.orElseGet(local::acquirePermission);
+	}
+
 	@ServiceActivator(inputChannel = "templateRxChannel")
 	public void handleTemplateUpdate(Message<TemplateDto> message) {
 		var template = message.getPayload();
@@ -68,7 +87,7 @@ public class RateLimitConfig {
 	RateLimiter httpRateLimiter() {
 		return RateLimiter.of("http", RateLimiterConfig.custom()
 				.limitForPeriod(configs.root().getMaxConcurrentRequests())
-				.limitRefreshPeriod(ofNanos(500))
+				.limitRefreshPeriod(RedisRateLimiter.PERIOD)
 				.build());
 	}
 
@@ -80,7 +99,7 @@ public class RateLimitConfig {
 				HttpServletRequest httpRequest = (HttpServletRequest) request;
 				HttpServletResponse httpResponse = (HttpServletResponse) response;
 				var origin = auth.getOrigin();
-				if (!getOriginRateLimiter(origin).acquirePermission()) {
+				if (!acquireOriginPermission(origin)) {
 					RateLimitConfig.logger.debug("{} Rate limit exceeded for origin: {}", origin, httpRequest.getRequestURI());
 					httpResponse.setStatus(429);
 					httpResponse.setHeader("X-RateLimit-Limit", ""+configs.security(origin).getMaxRequests());
@@ -88,7 +107,7 @@ public class RateLimitConfig {
 					httpResponse.setHeader("X-RateLimit-Retry-After", format("%.1f", ThreadLocalRandom.current().nextDouble(3.5, 4.5)));
 					return;
 				}
-				if (!httpRateLimiter.acquirePermission()) {
+				if (!acquireHttpPermission(httpRateLimiter)) {
 					RateLimitConfig.logger.debug("HTTP rate limit exceeded for request: {}", httpRequest.getRequestURI());
 					httpResponse.setStatus(429);
 					// Add random jitter from 3.5 to 4.5 seconds to prevent thundering herd
@@ -2,6 +2,7 @@ package jasper.config;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jasper.service.dto.ExtDto;
 import jasper.service.dto.PluginDto;
 import jasper.service.dto.RefDto;
@@ -17,6 +18,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.integration.dsl.IntegrationFlow;
@@ -501,6 +503,11 @@ public class RedisConfig {
 		return container;
 	}
 
+	@Bean
+	public RedisRateLimiter redisRateLimiter(MeterRegistry meterRegistry) {
+		return new RedisRateLimiter(new StringRedisTemplate(redisConnectionFactory), meterRegistry);
+	}
+
 	private abstract class CustomPublishingMessageHandler<T> extends AbstractMessageHandler {
 
 		private final RedisTemplate<?, ?> template;
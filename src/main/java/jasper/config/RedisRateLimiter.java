@@ -0,0 +1,153 @@
+package jasper.config;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cluster wide token bucket rate limiter stored in Redis.
+ * Each node takes a small batch of permits from the bucket in one round trip
+ * and hands them out locally, so most requests do not touch Redis.
+ * Unused permits are dropped after a second, and an empty bucket is not
+ * asked again until the denial has expired.
+ * While Redis is unavailable the node falls back to its local limiter.
+ */
+public class RedisRateLimiter {
+	private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+	/**
+	 * Refill period of the local limiters, see {@link RateLimitConfig}.
+	 */
+	static final Duration PERIOD = Duration.ofNanos(500);
+	/**
+	 * The bucket is refilled from the Redis clock in whole milliseconds, so
+	 * periods shorter than that are rounded up to one millisecond.
+	 */
+	static final long BUCKET_PERIOD_MS = Math.max(1, PERIOD.toMillis());
+	private static final Duration ALLOWANCE_TTL = Duration.ofSeconds(1);
+	private static final Duration DENIAL_TTL = Duration.ofMillis(10);
+	private static final Duration BACKOFF = Duration.ofSeconds(5);
+	private static final int MAX_BATCH = 100;
+	// language=Lua
+	static final RedisScript<Long> TAKE = RedisScript.of("""
+		local capacity = tonumber(ARGV[1])
+		local period = tonumber(ARGV[2])
+		local requested = tonumber(ARGV[3])
+		local time = redis.call('TIME')
+		local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+		local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+		local tokens = tonumber(bucket[1]) or capacity
+		local ts = tonumber(bucket[2]) or now
+		if now > ts then
+		  tokens = math.min(capacity, tokens + (now - ts) * capacity / period)
+		  ts = now
+		end
+		local granted = math.min(requested, math.floor(tokens))
+		redis.call('HSET', KEYS[1], 'tokens', tokens - granted, 'ts', ts)
+		redis.call('PEXPIRE', KEYS[1], math.max(1000, period * 2))
+		return granted
+		""", Long.class);
+
+	private final StringRedisTemplate redis;
+	private final Map<String, Allowance> allowances = new ConcurrentHashMap<>();
+	private final Counter local;
+	private final Counter remote;
+	private final Counter fallback;
+	private final Counter denied;
+	private volatile long unavailableUntil;
+
+	public RedisRateLimiter(StringRedisTemplate redis, MeterRegistry meterRegistry) {
+		this.redis = redis;
+		local = Counter.builder("jasper.ratelimit.permits")
+			.description("Permits granted from the batch already taken from Redis")
+			.tag("source", "local")
+			.register(meterRegistry);
+		remote = Counter.builder("jasper.ratelimit.permits")
+			.description("Permits granted after taking a batch from Redis")
+			.tag("source", "redis")
+			.register(meterRegistry);
+		fallback = Counter.builder("jasper.ratelimit.permits")
+			.description("Permits granted by the local limiter while Redis is unavailable")
+			.tag("source", "fallback")
+			.register(meterRegistry);
+		denied = Counter.builder("jasper.ratelimit.denied")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Take a permit from the cluster wide bucket for this key.
+	 *
+	 * @param limit permits per {@link #PERIOD}
+	 * @param localLimiter limiter to use while Redis is unavailable
+	 */
+	public boolean acquirePermission(String key, int limit, RateLimiter localLimiter) {
+		if (System.currentTimeMillis() < unavailableUntil) return fallback(localLimiter);
+		try {
+			if (allowances.computeIfAbsent(key, k -> new Allowance()).acquire(key, limit)) return true;
+			denied.increment();
+			return false;
+		} catch (RuntimeException e) {
+			logger.warn("Redis rate limiter unavailable, using local limits for {}: {}", BACKOFF, e.getMessage());
+			unavailableUntil = System.currentTimeMillis() + BACKOFF.toMillis();
+			return fallback(localLimiter);
+		}
+	}
+
+	private boolean fallback(RateLimiter localLimiter) {
+		if (localLimiter.acquirePermission()) {
+			fallback.increment();
+			return true;
+		}
+		denied.increment();
+		return false;
+	}
+
+	private long take(String key, int limit) {
+		var batch = Math.clamp(limit / 10, 1, MAX_BATCH);
+		var granted = redis.execute(TAKE, List.of("rate-limit:" + key),
+			String.valueOf(limit),
+			String.valueOf(BUCKET_PERIOD_MS),
+			String.valueOf(batch));
+		return granted == null ? 0 : granted;
+	}
+
+	private class Allowance {
+		private long permits;
+		private long expires;
+		private long deniedUntil;
+
+		boolean acquire(String key, int limit) {
+			var now = System.nanoTime();
+			synchronized (this) {
+				if (permits > 0 && now - expires < 0) {
+					permits--;
+					local.increment();
+					return true;
+				}
+				if (now - deniedUntil < 0) return false;
+			}
+			// Not holding the lock during the round trip, concurrent callers may each take a batch
+			var granted = take(key, limit);
+			now = System.nanoTime();
+			synchronized (this) {
+				if (granted == 0) {
+					deniedUntil = now + DENIAL_TTL.toNanos();
+					return false;
+				}
+				if (now - expires >= 0) permits = 0;
+				permits += granted - 1;
+				expires = now + ALLOWANCE_TTL.toNanos();
+			}
+			remote.increment();
+			return true;
+		}
+	}
+}
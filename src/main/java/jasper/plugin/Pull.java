@@ -19,6 +19,8 @@ import static jasper.domain.proj.HasTags.getPlugin;
 @JsonInclude(Include.NON_NULL)
 public class Pull implements Serializable {
 	private boolean websocket = true;
+	private boolean stream = true;
+	private boolean parallel;
 	private boolean cachePrefetch = true;
 	private boolean cacheProxy;
 	private boolean cacheProxyPrefetch;
@@ -26,4 +26,14 @@ public class Index implements Serializable {
 	private boolean published = true;
 	@Builder.Default
 	private boolean modified = true;
+	/**
+	 * Build and drop indexes with CONCURRENTLY so writes are not blocked.
+	 */
+	@Builder.Default
+	private boolean concurrent = false;
+	/**
+	 * Maximum number of concurrent index builds.
+	 */
+	@Builder.Default
+	private int maxConcurrentBuilds = 2;
 }
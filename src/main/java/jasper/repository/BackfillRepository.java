@@ -6,4 +6,10 @@ package jasper.repository;
  */
 public interface BackfillRepository {
 	int backfillMetadata(String origin, int batchSize);
+	/**
+	 * Index responses for up to batchSize Refs that have sources but no rows in ref_response.
+	 *
+	 * @return number of rows written, zero once the index is complete
+	 */
+	int backfillResponses(String origin, int batchSize);
 }
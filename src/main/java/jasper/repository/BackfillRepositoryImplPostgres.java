@@ -20,7 +20,7 @@ public class BackfillRepositoryImplPostgres implements BackfillRepository {
 			WITH rows as (
 				SELECT url, origin from ref
 				WHERE (metadata IS NULL OR metadata->>'regen' = 'true')
-				AND (:origin = '' OR origin = :origin OR origin LIKE concat(:origin, '.%'))
+				AND (:origin = '' OR (origin COLLATE "C" >= :origin AND origin COLLATE "C" < concat(:origin, '/')))
 				LIMIT :batchSize
 			)
 			UPDATE ref r
@@ -32,7 +32,7 @@ public class BackfillRepositoryImplPostgres implements BackfillRepository {
 					p.tag,
 					(SELECT jsonb_agg(pre.url) FROM ref pre WHERE jsonb_exists(pre.sources, r.url) AND jsonb_exists(pre.metadata->'expandedTags', p.tag) = true)
 				) FROM plugin p WHERE p.origin = :origin)),
-				'obsolete', (SELECT count(*) from ref n WHERE n.url = r.url AND n.modified > r.modified AND (:origin = '' OR n.origin = :origin OR n.origin LIKE concat(:origin, '.%')))
+				'obsolete', (SELECT count(*) from ref n WHERE n.url = r.url AND n.modified > r.modified AND (:origin = '' OR (n.origin COLLATE "C" >= :origin AND n.origin COLLATE "C" < concat(:origin, '/'))))
 			))
 			WHERE EXISTS (SELECT * from rows WHERE r.url = rows.url AND r.origin = rows.origin)
 			""";
@@ -44,4 +44,36 @@ public class BackfillRepositoryImplPostgres implements BackfillRepository {
 		em.clear();
 		return updated;
 	}
+
+	@Override
+	public int backfillResponses(String origin, int batchSize) {
+		String sql = """
+			WITH rows as (
+				SELECT url, origin from ref r
+				WHERE (:origin = '' OR (r.origin COLLATE "C" >= :origin AND r.origin COLLATE "C" < concat(:origin, '/')))
+				AND EXISTS (SELECT 1 FROM jsonb_array_elements_text(r.sources) AS s(source) WHERE s.source != r.url)
+				AND NOT EXISTS (SELECT 1 FROM ref_response rr WHERE rr.url = r.url AND rr.origin = r.origin)
+				LIMIT :batchSize
+			)
+			INSERT INTO ref_response (source, url, origin, internal, plugins)
+			SELECT DISTINCT s.source, r.url, r.origin,
+				jsonb_exists(COALESCE(r.metadata->'expandedTags', r.tags, '[]'::jsonb), 'internal'),
+				COALESCE((
+					SELECT jsonb_agg(DISTINCT t.tag)
+					FROM jsonb_array_elements_text(COALESCE(r.metadata->'expandedTags', r.tags, '[]'::jsonb)) AS t(tag)
+					WHERE t.tag ~ '^[_+]?plugin(/|$)'), '[]'::jsonb)
+			FROM ref r
+				JOIN rows ON r.url = rows.url AND r.origin = rows.origin
+				CROSS JOIN LATERAL jsonb_array_elements_text(r.sources) AS s(source)
+			WHERE s.source != r.url
+			ON CONFLICT DO NOTHING
+			""";
+		int updated = em.createNativeQuery(sql)
+			.setParameter("origin", origin)
+			.setParameter("batchSize", batchSize)
+			.executeUpdate();
+		em.flush();
+		em.clear();
+		return updated;
+	}
 }
@@ -1,18 +1,48 @@
 package jasper.repository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 @Profile("sqlite")
 public class BackfillRepositoryImplSqlite implements BackfillRepository {
 	private static final Logger logger = LoggerFactory.getLogger(BackfillRepositoryImplSqlite.class);
 
+	@PersistenceContext
+	private EntityManager em;
+
 	@Override
 	public int backfillMetadata(String origin, int batchSize) {
 		logger.warn("{} Bulk backfill disabled for SQLite, metadata will be regenerated by background backfill", origin);
 		return 0;
 	}
+
+	@Override
+	@Transactional
+	public int backfillResponses(String origin, int batchSize) {
+		return em.createNativeQuery("""
+			INSERT OR IGNORE INTO ref_response (source, url, origin, internal, plugins)
+			SELECT DISTINCT s.value, r.url, r.origin,
+				EXISTS (SELECT 1 FROM json_each(COALESCE(json_extract(r.metadata, '$.expandedTags'), r.tags, '[]')) t WHERE t.value = 'internal'),
+				(SELECT json_group_array(DISTINCT t.value)
+					FROM json_each(COALESCE(json_extract(r.metadata, '$.expandedTags'), r.tags, '[]')) t
+					WHERE t.value IN ('plugin', '+plugin', '_plugin') OR t.value LIKE 'plugin/%' OR t.value LIKE '+plugin/%' OR t.value LIKE '\\_plugin/%' ESCAPE '\\')
+			FROM (
+				SELECT * FROM ref
+				WHERE (:origin = '' OR (origin >= :origin AND origin < (:origin || '/')))
+				AND EXISTS (SELECT 1 FROM json_each(ref.sources) s WHERE s.value != ref.url)
+				AND NOT EXISTS (SELECT 1 FROM ref_response rr WHERE rr.url = ref.url AND rr.origin = ref.origin)
+				LIMIT :batchSize
+			) r, json_each(r.sources) s
+			WHERE s.value != r.url
+			""")
+			.setParameter("origin", origin)
+			.setParameter("batchSize", batchSize)
+			.executeUpdate();
+	}
 }
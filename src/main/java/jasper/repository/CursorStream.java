@@ -0,0 +1,61 @@
+package jasper.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.QueryTimeoutException;
+import jasper.config.Props;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+
+import static org.hibernate.jpa.AvailableHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.AvailableHints.HINT_READ_ONLY;
+import static org.hibernate.jpa.AvailableHints.HINT_SPEC_QUERY_TIMEOUT;
+
+/**
+ * Walk every entity matching a Specification in ascending modified order using a
+ * server side cursor. Entities are detached once consumed so the persistence
+ * context stays empty for arbitrarily large result sets.
+ * The cursor holds a connection for as long as the consumer takes, so the walk
+ * is abandoned with a {@link QueryTimeoutException} once it runs longer than
+ * {@link Props#getReplStreamTimeoutSec()}.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class CursorStream {
+
+	public static final int FETCH_SIZE = 500;
+
+	@Autowired
+	Props props;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	public <T> void forEach(Class<T> type, Specification<T> spec, Consumer<T> fn) {
+		var cb = em.getCriteriaBuilder();
+		var query = cb.createQuery(type);
+		var root = query.from(type);
+		var predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) query.where(predicate);
+		query.orderBy(cb.asc(root.get("modified")));
+		var timeout = props.getReplStreamTimeoutSec() * 1000;
+		var deadline = System.currentTimeMillis() + timeout;
+		try (var stream = em.createQuery(query)
+				.setHint(HINT_FETCH_SIZE, FETCH_SIZE)
+				.setHint(HINT_CACHEABLE, false)
+				.setHint(HINT_READ_ONLY, true)
+				.setHint(HINT_SPEC_QUERY_TIMEOUT, timeout)
+				.getResultStream()) {
+			stream.forEach(entity -> {
+				if (timeout > 0 && System.currentTimeMillis() > deadline) throw new QueryTimeoutException("Cursor open longer than " + props.getReplStreamTimeoutSec() + "s");
+				fn.accept(entity);
+				em.detach(entity);
+			});
+		}
+	}
+}
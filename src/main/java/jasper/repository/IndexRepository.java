@@ -1,10 +1,31 @@
 package jasper.repository;
 
+import java.util.List;
+
 /**
  * Database-specific index management (GIN indexes on PostgreSQL, no-ops/FTS on SQLite).
  * Implementations are selected via @Profile.
  */
 public interface IndexRepository {
+	String TAGS = "ref_tags_index";
+	String EXPANDED_TAGS = "ref_expanded_tags_index";
+	String SOURCES = "ref_sources_index";
+	String ALTS = "ref_alternate_urls_index";
+	String FULLTEXT = "ref_fulltext_index";
+	String PUBLISHED = "ref_published_index";
+	String MODIFIED = "ref_modified_index";
+	String REF_ORIGIN = "ref_origin_c_modified_index";
+	String EXT_ORIGIN = "ext_origin_c_modified_index";
+	String USERS_ORIGIN = "users_origin_c_modified_index";
+	String PLUGIN_ORIGIN = "plugin_origin_c_modified_index";
+	String TEMPLATE_ORIGIN = "template_origin_c_modified_index";
+
+	/**
+	 * Serve origin subtree ranges in byte order, whatever the database collation.
+	 * Always built, independent of the _config/index template.
+	 */
+	List<String> ORIGIN_SUBTREE = List.of(REF_ORIGIN, EXT_ORIGIN, USERS_ORIGIN, PLUGIN_ORIGIN, TEMPLATE_ORIGIN);
+
 	void dropTags();
 	void buildTags();
 	void dropExpandedTags();
@@ -19,4 +40,29 @@ public interface IndexRepository {
 	void buildPublished();
 	void dropModified();
 	void buildModified();
+
+	/**
+	 * Build an index without blocking writes to the table.
+	 * INVALID indexes left by a failed build are dropped and rebuilt. If the
+	 * index definition has changed a new index is built alongside and swapped in.
+	 */
+	void buildConcurrently(String index);
+
+	/**
+	 * Drop an index without blocking writes to the table.
+	 */
+	void dropConcurrently(String index);
+
+	/**
+	 * Progress of index builds currently running.
+	 */
+	List<BuildProgress> progress();
+
+	record BuildProgress(String index, String phase, long blocksDone, long blocksTotal, long tuplesDone, long tuplesTotal) {
+		public double ratio() {
+			if (blocksTotal > 0) return (double) blocksDone / blocksTotal;
+			if (tuplesTotal > 0) return (double) tuplesDone / tuplesTotal;
+			return 0;
+		}
+	}
 }
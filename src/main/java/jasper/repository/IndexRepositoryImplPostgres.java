@@ -2,85 +2,234 @@ package jasper.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+
 @Repository
 @Profile("!sqlite")
 @Transactional
 public class IndexRepositoryImplPostgres implements IndexRepository {
+	private static final Logger logger = LoggerFactory.getLogger(IndexRepositoryImplPostgres.class);
+
+	private static final Map<String, String> definitions = Map.ofEntries(
+		entry(TAGS, "ON ref USING GIN(tags)"),
+		entry(EXPANDED_TAGS, "ON ref USING GIN((metadata->'expandedTags'))"),
+		entry(SOURCES, "ON ref USING GIN(sources)"),
+		entry(ALTS, "ON ref USING GIN(alternate_urls)"),
+		entry(FULLTEXT, "ON ref USING GIN(textsearch_en)"),
+		entry(PUBLISHED, "ON ref (published)"),
+		entry(MODIFIED, "ON ref (modified)"),
+		entry(REF_ORIGIN, "ON ref ((origin COLLATE \"C\"), modified)"),
+		entry(EXT_ORIGIN, "ON ext ((origin COLLATE \"C\"), modified)"),
+		entry(USERS_ORIGIN, "ON users ((origin COLLATE \"C\"), modified)"),
+		entry(PLUGIN_ORIGIN, "ON plugin ((origin COLLATE \"C\"), modified)"),
+		entry(TEMPLATE_ORIGIN, "ON template ((origin COLLATE \"C\"), modified)")
+	);
 
 	@PersistenceContext
 	private EntityManager em;
 
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
 	@Override
 	public void dropTags() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_tags_index").executeUpdate();
+		drop(TAGS);
 	}
 
 	@Override
 	public void buildTags() {
-		em.createNativeQuery("CREATE INDEX ref_tags_index ON ref USING GIN(tags)").executeUpdate();
+		build(TAGS);
 	}
 
 	@Override
 	public void dropExpandedTags() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_expanded_tags_index").executeUpdate();
+		drop(EXPANDED_TAGS);
 	}
 
 	@Override
 	public void buildExpandedTags() {
-		em.createNativeQuery("CREATE INDEX ref_expanded_tags_index ON ref USING GIN((metadata->'expandedTags'))").executeUpdate();
+		build(EXPANDED_TAGS);
 	}
 
 	@Override
 	public void dropSources() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_sources_index").executeUpdate();
+		drop(SOURCES);
 	}
 
 	@Override
 	public void buildSources() {
-		em.createNativeQuery("CREATE INDEX ref_sources_index ON ref USING GIN(sources)").executeUpdate();
+		build(SOURCES);
 	}
 
 	@Override
 	public void dropAlts() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_alternate_urls_index").executeUpdate();
+		drop(ALTS);
 	}
 
 	@Override
 	public void buildAlts() {
-		em.createNativeQuery("CREATE INDEX ref_alternate_urls_index ON ref USING GIN(alternate_urls)").executeUpdate();
+		build(ALTS);
 	}
 
 	@Override
 	public void dropFulltext() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_fulltext_index").executeUpdate();
+		drop(FULLTEXT);
 	}
 
 	@Override
 	public void buildFulltext() {
-		em.createNativeQuery("CREATE INDEX ref_fulltext_index ON ref USING GIN(textsearch_en)").executeUpdate();
+		build(FULLTEXT);
 	}
 
 	@Override
 	public void dropPublished() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_published_index").executeUpdate();
+		drop(PUBLISHED);
 	}
 
 	@Override
 	public void buildPublished() {
-		em.createNativeQuery("CREATE INDEX ref_published_index ON ref (published)").executeUpdate();
+		build(PUBLISHED);
 	}
 
 	@Override
 	public void dropModified() {
-		em.createNativeQuery("DROP INDEX IF EXISTS ref_modified_index").executeUpdate();
+		drop(MODIFIED);
 	}
 
 	@Override
 	public void buildModified() {
-		em.createNativeQuery("CREATE INDEX ref_modified_index ON ref (modified)").executeUpdate();
+		build(MODIFIED);
+	}
+
+	private void drop(String index) {
+		em.createNativeQuery("DROP INDEX IF EXISTS " + index).executeUpdate();
+	}
+
+	private void build(String index) {
+		em.createNativeQuery("CREATE INDEX " + index + " " + definitions.get(index)).executeUpdate();
+	}
+
+	/**
+	 * The definition each index was built with is stored as the index comment
+	 * so a changed definition can be detected. Indexes built before the
+	 * comment was added are assumed to be current.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void buildConcurrently(String index) {
+		var definition = definitions.get(index);
+		if (definition == null) throw new IllegalArgumentException(index);
+		jdbcTemplate.execute((ConnectionCallback<Void>) conn -> autoCommit(conn, () -> {
+			var existing = existing(conn, index);
+			if (existing != null && !existing.valid()) {
+				logger.warn("Dropping INVALID index {} left by a failed build", index);
+				execute(conn, "DROP INDEX CONCURRENTLY IF EXISTS " + index);
+				existing = null;
+			}
+			if (existing == null) {
+				logger.info("Building index {} concurrently", index);
+				execute(conn, "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index + " " + definition);
+			} else if (existing.definition() != null && !existing.definition().equals(definition)) {
+				logger.info("Rebuilding index {} concurrently with new definition", index);
+				var replacement = index + "_new";
+				execute(conn, "DROP INDEX CONCURRENTLY IF EXISTS " + replacement);
+				execute(conn, "CREATE INDEX CONCURRENTLY " + replacement + " " + definition);
+				conn.setAutoCommit(false);
+				try {
+					execute(conn, "DROP INDEX " + index);
+					execute(conn, "ALTER INDEX " + replacement + " RENAME TO " + index);
+					conn.commit();
+				} catch (SQLException e) {
+					conn.rollback();
+					throw e;
+				} finally {
+					conn.setAutoCommit(true);
+				}
+			}
+			execute(conn, "COMMENT ON INDEX " + index + " IS '" + definition.replace("'", "''") + "'");
+		}));
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void dropConcurrently(String index) {
+		if (!definitions.containsKey(index)) throw new IllegalArgumentException(index);
+		jdbcTemplate.execute((ConnectionCallback<Void>) conn -> autoCommit(conn, () -> {
+			execute(conn, "DROP INDEX CONCURRENTLY IF EXISTS " + index);
+			execute(conn, "DROP INDEX CONCURRENTLY IF EXISTS " + index + "_new");
+		}));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<BuildProgress> progress() {
+		List<Object[]> rows = em.createNativeQuery("""
+			SELECT c.relname, p.phase, p.blocks_done, p.blocks_total, p.tuples_done, p.tuples_total
+			FROM pg_stat_progress_create_index p
+			LEFT JOIN pg_class c ON c.oid = p.index_relid""").getResultList();
+		return rows.stream()
+			.map(r -> new BuildProgress(
+				(String) r[0],
+				(String) r[1],
+				((Number) r[2]).longValue(),
+				((Number) r[3]).longValue(),
+				((Number) r[4]).longValue(),
+				((Number) r[5]).longValue()))
+			.toList();
+	}
+
+	private record Existing(boolean valid, String definition) { }
+
+	private static Existing existing(Connection conn, String index) throws SQLException {
+		try (var st = conn.prepareStatement("""
+			SELECT i.indisvalid, obj_description(c.oid, 'pg_class')
+			FROM pg_class c
+			JOIN pg_index i ON i.indexrelid = c.oid
+			WHERE c.relname = ? AND c.relkind = 'i'""")) {
+			st.setString(1, index);
+			try (var rs = st.executeQuery()) {
+				if (!rs.next()) return null;
+				return new Existing(rs.getBoolean(1), rs.getString(2));
+			}
+		}
+	}
+
+	private static void execute(Connection conn, String sql) throws SQLException {
+		try (var st = conn.createStatement()) {
+			st.execute(sql);
+		}
+	}
+
+	private interface SqlRunnable {
+		void run() throws SQLException;
+	}
+
+	/**
+	 * CREATE INDEX CONCURRENTLY cannot run inside a transaction block.
+	 */
+	private static Void autoCommit(Connection conn, SqlRunnable fn) throws SQLException {
+		var autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(true);
+		try {
+			fn.run();
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+		return null;
 	}
 }
@@ -6,6 +6,8 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Repository
 @Profile("sqlite")
 @Transactional
@@ -84,4 +86,43 @@ public class IndexRepositoryImplSqlite implements IndexRepository {
 	public void buildModified() {
 		em.createNativeQuery("CREATE INDEX ref_modified_index ON ref (modified)").executeUpdate();
 	}
+
+	/**
+	 * SQLite has no concurrent index builds, so this builds normally.
+	 */
+	@Override
+	public void buildConcurrently(String index) {
+		switch (index) {
+			case TAGS -> buildTags();
+			case EXPANDED_TAGS -> buildExpandedTags();
+			case SOURCES -> buildSources();
+			case ALTS -> buildAlts();
+			case FULLTEXT -> buildFulltext();
+			case PUBLISHED -> em.createNativeQuery("CREATE INDEX IF NOT EXISTS ref_published_index ON ref (published)").executeUpdate();
+			case MODIFIED -> em.createNativeQuery("CREATE INDEX IF NOT EXISTS ref_modified_index ON ref (modified)").executeUpdate();
+			// SQLite compares with BINARY by default, so *_origin_modified_index already serves subtree ranges
+			case REF_ORIGIN, EXT_ORIGIN, USERS_ORIGIN, PLUGIN_ORIGIN, TEMPLATE_ORIGIN -> { }
+			default -> throw new IllegalArgumentException(index);
+		}
+	}
+
+	@Override
+	public void dropConcurrently(String index) {
+		switch (index) {
+			case TAGS -> dropTags();
+			case EXPANDED_TAGS -> dropExpandedTags();
+			case SOURCES -> dropSources();
+			case ALTS -> dropAlts();
+			case FULLTEXT -> dropFulltext();
+			case PUBLISHED -> dropPublished();
+			case MODIFIED -> dropModified();
+			case REF_ORIGIN, EXT_ORIGIN, USERS_ORIGIN, PLUGIN_ORIGIN, TEMPLATE_ORIGIN -> { }
+			default -> throw new IllegalArgumentException(index);
+		}
+	}
+
+	@Override
+	public List<BuildProgress> progress() {
+		return List.of();
+	}
 }
@@ -7,23 +7,30 @@ import jasper.domain.RefId;
 import jasper.domain.proj.RefUrl;
 import jasper.domain.proj.RefView;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 @Transactional(readOnly = true)
-public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificationExecutor<Ref>, StreamMixin<RefView>, ModifiedCursor, OriginMixin {
+public interface RefRepository extends JpaRepository<Ref, RefId>, SliceMixin<Ref>, StreamMixin<RefView>, ModifiedCursor, OriginMixin {
 
 	Optional<Ref> findOneByUrlAndOrigin(String url, String origin);
 	void deleteByUrlAndOrigin(String url, String origin);
 	boolean existsByUrlAndOrigin(String url, String origin);
+	List<Ref> findAllByOriginAndUrlIn(String origin, Collection<String> urls);
+
+	@Query("""
+		SELECT DISTINCT r.url FROM Ref r
+		WHERE r.origin = :origin
+			AND r.url IN :urls""")
+	List<String> findAllUrlsByOriginAndUrlIn(String origin, Collection<String> urls);
 
 	@Modifying
 	@Query("""
@@ -104,7 +111,7 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 		FROM Ref ref
 		WHERE ref.url = :url
 			AND ref.published >= :published
-			AND (:origin = '' OR ref.origin = :origin OR ref.origin LIKE concat(:origin, '.%'))""")
+			AND (:origin = '' OR (collate_c(ref.origin) >= :origin AND collate_c(ref.origin) < concat(:origin, '/')))""")
 	List<Ref> findAllPublishedByUrlAndPublishedGreaterThanEqual(String url, String origin, Instant published);
 
 	@Query("""
@@ -112,7 +119,7 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 		WHERE r.url != :url
 			AND r.published <= :published
 			AND jsonb_exists(r.sources, :url) = true
-			AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))""")
+			AND (:origin = '' OR (collate_c(r.origin) >= :origin AND collate_c(r.origin) < concat(:origin, '/')))""")
 	List<Ref> findAllResponsesPublishedBeforeThanEqual(String url, String origin, Instant published);
 
 	@Query("""
@@ -120,17 +127,9 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 		WHERE r.url != :url
 			AND jsonb_exists(r.sources, :url) = true
 			AND jsonb_exists(COALESCE(jsonb_object_field(r.metadata, 'expandedTags'), r.tags), :tag) = true
-			AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))""")
+			AND (:origin = '' OR (collate_c(r.origin) >= :origin AND collate_c(r.origin) < concat(:origin, '/')))""")
 	List<String> findAllResponsesWithTag(String url, String origin, String tag);
 
-	@Query("""
-		SELECT r.url FROM Ref r
-		WHERE r.url != :url
-			AND jsonb_exists(r.sources, :url) = true
-			AND jsonb_exists(COALESCE(jsonb_object_field(r.metadata, 'expandedTags'), r.tags), :tag) = false
-			AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))""")
-	List<String> findAllResponsesWithoutTag(String url, String origin, String tag);
-
 	@Modifying
 	@Transactional
 	@Query("""
@@ -143,7 +142,7 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 					SELECT MAX(r2.modified)
 					FROM Ref r2
 					WHERE r2.url = :url
-						AND (:rootOrigin = '' OR r2.origin = :rootOrigin OR r2.origin LIKE CONCAT(:rootOrigin, '.%'))
+						AND (:rootOrigin = '' OR (collate_c(r2.origin) >= :rootOrigin AND collate_c(r2.origin) < concat(:rootOrigin, '/')))
 				)
 				THEN cast_to_jsonb('false')
 				ELSE cast_to_jsonb('true')
@@ -151,7 +150,7 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 			true
 		)
 		WHERE r.url = :url
-			AND (:rootOrigin = '' OR r.origin = :rootOrigin OR r.origin LIKE CONCAT(:rootOrigin, '.%'))
+			AND (:rootOrigin = '' OR (collate_c(r.origin) >= :rootOrigin AND collate_c(r.origin) < concat(:rootOrigin, '/')))
 		""")
 	int updateObsolete(String url, String rootOrigin);
 
@@ -159,7 +158,7 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 		SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Ref r
 		WHERE r.url = :url
 			AND r.modified > :newerThan
-			AND (:rootOrigin = '' OR r.origin = :rootOrigin OR r.origin LIKE concat(:rootOrigin, '.%'))""")
+			AND (:rootOrigin = '' OR (collate_c(r.origin) >= :rootOrigin AND collate_c(r.origin) < concat(:rootOrigin, '/')))""")
 	boolean newerExists(String url, String rootOrigin, Instant newerThan);
 
 	@Modifying(clearAutomatically = true, flushAutomatically = true)
@@ -169,13 +168,13 @@ public interface RefRepository extends JpaRepository<Ref, RefId>, JpaSpecificati
 		SET r.metadata = jsonb_set(r.metadata, '{regen}', cast_to_jsonb('true'), true)
 		WHERE r.metadata IS NOT NULL
 			AND NOT jsonb_object_field_text(r.metadata, 'regen') = 'true'
-			AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))""")
+			AND (:origin = '' OR (collate_c(r.origin) >= :origin AND collate_c(r.origin) < concat(:origin, '/')))""")
 	void dropMetadata(String origin);
 
 	@Query("""
 		FROM Ref r
 		WHERE (r.metadata IS NULL OR jsonb_exists(r.metadata, 'modified') = false OR jsonb_object_field_text(r.metadata, 'regen') = 'true')
-			AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))
+			AND (:origin = '' OR (collate_c(r.origin) >= :origin AND collate_c(r.origin) < concat(:origin, '/')))
 		ORDER BY r.modified DESC
 		FETCH FIRST 1 ROW ONLY""")
 	Optional<Ref> getRefBackfill(String origin);
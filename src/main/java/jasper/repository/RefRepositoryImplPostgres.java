@@ -23,40 +23,7 @@ public class RefRepositoryImplPostgres implements RefRepositoryCustom {
 			WHERE r.url != :url
 				AND jsonb_exists(r.sources, :url)
 				AND t.tag ~ '^[_+]?plugin(/|$)'
-				AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))
-			""", String.class)
-			.setParameter("url", url)
-			.setParameter("origin", origin)
-			.getResultList();
-	}
-
-	@Override
-	public List<Object[]> countPluginTagsInResponses(String url, String origin) {
-		return em.createNativeQuery("""
-			SELECT t.tag, COUNT(DISTINCT r.url)
-			FROM ref r
-				CROSS JOIN LATERAL jsonb_array_elements_text(COALESCE(r.metadata->'expandedTags', r.tags)) AS t(tag)
-			WHERE r.url != :url
-				AND jsonb_exists(r.sources, :url)
-				AND t.tag ~ '^[_+]?plugin(/|$)'
-				AND (:origin = '' OR r.origin = :origin OR r.origin LIKE concat(:origin, '.%'))
-			GROUP BY t.tag
-			""", Object[].class)
-			.setParameter("url", url)
-			.setParameter("origin", origin)
-			.getResultList();
-	}
-
-	@Override
-	public List<String> findAllUserPluginTagsInResponses(String url, String origin) {
-		return em.createNativeQuery("""
-			SELECT DISTINCT t.tag
-			FROM ref r
-				CROSS JOIN LATERAL jsonb_array_elements_text(COALESCE(r.metadata->'expandedTags', r.tags)) AS t(tag)
-			WHERE r.url != :url
-				AND jsonb_exists(r.sources, :url)
-				AND t.tag ~ '^[_+]?plugin/user(/|$)'
-				AND r.origin = :origin
+				AND (:origin = '' OR (r.origin COLLATE "C" >= :origin AND r.origin COLLATE "C" < concat(:origin, '/')))
 			""", String.class)
 			.setParameter("url", url)
 			.setParameter("origin", origin)
@@ -0,0 +1,18 @@
+package jasper.repository;
+
+import java.util.List;
+
+/**
+ * Reads from the ref_response index, which holds one row per
+ * (source, response url, response origin) and is kept up to date by
+ * triggers on the ref table.
+ * Implementations are selected via @Profile.
+ */
+public interface ResponseRepository {
+	List<String> findAllResponses(String url, String origin, boolean internal);
+	List<Object[]> countPluginTagsInResponses(String url, String origin);
+	/**
+	 * @return rows of (user plugin tag, response url, response origin)
+	 */
+	List<Object[]> findAllUserPluginTagsInResponses(String url, String origin);
+}
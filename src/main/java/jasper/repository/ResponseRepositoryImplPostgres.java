@@ -0,0 +1,61 @@
+package jasper.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@Profile("!sqlite")
+public class ResponseRepositoryImplPostgres implements ResponseRepository {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<String> findAllResponses(String url, String origin, boolean internal) {
+		return em.createNativeQuery("""
+			SELECT rr.url
+			FROM ref_response rr
+			WHERE rr.source = :url
+				AND rr.internal = :internal
+				AND (:origin = '' OR (rr.origin COLLATE "C" >= :origin AND rr.origin COLLATE "C" < concat(:origin, '/')))
+			""", String.class)
+			.setParameter("url", url)
+			.setParameter("origin", origin)
+			.setParameter("internal", internal)
+			.getResultList();
+	}
+
+	@Override
+	public List<Object[]> countPluginTagsInResponses(String url, String origin) {
+		return em.createNativeQuery("""
+			SELECT t.tag, COUNT(DISTINCT rr.url)
+			FROM ref_response rr
+				CROSS JOIN LATERAL jsonb_array_elements_text(rr.plugins) AS t(tag)
+			WHERE rr.source = :url
+				AND (:origin = '' OR (rr.origin COLLATE "C" >= :origin AND rr.origin COLLATE "C" < concat(:origin, '/')))
+			GROUP BY t.tag
+			""", Object[].class)
+			.setParameter("url", url)
+			.setParameter("origin", origin)
+			.getResultList();
+	}
+
+	@Override
+	public List<Object[]> findAllUserPluginTagsInResponses(String url, String origin) {
+		return em.createNativeQuery("""
+			SELECT t.tag, rr.url, rr.origin
+			FROM ref_response rr
+				CROSS JOIN LATERAL jsonb_array_elements_text(rr.plugins) AS t(tag)
+			WHERE rr.source = :url
+				AND t.tag ~ '^[_+]?plugin/user(/|$)'
+				AND (:origin = '' OR (rr.origin COLLATE "C" >= :origin AND rr.origin COLLATE "C" < concat(:origin, '/')))
+			""", Object[].class)
+			.setParameter("url", url)
+			.setParameter("origin", origin)
+			.getResultList();
+	}
+}
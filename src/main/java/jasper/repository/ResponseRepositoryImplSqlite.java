@@ -0,0 +1,59 @@
+package jasper.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@Profile("sqlite")
+public class ResponseRepositoryImplSqlite implements ResponseRepository {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<String> findAllResponses(String url, String origin, boolean internal) {
+		return em.createNativeQuery("""
+			SELECT rr.url
+			FROM ref_response rr
+			WHERE rr.source = :url
+				AND rr.internal = :internal
+				AND (:origin = '' OR (rr.origin >= :origin AND rr.origin < (:origin || '/')))
+			""", String.class)
+			.setParameter("url", url)
+			.setParameter("origin", origin)
+			.setParameter("internal", internal ? 1 : 0)
+			.getResultList();
+	}
+
+	@Override
+	public List<Object[]> countPluginTagsInResponses(String url, String origin) {
+		return em.createNativeQuery("""
+			SELECT j.value AS tag, COUNT(DISTINCT rr.url)
+			FROM ref_response rr, json_each(rr.plugins) AS j
+			WHERE rr.source = :url
+				AND (:origin = '' OR (rr.origin >= :origin AND rr.origin < (:origin || '/')))
+			GROUP BY j.value
+			""", Object[].class)
+			.setParameter("url", url)
+			.setParameter("origin", origin)
+			.getResultList();
+	}
+
+	@Override
+	public List<Object[]> findAllUserPluginTagsInResponses(String url, String origin) {
+		return em.createNativeQuery("""
+			SELECT j.value AS tag, rr.url, rr.origin
+			FROM ref_response rr, json_each(rr.plugins) AS j
+			WHERE rr.source = :url
+				AND (j.value LIKE 'plugin/user/%' OR j.value LIKE '+plugin/user/%' OR j.value LIKE '\\_plugin/user/%' ESCAPE '\\' OR j.value = 'plugin/user' OR j.value = '+plugin/user' OR j.value = '_plugin/user')
+				AND (:origin = '' OR (rr.origin >= :origin AND rr.origin < (:origin || '/')))
+			""", Object[].class)
+			.setParameter("url", url)
+			.setParameter("origin", origin)
+			.getResultList();
+	}
+}
@@ -0,0 +1,25 @@
+package jasper.repository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.data.domain.Sort.by;
+
+@Transactional(readOnly = true)
+public interface SliceMixin<T> extends JpaSpecificationExecutor<T> {
+
+	/**
+	 * Fetch the first entities in modified order without the count query a
+	 * {@link org.springframework.data.domain.Page} requires. Page forward by
+	 * adding the modified date of the last entity as a modifiedAfter filter.
+	 */
+	default Slice<T> findSlice(Specification<T> spec, int size) {
+		var content = findBy(spec, q -> q.sortBy(by("modified")).limit(size + 1).all());
+		var hasNext = content.size() > size;
+		return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size, by("modified")), hasNext);
+	}
+}
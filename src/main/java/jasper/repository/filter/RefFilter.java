@@ -82,7 +82,7 @@ public class RefFilter implements Query {
 			result = result.and(isScheme(scheme));
 		}
 		if (isNotBlank(query)) {
-			result = result.and(new TagQuery(query).refSpec());
+			result = result.and(TagQuery.of(query).refSpec());
 		}
 		if (isNotBlank(noDescendents)) {
 			result = result.and(hasNoChildTag(noDescendents));
@@ -43,7 +43,7 @@ public class TagFilter implements Query {
 			result = result.and(isOrigin(origin));
 		}
 		if (isNotBlank(query) && !query.equals("@*")) {
-			result = result.and(new TagQuery(query).spec());
+			result = result.and(TagQuery.of(query).spec());
 		}
 		if (nesting != null) {
 			result = result.and(isNesting(nesting));
@@ -4,65 +4,149 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jasper.domain.Ref;
+import jasper.domain.proj.HasTags;
 import jasper.domain.proj.Tag;
+import jasper.repository.spec.QualifiedTag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static jasper.repository.spec.QualifiedTag.atom;
+import static jasper.repository.spec.QualifiedTag.qt;
+import static jasper.repository.spec.QualifiedTag.selector;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
+/**
+ * Compiled tag query. Parsing and building the Specifications happens once
+ * per distinct query, after which the immutable result is shared from a
+ * bounded cache. Use {@link #of(String)} instead of parsing directly.
+ */
 public class TagQuery {
 	private static final Logger logger = LoggerFactory.getLogger(TagQuery.class);
 	private static final ObjectMapper objectMapper = new ObjectMapper();
+	private static final Cache<String, TagQuery> cache = Caffeine.newBuilder()
+		.maximumSize(1000)
+		.recordStats()
+		.build();
 
-	private ArrayNode ast;
+	private final Node ast;
+	private final Specification<Ref> refSpec;
+	private final Specification<? extends Tag> spec;
 
-	public TagQuery(String query) {
-		parse(query.replaceAll("\\s", ""));
+	private TagQuery(String query) {
+		ast = compile(parse(query));
+		refSpec = ast.refSpec();
+		spec = ast.spec();
+	}
+
+	/**
+	 * Get the compiled query, parsing it only if it is not already cached.
+	 * Whitespace is not significant, so it is stripped from the cache key.
+	 */
+	public static TagQuery of(String query) {
+		return cache.get(query.replaceAll("\\s", ""), TagQuery::new);
+	}
+
+	/**
+	 * Report the shared cache statistics to the registry.
+	 */
+	public static void monitor(MeterRegistry meterRegistry) {
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "tag-query-cache");
 	}
 
 	public Specification<Ref> refSpec() {
-		return _refSpec(ast);
+		return refSpec;
 	}
 
-	private Specification<Ref> _refSpec(JsonNode ast) {
-		var result = Specification.<Ref>unrestricted();
-		if (!ast.isArray()) return result;
-		var or = true;
-		var ands = new ArrayList<Specification<Ref>>();
-		for (var i = 0; i < ast.size(); i++) {
-			var n = ast.get(i);
-			if (":".equals(n.textValue())) {
-				or = false;
-			} else if ("|".equals(n.textValue())) {
-				or = true;
-			} else {
-				var value = n.isArray() ? _refSpec(n) : atom(n.textValue()).refSpec();
-				if (or && ands.size() > 0) {
-					result = result.or(ands.stream().reduce(Specification::and).get());
-					ands.clear();
-				}
-				ands.add(value);
-			}
+	/**
+	 * Tag specifications only reference the tag and origin columns by name,
+	 * so one instance serves every entity type.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Tag> Specification<T> spec() {
+		return (Specification<T>) spec;
+	}
+
+	/**
+	 * In memory equivalent of {@link #refSpec()}.
+	 * Child tags match their parents the same way as the expanded tag index.
+	 */
+	public boolean test(HasTags ref) {
+		if (ref == null) return false;
+		return test(ref.getTags(), ref.getOrigin());
+	}
+
+	public boolean test(List<String> tags, String origin) {
+		return ast.test(tags == null ? List.of() : tags, isBlank(origin) ? "@" : origin);
+	}
+
+	private interface Node {
+		Specification<Ref> refSpec();
+		<T extends Tag> Specification<T> spec();
+		boolean test(List<String> tags, String origin);
+	}
+
+	private record Atom(QualifiedTag atom, QualifiedTag positive) implements Node {
+		public Specification<Ref> refSpec() {
+			return atom.refSpec();
+		}
+
+		public <T extends Tag> Specification<T> spec() {
+			return atom.spec();
 		}
-		if (ands.size() > 0) {
-			result = result.or(ands.stream().reduce(Specification::and).get());
+
+		public boolean test(List<String> tags, String origin) {
+			if (positive.tag.isEmpty()) return atom.not != positive.captures(selector(origin));
+			for (var t : tags) {
+				if (positive.captures(qt(t + origin))) return !atom.not;
+			}
+			return atom.not;
 		}
-		return result;
 	}
 
-	public <T extends Tag> Specification<T> spec() {
-		return _spec(ast);
+	/**
+	 * Any of the groups match, where a group matches if all of its nodes match.
+	 * No groups matches everything.
+	 */
+	private record Or(List<List<Node>> groups) implements Node {
+		public Specification<Ref> refSpec() {
+			var result = Specification.<Ref>unrestricted();
+			for (var group : groups) {
+				result = result.or(group.stream().map(Node::refSpec).reduce(Specification::and).get());
+			}
+			return result;
+		}
+
+		public <T extends Tag> Specification<T> spec() {
+			var result = Specification.<T>unrestricted();
+			for (var group : groups) {
+				result = result.or(group.stream().map(Node::<T>spec).reduce(Specification::and).get());
+			}
+			return result;
+		}
+
+		public boolean test(List<String> tags, String origin) {
+			if (groups.isEmpty()) return true;
+			for (var group : groups) {
+				if (group.stream().allMatch(n -> n.test(tags, origin))) return true;
+			}
+			return false;
+		}
 	}
 
-	private  <T extends Tag> Specification<T> _spec(JsonNode ast) {
-		var result = Specification.<T>unrestricted();
-		if (!ast.isArray()) return result;
+	private static Node compile(JsonNode ast) {
+		var groups = new ArrayList<List<Node>>();
+		if (!ast.isArray()) return new Or(groups);
 		var or = true;
-		var ands = new ArrayList<Specification<T>>();
+		var ands = new ArrayList<Node>();
 		for (var i = 0; i < ast.size(); i++) {
 			var n = ast.get(i);
 			if (":".equals(n.textValue())) {
@@ -70,21 +154,24 @@ public class TagQuery {
 			} else if ("|".equals(n.textValue())) {
 				or = true;
 			} else {
-				Specification<T> value = n.isArray() ? _spec(n) : atom(n.textValue()).spec();
-				if (or && ands.size() > 0) {
-					result = result.or(ands.stream().reduce(Specification::and).get());
+				var value = n.isArray() ? compile(n) : compileAtom(n.textValue());
+				if (or && !ands.isEmpty()) {
+					groups.add(List.copyOf(ands));
 					ands.clear();
 				}
 				ands.add(value);
 			}
 		}
-		if (ands.size() > 0) {
-			result = result.or(ands.stream().reduce(Specification::and).get());
-		}
-		return result;
+		if (!ands.isEmpty()) groups.add(List.copyOf(ands));
+		return new Or(List.copyOf(groups));
+	}
+
+	private static Atom compileAtom(String text) {
+		var qt = atom(text);
+		return new Atom(qt, qt.not ? atom(text.substring(1)) : qt);
 	}
 
-	private void parse(String query) {
+	private static ArrayNode parse(String query) {
 		logger.trace(query);
 		// TODO: compare performance with https://en.wikipedia.org/wiki/Shunting-yard_algorithm
 		var array = ("[\"" + query + "\"]")
@@ -94,7 +181,7 @@ public class TagQuery {
 			.replaceAll("\"\"", "");
 		try {
 			logger.trace(array);
-			ast = (ArrayNode) objectMapper.readTree(array);
+			return (ArrayNode) objectMapper.readTree(array);
 		} catch (JsonProcessingException e) {
 			throw new UnsupportedOperationException(e);
 		}
@@ -27,14 +27,15 @@ public class OriginSpec {
 	public static <T extends HasOrigin> Specification<T> isUnderOrigin(String origin) {
 		if (isBlank(origin) || origin.equals("@") || origin.equals("@*")) return any();
 		var rootOrigin = origin.endsWith(".*") ? origin.substring(0, origin.length() - 2) : origin;
-		return (root, query, cb) ->
-			cb.or(
-				cb.equal(
-					root.get("origin"),
-					rootOrigin),
-				cb.like(
-					root.get("origin"),
-					rootOrigin + ".%"));
+		// Origins only contain [a-z0-9.], and '.' is the only one of those sorting below '/',
+		// so this byte order range is exactly the origin and its sub-origins.
+		// A single range can be served by the (origin, modified) index instead of an OR with LIKE.
+		return (root, query, cb) -> {
+			var key = cb.function("collate_c", String.class, root.get("origin"));
+			return cb.and(
+				cb.greaterThanOrEqualTo(key, rootOrigin),
+				cb.lessThan(key, rootOrigin + "/"));
+		};
 	}
 
 	public static <T extends HasOrigin> Specification<T> isNesting(int nesting) {
@@ -0,0 +1,115 @@
+package jasper.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jasper.repository.spec.QualifiedTag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static jasper.domain.proj.Tag.publicTag;
+
+/**
+ * Access selectors compiled for repeated capture checks.
+ * Selectors are split by origin and then by the root segment of their
+ * public tag, so only selectors that could capture a target are checked.
+ * Decisions are memoized for the life of the matcher, which is owned by
+ * a request scoped {@link Auth}.
+ */
+class AccessMatcher {
+	final List<QualifiedTag> selectors;
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final List<QualifiedTag> negated = new ArrayList<>();
+	private final Map<String, Map<String, List<QualifiedTag>>> exactOrigin = new HashMap<>();
+	private final Map<String, List<QualifiedTag>> wildcardOrigin = new HashMap<>();
+	private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+	AccessMatcher(List<QualifiedTag> selectors, MeterRegistry meterRegistry) {
+		this.selectors = selectors;
+		hitCounter = Counter.builder("jasper.auth.access")
+			.description("Access decisions answered from the request cache")
+			.tag("result", "hit")
+			.register(meterRegistry);
+		missCounter = Counter.builder("jasper.auth.access")
+			.description("Access decisions computed from selectors")
+			.tag("result", "miss")
+			.register(meterRegistry);
+		if (selectors == null) return;
+		for (var s : selectors) {
+			if (s.not) {
+				negated.add(s);
+			} else if (s.origin.endsWith("*")) {
+				wildcardOrigin.computeIfAbsent(root(s.tag), k -> new ArrayList<>()).add(s);
+			} else {
+				exactOrigin.computeIfAbsent(s.origin, k -> new HashMap<>())
+					.computeIfAbsent(root(s.tag), k -> new ArrayList<>()).add(s);
+			}
+		}
+	}
+
+	/**
+	 * Do any of the selectors capture any of the targets?
+	 */
+	boolean captures(List<QualifiedTag> targets) {
+		if (targets == null) return false;
+		for (var t : targets) {
+			if (captures(t)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Do any of the selectors capture the target?
+	 */
+	boolean captures(QualifiedTag target) {
+		if (selectors == null || selectors.isEmpty()) return false;
+		if (target == null) return false;
+		var key = target.tag + target.origin;
+		var cached = decisions.get(key);
+		if (cached != null) {
+			hitCounter.increment();
+			return cached;
+		}
+		missCounter.increment();
+		var result = compute(target);
+		decisions.put(key, result);
+		return result;
+	}
+
+	private boolean compute(QualifiedTag target) {
+		for (var s : negated) {
+			if (s.capturesDownwards(target)) return true;
+		}
+		var root = root(target.tag);
+		var origin = exactOrigin.get(target.origin);
+		if (origin != null) {
+			if (anyCaptures(origin.get(""), target)) return true;
+			if (anyCaptures(origin.get(root), target)) return true;
+		}
+		if (anyCaptures(wildcardOrigin.get(""), target)) return true;
+		return anyCaptures(wildcardOrigin.get(root), target);
+	}
+
+	private static boolean anyCaptures(List<QualifiedTag> candidates, QualifiedTag target) {
+		if (candidates == null) return false;
+		for (var s : candidates) {
+			if (s.capturesDownwards(target)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A selector can only capture tags that share the first segment of its
+	 * public tag, so that segment is used as the index key.
+	 */
+	private static String root(String tag) {
+		if (tag == null || tag.isEmpty()) return "";
+		var p = publicTag(tag);
+		var i = p.indexOf('/');
+		return i == -1 ? p : p.substring(0, i);
+	}
+}
@@ -1,5 +1,6 @@
 package jasper.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jasper.component.ConfigCache;
 import jasper.config.Config.SecurityConfig;
@@ -157,6 +158,7 @@ public class Auth {
 	RoleHierarchy roleHierarchy;
 	ConfigCache configs;
 	RefRepository refRepository;
+	MeterRegistry meterRegistry;
 
 	// Cache
 	protected Authentication authentication;
@@ -170,12 +172,17 @@ public class Auth {
 	protected List<QualifiedTag> writeAccess;
 	protected List<QualifiedTag> tagReadAccess;
 	protected List<QualifiedTag> tagWriteAccess;
+	protected AccessMatcher readMatcher;
+	protected AccessMatcher writeMatcher;
+	protected AccessMatcher tagReadMatcher;
+	protected AccessMatcher tagWriteMatcher;
 
-	public Auth(Props props, RoleHierarchy roleHierarchy, ConfigCache configs, RefRepository refRepository) {
+	public Auth(Props props, RoleHierarchy roleHierarchy, ConfigCache configs, RefRepository refRepository, MeterRegistry meterRegistry) {
 		this.props = props;
 		this.roleHierarchy = roleHierarchy;
 		this.configs = configs;
 		this.refRepository = refRepository;
+		this.meterRegistry = meterRegistry;
 	}
 
 	public void clear(Authentication authentication) {
@@ -190,6 +197,10 @@ public class Auth {
 		writeAccess = null;
 		tagReadAccess = null;
 		tagWriteAccess = null;
+		readMatcher = null;
+		writeMatcher = null;
+		tagReadMatcher = null;
+		tagWriteMatcher = null;
 		if (getPrincipal().startsWith("@")) {
 			origin = getPrincipal();
 		} else {
@@ -285,7 +296,7 @@ public class Auth {
 		// Check if owner
 		if (owns(qualifiedTags)) return true;
 		// Check if user read access tags capture anything in the ref tags
-		return captures(getReadAccess(), qualifiedTags);
+		return readMatcher().captures(qualifiedTags);
 	}
 
 	/**
@@ -351,7 +362,7 @@ public class Auth {
 		// Check if owner
 		if (owns(qualifiedTags)) return true;
 		// Check access tags
-		return captures(getWriteAccess(), qualifiedTags);
+		return writeMatcher().captures(qualifiedTags);
 	}
 
 	/**
@@ -407,7 +418,7 @@ public class Auth {
 		if (isPublicTag(tag)) return true;
 		var qt = qt(tag + getOrigin());
 		if (isUser(qt)) return true;
-		return captures(getTagReadAccess(), qt);
+		return tagReadMatcher().captures(qt);
 	}
 
 	/**
@@ -422,7 +433,7 @@ public class Auth {
 		if (!isPrivateTag(tag)) return true;
 		var qt = qt(tag + getOrigin());
 		if (isUser(qt)) return true;
-		return captures(getTagReadAccess(), qt);
+		return tagReadMatcher().captures(qt);
 	}
 
 	/**
@@ -553,7 +564,7 @@ public class Auth {
 		// Can read own user tag
 		if (isUser(qualifiedTag)) return true;
 		// Finally check access tags
-		return captures(getTagReadAccess(), qt(qualifiedTag));
+		return tagReadMatcher().captures(qt(qualifiedTag));
 	}
 
 	/**
@@ -583,7 +594,7 @@ public class Auth {
 		// Editors have special access to edit public tag Exts
 		if (hasRole(EDITOR) && isPublicTag(qualifiedTag)) return true;
 		// Check access tags
-		return captures(getTagWriteAccess(), qt);
+		return tagWriteMatcher().captures(qt);
 	}
 
 	/**
@@ -619,7 +630,7 @@ public class Auth {
 			.map(QualifiedTag::selector)
 			.toList();
 		if (tagList.isEmpty()) return true;
-		return captures(getTagReadAccess(), tagList);
+		return tagReadMatcher().captures(tagList);
 	}
 
 	/**
@@ -645,7 +656,7 @@ public class Auth {
 				var tag = end == -1 ? afterPrefix : afterPrefix.substring(0, end);
 				if (!isPrivateTag(tag)) return true;
 				if (isUser(tag)) return true;
-				return captures(getTagReadAccess(), QualifiedTag.selector(tag));
+				return tagReadMatcher().captures(QualifiedTag.selector(tag));
 			})
 			.toList();
 		if (filtered.size() == orders.size()) return pageable;
@@ -731,7 +742,7 @@ public class Auth {
 		if (hasAnyRole(ADMIN)) return true;
 		if (!minConfigRole()) return false;
 		// Non-admins may only edit public configs, or assigned private configs
-		return captures(getTagWriteAccess(), qt(qualifiedTag));
+		return tagWriteMatcher().captures(qt(qualifiedTag));
 	}
 
 	/**
@@ -832,43 +843,35 @@ public class Auth {
 
 	protected boolean tagWriteAccessCaptures(String tag) {
 		if (hasRole(MOD)) return true;
-		return captures(getTagWriteAccess(), qt(tag + getOrigin()));
+		return tagWriteMatcher().captures(qt(tag + getOrigin()));
 	}
 
 	protected boolean writeAccessCaptures(String tag) {
 		if (hasRole(MOD)) return true;
-		return captures(getWriteAccess(), qt(tag + getOrigin()));
+		return writeMatcher().captures(qt(tag + getOrigin()));
 	}
 
-	protected static boolean captures(List<QualifiedTag> selectors, List<QualifiedTag> target) {
-		if (selectors == null) return false;
-		if (selectors.isEmpty()) return false;
-		if (target == null) return false;
-		if (target.isEmpty()) return false;
-		for (var selector : selectors) {
-			if (captures(selector, target)) return true;
-		}
-		return false;
+	/**
+	 * Compiled read access, rebuilt if the read access tags are replaced.
+	 */
+	protected AccessMatcher readMatcher() {
+		if (readMatcher == null || readMatcher.selectors != getReadAccess()) readMatcher = new AccessMatcher(getReadAccess(), meterRegistry);
+		return readMatcher;
 	}
 
-	protected static boolean captures(List<QualifiedTag> selectors, QualifiedTag target) {
-		if (selectors == null) return false;
-		if (selectors.isEmpty()) return false;
-		if (target == null) return false;
-		for (var selector : selectors) {
-			if (selector.capturesDownwards(target)) return true;
-		}
-		return false;
+	protected AccessMatcher writeMatcher() {
+		if (writeMatcher == null || writeMatcher.selectors != getWriteAccess()) writeMatcher = new AccessMatcher(getWriteAccess(), meterRegistry);
+		return writeMatcher;
 	}
 
-	protected static boolean captures(QualifiedTag selector, List<QualifiedTag> target) {
-		if (selector == null) return false;
-		if (target == null) return false;
-		if (target.isEmpty()) return false;
-		for (var t : target) {
-			if (selector.capturesDownwards(t)) return true;
-		}
-		return false;
+	protected AccessMatcher tagReadMatcher() {
+		if (tagReadMatcher == null || tagReadMatcher.selectors != getTagReadAccess()) tagReadMatcher = new AccessMatcher(getTagReadAccess(), meterRegistry);
+		return tagReadMatcher;
+	}
+
+	protected AccessMatcher tagWriteMatcher() {
+		if (tagWriteMatcher == null || tagWriteMatcher.selectors != getTagWriteAccess()) tagWriteMatcher = new AccessMatcher(getTagWriteAccess(), meterRegistry);
+		return tagWriteMatcher;
 	}
 
 	protected static Stream<String> newTags(List<String> changes, Optional<List<String>> existing) {
@@ -1,8 +1,10 @@
 package jasper.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jasper.component.ConfigCache;
 import jasper.config.Props;
 import jasper.repository.RefRepository;
+import jasper.security.jwt.TokenProviderImplDefault;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
 import org.springframework.stereotype.Component;
 
@@ -12,15 +14,31 @@ public class AuthFactory {
 	private final RoleHierarchy roleHierarchy;
 	private final ConfigCache configs;
 	private final RefRepository refRepository;
+	private final MeterRegistry meterRegistry;
+	private final TokenProviderImplDefault headerAuth;
 
-	public AuthFactory(Props props, RoleHierarchy roleHierarchy, ConfigCache configs, RefRepository refRepository) {
+	public AuthFactory(Props props, RoleHierarchy roleHierarchy, ConfigCache configs, RefRepository refRepository, MeterRegistry meterRegistry) {
 		this.props = props;
 		this.roleHierarchy = roleHierarchy;
 		this.configs = configs;
 		this.refRepository = refRepository;
+		this.meterRegistry = meterRegistry;
+		this.headerAuth = new TokenProviderImplDefault(props, configs);
 	}
 
 	public Auth create() {
-		return new Auth(props, roleHierarchy, configs, refRepository);
+		return new Auth(props, roleHierarchy, configs, refRepository, meterRegistry);
+	}
+
+	/**
+	 * Auth for background work done on behalf of a user, the same as a request
+	 * from the local origin with the User-Tag and User-Role headers set and no token.
+	 * The headers are only applied where the server allows them, see
+	 * {@link TokenProviderImplDefault}.
+	 */
+	public Auth create(String userTag, String origin, String role) {
+		var auth = create();
+		auth.clear(headerAuth.getAuthentication(origin, userTag, role));
+		return auth;
 	}
 }
@@ -51,7 +51,11 @@ public abstract class AbstractTokenProvider implements TokenProvider {
 	}
 
 	Collection<? extends GrantedAuthority> getAuthorities(User user, String origin) {
-		var auth = getPartialAuthorities(origin);
+		return getAuthorities(user, origin, getHeader(USER_ROLE_HEADER));
+	}
+
+	Collection<? extends GrantedAuthority> getAuthorities(User user, String origin, String roleHeader) {
+		var auth = getPartialAuthorities(origin, roleHeader);
 		if (user != null && user.getRole() != null) {
 			logger.debug("{} User Roles: {}", origin, user.getRole());
 			if (ROLES.contains(user.getRole().trim())) {
@@ -64,10 +68,13 @@ public abstract class AbstractTokenProvider implements TokenProvider {
 	}
 
 	List<SimpleGrantedAuthority> getPartialAuthorities(String origin) {
+		return getPartialAuthorities(origin, getHeader(USER_ROLE_HEADER));
+	}
+
+	List<SimpleGrantedAuthority> getPartialAuthorities(String origin, String roleHeader) {
 		var auth = new ArrayList<SimpleGrantedAuthority>();
 		auth.add(new SimpleGrantedAuthority(props.getDefaultRole()));
 		auth.add(new SimpleGrantedAuthority(configs.security(origin).getDefaultRole()));
-		var roleHeader = getHeader(USER_ROLE_HEADER);
 		if (props.isAllowUserRoleHeader() && isNotBlank(roleHeader)) {
 			logger.debug("{} Header Roles: {}", origin, roleHeader);
 			for (var role : roleHeader.trim().trim().split(",")) {
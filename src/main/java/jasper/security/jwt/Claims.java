@@ -40,4 +40,12 @@ public class Claims {
 		if (iat instanceof Number n) return Instant.ofEpochSecond(n.longValue());
 		return null;
 	}
+
+	public Instant getExpiresAt() {
+		var exp = claims.get("exp");
+		if (exp instanceof Instant i) return i;
+		if (exp instanceof Date d) return d.toInstant();
+		if (exp instanceof Number n) return Instant.ofEpochSecond(n.longValue());
+		return null;
+	}
 }
@@ -1,23 +1,34 @@
 package jasper.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jasper.component.ConfigCache;
 import jasper.config.Props;
 import jasper.domain.User;
 import jasper.domain.proj.Tag;
 import jasper.errors.UserTagInUseException;
 import jasper.management.SecurityMetersService;
+import jasper.service.dto.TemplateDto;
+import jasper.service.dto.UserDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.integration.annotation.ServiceActivator;
+import org.springframework.messaging.Message;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
@@ -28,6 +39,7 @@ import org.springframework.web.client.RestTemplate;
 
 import javax.crypto.spec.SecretKeySpec;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -36,16 +48,22 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+import static jasper.component.Replicator.deletedTag;
+import static jasper.component.Replicator.isDeletorTag;
 import static jasper.domain.proj.HasOrigin.formatOrigin;
+import static jasper.domain.proj.HasOrigin.isSubOrigin;
 import static jasper.domain.proj.Tag.localTag;
 import static jasper.domain.proj.Tag.matchesPublic;
 import static jasper.domain.proj.Tag.prefix;
+import static jasper.domain.proj.Tag.tagOrigin;
+import static jasper.security.Auth.USER_ROLE_HEADER;
 import static jasper.security.Auth.USER_TAG_HEADER;
 import static jasper.security.Auth.getHeader;
 import static jasper.security.AuthoritiesConstants.ADMIN;
 import static jasper.security.AuthoritiesConstants.MOD;
 import static jasper.security.AuthoritiesConstants.PRIVATE;
 import static jasper.util.Logging.getMessage;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.springframework.util.StringUtils.hasText;
@@ -57,19 +75,85 @@ public class TokenProviderImpl extends AbstractTokenProvider implements TokenPro
 
 	private static final String[] ROOT_ROLES_ALLOWED = new String[]{ MOD, ADMIN };
 
+	/**
+	 * Authentications are rebuilt at least this often, even if the token is
+	 * valid for longer, so missed evictions cannot keep stale roles for long.
+	 */
+	private static final Duration MAX_TTL = Duration.ofMinutes(5);
+	private static final int HASH_LENGTH = 64;
+
 	Map<String, JwtDecoder> jwtDecoders = new ConcurrentHashMap<>();
 
+	/**
+	 * Verified tokens by hash, so a token reused for many requests is only
+	 * decoded and resolved to a user once. Entries expire with the token or
+	 * after {@link #MAX_TTL}, and are evicted when the user or security config
+	 * changes or the user and template caches are cleared.
+	 */
+	private final Cache<String, JwtAuthentication> authentications = Caffeine.newBuilder()
+		.maximumSize(10_000)
+		.expireAfter(new Expiry<String, JwtAuthentication>() {
+			@Override
+			public long expireAfterCreate(String key, JwtAuthentication auth, long currentTime) {
+				var exp = auth.getClaims().getExpiresAt();
+				if (exp == null) return MAX_TTL.toNanos();
+				return Math.clamp(Duration.between(Instant.now(), exp).toNanos(), 0, MAX_TTL.toNanos());
+			}
+
+			@Override
+			public long expireAfterUpdate(String key, JwtAuthentication auth, long currentTime, long currentDuration) {
+				return expireAfterCreate(key, auth, currentTime);
+			}
+
+			@Override
+			public long expireAfterRead(String key, JwtAuthentication auth, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+		})
+		.recordStats()
+		.build();
+
 	private final SecurityMetersService securityMetersService;
 	private final RestTemplate restTemplate;
+	private final Timer verification;
 
-	public TokenProviderImpl(Props props, ConfigCache caches, SecurityMetersService securityMetersService, RestTemplate restTemplate) {
+	public TokenProviderImpl(Props props, ConfigCache caches, SecurityMetersService securityMetersService, RestTemplate restTemplate, MeterRegistry meterRegistry) {
 		super(props, caches);
 		this.securityMetersService = securityMetersService;
 		this.restTemplate = restTemplate;
+		verification = Timer.builder("jasper.jwt.verify")
+			.description("Time to decode and verify a JWT not found in the authentication cache")
+			.register(meterRegistry);
+		CaffeineCacheMetrics.monitor(meterRegistry, authentications, "jwt-authentication-cache", "cache.manager", "tokenProvider");
+		// Bulk deletes and restores clear these caches without sending user or template updates
+		caches.onClear(this::clear);
 	}
 
+	/**
+	 * Usually served from the cache filled by {@link #validateToken(String, String)}.
+	 */
 	public Authentication getAuthentication(String token, String origin) {
-		var claims = new Claims(getDecoder(origin).decode(token).getClaims());
+		return authentications.get(key(token, origin), k -> authenticate(decode(token, origin), origin));
+	}
+
+	/**
+	 * The user tag and role headers change the resulting authentication, so they are part of the key.
+	 */
+	private static String key(String token, String origin) {
+		return sha256Hex(token) + origin + "\n" + getHeader(USER_TAG_HEADER) + "\n" + getHeader(USER_ROLE_HEADER);
+	}
+
+	private Jwt decode(String token, String origin) {
+		var sample = Timer.start();
+		try {
+			return getDecoder(origin).decode(token);
+		} finally {
+			sample.stop(verification);
+		}
+	}
+
+	private JwtAuthentication authenticate(Jwt jwt, String origin) {
+		var claims = new Claims(jwt.getClaims());
 		var principal = getUsername(claims, origin);
 		User user;
 		try {
@@ -209,13 +293,14 @@ public class TokenProviderImpl extends AbstractTokenProvider implements TokenPro
 			logger.error("{} No client for origin {} in security settings", origin, formatOrigin(origin));
 			return false;
 		}
+		if (authentications.getIfPresent(key(authToken, origin)) != null) return true;
 		try {
 			var decoder = getDecoder(origin);
 			if (decoder == null) {
 				logger.error("{} No client for origin {} in security settings", origin, formatOrigin(origin));
 				return false;
 			}
-			var jwt = decoder.decode(authToken);
+			var jwt = decode(authToken, origin);
 			var audience = jwt.getAudience();
 			if (isBlank(security.getClientId()) &&
 				audience != null &&
@@ -231,6 +316,8 @@ public class TokenProviderImpl extends AbstractTokenProvider implements TokenPro
 				securityMetersService.trackUnverifiedEmail();
 				logger.trace(INVALID_JWT_TOKEN + " Email is not verified");
 			} else {
+				// Resolve the user now so the request does not decode the token again
+				authentications.put(key(authToken, origin), authenticate(jwt, origin));
 				return true;
 			}
 		} catch (JwtValidationException e) {
@@ -256,6 +343,40 @@ public class TokenProviderImpl extends AbstractTokenProvider implements TokenPro
         return false;
 	}
 
+	@ServiceActivator(inputChannel = "userRxChannel")
+	public void handleUserUpdate(Message<UserDto> message) {
+		var user = message.getPayload();
+		var tag = stripPrefix(updatedTag(user.getTag()));
+		authentications.asMap().values().removeIf(auth -> auth.getPrincipal() != null
+			&& stripPrefix(localTag(auth.getPrincipal())).equals(tag)
+			&& tagOrigin(auth.getPrincipal()).equals(user.getOrigin()));
+	}
+
+	@ServiceActivator(inputChannel = "templateRxChannel")
+	public void handleTemplateUpdate(Message<TemplateDto> message) {
+		var template = message.getPayload();
+		if (!updatedTag(template.getTag()).startsWith("_config/security")) return;
+		var origin = template.getOrigin();
+		jwtDecoders.keySet().removeIf(o -> isSubOrigin(origin, o));
+		authentications.asMap().keySet().removeIf(k -> isSubOrigin(origin, k.substring(HASH_LENGTH, k.indexOf("\n"))));
+	}
+
+	private void clear() {
+		jwtDecoders.clear();
+		authentications.invalidateAll();
+	}
+
+	/**
+	 * Delete notices carry the deletor tag, evict the deleted tag instead.
+	 */
+	private static String updatedTag(String tag) {
+		return isDeletorTag(tag) ? deletedTag(tag) : tag;
+	}
+
+	private static String stripPrefix(String tag) {
+		return tag.startsWith("+") || tag.startsWith("_") ? tag.substring(1) : tag;
+	}
+
 	private static String getMessageChain(Throwable e) {
 		var sb = new StringBuilder();
 		while (e != null) {
@@ -9,6 +9,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
 
 import static jasper.domain.proj.Tag.matchesPublic;
+import static jasper.security.Auth.USER_ROLE_HEADER;
 import static jasper.security.Auth.USER_TAG_HEADER;
 import static jasper.security.Auth.getHeader;
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -28,8 +29,15 @@ public class TokenProviderImplDefault extends AbstractTokenProvider {
 
 	@Override
 	public Authentication getAuthentication(String jwt, String origin) {
+		return getAuthentication(origin, getHeader(USER_TAG_HEADER), getHeader(USER_ROLE_HEADER));
+	}
+
+	/**
+	 * Authentication for a request without a token, given the User-Tag and
+	 * User-Role header values. The headers only apply where the server allows them.
+	 */
+	public Authentication getAuthentication(String origin, String userTagHeader, String roleHeader) {
 		var principal = configs.security(origin).getDefaultUser() + origin;
-		var userTagHeader = getHeader(USER_TAG_HEADER);
 		if (isBlank(userTagHeader) || !userTagHeader.matches(User.REGEX)) {
 			userTagHeader = "";
 		}
@@ -40,6 +48,6 @@ public class TokenProviderImplDefault extends AbstractTokenProvider {
 		}
 		var user = configs.getUser(principal);
 		logger.debug("{} Default Auth {}", origin, principal);
-		return new PreAuthenticatedAuthenticationToken(principal, user, getAuthorities(user, origin));
+		return new PreAuthenticatedAuthenticationToken(principal, user, getAuthorities(user, origin, roleHeader));
 	}
 }
@@ -25,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import static jasper.repository.spec.RefSpec.isUrl;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 @Service
 public class BackupService {
@@ -60,6 +61,8 @@ public class BackupService {
 		if (options == null) options = DEFAULT_OPTIONS;
 		if (options.getNewerThan() != null) {
 			id += "_-_" + options.getNewerThan();
+		} else if (isNotBlank(options.getPrevious())) {
+			id += "_-_" + options.getPrevious().split("_-_")[0];
 		}
 		backup.createBackup(origin, id, options);
 		return id;
@@ -10,6 +10,7 @@ import jasper.component.IngestExt;
 import jasper.domain.Ext;
 import jasper.errors.InvalidPatchException;
 import jasper.errors.NotFoundException;
+import jasper.repository.CursorStream;
 import jasper.repository.ExtRepository;
 import jasper.repository.filter.TagFilter;
 import jasper.security.Auth;
@@ -21,11 +22,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.function.Consumer;
 
 import static jasper.domain.proj.Tag.localTag;
 import static jasper.domain.proj.Tag.tagOrigin;
@@ -39,6 +42,9 @@ public class ExtService {
 	@Autowired
 	ExtRepository extRepository;
 
+	@Autowired
+	CursorStream cursorStream;
+
 	@Autowired
 	IngestExt ingest;
 
@@ -94,6 +100,28 @@ public class ExtService {
 			.map(mapper::domainToDto);
 	}
 
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "ext"}, histogram = true)
+	public Slice<ExtDto> slice(TagFilter filter, int size) {
+		return extRepository
+			.findSlice(
+				auth.<Ext>tagReadSpec()
+					.and(filter.spec()),
+				size)
+			.map(mapper::domainToDto);
+	}
+
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "ext"}, histogram = true)
+	public void stream(TagFilter filter, Consumer<ExtDto> fn) {
+		cursorStream.forEach(Ext.class,
+			auth.<Ext>tagReadSpec()
+				.and(filter.spec()),
+			ext -> fn.accept(mapper.domainToDto(ext)));
+	}
+
 	@Transactional(readOnly = true)
 	@PreAuthorize("@auth.minRole()")
 	@Timed(value = "jasper.service", extraTags = {"service", "ext"}, histogram = true)
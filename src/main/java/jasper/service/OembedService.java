@@ -37,7 +37,7 @@ public class OembedService {
 	@Autowired
 	ObjectMapper objectMapper;
 
-	@Cacheable(value = "oembed-cache", key = "#params.get('theme') + '-' + #params.get('maxwidth') + '-' + #params.get('maxheight') + '-' + #params.get('url')")
+	@Cacheable(value = "oembed-cache", key = "@auth.getOrigin() + '-' + #params.get('theme') + '-' + #params.get('maxwidth') + '-' + #params.get('maxheight') + '-' + #params.get('url')")
 	@Transactional(readOnly = true)
 	@PreAuthorize("@auth.hasRole('VIEWER')")
 	@Timed(value = "jasper.service", extraTags = {"service", "oembed"}, histogram = true)
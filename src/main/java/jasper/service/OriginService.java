@@ -2,6 +2,7 @@ package jasper.service;
 
 import io.micrometer.core.annotation.Timed;
 import jasper.component.ConfigCache;
+import jasper.component.StatCache;
 import jasper.component.Storage;
 import jasper.config.Props;
 import jasper.domain.proj.HasOrigin;
@@ -51,6 +52,9 @@ public class OriginService {
 	@Autowired
 	TemplateRepository templateRepository;
 
+	@Autowired
+	StatCache statCache;
+
 	@Autowired
 	Auth auth;
 
@@ -82,6 +86,7 @@ public class OriginService {
 		var start = Instant.now();
 		logger.info("{} Deleting origin {} older than {}", auth.getOrigin(), origin, olderThan);
 		refRepository.deleteByOriginAndModifiedLessThanEqual(origin, olderThan);
+		statCache.evictOrigin(origin);
 		extRepository.deleteByOriginAndModifiedLessThanEqual(origin, olderThan);
 		userRepository.deleteByOriginAndModifiedLessThanEqual(origin, olderThan);
 		if (!auth.local(origin) || auth.hasRole(ADMIN)) {
@@ -89,10 +94,11 @@ public class OriginService {
 			templateRepository.deleteByOriginAndModifiedLessThanEqual(origin, olderThan);
 		}
 		logger.info("{} Finished deleting origin {} older than {} in {}", auth.getOrigin(), origin, olderThan, Duration.between(start, Instant.now()));
+		// Cached authentications for deleted users must not outlive them in any origin
+		configs.clearUserCache();
+		configs.clearTemplateCache();
 		if (props.getOrigin().equals(origin)) {
-			configs.clearUserCache();
 			configs.clearPluginCache();
-			configs.clearTemplateCache();
 			configs.clearConfigCache();
 		}
 	}
@@ -10,6 +10,7 @@ import jasper.component.IngestPlugin;
 import jasper.domain.Plugin;
 import jasper.errors.InvalidPatchException;
 import jasper.errors.NotFoundException;
+import jasper.repository.CursorStream;
 import jasper.repository.PluginRepository;
 import jasper.repository.filter.TagFilter;
 import jasper.security.Auth;
@@ -20,11 +21,13 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.function.Consumer;
 
 import static jasper.domain.proj.Tag.localTag;
 import static jasper.domain.proj.Tag.tagOrigin;
@@ -37,6 +40,9 @@ public class PluginService {
 	@Autowired
 	PluginRepository pluginRepository;
 
+	@Autowired
+	CursorStream cursorStream;
+
 	@Autowired
 	IngestPlugin ingest;
 
@@ -94,6 +100,28 @@ public class PluginService {
 			.map(mapper::domainToDto);
 	}
 
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "plugin"}, histogram = true)
+	public Slice<PluginDto> slice(TagFilter filter, int size) {
+		return pluginRepository
+			.findSlice(
+				auth.<Plugin>tagReadSpec()
+					.and(filter.spec()),
+				size)
+			.map(mapper::domainToDto);
+	}
+
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "plugin"}, histogram = true)
+	public void stream(TagFilter filter, Consumer<PluginDto> fn) {
+		cursorStream.forEach(Plugin.class,
+			auth.<Plugin>tagReadSpec()
+				.and(filter.spec()),
+			plugin -> fn.accept(mapper.domainToDto(plugin)));
+	}
+
 	@PreAuthorize("@auth.canEditConfig(#plugin)")
 	@Timed(value = "jasper.service", extraTags = {"service", "plugin"}, histogram = true)
 	public Instant update(Plugin plugin) {
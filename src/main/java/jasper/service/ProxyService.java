@@ -51,7 +51,7 @@ public class ProxyService {
 	@Timed(value = "jasper.service", extraTags = {"service", "proxy"}, histogram = true)
 	public InputStream fetchIfExists(String url, String origin) {
 		if (fileCache.isEmpty()) throw new NotAvailableException();
-		if (!refRepository.existsByUrlAndOrigin(url, origin)) throw new NotFoundException("Cache not found");
+		if (proxy.stat(url, origin) == null) throw new NotFoundException("Cache not found");
 		return fileCache.get().fetch(url, origin);
 	}
 
@@ -59,7 +59,7 @@ public class ProxyService {
 	@Timed(value = "jasper.service", extraTags = {"service", "proxy"}, histogram = true)
 	public RefDto stat(String url, String origin, boolean thumbnail) {
 		// Only require role for new scrapes
-		if (!url.startsWith("cache:") && !auth.hasRole(USER) && !refRepository.existsByUrlAndOrigin(url, origin)) throw new AccessDeniedException("Requires USER role to scrape.");
+		if (!url.startsWith("cache:") && !auth.hasRole(USER) && proxy.stat(url, origin) == null) throw new AccessDeniedException("Requires USER role to scrape.");
 		return mapper.domainToDto(thumbnail
 			? proxy.statThumbnail(url, origin)
 			: proxy.stat(url, origin));
@@ -77,7 +77,7 @@ public class ProxyService {
 	@Timed(value = "jasper.service", extraTags = {"service", "proxy"}, histogram = true)
 	public InputStream fetch(String url, String origin, boolean thumbnail) {
 		// Only require role for new scrapes
-		if (!url.startsWith("cache:") && !auth.minFetchRole() && !refRepository.existsByUrlAndOrigin(url, origin)) {
+		if (!url.startsWith("cache:") && !auth.minFetchRole() && proxy.stat(url, origin) == null) {
 			throw new AccessDeniedException("Not found and not allowed to scrape.");
 		}
 		return thumbnail
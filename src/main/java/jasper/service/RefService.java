@@ -13,6 +13,7 @@ import jasper.domain.Ref;
 import jasper.errors.InvalidPatchException;
 import jasper.errors.MaxSourcesException;
 import jasper.errors.NotFoundException;
+import jasper.repository.CursorStream;
 import jasper.repository.RefRepository;
 import jasper.repository.filter.RefFilter;
 import jasper.security.Auth;
@@ -24,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,6 +35,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.function.Consumer;
 
 import static jasper.component.Meta.expandTags;
 import static jasper.repository.spec.OriginSpec.isOrigin;
@@ -49,6 +52,9 @@ public class RefService {
 	@Autowired
 	RefRepository refRepository;
 
+	@Autowired
+	CursorStream cursorStream;
+
 	@Autowired
 	Ingest ingest;
 
@@ -119,6 +125,28 @@ public class RefService {
 			.map(mapper::domainToDto);
 	}
 
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.canReadQuery(#filter)")
+	@Timed(value = "jasper.service", extraTags = {"service", "ref"}, histogram = true)
+	public Slice<RefDto> slice(RefFilter filter, int size) {
+		return refRepository
+			.findSlice(
+				auth.refReadSpec()
+					.and(filter.spec(auth.getUserTag())),
+				size)
+			.map(mapper::domainToDto);
+	}
+
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.canReadQuery(#filter)")
+	@Timed(value = "jasper.service", extraTags = {"service", "ref"}, histogram = true)
+	public void stream(RefFilter filter, Consumer<RefDto> fn) {
+		cursorStream.forEach(Ref.class,
+			auth.refReadSpec()
+				.and(filter.spec(auth.getUserTag())),
+			ref -> fn.accept(mapper.domainToDto(ref)));
+	}
+
 	@Transactional(readOnly = true)
 	@PreAuthorize("@auth.canReadQuery(#filter)")
 	@Timed(value = "jasper.service", extraTags = {"service", "ref"}, histogram = true)
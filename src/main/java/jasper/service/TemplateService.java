@@ -10,6 +10,7 @@ import jasper.component.IngestTemplate;
 import jasper.domain.Template;
 import jasper.errors.InvalidPatchException;
 import jasper.errors.NotFoundException;
+import jasper.repository.CursorStream;
 import jasper.repository.TemplateRepository;
 import jasper.repository.filter.TagFilter;
 import jasper.security.Auth;
@@ -20,11 +21,13 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.function.Consumer;
 
 import static jasper.domain.proj.Tag.localTag;
 import static jasper.domain.proj.Tag.tagOrigin;
@@ -37,6 +40,9 @@ public class TemplateService {
 	@Autowired
 	TemplateRepository templateRepository;
 
+	@Autowired
+	CursorStream cursorStream;
+
 	@Autowired
 	IngestTemplate ingest;
 
@@ -93,6 +99,28 @@ public class TemplateService {
 			.map(mapper::domainToDto);
 	}
 
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "template"}, histogram = true)
+	public Slice<TemplateDto> slice(TagFilter filter, int size) {
+		return templateRepository
+			.findSlice(
+				auth.<Template>tagReadSpec()
+					.and(filter.spec()),
+				size)
+			.map(mapper::domainToDto);
+	}
+
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "template"}, histogram = true)
+	public void stream(TagFilter filter, Consumer<TemplateDto> fn) {
+		cursorStream.forEach(Template.class,
+			auth.<Template>tagReadSpec()
+				.and(filter.spec()),
+			template -> fn.accept(mapper.domainToDto(template)));
+	}
+
 	@PreAuthorize("@auth.canEditConfig(#template)")
 	@Timed(value = "jasper.service", extraTags = {"service", "template"}, histogram = true)
 	public Instant update(Template template) {
@@ -11,6 +11,7 @@ import jasper.config.Props;
 import jasper.domain.User;
 import jasper.errors.InvalidPatchException;
 import jasper.errors.NotFoundException;
+import jasper.repository.CursorStream;
 import jasper.repository.UserRepository;
 import jasper.repository.filter.TagFilter;
 import jasper.security.Auth;
@@ -22,6 +23,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
@@ -32,6 +34,7 @@ import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPublicKey;
 import java.time.Instant;
+import java.util.function.Consumer;
 
 import static jasper.domain.proj.Tag.localTag;
 import static jasper.domain.proj.Tag.tagOrigin;
@@ -57,6 +60,9 @@ public class UserService {
 	@Autowired
 	UserRepository userRepository;
 
+	@Autowired
+	CursorStream cursorStream;
+
 	@Autowired
 	IngestUser ingest;
 
@@ -127,6 +133,29 @@ public class UserService {
 			.map(auth::filterUser);
 	}
 
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "user"}, histogram = true)
+	public Slice<UserDto> slice(TagFilter filter, int size) {
+		return userRepository
+			.findSlice(
+				auth.<User>tagReadSpec()
+					.and(filter.spec()),
+				size)
+			.map(mapper::domainToDto)
+			.map(auth::filterUser);
+	}
+
+	@Transactional(readOnly = true)
+	@PreAuthorize("@auth.minRole()")
+	@Timed(value = "jasper.service", extraTags = {"service", "user"}, histogram = true)
+	public void stream(TagFilter filter, Consumer<UserDto> fn) {
+		cursorStream.forEach(User.class,
+			auth.<User>tagReadSpec()
+				.and(filter.spec()),
+			user -> fn.accept(auth.filterUser(mapper.domainToDto(user))));
+	}
+
 	@PreAuthorize("@auth.canWriteUser(#user)")
 	@Timed(value = "jasper.service", extraTags = {"service", "user"}, histogram = true)
 	public Instant update(User user) {
@@ -8,7 +8,6 @@ package jasper.util;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
@@ -85,10 +84,7 @@ public class JsonArrayStreamDataSupplier<T> implements Iterator<T> {
 	@Override
 	public T next() {
 		try {
-			JsonNode n = parser.readValueAsTree();
-			//Because we can't send T as a parameter to the mapper
-			T node = mapper.convertValue(n, type);
-			return node;
+			return parser.readValueAs(type);
 		} catch (IOException | IllegalArgumentException e) {
 			System.out.println("Ex" + e);
 			return null;
@@ -0,0 +1,82 @@
+package jasper.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesce concurrent calls with the same key into one execution.
+ * The first caller runs the leader. Callers arriving while it is running wait
+ * for it to finish and then run the follower, which should only read what the
+ * leader produced. Each caller gets its own result, so streams are not shared.
+ * A caller that just missed a flight becomes the next leader, so the leader
+ * should recheck whether the work is already done before repeating it.
+ * Runtime exceptions thrown by the leader are rethrown to each waiting caller
+ * wrapped in its own {@link FlightFailedException}.
+ */
+public class SingleFlight {
+	private final Map<String, CompletableFuture<Void>> flights = new ConcurrentHashMap<>();
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final Counter coalesced;
+
+	public SingleFlight(String name, MeterRegistry meterRegistry) {
+		coalesced = Counter.builder("jasper.singleflight.coalesced")
+			.description("Callers that waited for an in-flight call instead of repeating it")
+			.tag("name", name)
+			.register(meterRegistry);
+		Gauge.builder("jasper.singleflight.waiting", waiting, AtomicInteger::get)
+			.tag("name", name)
+			.register(meterRegistry);
+	}
+
+	public <T> T run(String key, Supplier<T> leader, Supplier<T> follower) {
+		var flight = new CompletableFuture<Void>();
+		var existing = flights.putIfAbsent(key, flight);
+		if (existing != null) {
+			coalesced.increment();
+			waiting.incrementAndGet();
+			try {
+				existing.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException r) throw new FlightFailedException(key, r);
+				throw e;
+			} finally {
+				waiting.decrementAndGet();
+			}
+			return follower.get();
+		}
+		try {
+			var result = leader.get();
+			flight.complete(null);
+			return result;
+		} catch (RuntimeException e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			flights.remove(key, flight);
+			// Release waiters on errors as well
+			flight.complete(null);
+		}
+	}
+
+	int waiting() {
+		return waiting.get();
+	}
+
+	/**
+	 * The leader this caller waited for failed. The leader's exception is the
+	 * cause, shared by all waiters, so it must not be modified.
+	 */
+	public static class FlightFailedException extends RuntimeException {
+		public FlightFailedException(String key, RuntimeException cause) {
+			super("In-flight call failed for " + key + ": " + cause.getMessage(), cause);
+		}
+	}
+}
@@ -31,18 +31,27 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.Closeable;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static jasper.domain.Ref.URL_LEN;
 import static jasper.domain.proj.HasOrigin.ORIGIN_LEN;
 import static java.lang.Long.parseLong;
+import static java.util.Comparator.comparingLong;
 import static org.apache.commons.io.FilenameUtils.getName;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -59,6 +68,11 @@ import static org.springframework.http.MediaType.parseMediaType;
 	@ApiResponse(responseCode = "503", content = @Content(schema = @Schema(ref = "https://opensource.zalando.com/problem/schema.yaml#/Problem"))),
 })
 public class ProxyController {
+	private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+	/**
+	 * Most ranges served in one multipart response.
+	 */
+	static final int MAX_RANGES = 16;
 
 	@Autowired
 	ProxyService proxyService;
@@ -114,7 +128,8 @@ public class ProxyController {
 			URLEncoder.encode(filename, StandardCharsets.UTF_8).replace("+", "%20");
 		if (rangeHeader != null && contentLength != null && rangeHeader.startsWith("bytes=")) {
 			try {
-				return handleRangeRequest(is, rangeHeader, contentLength, contentType, contentDisposition);
+				var partial = handleRangeRequest(is, rangeHeader, contentLength, contentType, contentDisposition);
+				if (partial != null) return partial;
 			} catch (NumberFormatException e) {
 				// RFC 7233 Section 3.1: Ignore syntactically invalid range headers and return full content
 				// Fall through to return full content below
@@ -131,60 +146,188 @@ public class ProxyController {
 			.header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
 			.contentType(contentType)
 			.cacheControl(CacheControl.maxAge(100, TimeUnit.DAYS).cachePrivate())
-			.body(outputStream -> streamContent(is, outputStream, 0, null));
+			.body(outputStream -> {
+				try (var reader = new RangeReader(is)) {
+					reader.copy(0, Long.MAX_VALUE, outputStream);
+				}
+			});
 	}
 
+	/**
+	 * Serve a single range as 206, or several as multipart/byteranges.
+	 *
+	 * @return null to ignore the range header and return the full content
+	 */
 	private ResponseEntity<StreamingResponseBody> handleRangeRequest(InputStream is, String rangeHeader, long contentLength, MediaType contentType, String contentDisposition) throws NumberFormatException {
-		// Parse "bytes=start-end" (end is optional)
-		var rangeValue = rangeHeader.substring("bytes=".length());
-		var ranges = rangeValue.split("-");
-		var start = isBlank(ranges[0])
-			? contentLength - parseLong(ranges[1])
-			: parseLong(ranges[0]);
-		var end = ranges.length > 1 && isNotBlank(ranges[0]) && isNotBlank(ranges[1])
-			? parseLong(ranges[1])
-			: contentLength - 1;
-
-		// RFC 7233: If end >= contentLength, adjust to contentLength - 1
-		if (end >= contentLength) {
-			end = contentLength - 1;
-		}
-		// RFC 7233: If suffix-byte-range-spec exceeds content length, clamp start to 0
-		if (start < 0) {
-			start = 0;
-		}
-		// Only return 416 if start is beyond content or start > end after adjustment
-		if (start >= contentLength || start > end) {
+		var ranges = parseRanges(rangeHeader, contentLength);
+		// Only return 416 if no range starts within the content
+		if (ranges.isEmpty()) {
 			try { is.close(); } catch (IOException ignored) { }
 			return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
 				.header(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength)
 				.build();
 		}
-		long rangeStart = start;
-		long rangeLength = end - start + 1;
+		ranges = coalesce(ranges, contentLength);
+		if (ranges == null) return null;
+		if (ranges.size() == 1) {
+			var range = ranges.getFirst();
+			return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+				.header(HttpHeaders.ACCEPT_RANGES, "bytes")
+				.header(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + contentLength)
+				.header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+				.contentLength(range.length())
+				.contentType(contentType)
+				.cacheControl(CacheControl.maxAge(100, TimeUnit.DAYS).cachePrivate())
+				.body(outputStream -> {
+					try (var reader = new RangeReader(is)) {
+						reader.copy(range.start(), range.length(), outputStream);
+					}
+				});
+		}
+		var boundary = UUID.randomUUID().toString().replace("-", "");
+		var headers = new ArrayList<byte[]>();
+		var length = 0L;
+		for (var range : ranges) {
+			var header = ("--" + boundary + "\r\n" +
+				HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n" +
+				HttpHeaders.CONTENT_RANGE + ": bytes " + range.start() + "-" + range.end() + "/" + contentLength + "\r\n" +
+				"\r\n").getBytes(StandardCharsets.US_ASCII);
+			headers.add(header);
+			length += header.length + range.length() + 2;
+		}
+		var end = ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+		length += end.length;
 		return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
 			.header(HttpHeaders.ACCEPT_RANGES, "bytes")
-			.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength)
 			.header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
-			.contentLength(rangeLength)
-			.contentType(contentType)
+			.contentLength(length)
+			.contentType(new MediaType("multipart", "byteranges", Map.of("boundary", boundary)))
 			.cacheControl(CacheControl.maxAge(100, TimeUnit.DAYS).cachePrivate())
-			.body(outputStream -> streamContent(is, outputStream, rangeStart, rangeLength));
+			.body(outputStream -> {
+				try (var reader = new RangeReader(is)) {
+					for (var i = 0; i < ranges.size(); i++) {
+						outputStream.write(headers.get(i));
+						reader.copy(ranges.get(i).start(), ranges.get(i).length(), outputStream);
+						outputStream.write(CRLF);
+					}
+					outputStream.write(end);
+				}
+			});
+	}
+
+	/**
+	 * Parse "bytes=start-end, ..." where end is optional and start may be
+	 * omitted for a suffix range. Ranges that start beyond the content are
+	 * dropped, and the rest are clamped to the content length.
+	 */
+	static List<Range> parseRanges(String rangeHeader, long contentLength) throws NumberFormatException {
+		var result = new ArrayList<Range>();
+		for (var spec : rangeHeader.substring("bytes=".length()).split(",")) {
+			spec = spec.trim();
+			var dash = spec.indexOf('-');
+			if (dash == -1) throw new NumberFormatException(spec);
+			var first = spec.substring(0, dash);
+			var last = spec.substring(dash + 1);
+			var start = isBlank(first)
+				? contentLength - parseLong(last)
+				: parseLong(first);
+			var end = isNotBlank(first) && isNotBlank(last)
+				? parseLong(last)
+				: contentLength - 1;
+			// RFC 7233: If end >= contentLength, adjust to contentLength - 1
+			if (end >= contentLength) {
+				end = contentLength - 1;
+			}
+			// RFC 7233: If suffix-byte-range-spec exceeds content length, clamp start to 0
+			if (start < 0) {
+				start = 0;
+			}
+			if (start >= contentLength || start > end) continue;
+			result.add(new Range(start, end));
+		}
+		return result;
+	}
+
+	/**
+	 * Sort ranges and coalesce any that overlap or touch, as RFC 7233 allows,
+	 * so streams that cannot seek can serve them in order. Headers asking for
+	 * more bytes than the content or more than {@link #MAX_RANGES} ranges are
+	 * ignored, so a few bytes of header cannot make us send the file many
+	 * times over (CVE-2011-3192).
+	 *
+	 * @return null to ignore the range header and return the full content
+	 */
+	static List<Range> coalesce(List<Range> ranges, long contentLength) {
+		var total = 0L;
+		for (var range : ranges) {
+			total += range.length();
+			if (total > contentLength) return null;
+		}
+		var result = new ArrayList<Range>();
+		for (var range : ranges.stream().sorted(comparingLong(Range::start)).toList()) {
+			if (!result.isEmpty() && range.start() <= result.getLast().end() + 1) {
+				var last = result.removeLast();
+				result.add(new Range(last.start(), Math.max(last.end(), range.end())));
+			} else {
+				result.add(range);
+			}
+		}
+		if (result.size() > MAX_RANGES) return null;
+		return result;
+	}
+
+	record Range(long start, long end) {
+		long length() {
+			return end - start + 1;
+		}
 	}
 
-	private void streamContent(InputStream is, OutputStream outputStream, long skip, Long length) throws IOException {
-		try (is) {
-			if (skip > 0) {
-				is.skipNBytes(skip);
+	/**
+	 * Reads byte ranges from a stream. Cached files are read through their
+	 * {@link FileChannel}, which seeks to each range instead of reading the
+	 * skipped bytes and hands the copy to {@link FileChannel#transferTo}.
+	 * Other streams are read in order through a buffer.
+	 */
+	static class RangeReader implements Closeable {
+		private final InputStream is;
+		private final FileChannel channel;
+		private long position;
+
+		RangeReader(InputStream is) {
+			this.is = is;
+			this.channel = is instanceof FileInputStream file ? file.getChannel() : null;
+		}
+
+		void copy(long start, long count, OutputStream outputStream) throws IOException {
+			if (channel != null) {
+				var target = Channels.newChannel(outputStream);
+				var remaining = Math.min(count, channel.size() - start);
+				while (remaining > 0) {
+					var sent = channel.transferTo(start, remaining, target);
+					if (sent <= 0) break;
+					start += sent;
+					remaining -= sent;
+				}
+				return;
+			}
+			if (start > position) {
+				is.skipNBytes(start - position);
+				position = start;
 			}
 			var buffer = new byte[64 * 1024];
 			int bytesRead;
-			var remaining = length != null ? length : Long.MAX_VALUE;
+			var remaining = count;
 			while (remaining > 0 && (bytesRead = is.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
 				outputStream.write(buffer, 0, bytesRead);
 				remaining -= bytesRead;
+				position += bytesRead;
 			}
 		}
+
+		@Override
+		public void close() throws IOException {
+			is.close();
+		}
 	}
 
 	@ApiResponses({
@@ -1,10 +1,13 @@
 package jasper.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import jasper.client.JasperClient;
@@ -13,10 +16,10 @@ import jasper.config.Props;
 import jasper.domain.Ext;
 import jasper.domain.Plugin;
 import jasper.domain.Ref;
-import jasper.domain.Ref_;
 import jasper.domain.Template;
 import jasper.domain.User;
 import jasper.domain.proj.HasOrigin;
+import jasper.errors.NotAvailableException;
 import jasper.errors.NotFoundException;
 import jasper.errors.TooLargeException;
 import jasper.repository.filter.RefFilter;
@@ -37,7 +40,6 @@ import org.hibernate.validator.constraints.Length;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -58,6 +60,8 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
@@ -65,14 +69,15 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static jasper.client.JasperClient.jasperHeaders;
 import static jasper.domain.Ref.URL_LEN;
 import static jasper.domain.proj.HasOrigin.ORIGIN_LEN;
+import static jasper.repository.CursorStream.FETCH_SIZE;
 import static jasper.repository.filter.Query.QUERY_LEN;
 import static org.apache.commons.io.FilenameUtils.getName;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.springframework.data.domain.Sort.by;
 
 @CrossOrigin
 @RestController
@@ -98,6 +103,9 @@ public class ReplicateController {
 	@Autowired
 	DtoMapper mapper;
 
+	@Autowired
+	ObjectMapper objectMapper;
+
 	@Autowired
 	RefService refService;
 
@@ -116,6 +124,9 @@ public class ReplicateController {
 	@Autowired
 	ProxyService proxyService;
 
+	@Autowired
+	Bulkhead replServeBulkhead;
+
 	@ApiResponses({
 		@ApiResponse(responseCode = "200"),
 	})
@@ -127,17 +138,37 @@ public class ReplicateController {
 		@RequestParam(defaultValue = "500") int size
 	) {
 		if (size > configs.root().getMaxReplEntityBatch()) throw new TooLargeException(size, configs.root().getMaxReplEntityBatch());
-		return refService.page(
+		return refService.slice(
 				RefFilter.builder()
 					.origin(origin)
 					.query(query)
 					.modifiedAfter(modifiedAfter)
 					.build(),
-				PageRequest.of(0, size, by(Ref_.MODIFIED)))
+				size)
 			.map(mapper::dtoToRepl)
 			.getContent();
 	}
 
+	@ApiResponses({
+		@ApiResponse(responseCode = "200"),
+		@ApiResponse(responseCode = "503", content = @Content(schema = @Schema(ref = "https://opensource.zalando.com/problem/schema.yaml#/Problem"))),
+	})
+	@GetMapping(value = "ref/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	void refStream(
+		@RequestParam(defaultValue = "") @Length(max = ORIGIN_LEN) @Pattern(regexp = HasOrigin.REGEX) String origin,
+		@RequestParam(required = false) @Length(max = QUERY_LEN) @Pattern(regexp = RefFilter.QUERY) String query,
+		@RequestParam(required = false) Instant modifiedAfter,
+		HttpServletResponse response
+	) throws IOException {
+		ndjson(response, out -> refService.stream(
+			RefFilter.builder()
+				.origin(origin)
+				.query(query)
+				.modifiedAfter(modifiedAfter)
+				.build(),
+			ref -> out.accept(mapper.dtoToRepl(ref))));
+	}
+
 	@ApiResponses({
 		@ApiResponse(responseCode = "200"),
 	})
@@ -181,16 +212,36 @@ public class ReplicateController {
 		@RequestParam(defaultValue = "500") int size
 	) {
 		if (size > configs.root().getMaxReplEntityBatch()) throw new TooLargeException(size, configs.root().getMaxReplEntityBatch());
-		return extService.page(
+		return extService.slice(
 				TagFilter.builder()
 					.origin(origin)
 					.query(query)
 					.modifiedAfter(modifiedAfter)
 					.build(),
-				PageRequest.of(0, size, by(Ref_.MODIFIED)))
+				size)
 			.getContent();
 	}
 
+	@ApiResponses({
+		@ApiResponse(responseCode = "200"),
+		@ApiResponse(responseCode = "503", content = @Content(schema = @Schema(ref = "https://opensource.zalando.com/problem/schema.yaml#/Problem"))),
+	})
+	@GetMapping(value = "ext/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	void extStream(
+		@RequestParam(defaultValue = "") @Length(max = ORIGIN_LEN) @Pattern(regexp = HasOrigin.REGEX) String origin,
+		@RequestParam(required = false) @Length(max = QUERY_LEN) @Pattern(regexp = RefFilter.QUERY) String query,
+		@RequestParam(required = false) Instant modifiedAfter,
+		HttpServletResponse response
+	) throws IOException {
+		ndjson(response, out -> extService.stream(
+			TagFilter.builder()
+				.origin(origin)
+				.query(query)
+				.modifiedAfter(modifiedAfter)
+				.build(),
+			out::accept));
+	}
+
 	@ApiResponses({
 		@ApiResponse(responseCode = "200"),
 	})
@@ -234,16 +285,36 @@ public class ReplicateController {
 		@RequestParam(defaultValue = "500") int size
 	) {
 		if (size > configs.root().getMaxReplEntityBatch()) throw new TooLargeException(size, configs.root().getMaxReplEntityBatch());
-		return userService.page(
+		return userService.slice(
 				TagFilter.builder()
 					.origin(origin)
 					.query(query)
 					.modifiedAfter(modifiedAfter)
 					.build(),
-				PageRequest.of(0, size, by(Ref_.MODIFIED)))
+				size)
 			.getContent();
 	}
 
+	@ApiResponses({
+		@ApiResponse(responseCode = "200"),
+		@ApiResponse(responseCode = "503", content = @Content(schema = @Schema(ref = "https://opensource.zalando.com/problem/schema.yaml#/Problem"))),
+	})
+	@GetMapping(value = "user/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	void userStream(
+		@RequestParam(defaultValue = "") @Length(max = ORIGIN_LEN) @Pattern(regexp = HasOrigin.REGEX) String origin,
+		@RequestParam(required = false) @Length(max = QUERY_LEN) @Pattern(regexp = RefFilter.QUERY) String query,
+		@RequestParam(required = false) Instant modifiedAfter,
+		HttpServletResponse response
+	) throws IOException {
+		ndjson(response, out -> userService.stream(
+			TagFilter.builder()
+				.origin(origin)
+				.query(query)
+				.modifiedAfter(modifiedAfter)
+				.build(),
+			out::accept));
+	}
+
 	@ApiResponses({
 		@ApiResponse(responseCode = "200"),
 	})
@@ -287,16 +358,36 @@ public class ReplicateController {
 		@RequestParam(defaultValue = "500") int size
 	) {
 		if (size > configs.root().getMaxReplEntityBatch()) throw new TooLargeException(size, configs.root().getMaxReplEntityBatch());
-		return pluginService.page(
+		return pluginService.slice(
 				TagFilter.builder()
 					.origin(origin)
 					.query(query)
 					.modifiedAfter(modifiedAfter)
 					.build(),
-				PageRequest.of(0, size, by(Ref_.MODIFIED)))
+				size)
 			.getContent();
 	}
 
+	@ApiResponses({
+		@ApiResponse(responseCode = "200"),
+		@ApiResponse(responseCode = "503", content = @Content(schema = @Schema(ref = "https://opensource.zalando.com/problem/schema.yaml#/Problem"))),
+	})
+	@GetMapping(value = "plugin/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	void pluginStream(
+		@RequestParam(defaultValue = "") @Length(max = ORIGIN_LEN) @Pattern(regexp = HasOrigin.REGEX) String origin,
+		@RequestParam(required = false) @Length(max = QUERY_LEN) @Pattern(regexp = RefFilter.QUERY) String query,
+		@RequestParam(required = false) Instant modifiedAfter,
+		HttpServletResponse response
+	) throws IOException {
+		ndjson(response, out -> pluginService.stream(
+			TagFilter.builder()
+				.origin(origin)
+				.query(query)
+				.modifiedAfter(modifiedAfter)
+				.build(),
+			out::accept));
+	}
+
 	@ApiResponses({
 		@ApiResponse(responseCode = "200"),
 	})
@@ -340,16 +431,36 @@ public class ReplicateController {
 		@RequestParam(defaultValue = "500") int size
 	) {
 		if (size > configs.root().getMaxReplEntityBatch()) throw new TooLargeException(size, configs.root().getMaxReplEntityBatch());
-		return templateService.page(
+		return templateService.slice(
 				TagFilter.builder()
 					.origin(origin)
 					.query(query)
 					.modifiedAfter(modifiedAfter)
 					.build(),
-				PageRequest.of(0, size, by(Ref_.MODIFIED)))
+				size)
 			.getContent();
 	}
 
+	@ApiResponses({
+		@ApiResponse(responseCode = "200"),
+		@ApiResponse(responseCode = "503", content = @Content(schema = @Schema(ref = "https://opensource.zalando.com/problem/schema.yaml#/Problem"))),
+	})
+	@GetMapping(value = "template/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	void templateStream(
+		@RequestParam(defaultValue = "") @Length(max = ORIGIN_LEN) @Pattern(regexp = HasOrigin.REGEX) String origin,
+		@RequestParam(required = false) @Length(max = QUERY_LEN) @Pattern(regexp = RefFilter.QUERY) String query,
+		@RequestParam(required = false) Instant modifiedAfter,
+		HttpServletResponse response
+	) throws IOException {
+		ndjson(response, out -> templateService.stream(
+			TagFilter.builder()
+				.origin(origin)
+				.query(query)
+				.modifiedAfter(modifiedAfter)
+				.build(),
+			out::accept));
+	}
+
 	@ApiResponses({
 		@ApiResponse(responseCode = "200"),
 	})
@@ -464,4 +575,36 @@ public class ReplicateController {
 			return mapper.dtoToRepl(proxyService.save(origin, title, data, mime));
 		}
 	}
+
+	/**
+	 * Write each entity as one line of JSON straight to the response, flushing
+	 * every fetch so the client can ingest while the cursor is still open.
+	 * Each stream holds a database connection, so they are bounded by the
+	 * repl-serve bulkhead and rejected with 503 when it is full.
+	 */
+	private void ndjson(HttpServletResponse response, Consumer<Consumer<Object>> stream) throws IOException {
+		if (!replServeBulkhead.tryAcquirePermission()) {
+			logger.debug("Replication stream limit reached");
+			throw new NotAvailableException();
+		}
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		OutputStream out = response.getOutputStream();
+		var count = new int[]{ 0 };
+		try {
+			stream.accept(entity -> {
+				try {
+					out.write(objectMapper.writeValueAsBytes(entity));
+					out.write('\n');
+					if (++count[0] % FETCH_SIZE == 0) out.flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			out.flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			replServeBulkhead.onComplete();
+		}
+	}
 }
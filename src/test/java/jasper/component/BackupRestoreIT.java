@@ -20,7 +20,9 @@ import org.springframework.test.context.ActiveProfiles;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 
+import static jasper.component.FileCache.CACHE;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @IntegrationTest
@@ -50,6 +52,7 @@ public class BackupRestoreIT {
 
 	private static final String ORIGIN = "";
 	private static final String BACKUP_ID = "test-backup";
+	private static final String INCREMENTAL_ID = "test-backup-incremental";
 
 	@BeforeEach
 	void setup() {
@@ -69,6 +72,11 @@ public class BackupRestoreIT {
 		} catch (Exception e) {
 			// Ignore if backup doesn't exist
 		}
+		try {
+			backup.delete(ORIGIN, INCREMENTAL_ID);
+		} catch (Exception e) {
+			// Ignore if backup doesn't exist
+		}
 	}
 
 	@Test
@@ -423,6 +431,73 @@ public class BackupRestoreIT {
 		assertThat(refRepository.count()).isEqualTo(5);
 	}
 
+	@Test
+	void testRestoreManyBatches() throws IOException {
+		var refs = new ArrayList<Ref>();
+		for (int i = 0; i < 1_200; i++) {
+			var ref = new Ref();
+			ref.setUrl("https://example.com/batch-" + i);
+			ref.setOrigin(ORIGIN);
+			refs.add(ref);
+		}
+		refRepository.saveAll(refs);
+
+		var options = new BackupOptionsDto();
+		options.setRef(true);
+		backup.createBackup(ORIGIN, BACKUP_ID, options);
+		waitForBackup();
+		refRepository.deleteAll();
+
+		backup.restore(ORIGIN, BACKUP_ID, options);
+		waitForRestore();
+
+		assertThat(refRepository.count()).isEqualTo(1_200);
+	}
+
+	@Test
+	void testRestoreOverwritesExisting() throws IOException {
+		var ref = new Ref();
+		ref.setUrl("https://example.com/overwrite");
+		ref.setOrigin(ORIGIN);
+		ref.setTitle("Backed Up");
+		refRepository.save(ref);
+
+		var options = new BackupOptionsDto();
+		options.setRef(true);
+		backup.createBackup(ORIGIN, BACKUP_ID, options);
+		waitForBackup();
+		var changed = refRepository.findOneByUrlAndOrigin("https://example.com/overwrite", ORIGIN).orElseThrow();
+		changed.setTitle("Changed");
+		refRepository.save(changed);
+
+		backup.restore(ORIGIN, BACKUP_ID, options);
+		waitForRestore();
+
+		assertThat(refRepository.count()).isEqualTo(1);
+		assertThat(refRepository.findOneByUrlAndOrigin("https://example.com/overwrite", ORIGIN))
+			.hasValueSatisfying(r -> assertThat(r.getTitle()).isEqualTo("Backed Up"));
+	}
+
+	@Test
+	void testRestoreGeneratesMetadata() throws IOException {
+		var ref = new Ref();
+		ref.setUrl("https://example.com/meta");
+		ref.setOrigin(ORIGIN);
+		refRepository.save(ref);
+
+		var options = new BackupOptionsDto();
+		options.setRef(true);
+		backup.createBackup(ORIGIN, BACKUP_ID, options);
+		waitForBackup();
+		refRepository.deleteAll();
+
+		backup.restore(ORIGIN, BACKUP_ID, options);
+		waitForRestore();
+
+		assertThat(refRepository.findOneByUrlAndOrigin("https://example.com/meta", ORIGIN))
+			.hasValueSatisfying(r -> assertThat(r.getMetadata()).isNotNull());
+	}
+
 	@Test
 	void testIncrementalBackup() throws IOException {
 		// Create initial data
@@ -467,6 +542,46 @@ public class BackupRestoreIT {
 		assertThat(refRepository.existsByUrlAndOrigin("https://example.com/inc2", ORIGIN)).isTrue();
 	}
 
+	@Test
+	void testIncrementalBackupFromPrevious() throws IOException {
+		var ref1 = new Ref();
+		ref1.setUrl("https://example.com/prev1");
+		ref1.setOrigin(ORIGIN);
+		refRepository.save(ref1);
+		var unchanged = storage.store(ORIGIN, CACHE, "same".getBytes());
+		var changed = storage.store(ORIGIN, CACHE, "before".getBytes());
+
+		var options = new BackupOptionsDto();
+		options.setRef(true);
+		options.setCache(true);
+		backup.createBackup(ORIGIN, BACKUP_ID, options);
+		waitForBackup();
+
+		var ref2 = new Ref();
+		ref2.setUrl("https://example.com/prev2");
+		ref2.setOrigin(ORIGIN);
+		refRepository.save(ref2);
+		storage.overwrite(ORIGIN, CACHE, changed, "after".getBytes());
+
+		options.setPrevious(BACKUP_ID);
+		backup.createBackup(ORIGIN, INCREMENTAL_ID, options);
+		waitForBackup();
+
+		try (var zipped = storage.streamZip(ORIGIN, "backups", INCREMENTAL_ID + ".zip")) {
+			assertThat(zipped.in("manifest.json")).isNotNull();
+			assertThat(zipped.in("cache/" + changed)).isNotNull();
+			assertThat(zipped.in("cache/" + unchanged)).isNull();
+		}
+
+		refRepository.deleteAll();
+		options.setCache(false);
+		backup.restore(ORIGIN, INCREMENTAL_ID, options);
+		waitForRestore();
+
+		assertThat(refRepository.existsByUrlAndOrigin("https://example.com/prev1", ORIGIN)).isFalse();
+		assertThat(refRepository.existsByUrlAndOrigin("https://example.com/prev2", ORIGIN)).isTrue();
+	}
+
 	private void waitForBackup() {
 		// Wait for async backup operation to complete
 		try {
@@ -0,0 +1,111 @@
+package jasper.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigCacheTest {
+
+	ConfigCache configCache;
+	CaffeineCacheManager cacheManager;
+	SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void init() {
+		cacheManager = new CaffeineCacheManager();
+		meterRegistry = new SimpleMeterRegistry();
+		configCache = new ConfigCache();
+		configCache.cacheManager = cacheManager;
+		configCache.meterRegistry = meterRegistry;
+	}
+
+	private void put(String cache, String... keys) {
+		for (var key : keys) cacheManager.getCache(cache).put(key, key);
+	}
+
+	private boolean cached(String cache, String key) {
+		return cacheManager.getCache(cache).get(key) != null;
+	}
+
+	@Test
+	void testRelatedTag() {
+		assertThat(ConfigCache.relatedTag("plugin/test", "plugin/test")).isTrue();
+		assertThat(ConfigCache.relatedTag("plugin/test", "+plugin/test")).isTrue();
+		assertThat(ConfigCache.relatedTag("plugin", "plugin/test")).isTrue();
+		assertThat(ConfigCache.relatedTag("plugin/test/child", "_plugin/test")).isTrue();
+		assertThat(ConfigCache.relatedTag("", "plugin/test")).isTrue();
+		assertThat(ConfigCache.relatedTag("plugin/test", "plugin/testing")).isFalse();
+		assertThat(ConfigCache.relatedTag("plugin/test", "plugin/other")).isFalse();
+	}
+
+	@Test
+	void testRelatedOrigin() {
+		assertThat(ConfigCache.relatedOrigin("", "")).isTrue();
+		assertThat(ConfigCache.relatedOrigin(null, "")).isTrue();
+		assertThat(ConfigCache.relatedOrigin("", "@a")).isFalse();
+		assertThat(ConfigCache.relatedOrigin("@a", "@a")).isTrue();
+		assertThat(ConfigCache.relatedOrigin("@a", "@a.b")).isTrue();
+		assertThat(ConfigCache.relatedOrigin("@a", "@ab")).isFalse();
+		assertThat(ConfigCache.relatedOrigin("@a.b", "@a")).isFalse();
+	}
+
+	@Test
+	void testClearTemplateCacheByOrigin() {
+		put("template-cache", "_config/server", "plugin/test@a", "plugin/test@b", "plugin/other@a");
+		put("template-cache-wrapped", "_config/security@a.b", "_config/security@b");
+		put("template-schemas-cache", "plugin/test/child@a", "plugin/test/child@b");
+		put("template-dto-page-cache", "page");
+
+		configCache.clearTemplateCache("plugin/test", "@a");
+		configCache.clearTemplateCache("_config/security", "@a");
+
+		assertThat(cached("template-cache", "plugin/test@a")).isFalse();
+		assertThat(cached("template-cache", "plugin/test@b")).isTrue();
+		assertThat(cached("template-cache", "plugin/other@a")).isTrue();
+		assertThat(cached("template-cache", "_config/server")).isTrue();
+		assertThat(cached("template-cache-wrapped", "_config/security@a.b")).isFalse();
+		assertThat(cached("template-cache-wrapped", "_config/security@b")).isTrue();
+		assertThat(cached("template-schemas-cache", "plugin/test/child@a")).isFalse();
+		assertThat(cached("template-schemas-cache", "plugin/test/child@b")).isTrue();
+		assertThat(cached("template-dto-page-cache", "page")).isFalse();
+		assertThat(meterRegistry.get("jasper.cache.evicted").tag("cache", "template-cache").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void testClearServerConfig() {
+		put("template-cache", "_config/server", "_config/index");
+
+		configCache.clearTemplateCache("_config/server", "");
+
+		assertThat(cached("template-cache", "_config/server")).isFalse();
+		assertThat(cached("template-cache", "_config/index")).isTrue();
+	}
+
+	@Test
+	void testClearUserCache() {
+		put("user-cache", "+user/alice", "_user/alice@a", "+user/bob", "+user");
+
+		configCache.clearUserCache("_user/alice", "");
+
+		assertThat(cached("user-cache", "+user/alice")).isFalse();
+		assertThat(cached("user-cache", "_user/alice@a")).isFalse();
+		assertThat(cached("user-cache", "+user/bob")).isTrue();
+		assertThat(cached("user-cache", "+user")).isTrue();
+	}
+
+	@Test
+	void testClearConfigCache() {
+		put("config-cache", "+plugin/origin@a", "plugin/test@a@https://example.com", "plugin/other");
+
+		configCache.clearConfigCache(List.of("+plugin/origin", "plugin/test"));
+
+		assertThat(cached("config-cache", "+plugin/origin@a")).isFalse();
+		assertThat(cached("config-cache", "plugin/test@a@https://example.com")).isFalse();
+		assertThat(cached("config-cache", "plugin/other")).isTrue();
+	}
+}
@@ -0,0 +1,136 @@
+package jasper.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jasper.config.JacksonConfiguration;
+import jasper.domain.Ref;
+import jasper.plugin.Cache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FileCacheTest {
+
+	FileCache fileCache;
+	Map<String, byte[]> files = new ConcurrentHashMap<>();
+	Map<String, Ref> refs = new ConcurrentHashMap<>();
+
+	static final ObjectMapper om = new ObjectMapper();
+	static final String URL = "https://example.com/file.txt";
+	static final String ORIGIN = "";
+
+	@BeforeAll
+	static void setUpJackson() {
+		ReflectionTestUtils.setField(JacksonConfiguration.class, "om", om);
+	}
+
+	@BeforeEach
+	void init() throws Exception {
+		fileCache = new FileCache();
+		fileCache.configs = mock(ConfigCache.class);
+		fileCache.storage = mock(Storage.class);
+		fileCache.fetch = mock(Fetch.class);
+		fileCache.tagger = mock(Tagger.class);
+		fileCache.statCache = mock(StatCache.class);
+		fileCache.meterRegistry = new SimpleMeterRegistry();
+		fileCache.init();
+		when(fileCache.storage.store(anyString(), anyString(), any(InputStream.class))).thenAnswer(i -> {
+			var id = UUID.randomUUID().toString();
+			files.put(id, i.getArgument(2, InputStream.class).readAllBytes());
+			return id;
+		});
+		when(fileCache.storage.exists(anyString(), anyString(), anyString())).thenAnswer(i -> files.containsKey(i.getArgument(2, String.class)));
+		when(fileCache.storage.size(anyString(), anyString(), anyString())).thenAnswer(i -> (long) files.get(i.getArgument(2, String.class)).length);
+		when(fileCache.storage.get(anyString(), anyString(), anyString())).thenAnswer(i -> files.get(i.getArgument(2, String.class)));
+		when(fileCache.storage.stream(anyString(), anyString(), anyString())).thenAnswer(i -> new ByteArrayInputStream(files.get(i.getArgument(2, String.class))));
+		when(fileCache.tagger.plugin(anyString(), anyString(), anyString(), any(), any(String[].class))).thenAnswer(i -> {
+			var ref = ref(i.getArgument(0), i.getArgument(2), i.getArgument(3));
+			refs.put(ref.getUrl(), ref);
+			return ref;
+		});
+		when(fileCache.statCache.stat(anyString(), anyString())).thenAnswer(i -> refs.get(i.getArgument(0, String.class)));
+	}
+
+	Ref ref(String url, String tag, Object plugin) {
+		var ref = new Ref();
+		ref.setUrl(url);
+		ref.setOrigin(ORIGIN);
+		var plugins = om.createObjectNode();
+		plugins.set(tag, om.valueToTree(plugin));
+		ref.setPlugins(plugins);
+		return ref;
+	}
+
+	Fetch.FileRequest file(String data) {
+		return new Fetch.FileRequest() {
+			@Override
+			public String getMimeType() {
+				return "text/plain";
+			}
+
+			@Override
+			public InputStream getInputStream() {
+				return new ByteArrayInputStream(data.getBytes());
+			}
+
+			@Override
+			public void close() { }
+		};
+	}
+
+	@Test
+	void testConcurrentFetchScrapesOnce() throws Exception {
+		var scrapes = new AtomicInteger();
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		when(fileCache.fetch.doScrape(URL, ORIGIN)).thenAnswer(i -> {
+			scrapes.incrementAndGet();
+			started.countDown();
+			release.await();
+			return file("data");
+		});
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			var results = new ArrayList<Future<String>>();
+			results.add(executor.submit(() -> fileCache.fetchString(URL, ORIGIN)));
+			started.await();
+			for (var i = 0; i < 10; i++) {
+				results.add(executor.submit(() -> fileCache.fetchString(URL, ORIGIN)));
+			}
+			release.countDown();
+			for (var r : results) assertThat(r.get()).isEqualTo("data");
+		}
+		assertThat(scrapes.get()).isEqualTo(1);
+	}
+
+	@Test
+	void testLeaderRechecksCache() throws Exception {
+		files.put("id", "data".getBytes());
+		var cached = ref(URL, "_plugin/cache", Cache.builder().id("id").mimeType("text/plain").build());
+		// The first lookup misses, a download finishes before this call takes the lead
+		when(fileCache.statCache.stat(URL, ORIGIN)).thenReturn(null, cached);
+
+		assertThat(fileCache.fetchString(URL, ORIGIN)).isEqualTo("data");
+
+		verify(fileCache.fetch, never()).doScrape(anyString(), anyString());
+	}
+}
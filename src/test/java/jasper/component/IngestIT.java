@@ -557,5 +557,78 @@ public class IngestIT {
 			.contains("+plugin/rng/uuid1");
 	}
 
+	@Test
+	void testPushBatch() {
+		var existing = new Ref();
+		existing.setUrl(URL);
+		existing.setTitle("First");
+		refRepository.save(existing);
+		var ref = new Ref();
+		ref.setUrl(URL);
+		ref.setTitle("Second");
+		var response = new Ref();
+		response.setUrl(OTHER_URL);
+		response.setSources(List.of(URL));
+
+		var failures = ingest.push("", List.of(ref, response), false, false);
+
+		assertThat(failures)
+			.isEmpty();
+		assertThat(refRepository.findOneByUrlAndOrigin(URL, "").get().getTitle())
+			.isEqualTo("Second");
+		assertThat(refRepository.existsByUrlAndOrigin(OTHER_URL, ""))
+			.isTrue();
+		assertThat(refRepository.findOneByUrlAndOrigin(URL, "").get().getMetadata().getResponses())
+			.containsExactly(OTHER_URL);
+	}
+
+	@Test
+	void testPushBatchReportsDuplicateModifiedPerRow() {
+		var modified = Instant.now();
+		var ref1 = new Ref();
+		ref1.setUrl(URL);
+		ref1.setModified(modified);
+		var ref2 = new Ref();
+		ref2.setUrl(OTHER_URL);
+		ref2.setModified(modified);
 
+		var failures = ingest.push("", List.of(ref1, ref2), false, false);
+
+		assertThat(failures)
+			.hasSize(1);
+		assertThat(failures.get(0).ref().getUrl())
+			.isEqualTo(OTHER_URL);
+		assertThat(failures.get(0).error())
+			.isInstanceOf(DuplicateModifiedDateException.class);
+		assertThat(refRepository.existsByUrlAndOrigin(URL, ""))
+			.isTrue();
+	}
+
+	@Test
+	void testPushBatchFailuresInOrder() {
+		var modified = Instant.now();
+		var existing = new Ref();
+		existing.setUrl(URL);
+		refRepository.save(existing);
+		var ref1 = new Ref();
+		ref1.setUrl(URL + 1);
+		ref1.setModified(modified);
+		var ref2 = new Ref();
+		ref2.setUrl(URL + 2);
+		ref2.setModified(modified);
+		var update = new Ref();
+		update.setUrl(URL);
+		update.setTitle("Updated");
+		var ref3 = new Ref();
+		ref3.setUrl(URL + 3);
+		ref3.setModified(modified);
+
+		var failures = ingest.push("", List.of(ref1, ref2, update, ref3), false, false);
+
+		assertThat(failures)
+			.extracting(f -> f.ref().getUrl())
+			.containsExactly(URL + 2, URL + 3);
+		assertThat(refRepository.findOneByUrlAndOrigin(URL, "").get().getTitle())
+			.isEqualTo("Updated");
+	}
 }
@@ -0,0 +1,195 @@
+package jasper.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jasper.component.dto.ComponentDtoMapper;
+import jasper.config.Props;
+import jasper.domain.Ref;
+import jasper.service.dto.RefDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MessagesTest {
+
+	Messages messages;
+	SimpleMeterRegistry meterRegistry;
+	List<Runnable> scheduled = new ArrayList<>();
+	List<RefDto> sent = new ArrayList<>();
+	List<Runnable> executed = new ArrayList<>();
+
+	static final String URL = "https://example.com";
+	static final Instant OLD = Instant.parse("2024-01-01T00:00:00Z");
+	static final Instant NEW = OLD.plusSeconds(1);
+
+	@BeforeEach
+	void init() {
+		meterRegistry = new SimpleMeterRegistry();
+		messages = new Messages();
+		messages.props = new Props();
+		messages.meterRegistry = meterRegistry;
+		messages.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+		messages.mapper = mock(ComponentDtoMapper.class);
+		messages.taskScheduler = mock(TaskScheduler.class);
+		messages.taskExecutor = mock(ExecutorService.class);
+		messages.refTxChannel = mock(MessageChannel.class);
+		messages.tagTxChannel = mock(MessageChannel.class);
+		messages.responseTxChannel = mock(MessageChannel.class);
+		messages.cursorTxChannel = mock(MessageChannel.class);
+		messages.ready = true;
+		messages.initMetrics();
+		when(messages.mapper.domainToDto(any(Ref.class))).thenAnswer(i -> {
+			var ref = i.getArgument(0, Ref.class);
+			var dto = new RefDto();
+			dto.setUrl(ref.getUrl());
+			dto.setOrigin(ref.getOrigin());
+			dto.setTitle(ref.getTitle());
+			dto.setTags(ref.getTags());
+			dto.setModified(ref.getModified());
+			return dto;
+		});
+		when(messages.refTxChannel.send(any())).thenAnswer(i -> sent.add((RefDto) i.getArgument(0, Message.class).getPayload()));
+		when(messages.taskScheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(i -> {
+			scheduled.add(i.getArgument(0));
+			return null;
+		});
+		doAnswer(i -> {
+			executed.add(i.getArgument(0));
+			return null;
+		}).when(messages.taskExecutor).execute(any(Runnable.class));
+	}
+
+	Ref ref(String title, Instant modified) {
+		var ref = new Ref();
+		ref.setUrl(URL);
+		ref.setOrigin("");
+		ref.setTitle(title);
+		ref.setModified(modified);
+		return ref;
+	}
+
+	void runScheduled() {
+		scheduled.forEach(Runnable::run);
+		scheduled.clear();
+		executed.forEach(Runnable::run);
+		executed.clear();
+	}
+
+	double count(String result) {
+		return meterRegistry.get("jasper.messages.ref").tag("result", result).counter().count();
+	}
+
+	@Test
+	void testCoalesceUpdates() {
+		messages.updateSilentRef(ref("first", OLD));
+		messages.updateRef(ref("second", NEW));
+		assertThat(sent).isEmpty();
+
+		runScheduled();
+
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("second");
+		assertThat(count("sent")).isEqualTo(1);
+		assertThat(count("coalesced")).isEqualTo(1);
+		verify(messages.cursorTxChannel, times(1)).send(any());
+	}
+
+	@Test
+	void testFlushRunsOnTaskExecutor() {
+		messages.updateRef(ref("pending", NEW));
+
+		scheduled.forEach(Runnable::run);
+
+		assertThat(sent).isEmpty();
+		assertThat(executed).hasSize(1);
+		executed.getFirst().run();
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("pending");
+	}
+
+	@Test
+	void testNotifyKeptFromEarlierUpdate() {
+		messages.updateRef(ref("first", OLD));
+		messages.updateMetadata(ref("second", NEW));
+
+		runScheduled();
+
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("second");
+		verify(messages.cursorTxChannel, times(1)).send(any());
+	}
+
+	@Test
+	void testLateOlderUpdateIgnored() {
+		messages.updateRef(ref("newer", NEW));
+		messages.updateRef(ref("older", OLD));
+
+		runScheduled();
+
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("newer");
+		assertThat(count("coalesced")).isEqualTo(1);
+	}
+
+	@Test
+	void testDeleteNotReplacedByLateUpdate() {
+		messages.deleteRef(ref("deleted", NEW));
+		messages.updateRef(ref("deleted", NEW));
+		messages.updateRef(ref("older", OLD));
+
+		runScheduled();
+
+		assertThat(sent).hasSize(1);
+		assertThat(sent.getFirst().getTags()).contains("plugin/delete");
+	}
+
+	@Test
+	void testRecreatedAfterDelete() {
+		messages.deleteRef(ref("deleted", OLD));
+		messages.updateRef(ref("recreated", NEW));
+
+		runScheduled();
+
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("recreated");
+	}
+
+	@Test
+	void testFlushPendingOnShutdown() {
+		messages.updateRef(ref("pending", NEW));
+
+		messages.flushPending();
+
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("pending");
+		// Scheduled flush finds nothing left to send
+		runScheduled();
+		assertThat(sent).hasSize(1);
+		// Sent immediately once shut down
+		messages.updateRef(ref("late", NEW.plusSeconds(1)));
+		assertThat(sent).hasSize(2);
+		assertThat(scheduled).isEmpty();
+	}
+
+	@Test
+	void testDebounceDisabled() {
+		messages.props.setMessageDebounceMs(0);
+
+		messages.updateRef(ref("first", OLD));
+		messages.updateRef(ref("second", NEW));
+
+		assertThat(sent).extracting(RefDto::getTitle).containsExactly("first", "second");
+		verify(messages.taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+	}
+}
@@ -0,0 +1,122 @@
+package jasper.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jasper.domain.Ref;
+import jasper.plugin.Oembed;
+import jasper.repository.RefRepository;
+import jasper.service.dto.RefDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OembedProvidersTest {
+
+	@InjectMocks
+	OembedProviders oembedProviders;
+
+	@Mock
+	RefRepository refRepository;
+
+	ObjectMapper objectMapper = new ObjectMapper();
+
+	List<Ref> refs = new ArrayList<>();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void init() {
+		MockitoAnnotations.openMocks(this);
+		when(refRepository.findAll(any(Specification.class))).thenAnswer(i -> refs);
+	}
+
+	private Oembed.Endpoints provider(String url, String endpoint, String... schemes) {
+		var e = new Oembed.Endpoints();
+		e.setUrl(endpoint);
+		if (schemes.length > 0) e.setSchemes(List.of(schemes));
+		var p = new Oembed();
+		p.setProvider_url(url);
+		p.setEndpoints(List.of(e));
+		var ref = new Ref();
+		ref.setUrl(url);
+		ref.setOrigin("");
+		ref.setTags(new ArrayList<>(List.of("+plugin/oembed")));
+		var plugins = objectMapper.createObjectNode();
+		plugins.set("+plugin/oembed", objectMapper.valueToTree(p));
+		ref.setPlugins(plugins);
+		refs.add(ref);
+		return e;
+	}
+
+	@Test
+	void testHost() {
+		assertThat(OembedProviders.host("https://www.youtube.com/watch*")).isEqualTo("www.youtube.com");
+		assertThat(OembedProviders.host("https://*.example.com")).isEqualTo("*.example.com");
+		assertThat(OembedProviders.host("https://example.com?q")).isEqualTo("example.com");
+		assertThat(OembedProviders.host("example.com")).isNull();
+	}
+
+	@Test
+	void testMatchScheme() {
+		provider("https://www.youtube.com/", "https://www.youtube.com/oembed",
+			"https://www.youtube.com/watch*", "https://youtu.be/*");
+		provider("https://vimeo.com/", "https://vimeo.com/api/oembed.{format}",
+			"https://*.vimeo.com/*");
+		provider("https://example.com/", "https://example.com/oembed");
+
+		assertThat(oembedProviders.getProvider("", "https://youtu.be/abc").getUrl())
+			.isEqualTo("https://www.youtube.com/oembed");
+		assertThat(oembedProviders.getProvider("", "https://www.youtube.com/watch?v=abc").getUrl())
+			.isEqualTo("https://www.youtube.com/oembed");
+		assertThat(oembedProviders.getProvider("", "https://player.vimeo.com/123").getUrl())
+			.isEqualTo("https://vimeo.com/api/oembed.{format}");
+		assertThat(oembedProviders.getProvider("", "https://example.com/page").getUrl())
+			.isEqualTo("https://example.com/oembed");
+		assertThat(oembedProviders.getProvider("", "https://www.youtube.com/channel/abc")).isNull();
+		assertThat(oembedProviders.getProvider("", "https://other.com/")).isNull();
+	}
+
+	@Test
+	void testFirstProviderWins() {
+		provider("https://a.com/", "https://a.com/oembed", "https://*.com/*");
+		provider("https://b.com/", "https://b.com/oembed", "https://b.com/*");
+
+		assertThat(oembedProviders.getProvider("", "https://b.com/page").getUrl())
+			.isEqualTo("https://a.com/oembed");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testRebuiltOnProviderUpdate() {
+		provider("https://a.com/", "https://a.com/oembed", "https://a.com/*");
+		oembedProviders.getProvider("", "https://a.com/page");
+		oembedProviders.getProvider("", "https://a.com/page");
+		verify(refRepository, times(1)).findAll(any(Specification.class));
+
+		var unrelated = new RefDto();
+		unrelated.setUrl("https://other.com");
+		unrelated.setOrigin("");
+		oembedProviders.handleRefUpdate(MessageBuilder.withPayload(unrelated).build());
+		oembedProviders.getProvider("", "https://a.com/page");
+		verify(refRepository, times(1)).findAll(any(Specification.class));
+
+		var removed = new RefDto();
+		removed.setUrl("https://a.com/");
+		removed.setOrigin("");
+		oembedProviders.handleRefUpdate(MessageBuilder.withPayload(removed).build());
+		refs.clear();
+		assertThat(oembedProviders.getProvider("", "https://a.com/page")).isNull();
+		verify(refRepository, times(2)).findAll(any(Specification.class));
+	}
+}
@@ -266,6 +266,29 @@ print(yaml.dump({
 		assertThat(output.getComment()).isEqualTo("TEST");
 	}
 
+	@Test
+	void testShellJsonStream() throws UntrustedScriptException {
+		// language=Bash
+		var streamScript = """
+			url=$(jq -r .url)
+			for i in 1 2 3; do
+			  printf '{"ref": [{"url": "comment:%s", "tags": ["+needle"], "sources": ["%s"]}]}\\n' "$(uuidgen)" "$url"
+			done
+		""";
+		var script = Script.builder()
+			.timeoutMs(30_000)
+			.language("shell")
+			.format("json")
+			.script(streamScript)
+			.build();
+		var url = "comment:" + UUID.randomUUID();
+		var input = getRef(url, "My Ref", "test", "public");
+
+		scriptRunner.runScripts(input, "plugin/script/stream", script);
+
+		assertThat(refRepository.findAll(hasSource(url).and(hasTag("+needle")))).hasSize(3);
+	}
+
 	@Test
 	void testUninstallCancelsBunScript() throws Exception {
 		var started = tempDir.resolve("bun-started");
@@ -0,0 +1,148 @@
+package jasper.component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jasper.domain.Ref;
+import jasper.repository.RefRepository;
+import jasper.service.dto.RefDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatCacheTest {
+
+	@InjectMocks
+	StatCache statCache;
+
+	@Mock
+	RefRepository refRepository;
+
+	@Spy
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	static final String URL = "https://example.com/image.png";
+	static final String ORIGIN = "";
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		statCache.init();
+	}
+
+	private Ref ref() {
+		var ref = new Ref();
+		ref.setUrl(URL);
+		ref.setOrigin(ORIGIN);
+		return ref;
+	}
+
+	@Test
+	void testStatReadsOnce() {
+		var ref = ref();
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.of(ref));
+
+		assertThat(statCache.stat(URL, ORIGIN)).isEqualTo(ref);
+		assertThat(statCache.stat(URL, ORIGIN)).isEqualTo(ref);
+
+		verify(refRepository, times(1)).findOneByUrlAndOrigin(URL, ORIGIN);
+	}
+
+	@Test
+	void testMissingRefCached() {
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.empty());
+
+		assertThat(statCache.stat(URL, ORIGIN)).isNull();
+		assertThat(statCache.stat(URL, ORIGIN)).isNull();
+
+		verify(refRepository, times(1)).findOneByUrlAndOrigin(URL, ORIGIN);
+	}
+
+	@Test
+	void testEvict() {
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.empty());
+		statCache.stat(URL, ORIGIN);
+		var ref = ref();
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.of(ref));
+
+		statCache.evict(URL, ORIGIN);
+
+		assertThat(statCache.stat(URL, ORIGIN)).isEqualTo(ref);
+	}
+
+	@Test
+	void testRefUpdateEvicts() {
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.empty());
+		statCache.stat(URL, ORIGIN);
+		var update = new RefDto();
+		update.setUrl(URL);
+		update.setOrigin(ORIGIN);
+
+		statCache.handleRefUpdate(MessageBuilder.withPayload(update).build());
+		statCache.stat(URL, ORIGIN);
+
+		verify(refRepository, times(2)).findOneByUrlAndOrigin(URL, ORIGIN);
+	}
+
+	@Test
+	void testStatReturnsCopies() {
+		var ref = ref();
+		ref.setTags(new ArrayList<>(List.of("public")));
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.of(ref));
+
+		var first = statCache.stat(URL, ORIGIN);
+		first.addTag("_plugin/cache");
+		ref.addTag("+user/alice");
+
+		assertThat(first).isNotSameAs(ref);
+		assertThat(statCache.stat(URL, ORIGIN).getTags()).containsExactly("public");
+	}
+
+	@Test
+	void testEvictAgainAfterCommit() {
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.empty());
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			statCache.evict(URL, ORIGIN);
+			// Old state read again before the transaction commits
+			statCache.stat(URL, ORIGIN);
+			for (var sync : TransactionSynchronizationManager.getSynchronizations()) {
+				sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		statCache.stat(URL, ORIGIN);
+
+		verify(refRepository, times(2)).findOneByUrlAndOrigin(URL, ORIGIN);
+	}
+
+	@Test
+	void testEvictOrigin() {
+		when(refRepository.findOneByUrlAndOrigin(URL, ORIGIN)).thenReturn(Optional.empty());
+		when(refRepository.findOneByUrlAndOrigin(URL, "@other")).thenReturn(Optional.empty());
+		statCache.stat(URL, ORIGIN);
+		statCache.stat(URL, "@other");
+
+		statCache.evictOrigin(ORIGIN);
+		statCache.stat(URL, ORIGIN);
+		statCache.stat(URL, "@other");
+
+		verify(refRepository, times(2)).findOneByUrlAndOrigin(URL, ORIGIN);
+		verify(refRepository, times(1)).findOneByUrlAndOrigin(URL, "@other");
+	}
+}
@@ -0,0 +1,51 @@
+package jasper.component.channel;
+
+import jasper.service.dto.RefDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static jasper.domain.proj.HasTags.hasMatchingTag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubscriptionIndexTest {
+
+	@Test
+	void testMatchParentTags() {
+		var index = new SubscriptionIndex<String>();
+		index.put("+plugin/cron", "cron");
+		index.put("+plugin/origin", "origin");
+		index.put("+plugin/origin/pull", "pull");
+		index.put("science", "science");
+
+		assertThat(index.match(List.of("+plugin/origin/pull", "public")))
+			.containsOnlyKeys("+plugin/origin", "+plugin/origin/pull");
+		assertThat(index.match(List.of("+plugin/cronjob"))).isEmpty();
+		assertThat(index.match(List.of("science/physics", "science"))).containsOnlyKeys("science");
+		assertThat(index.match(null)).isEmpty();
+	}
+
+	@Test
+	void testEmptyTagMatchesAll() {
+		var index = new SubscriptionIndex<String>();
+		index.put("", "all");
+
+		assertThat(index.match(List.of("public"))).containsOnlyKeys("");
+		assertThat(index.match(null)).containsOnlyKeys("");
+	}
+
+	@Test
+	void testManySubscriptions() {
+		var index = new SubscriptionIndex<Integer>();
+		for (var i = 0; i < 10_000; i++) index.put("+plugin/watch/" + i, i);
+		var ref = new RefDto();
+		ref.setTags(List.of("public", "+plugin/watch/42/sub", "+plugin/watch/4200", "+plugin/watch"));
+
+		var matched = index.match(ref.getTags());
+
+		assertThat(matched).containsOnlyKeys("+plugin/watch/42", "+plugin/watch/4200");
+		for (var tag : index.tags()) {
+			assertThat(matched.containsKey(tag)).as(tag).isEqualTo(hasMatchingTag(ref, tag));
+		}
+	}
+}
@@ -2,9 +2,8 @@ package jasper.component.script;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import feign.FeignException;
-import jasper.client.JasperClient;
-import jasper.client.dto.JasperMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jasper.component.HttpClientFactory;
 import jasper.component.Ingest;
 import jasper.component.Tagger;
@@ -12,9 +11,12 @@ import jasper.config.JacksonConfiguration;
 import jasper.domain.Ref;
 import jasper.plugin.Feed;
 import jasper.repository.RefRepository;
+import jasper.security.Auth;
+import jasper.security.AuthFactory;
 import jasper.security.HostCheck;
-import jasper.service.dto.RefReplDto;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -26,6 +28,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
@@ -33,10 +36,8 @@ import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import static jasper.security.Auth.LOCAL_ORIGIN_HEADER;
-import static jasper.security.Auth.USER_TAG_HEADER;
+import static jasper.security.AuthoritiesConstants.USER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -47,10 +48,13 @@ public class RssParserTest {
 	RssParser rssParser;
 
 	@Mock
-	JasperClient jasperClient;
+	AuthFactory authFactory;
 
 	@Mock
-	JasperMapper mapper;
+	Auth auth;
+
+	@Spy
+	MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
 	@Mock
 	Tagger tagger;
@@ -108,9 +112,11 @@ public class RssParserTest {
 	@BeforeEach
 	void setUp() throws Exception {
 		MockitoAnnotations.openMocks(this);
-		ReflectionTestUtils.setField(rssParser, "api", "http://localhost:8081");
 		when(httpClientFactory.getClient()).thenReturn(httpClient);
-		when(mapper.domainToDto(any(Ref.class))).thenReturn(new RefReplDto());
+		when(authFactory.create(anyString(), anyString(), anyString())).thenReturn(auth);
+		when(auth.getOrigin()).thenReturn(ORIGIN);
+		when(auth.canWriteRef(any(Ref.class))).thenReturn(true);
+		when(ingest.push(anyString(), anyList(), anyBoolean(), anyBoolean())).thenReturn(List.of());
 	}
 
 	void setUpValidHttpResponse() throws Exception {
@@ -121,7 +127,7 @@ public class RssParserTest {
 		when(httpResponse.getFirstHeader(anyString())).thenReturn(null);
 		when(httpEntity.getContent()).thenAnswer(inv -> new ByteArrayInputStream(RSS_FEED.getBytes()));
 		when(httpClient.execute(any(HttpGet.class))).thenReturn(httpResponse);
-		when(refRepository.existsByUrlAndOrigin(anyString(), anyString())).thenReturn(false);
+		when(refRepository.findAllUrlsByOriginAndUrlIn(anyString(), anyCollection())).thenReturn(List.of());
 	}
 
 	Ref feedRef(String... tags) {
@@ -144,13 +150,13 @@ public class RssParserTest {
 	}
 
 	@Test
-	void testInvalidHost_NeverCallsJasperClient() {
+	void testInvalidHost_NeverIngests() {
 		when(hostCheck.validHost(any(URI.class))).thenReturn(false);
 		var feed = feedWithAddTag("_private/tag", "+user/alice");
 
 		rssParser.runScript(feed, "plugin/script/feed");
 
-		verify(jasperClient, never()).refPush(any(), any(), any(), any());
+		verify(ingest, never()).push(anyString(), anyList(), anyBoolean(), anyBoolean());
 		verify(tagger, never()).attachError(anyString(), anyString(), anyString(), anyString());
 	}
 
@@ -162,57 +168,83 @@ public class RssParserTest {
 		rssParser.runScript(feed, "plugin/script/feed");
 
 		verify(tagger, never()).attachError(anyString(), anyString(), anyString(), anyString());
+		verify(ingest, never()).update(anyString(), any(Ref.class));
 	}
 
 	@Test
 	@SuppressWarnings("unchecked")
-	void testCreateRef_AuthorHeaderIncludesFirstAuthor() throws Exception {
+	void testCreateRef_IngestedInOneBatch() throws Exception {
+		setUpValidHttpResponse();
+		var feed = feedWithAddTag("science", "+user/alice");
+
+		rssParser.runScript(feed, "plugin/script/feed");
+
+		var captor = ArgumentCaptor.forClass(List.class);
+		verify(ingest).push(eq(ORIGIN), captor.capture(), eq(true), eq(false));
+		assertThat(captor.getValue()).extracting("url").containsExactly("https://example.com/entry1");
+		verify(refRepository).findAllUrlsByOriginAndUrlIn(eq(ORIGIN), anyCollection());
+	}
+
+	@Test
+	void testCreateRef_AuthorIsFirstAuthor() throws Exception {
 		setUpValidHttpResponse();
 		var feed = feedWithAddTag("_private/tag", "+user/alice");
 
 		rssParser.runScript(feed, "plugin/script/feed");
 
-		var captor = ArgumentCaptor.forClass(Map.class);
-		verify(jasperClient).refPush(any(URI.class), captor.capture(), anyString(), anyList());
-		assertThat(captor.getValue()).containsEntry(USER_TAG_HEADER, "+user/alice");
-		assertThat(captor.getValue()).containsEntry(LOCAL_ORIGIN_HEADER, ORIGIN);
+		verify(authFactory).create("+user/alice", ORIGIN, USER);
 	}
 
 	@Test
-	@SuppressWarnings("unchecked")
-	void testCreateRef_EmptyAuthorHeader_WhenNoAuthor() throws Exception {
+	void testCreateRef_EmptyAuthor_WhenNoAuthor() throws Exception {
 		setUpValidHttpResponse();
 		var feed = feedWithAddTag("_private/tag" /* no author tags */);
 
 		rssParser.runScript(feed, "plugin/script/feed");
 
-		var captor = ArgumentCaptor.forClass(Map.class);
-		verify(jasperClient).refPush(any(URI.class), captor.capture(), anyString(), anyList());
-		assertThat(captor.getValue()).containsEntry(USER_TAG_HEADER, "");
+		verify(authFactory).create("", ORIGIN, USER);
 	}
 
 	@Test
-	void testForbiddenResponse_ErrorAttached() throws Exception {
+	void testForbidden_ErrorAttached() throws Exception {
 		setUpValidHttpResponse();
 		var feed = feedWithAddTag("_private/tag", "+user/alice");
-		var forbiddenEx = mock(FeignException.Forbidden.class);
-		when(forbiddenEx.contentUTF8()).thenReturn("Forbidden");
-		doThrow(forbiddenEx).when(jasperClient).refPush(any(), any(), any(), any());
+		when(auth.canWriteRef(any(Ref.class))).thenReturn(false);
+		when(auth.canWriteRef(anyString(), anyString())).thenReturn(true);
+		when(auth.canAddTag("_private/tag")).thenReturn(false);
+		when(auth.canAddTag(argThat(t -> !"_private/tag".equals(t)))).thenReturn(true);
+		when(auth.getPrincipal()).thenReturn("+user/alice");
 
 		rssParser.runScript(feed, "plugin/script/feed");
 
-		verify(tagger).attachError(eq(FEED_URL), eq(ORIGIN), eq("Author not authorized to add tags"), anyString());
+		verify(tagger).attachError(FEED_URL, ORIGIN, "Author not authorized to add tags", "User +user/alice may not add tags _private/tag");
+		verify(ingest, never()).push(anyString(), anyList(), anyBoolean(), anyBoolean());
 	}
 
 	@Test
 	void testAlreadyExists_SilentlySkipped() throws Exception {
 		setUpValidHttpResponse();
 		var feed = feedWithAddTag("science", "+user/alice");
-		when(refRepository.existsByUrlAndOrigin(anyString(), anyString())).thenReturn(true);
+		when(refRepository.findAllUrlsByOriginAndUrlIn(anyString(), anyCollection())).thenReturn(List.of("https://example.com/entry1"));
 
 		rssParser.runScript(feed, "plugin/script/feed");
 
-		verify(jasperClient, never()).refPush(any(), any(), any(), any());
+		verify(ingest, never()).push(anyString(), anyList(), anyBoolean(), anyBoolean());
 		verify(tagger, never()).attachError(anyString(), anyString(), anyString(), anyString());
 	}
+
+	@Test
+	void testFeedChanges_UpdatedOnce() throws Exception {
+		setUpValidHttpResponse();
+		var etag = mock(Header.class);
+		when(etag.getValue()).thenReturn("\"v2\"");
+		when(httpResponse.getFirstHeader(HttpHeaders.ETAG)).thenReturn(etag);
+		var feed = feedWithAddTag("science", "+user/alice");
+		feed.setPublished(Instant.parse("2025-01-01T00:00:00Z"));
+
+		rssParser.runScript(feed, "plugin/script/feed");
+
+		verify(ingest, times(1)).update(eq(ORIGIN), eq(feed));
+		assertThat(feed.getPublished()).isBefore(Instant.parse("2024-01-01T00:00:00Z"));
+	}
 }
@@ -3,6 +3,7 @@ package jasper.component.vm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jasper.config.Props;
 import jasper.errors.ScriptException;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,6 +34,7 @@ class JavaScriptTest {
 		}
 		node = node.replaceFirst("^~", System.getProperty("user.home"));
 		vm.props = new Props();
+		vm.meterRegistry = new SimpleMeterRegistry();
 		vm.props.setNode(node);
 		vm.api = "http://localhost:10344";
 	}
@@ -95,4 +97,122 @@ class JavaScriptTest {
 			.succeedsWithin(Duration.ofSeconds(2));
 	}
 
+	@Test
+	void testPooledReusesWorker() throws IOException, ScriptException {
+		vm.props.setScriptPoolSize(1);
+		// language=JavaScript
+		var targetScript = """
+			globalThis.runs = (globalThis.runs || 0) + 1;
+			console.log(require('fs').readFileSync(0, 'utf-8').toUpperCase() + globalThis.runs);
+		""";
+
+		try {
+			assertThat(vm.runJavaScript(targetScript, "test", 30_000)).isEqualToIgnoringWhitespace("TEST1");
+			assertThat(vm.runJavaScript(targetScript, "again", 30_000)).isEqualToIgnoringWhitespace("AGAIN2");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledRecyclesAfterMaxRuns() throws IOException, ScriptException {
+		vm.props.setScriptPoolSize(1);
+		vm.props.setScriptPoolMaxRuns(1);
+		// language=JavaScript
+		var targetScript = """
+			globalThis.runs = (globalThis.runs || 0) + 1;
+			console.log(globalThis.runs);
+		""";
+
+		try {
+			assertThat(vm.runJavaScript(targetScript, "", 30_000)).isEqualToIgnoringWhitespace("1");
+			assertThat(vm.runJavaScript(targetScript, "", 30_000)).isEqualToIgnoringWhitespace("1");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledWaitsForTimers() throws IOException, ScriptException {
+		vm.props.setScriptPoolSize(1);
+		// language=JavaScript
+		var targetScript = """
+			setTimeout(() => { console.log(require('fs').readFileSync(0, 'utf-8').toUpperCase()); }, 100);
+		""";
+
+		try {
+			assertThat(vm.runJavaScript(targetScript, "test", 30_000)).isEqualToIgnoringWhitespace("TEST");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledTimeout() throws IOException, ScriptException {
+		vm.props.setScriptPoolSize(1);
+		// language=JavaScript
+		var targetScript = """
+			setTimeout(() => { console.log('late'); }, 2000);
+		""";
+
+		try {
+			assertThatThrownBy(() -> vm.runJavaScript(targetScript, "test", 1_000))
+				.isInstanceOf(ScriptException.class)
+				.hasMessageContaining("Script execution timed out");
+			assertThat(vm.runJavaScript("console.log('next')", "", 30_000)).isEqualToIgnoringWhitespace("next");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledError() {
+		vm.props.setScriptPoolSize(1);
+		// language=JavaScript
+		var targetScript = """
+			console.log('partial');
+			process.exit(3);
+		""";
+
+		try {
+			assertThatThrownBy(() -> vm.runJavaScript(targetScript, "test", 30_000))
+				.isInstanceOf(ScriptException.class)
+				.hasMessageContaining("Script execution failed with exit code: 3");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledIgnoresRawStdout() throws IOException, ScriptException {
+		vm.props.setScriptPoolSize(1);
+		// language=JavaScript
+		var targetScript = """
+			require('fs').writeSync(1, 'raw\\n');
+			require('child_process').execSync('echo child', { stdio: 'inherit' });
+			console.log(require('fs').readFileSync(0, 'utf-8').toUpperCase());
+		""";
+
+		try {
+			assertThat(vm.runJavaScript(targetScript, "test", 30_000)).isEqualToIgnoringWhitespace("TEST");
+			assertThat(vm.runJavaScript(targetScript, "again", 30_000)).isEqualToIgnoringWhitespace("AGAIN");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledWorkersExpireWhenIdle() throws IOException, ScriptException {
+		vm.props.setScriptPoolSize(1);
+		vm.props.setScriptPoolMaxIdleSec(0);
+
+		try {
+			assertThat(vm.runJavaScript("console.log('ok')", "", 30_000)).isEqualToIgnoringWhitespace("ok");
+			assertThat(vm.pool().idle()).isEqualTo(1);
+			vm.expireWorkers();
+			assertThat(vm.pool().idle()).isZero();
+		} finally {
+			vm.close();
+		}
+	}
 }
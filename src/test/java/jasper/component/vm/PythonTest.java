@@ -3,6 +3,7 @@ package jasper.component.vm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jasper.config.Props;
 import jasper.errors.ScriptException;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,7 @@ import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -34,8 +36,12 @@ class PythonTest {
 		}
 		python = python.replaceFirst("^~", System.getProperty("user.home"));
 		vm.props = new Props();
+		vm.meterRegistry = new SimpleMeterRegistry();
 		vm.props.setPython(python);
 		vm.api = "http://localhost:10344";
+		vm.venvs = new Venvs();
+		vm.venvs.props = vm.props;
+		vm.venvs.taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
 	}
 
 	@Test
@@ -113,4 +119,73 @@ print("a" * 65_536)
 			.succeedsWithin(Duration.ofSeconds(2));
 	}
 
+	@Test
+	void testPooledRunPython() throws IOException, ScriptException, NoSuchAlgorithmException {
+		vm.props.setScriptPoolSize(1);
+		// language=Python
+		var targetScript = """
+import sys
+print(sys.stdin.read().upper())
+		""";
+
+		try {
+			assertThat(vm.runPython("", targetScript, "test", 30_000)).isEqualToIgnoringWhitespace("TEST");
+			assertThat(vm.runPython("", targetScript, "again", 30_000)).isEqualToIgnoringWhitespace("AGAIN");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledRunPythonError() {
+		vm.props.setScriptPoolSize(1);
+		// language=Python
+		var targetScript = """
+import sys
+print('partial')
+sys.exit(3)
+		""";
+
+		try {
+			assertThatThrownBy(() -> vm.runPython("", targetScript, "test", 30_000))
+				.isInstanceOf(ScriptException.class)
+				.hasMessageContaining("Script execution failed with exit code: 3");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledRunPythonCapturesRawStdout() throws IOException, ScriptException, NoSuchAlgorithmException {
+		vm.props.setScriptPoolSize(1);
+		// language=Python
+		var targetScript = """
+import os, subprocess, sys
+os.write(1, b'raw\\n')
+subprocess.run(['echo', 'child'])
+print(sys.stdin.read().upper())
+		""";
+
+		try {
+			assertThat(vm.runPython("", targetScript, "test", 30_000).lines()).containsExactly("raw", "child", "TEST");
+			assertThat(vm.runPython("", targetScript, "again", 30_000).lines()).containsExactly("raw", "child", "AGAIN");
+		} finally {
+			vm.close();
+		}
+	}
+
+	@Test
+	void testPooledWorkersExpireWhenIdle() throws IOException, ScriptException, NoSuchAlgorithmException {
+		vm.props.setScriptPoolSize(1);
+		vm.props.setScriptPoolMaxIdleSec(0);
+
+		try {
+			assertThat(vm.runPython("", "print('ok')", "", 30_000)).isEqualToIgnoringWhitespace("ok");
+			assertThat(vm.pool().idle()).isEqualTo(1);
+			vm.expireWorkers();
+			assertThat(vm.pool().idle()).isZero();
+		} finally {
+			vm.close();
+		}
+	}
 }
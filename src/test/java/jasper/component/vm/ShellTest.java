@@ -8,10 +8,16 @@ import jasper.errors.ScriptException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -95,4 +101,104 @@ class ShellTest {
 		assertThat(future)
 			.succeedsWithin(Duration.ofSeconds(2));
 	}
+
+	@Test
+	void testStreamShellScript() throws IOException, ScriptException {
+		// language=Bash
+		var targetScript = """
+            for i in 1 2 3; do echo $i; done
+        """;
+		var output = new StringBuilder();
+
+		vm.runShellScript(targetScript, "", 30_000, out -> output.append(new String(out.readAllBytes())));
+
+		assertThat(output.toString()).isEqualTo("1\n2\n3\n");
+	}
+
+	@Test
+	void testStreamShellScriptConsumedWhileRunning() {
+		// language=Bash
+		var targetScript = """
+            echo first
+            sleep 10
+            echo second
+        """;
+
+		var future = CompletableFuture.runAsync(() -> {
+			try {
+				vm.runShellScript(targetScript, "", 30_000, out -> {
+					var reader = new BufferedReader(new InputStreamReader(out));
+					assertThat(reader.readLine()).isEqualTo("first");
+					throw new IOException("Stop reading");
+				});
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		assertThat(future)
+			.failsWithin(Duration.ofSeconds(5))
+			.withThrowableThat()
+			.havingRootCause()
+			.isInstanceOf(ScriptException.class)
+			.withMessageContaining("Stop reading");
+	}
+
+	@Test
+	void testStreamShellScriptSlowConsumer() throws IOException, ScriptException {
+		// language=Bash
+		var targetScript = """
+            for i in 1 2 3; do echo $i; done
+        """;
+		var lines = new ArrayList<String>();
+
+		// Consuming takes longer than the timeout, but the script itself finishes in time
+		vm.runShellScript(targetScript, "", 1_000, out -> {
+			var reader = new BufferedReader(new InputStreamReader(out));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				sleep(500);
+				lines.add(line);
+			}
+		});
+
+		assertThat(lines).containsExactly("1", "2", "3");
+	}
+
+	@Test
+	void testStreamShellScriptTimeoutCancelsConsumer() throws InterruptedException {
+		// language=Bash
+		var targetScript = """
+            for i in $(seq 1 1000); do echo $i; done
+            sleep 10
+        """;
+		var lines = new AtomicInteger();
+		var done = new AtomicBoolean();
+
+		assertThatThrownBy(() -> vm.runShellScript(targetScript, "", 1_500, out -> {
+			try {
+				var reader = new BufferedReader(new InputStreamReader(out));
+				while (reader.readLine() != null) {
+					sleep(10);
+					lines.incrementAndGet();
+				}
+			} finally {
+				done.set(true);
+			}
+		}))
+			.isInstanceOf(ScriptException.class)
+			.hasMessageContaining("Script execution timed out");
+
+		assertThat(done).isTrue();
+		var read = lines.get();
+		Thread.sleep(200);
+		assertThat(lines.get()).isEqualTo(read).isLessThan(1000);
+	}
+
+	private static void sleep(long ms) throws IOException {
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+	}
 }
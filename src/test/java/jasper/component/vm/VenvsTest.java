@@ -0,0 +1,186 @@
+package jasper.component.vm;
+
+import jasper.config.Props;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.setLastModifiedTime;
+import static java.nio.file.Files.write;
+import static java.nio.file.Files.writeString;
+import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class VenvsTest {
+
+	@TempDir
+	Path tmp;
+
+	Venvs venvs;
+	List<Runnable> tasks = new ArrayList<>();
+
+	@BeforeEach
+	void init() {
+		venvs = new Venvs() {
+			@Override
+			Path root() {
+				return tmp;
+			}
+
+			@Override
+			void install(Path venv, String requirements, boolean upgrade) throws IOException {
+				createDirectories(venv);
+				writeString(venv.resolve("requirements.txt"), requirements);
+			}
+		};
+		venvs.props = new Props();
+		venvs.props.setVenvDiskBudgetMb(1);
+		venvs.taskExecutor = mock(ExecutorService.class);
+		doAnswer(i -> tasks.add(i.getArgument(0))).when(venvs.taskExecutor).execute(any());
+	}
+
+	void venv(String hash, Duration age) throws IOException {
+		var venv = tmp.resolve(hash);
+		createDirectories(venv);
+		write(venv.resolve("lib"), new byte[1024 * 1024]);
+		write(venv.resolve(".ready"), new byte[0]);
+		setLastModifiedTime(venv.resolve(".ready"), FileTime.from(now().minus(age)));
+	}
+
+	@Test
+	void testEvictLeastRecentlyUsed() throws IOException {
+		venv("a", Duration.ofHours(3));
+		venv("b", Duration.ofHours(2));
+		venv("c", Duration.ofHours(1));
+		createDirectories(tmp.resolve(".pip-cache"));
+
+		var evicted = venvs.evict();
+
+		assertThat(evicted).containsExactly(
+			tmp.resolve("a/bin/python").toString(),
+			tmp.resolve("b/bin/python").toString());
+		assertThat(exists(tmp.resolve("a"))).isFalse();
+		assertThat(exists(tmp.resolve("b"))).isFalse();
+		assertThat(exists(tmp.resolve("c"))).isTrue();
+		assertThat(exists(tmp.resolve(".pip-cache"))).isTrue();
+	}
+
+	@Test
+	void testKeepRecentlyUsed() throws IOException {
+		venv("a", Duration.ofMinutes(1));
+		venv("b", Duration.ofMinutes(2));
+
+		assertThat(venvs.evict()).isEmpty();
+		assertThat(exists(tmp.resolve("a"))).isTrue();
+		assertThat(exists(tmp.resolve("b"))).isTrue();
+	}
+
+	@Test
+	void testTrimWheelCache() throws IOException {
+		venvs.props.setVenvDiskBudgetMb(2);
+		venv("c", Duration.ofHours(1));
+		var cache = tmp.resolve(".pip-cache/wheels");
+		createDirectories(cache);
+		write(cache.resolve("old.whl"), new byte[512 * 1024]);
+		setLastModifiedTime(cache.resolve("old.whl"), FileTime.from(now().minus(Duration.ofHours(3))));
+		write(cache.resolve("older.whl"), new byte[512 * 1024]);
+		setLastModifiedTime(cache.resolve("older.whl"), FileTime.from(now().minus(Duration.ofHours(4))));
+		write(cache.resolve("new.whl"), new byte[1024]);
+
+		assertThat(venvs.evict()).isEmpty();
+
+		assertThat(exists(cache.resolve("older.whl"))).isFalse();
+		assertThat(exists(cache.resolve("old.whl"))).isTrue();
+		assertThat(exists(cache.resolve("new.whl"))).isTrue();
+		assertThat(exists(tmp.resolve("c"))).isTrue();
+	}
+
+	@Test
+	void testWheelCacheCountsAgainstBudget() throws IOException {
+		venv("a", Duration.ofHours(3));
+		var cache = tmp.resolve(".pip-cache");
+		createDirectories(cache);
+		write(cache.resolve("new.whl"), new byte[512 * 1024]);
+
+		var evicted = venvs.evict();
+
+		assertThat(evicted).containsExactly(tmp.resolve("a/bin/python").toString());
+		assertThat(exists(cache.resolve("new.whl"))).isTrue();
+	}
+
+	@Test
+	void testLeaseLatestGeneration() throws Exception {
+		var hash = Venvs.hash("requests");
+		venv(hash + "-0", Duration.ofHours(2));
+		venv(hash + "-1", Duration.ofHours(1));
+
+		try (var lease = venvs.lease("requests")) {
+			assertThat(lease.python()).isEqualTo(tmp.resolve(hash + "-1/bin/python").toString());
+		}
+	}
+
+	@Test
+	void testUpgradeSwitchesGenerationAndDrainsOld() throws Exception {
+		var hash = Venvs.hash("requests");
+		var replaced = new CopyOnWriteArrayList<String>();
+		venvs.onUpgrade(replaced::add);
+		// Built before this run, so the first lease claims an upgrade
+		venv(hash + "-0", Duration.ofHours(1));
+		writeString(tmp.resolve(hash + "-0/requirements.txt"), "requests");
+		var old = tmp.resolve(hash + "-0/bin/python").toString();
+		var next = tmp.resolve(hash + "-1/bin/python").toString();
+
+		var running = venvs.lease("requests");
+		assertThat(running.python()).isEqualTo(old);
+		assertThat(tasks).hasSize(1);
+		var upgrade = Thread.ofVirtual().start(tasks.getFirst());
+
+		// New leases move to the next generation without waiting for the running script
+		var deadline = now().plusSeconds(10);
+		String python;
+		do {
+			try (var lease = venvs.lease("requests")) {
+				python = lease.python();
+			}
+		} while (python.equals(old) && now().isBefore(deadline));
+		assertThat(python).isEqualTo(next);
+		assertThat(exists(tmp.resolve(hash + "-0"))).isTrue();
+		assertThat(replaced).isEmpty();
+
+		running.close();
+		upgrade.join(Duration.ofSeconds(10));
+
+		assertThat(upgrade.isAlive()).isFalse();
+		assertThat(exists(tmp.resolve(hash + "-0"))).isFalse();
+		assertThat(replaced).containsExactly(old);
+	}
+
+	@Test
+	void testEvictReplacedGeneration() throws Exception {
+		var hash = Venvs.hash("requests");
+		venv(hash + "-0", Duration.ofHours(2));
+		venv(hash + "-1", Duration.ofHours(1));
+		try (var lease = venvs.lease("requests")) {
+			assertThat(lease.python()).isEqualTo(tmp.resolve(hash + "-1/bin/python").toString());
+		}
+
+		var evicted = venvs.evict();
+
+		assertThat(evicted).containsExactly(tmp.resolve(hash + "-0/bin/python").toString());
+		assertThat(exists(tmp.resolve(hash + "-1"))).isTrue();
+	}
+}
@@ -0,0 +1,86 @@
+package jasper.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static jasper.config.RedisRateLimiter.TAKE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the token bucket script against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class RedisRateLimiterIT {
+
+	@Container
+	static final GenericContainer<?> redisContainer = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+	LettuceConnectionFactory connectionFactory;
+	StringRedisTemplate redis;
+
+	@BeforeEach
+	void init() {
+		connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisContainer.getHost(), redisContainer.getMappedPort(6379)));
+		connectionFactory.afterPropertiesSet();
+		redis = new StringRedisTemplate(connectionFactory);
+		redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+	}
+
+	@AfterEach
+	void close() {
+		connectionFactory.destroy();
+	}
+
+	long take(String key, int capacity, long periodMs, int requested) {
+		return redis.execute(TAKE, List.of(key), String.valueOf(capacity), String.valueOf(periodMs), String.valueOf(requested));
+	}
+
+	@Test
+	void testBucketEmpties() {
+		var granted = 0L;
+		for (var i = 0; i < 20; i++) granted += take("rate-limit:test", 50, 60_000, 10);
+
+		assertThat(granted).isEqualTo(50);
+	}
+
+	@Test
+	void testBucketRefills() throws InterruptedException {
+		assertThat(take("rate-limit:test", 50, 100, 50)).isEqualTo(50);
+		assertThat(take("rate-limit:test", 50, 100, 50)).isLessThan(50);
+
+		Thread.sleep(150);
+
+		assertThat(take("rate-limit:test", 50, 100, 50)).isEqualTo(50);
+	}
+
+	@Test
+	void testPartialRefill() throws InterruptedException {
+		assertThat(take("rate-limit:test", 50, 1_000, 50)).isEqualTo(50);
+
+		Thread.sleep(200);
+
+		// A fifth of the period refills about a fifth of the bucket
+		assertThat(take("rate-limit:test", 50, 1_000, 50)).isBetween(8L, 20L);
+	}
+
+	@Test
+	void testLimiterTakesBatch() {
+		var limiter = new RedisRateLimiter(redis, new SimpleMeterRegistry());
+
+		assertThat(limiter.acquirePermission("test", 50, null)).isTrue();
+
+		var tokens = Double.parseDouble((String) redis.opsForHash().get("rate-limit:test", "tokens"));
+		assertThat(tokens).isLessThanOrEqualTo(50 - 5);
+		assertThat(redis.getExpire("rate-limit:test")).isPositive();
+	}
+}
@@ -0,0 +1,93 @@
+package jasper.config;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RedisRateLimiterTest {
+
+	StringRedisTemplate redis;
+	RateLimiter localLimiter;
+	SimpleMeterRegistry meterRegistry;
+	RedisRateLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		redis = mock(StringRedisTemplate.class);
+		localLimiter = mock(RateLimiter.class);
+		meterRegistry = new SimpleMeterRegistry();
+		limiter = new RedisRateLimiter(redis, meterRegistry);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void redisGrants(Long granted) {
+		when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any())).thenReturn(granted);
+	}
+
+	private double permits(String source) {
+		return meterRegistry.get("jasper.ratelimit.permits").tag("source", source).counter().count();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testBatchServedLocally() {
+		redisGrants(5L);
+
+		for (var i = 0; i < 5; i++) assertThat(limiter.acquirePermission("http-", 50, localLimiter)).isTrue();
+
+		verify(redis, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+		assertThat(permits("redis")).isEqualTo(1);
+		assertThat(permits("local")).isEqualTo(4);
+		verify(localLimiter, never()).acquirePermission();
+	}
+
+	@Test
+	void testDeniedWhenBucketEmpty() {
+		redisGrants(0L);
+
+		assertThat(limiter.acquirePermission("http-", 50, localLimiter)).isFalse();
+
+		assertThat(meterRegistry.get("jasper.ratelimit.denied").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testDenialCached() {
+		redisGrants(0L);
+
+		assertThat(limiter.acquirePermission("http-", 50, localLimiter)).isFalse();
+		assertThat(limiter.acquirePermission("http-", 50, localLimiter)).isFalse();
+
+		// The empty bucket is not asked again until the denial expires
+		verify(redis, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+		assertThat(meterRegistry.get("jasper.ratelimit.denied").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testFallbackWhenRedisUnavailable() {
+		when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+			.thenThrow(new RedisConnectionFailureException("down"));
+		when(localLimiter.acquirePermission()).thenReturn(true);
+
+		assertThat(limiter.acquirePermission("http-", 50, localLimiter)).isTrue();
+		assertThat(limiter.acquirePermission("http-", 50, localLimiter)).isTrue();
+
+		// Redis is not retried until the backoff has passed
+		verify(redis, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+		assertThat(permits("fallback")).isEqualTo(2);
+	}
+}
@@ -1,5 +1,6 @@
 package jasper.config;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jasper.component.ConfigCache;
 import jasper.repository.RefRepository;
 import jasper.security.Auth;
@@ -50,7 +51,7 @@ class WebSocketConfigTest {
 
 	@Test
 	void authFactoryCreatesFreshAuthInstances() {
-		var factory = new AuthFactory(new Props(), mock(RoleHierarchy.class), mock(ConfigCache.class), mock(RefRepository.class));
+		var factory = new AuthFactory(new Props(), mock(RoleHierarchy.class), mock(ConfigCache.class), mock(RefRepository.class), new SimpleMeterRegistry());
 
 		assertThat(factory.create()).isNotSameAs(factory.create());
 	}
@@ -154,7 +155,7 @@ class WebSocketConfigTest {
 		private final List<Authentication> authentications = new ArrayList<>();
 
 		TrackingAuth(CyclicBarrier barrier) {
-			super(null, null, null, null);
+			super(null, null, null, null, null);
 			this.barrier = barrier;
 		}
 
@@ -126,4 +126,25 @@ public class BackfillRepositoryIT {
 
 		assertThat(updated).isEqualTo(0);
 	}
+
+	@Test
+	void testBackfillResponses_IndexedByTrigger() {
+		var response = new Ref();
+		response.setUrl("http://example.com/response");
+		response.setOrigin("");
+		response.setSources(List.of("http://example.com/parent", "http://example.com/response"));
+		response.setTags(List.of("plugin/comment"));
+		refRepository.save(response);
+
+		var sources = em.createNativeQuery(
+			"SELECT source FROM ref_response WHERE url = :url AND origin = :origin")
+			.setParameter("url", response.getUrl())
+			.setParameter("origin", response.getOrigin())
+			.getResultList();
+		assertThat(sources).containsExactly("http://example.com/parent");
+
+		int updated = backfillRepository.backfillResponses("", 10);
+
+		assertThat(updated).isEqualTo(0);
+	}
 }
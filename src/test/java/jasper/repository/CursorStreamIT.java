@@ -0,0 +1,100 @@
+package jasper.repository;
+
+import jasper.IntegrationTest;
+import jasper.config.Props;
+import jasper.domain.Ref;
+import jasper.repository.filter.RefFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@IntegrationTest
+public class CursorStreamIT {
+
+	@Autowired
+	RefRepository refRepository;
+
+	@Autowired
+	CursorStream cursorStream;
+
+	@Autowired
+	Props props;
+
+	@BeforeEach
+	void init() {
+		refRepository.deleteAllInBatch();
+	}
+
+	Ref ref(String url, String origin, Instant modified) {
+		var ref = new Ref();
+		ref.setUrl(url);
+		ref.setOrigin(origin);
+		ref.setModified(modified);
+		return refRepository.save(ref);
+	}
+
+	@Test
+	void testForEachOrdersByModified() {
+		var now = Instant.now();
+		ref("https://www.example.com/2", "", now.minusSeconds(10));
+		ref("https://www.example.com/1", "", now.minusSeconds(20));
+		ref("https://www.example.com/3", "", now);
+		ref("https://www.example.com/other", "@other", now.minusSeconds(30));
+
+		var urls = new ArrayList<String>();
+		cursorStream.forEach(Ref.class, RefFilter.builder().origin("").build().spec(), ref -> urls.add(ref.getUrl()));
+
+		assertThat(urls).containsExactly(
+			"https://www.example.com/1",
+			"https://www.example.com/2",
+			"https://www.example.com/3");
+	}
+
+	@Test
+	void testForEachModifiedAfter() {
+		var now = Instant.now();
+		ref("https://www.example.com/1", "", now.minusSeconds(20));
+		ref("https://www.example.com/2", "", now.minusSeconds(10));
+		ref("https://www.example.com/3", "", now);
+
+		var urls = new ArrayList<String>();
+		cursorStream.forEach(Ref.class, RefFilter.builder()
+			.origin("")
+			.modifiedAfter(now.minusSeconds(20))
+			.build().spec(), ref -> urls.add(ref.getUrl()));
+
+		assertThat(urls).containsExactly(
+			"https://www.example.com/2",
+			"https://www.example.com/3");
+	}
+
+	@Test
+	void testForEachTimesOut() {
+		var now = Instant.now();
+		ref("https://www.example.com/1", "", now.minusSeconds(20));
+		ref("https://www.example.com/2", "", now.minusSeconds(10));
+
+		var timeout = props.getReplStreamTimeoutSec();
+		props.setReplStreamTimeoutSec(1);
+		try {
+			var urls = new ArrayList<String>();
+			assertThatThrownBy(() -> cursorStream.forEach(Ref.class, RefFilter.builder().origin("").build().spec(), ref -> {
+				urls.add(ref.getUrl());
+				try {
+					Thread.sleep(1100);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			})).hasMessageContaining("Cursor open longer than 1s");
+			assertThat(urls).containsExactly("https://www.example.com/1");
+		} finally {
+			props.setReplStreamTimeoutSec(timeout);
+		}
+	}
+}
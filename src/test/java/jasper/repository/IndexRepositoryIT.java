@@ -1,8 +1,14 @@
 package jasper.repository;
 
+import jasper.DisabledOnSqlite;
 import jasper.IntegrationTest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static jasper.repository.IndexRepository.PUBLISHED;
+import static org.assertj.core.api.Assertions.assertThat;
 
 @IntegrationTest
 public class IndexRepositoryIT {
@@ -37,4 +43,44 @@ public class IndexRepositoryIT {
 		indexRepository.buildModified();
 		indexRepository.dropModified();
 	}
+
+	@Test
+	@DisabledOnSqlite
+	void testBuildAndDropConcurrently() {
+		indexRepository.dropPublished();
+		indexRepository.buildConcurrently(PUBLISHED);
+		assertThat(validIndex(PUBLISHED)).isTrue();
+		// Second build is a no-op
+		indexRepository.buildConcurrently(PUBLISHED);
+		assertThat(validIndex(PUBLISHED)).isTrue();
+		indexRepository.dropConcurrently(PUBLISHED);
+		assertThat(validIndex(PUBLISHED)).isNull();
+	}
+
+	@Test
+	@DisabledOnSqlite
+	void testBuildConcurrentlySwapsChangedDefinition() {
+		indexRepository.dropPublished();
+		indexRepository.buildPublished();
+		transactionTemplate.executeWithoutResult(t ->
+			jdbcTemplate.execute("COMMENT ON INDEX " + PUBLISHED + " IS 'ON ref (modified)'"));
+		indexRepository.buildConcurrently(PUBLISHED);
+		assertThat(validIndex(PUBLISHED)).isTrue();
+		assertThat(jdbcTemplate.queryForObject(
+			"SELECT obj_description('" + PUBLISHED + "'::regclass, 'pg_class')", String.class))
+			.isEqualTo("ON ref (published)");
+		indexRepository.dropPublished();
+	}
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	TransactionTemplate transactionTemplate;
+
+	Boolean validIndex(String name) {
+		return jdbcTemplate.query(
+			"SELECT i.indisvalid FROM pg_class c JOIN pg_index i ON i.indexrelid = c.oid WHERE c.relname = ?",
+			rs -> rs.next() ? rs.getBoolean(1) : null, name);
+	}
 }
@@ -4,17 +4,28 @@ import jasper.IntegrationTest;
 import jasper.component.ConfigCache;
 import jasper.domain.Metadata;
 import jasper.domain.Ref;
+import jasper.repository.filter.RefFilter;
+import jasper.repository.spec.OriginSpec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 
 import static jasper.config.JacksonConfiguration.om;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @IntegrationTest
 public class RefRepositoryIT {
+	private static final Logger logger = LoggerFactory.getLogger(RefRepositoryIT.class);
 
 	@Autowired
 	RefRepository refRepository;
@@ -28,6 +39,12 @@ public class RefRepositoryIT {
 	@Autowired
 	ConfigCache configCache;
 
+	@Autowired
+	IndexRepository indexRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
 	@BeforeEach
 	void init() {
 		refRepository.deleteAllInBatch();
@@ -141,249 +158,6 @@ public class RefRepositoryIT {
 		assertThat(result).doesNotContain("public");
 	}
 
-	// --- countPluginTagsInResponses ---
-
-	@Test
-	void testCountPluginTagsInResponses_ReturnsPluginTagsWithCounts() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var resp1 = new Ref();
-		resp1.setUrl("http://example.com/resp1");
-		resp1.setOrigin("");
-		resp1.setSources(List.of("http://example.com/parent"));
-		resp1.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/comment", "+plugin/vote/up", "public"))
-			.build());
-		refRepository.save(resp1);
-
-		var resp2 = new Ref();
-		resp2.setUrl("http://example.com/resp2");
-		resp2.setOrigin("");
-		resp2.setSources(List.of("http://example.com/parent"));
-		resp2.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/comment", "public"))
-			.build());
-		refRepository.save(resp2);
-
-		var result = refRepositoryCustom.countPluginTagsInResponses("http://example.com/parent", "");
-
-		var map = result.stream().collect(java.util.stream.Collectors.toMap(r -> (String) r[0], r -> ((Number) r[1]).longValue()));
-		assertThat(map).containsEntry("plugin/comment", 2L);
-		assertThat(map).containsEntry("+plugin/vote/up", 1L);
-		assertThat(map).doesNotContainKey("public");
-	}
-
-	@Test
-	void testCountPluginTagsInResponses_EmptyPluginTable() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var response = new Ref();
-		response.setUrl("http://example.com/response");
-		response.setOrigin("");
-		response.setSources(List.of("http://example.com/parent"));
-		response.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/comment", "public"))
-			.build());
-		refRepository.save(response);
-
-		// Even with no plugins in the database, plugin tags in responses should still be counted
-		var result = refRepositoryCustom.countPluginTagsInResponses("http://example.com/parent", "");
-
-		var map = result.stream().collect(java.util.stream.Collectors.toMap(r -> (String) r[0], r -> ((Number) r[1]).longValue()));
-		assertThat(map).containsEntry("plugin/comment", 1L);
-		assertThat(map).doesNotContainKey("public");
-	}
-
-	// --- findAllUserPluginTagsInResponses ---
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_ReturnsUserPluginTags() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var response = new Ref();
-		response.setUrl("http://example.com/response");
-		response.setOrigin("");
-		response.setSources(List.of("http://example.com/parent"));
-		response.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/tester", "+plugin/user/admin", "plugin/comment"))
-			.build());
-		refRepository.save(response);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "");
-
-		assertThat(result).containsExactlyInAnyOrder("plugin/user/tester", "+plugin/user/admin");
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_FiltersExactOrigin() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var resp1 = new Ref();
-		resp1.setUrl("http://example.com/resp1");
-		resp1.setOrigin("@test");
-		resp1.setSources(List.of("http://example.com/parent"));
-		resp1.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/local"))
-			.build());
-		refRepository.save(resp1);
-
-		var resp2 = new Ref();
-		resp2.setUrl("http://example.com/resp2");
-		resp2.setOrigin("@other");
-		resp2.setSources(List.of("http://example.com/parent"));
-		resp2.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/remote"))
-			.build());
-		refRepository.save(resp2);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "@test");
-
-		assertThat(result).containsExactly("plugin/user/local");
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_UnderscorePrefixMatchesLiteralOnly() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var response = new Ref();
-		response.setUrl("http://example.com/response");
-		response.setOrigin("");
-		response.setSources(List.of("http://example.com/parent"));
-		response.setMetadata(Metadata.builder()
-			.expandedTags(List.of("_plugin/user/test", "+plugin/comment"))
-			.build());
-		refRepository.save(response);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "");
-
-		assertThat(result).containsExactly("_plugin/user/test");
-		assertThat(result).doesNotContain("+plugin/comment");
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_WorksWithEmptyPluginTable() {
-		// No plugins in the database at all
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var response = new Ref();
-		response.setUrl("http://example.com/response");
-		response.setOrigin("");
-		response.setSources(List.of("http://example.com/parent"));
-		response.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/tester", "+plugin/user/admin", "plugin/comment", "public"))
-			.build());
-		refRepository.save(response);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "");
-
-		assertThat(result).containsExactlyInAnyOrder("plugin/user/tester", "+plugin/user/admin");
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_NoMatchingTags() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var response = new Ref();
-		response.setUrl("http://example.com/response");
-		response.setOrigin("");
-		response.setSources(List.of("http://example.com/parent"));
-		response.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/comment", "public"))
-			.build());
-		refRepository.save(response);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "");
-
-		assertThat(result).isEmpty();
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_DeduplicatesAcrossResponses() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var resp1 = new Ref();
-		resp1.setUrl("http://example.com/resp1");
-		resp1.setOrigin("");
-		resp1.setSources(List.of("http://example.com/parent"));
-		resp1.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/tester", "public"))
-			.build());
-		refRepository.save(resp1);
-
-		var resp2 = new Ref();
-		resp2.setUrl("http://example.com/resp2");
-		resp2.setOrigin("");
-		resp2.setSources(List.of("http://example.com/parent"));
-		resp2.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/tester", "+plugin/user/admin"))
-			.build());
-		refRepository.save(resp2);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "");
-
-		assertThat(result).containsExactlyInAnyOrder("plugin/user/tester", "+plugin/user/admin");
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_ExcludesSelf() {
-		var self = new Ref();
-		self.setUrl("http://example.com/self");
-		self.setOrigin("");
-		self.setSources(List.of("http://example.com/self"));
-		self.setMetadata(Metadata.builder()
-			.expandedTags(List.of("plugin/user/tester"))
-			.build());
-		refRepository.save(self);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/self", "");
-
-		assertThat(result).isEmpty();
-	}
-
-	@Test
-	void testFindAllUserPluginTagsInResponses_FallsBackToTagsWhenNoExpandedTags() {
-		var parent = new Ref();
-		parent.setUrl("http://example.com/parent");
-		parent.setOrigin("");
-		refRepository.save(parent);
-
-		var response = new Ref();
-		response.setUrl("http://example.com/response");
-		response.setOrigin("");
-		response.setSources(List.of("http://example.com/parent"));
-		response.setTags(List.of("plugin/user/tester", "public"));
-		// No metadata / expandedTags set
-		refRepository.save(response);
-
-		var result = refRepositoryCustom.findAllUserPluginTagsInResponses("http://example.com/parent", "");
-
-		assertThat(result).containsExactly("plugin/user/tester");
-	}
-
 	// --- originUrl ---
 
 	@Test
@@ -454,4 +228,88 @@ public class RefRepositoryIT {
 		assertThat(result2).isPresent();
 		assertThat(result2.get().getUrl()).isEqualTo("http://example.com/origin");
 	}
+
+	// --- findSlice ---
+
+	@Test
+	void testFindSlice_PagesByModifiedWithoutCount() {
+		var now = Instant.now();
+		for (var i = 0; i < 5; i++) {
+			var ref = new Ref();
+			ref.setUrl("http://example.com/" + i);
+			ref.setOrigin("");
+			ref.setModified(now.minusSeconds(10 - i));
+			refRepository.save(ref);
+		}
+
+		var first = refRepository.findSlice(RefFilter.builder().origin("").build().spec(), 3);
+		assertThat(first.getContent()).extracting(Ref::getUrl)
+			.containsExactly("http://example.com/0", "http://example.com/1", "http://example.com/2");
+		assertThat(first.hasNext()).isTrue();
+
+		var second = refRepository.findSlice(RefFilter.builder()
+			.origin("")
+			.modifiedAfter(first.getContent().getLast().getModified())
+			.build().spec(), 3);
+		assertThat(second.getContent()).extracting(Ref::getUrl)
+			.containsExactly("http://example.com/3", "http://example.com/4");
+		assertThat(second.hasNext()).isFalse();
+	}
+
+	// --- origin subtree ---
+
+	@Test
+	void testIsUnderOrigin_MatchesOriginAndSubOrigins() {
+		for (var origin : List.of("", "@a", "@a.b", "@a.b.c", "@ab", "@a0", "@b")) {
+			var ref = new Ref();
+			ref.setUrl("http://example.com/subtree");
+			ref.setOrigin(origin);
+			refRepository.save(ref);
+		}
+
+		var result = refRepository.findAll(OriginSpec.<Ref>isUnderOrigin("@a"));
+
+		assertThat(result).extracting(Ref::getOrigin)
+			.containsExactlyInAnyOrder("@a", "@a.b", "@a.b.c");
+		assertThat(refRepository.findAll(OriginSpec.<Ref>isUnderOrigin("@a.*"))).hasSize(3);
+		assertThat(refRepository.newerExists("http://example.com/subtree", "@a.b", Instant.EPOCH)).isTrue();
+		assertThat(refRepository.newerExists("http://example.com/subtree", "@c", Instant.EPOCH)).isFalse();
+	}
+
+	/**
+	 * Time the latest page of one tenant's subtree as the number of tenants
+	 * grows. Query time should stay flat when the range is served by the
+	 * origin index. Run with -Dbenchmark=true, optionally setting
+	 * -Dbenchmark.tenants for the largest tenant count.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkOriginSubtree() {
+		indexRepository.buildConcurrently(IndexRepository.REF_ORIGIN);
+		var max = Integer.getInteger("benchmark.tenants", 10_000);
+		var tenants = 0;
+		for (var count = 10; count <= max; count *= 10) {
+			var batch = new ArrayList<Ref>();
+			for (; tenants < count; tenants++) {
+				for (var sub : List.of("", ".a", ".b")) {
+					for (var i = 0; i < 10; i++) {
+						var ref = new Ref();
+						ref.setUrl("http://example.com/" + i);
+						ref.setOrigin("@t" + tenants + sub);
+						batch.add(ref);
+					}
+				}
+			}
+			refRepository.saveAll(batch);
+			jdbcTemplate.execute("ANALYZE ref");
+			var page = PageRequest.of(0, 20, DESC, "modified");
+			var origin = "@t" + (count / 2);
+			for (var i = 0; i < 100; i++) refRepository.findAll(OriginSpec.<Ref>isUnderOrigin(origin), page);
+			var start = System.nanoTime();
+			for (var i = 0; i < 1000; i++) {
+				assertThat(refRepository.findAll(OriginSpec.<Ref>isUnderOrigin(origin), page)).hasSize(20);
+			}
+			logger.info("{} tenants: {} µs per subtree page", count, (System.nanoTime() - start) / 1000 / 1000);
+		}
+	}
 }
@@ -0,0 +1,348 @@
+package jasper.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jasper.IntegrationTest;
+import jasper.domain.Metadata;
+import jasper.domain.Ref;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the active database. {@link ResponseRepositorySqliteIT}
+ * runs the same tests against SQLite.
+ */
+@IntegrationTest
+@Transactional
+public class ResponseRepositoryIT {
+
+	@Autowired
+	RefRepository refRepository;
+
+	@Autowired
+	PluginRepository pluginRepository;
+
+	@Autowired
+	ResponseRepository responseRepository;
+
+	@Autowired
+	BackfillRepository backfillRepository;
+
+	@PersistenceContext
+	EntityManager em;
+
+	static final String PARENT = "http://example.com/parent";
+
+	@BeforeEach
+	void init() {
+		refRepository.deleteAllInBatch();
+		pluginRepository.deleteAllInBatch();
+	}
+
+	Ref parent(String origin) {
+		var parent = new Ref();
+		parent.setUrl(PARENT);
+		parent.setOrigin(origin);
+		return refRepository.saveAndFlush(parent);
+	}
+
+	Ref response(String url, String origin, String... expandedTags) {
+		var response = new Ref();
+		response.setUrl(url);
+		response.setOrigin(origin);
+		response.setSources(List.of(PARENT));
+		response.setMetadata(Metadata.builder()
+			.expandedTags(List.of(expandedTags))
+			.build());
+		return refRepository.saveAndFlush(response);
+	}
+
+	List<String> userTags(String url, String origin) {
+		return responseRepository.findAllUserPluginTagsInResponses(url, origin).stream()
+			.map(r -> (String) r[0])
+			.toList();
+	}
+
+	Map<String, Long> pluginCounts(String url, String origin) {
+		return responseRepository.countPluginTagsInResponses(url, origin).stream()
+			.collect(toMap(r -> (String) r[0], r -> ((Number) r[1]).longValue()));
+	}
+
+	// --- findAllResponses ---
+
+	@Test
+	void testFindAllResponses_SplitsInternal() {
+		parent("");
+		response("http://example.com/resp1", "", "public");
+		response("http://example.com/resp2", "", "internal");
+
+		assertThat(responseRepository.findAllResponses(PARENT, "", false))
+			.containsExactly("http://example.com/resp1");
+		assertThat(responseRepository.findAllResponses(PARENT, "", true))
+			.containsExactly("http://example.com/resp2");
+	}
+
+	@Test
+	void testFindAllResponses_FiltersOriginSubtree() {
+		parent("");
+		response("http://example.com/resp1", "@a", "public");
+		response("http://example.com/resp2", "@a.b", "public");
+		response("http://example.com/resp3", "@ab", "public");
+		response("http://example.com/resp4", "", "public");
+
+		assertThat(responseRepository.findAllResponses(PARENT, "@a", false))
+			.containsExactlyInAnyOrder("http://example.com/resp1", "http://example.com/resp2");
+		assertThat(responseRepository.findAllResponses(PARENT, "", false)).hasSize(4);
+	}
+
+	@Test
+	void testFindAllResponses_ExcludesSelf() {
+		var self = new Ref();
+		self.setUrl(PARENT);
+		self.setOrigin("");
+		self.setSources(List.of(PARENT));
+		refRepository.saveAndFlush(self);
+
+		assertThat(responseRepository.findAllResponses(PARENT, "", false)).isEmpty();
+	}
+
+	// --- countPluginTagsInResponses ---
+
+	@Test
+	void testCountPluginTagsInResponses_ReturnsPluginTagsWithCounts() {
+		parent("");
+		response("http://example.com/resp1", "", "plugin/comment", "+plugin/vote/up", "public");
+		response("http://example.com/resp2", "", "plugin/comment", "public");
+
+		var map = pluginCounts(PARENT, "");
+
+		assertThat(map).containsEntry("plugin/comment", 2L);
+		assertThat(map).containsEntry("+plugin/vote/up", 1L);
+		assertThat(map).doesNotContainKey("public");
+	}
+
+	@Test
+	void testCountPluginTagsInResponses_EmptyPluginTable() {
+		parent("");
+		response("http://example.com/response", "", "plugin/comment", "public");
+
+		// Even with no plugins in the database, plugin tags in responses should still be counted
+		var map = pluginCounts(PARENT, "");
+
+		assertThat(map).containsEntry("plugin/comment", 1L);
+		assertThat(map).doesNotContainKey("public");
+	}
+
+	@Test
+	void testCountPluginTagsInResponses_PluginPrefixMatchesLiteralOnly() {
+		parent("");
+		response("http://example.com/response", "", "plugins/comment", "xplugin/comment", "_plugin/comment");
+
+		assertThat(pluginCounts(PARENT, "")).containsOnlyKeys("_plugin/comment");
+	}
+
+	// --- findAllUserPluginTagsInResponses ---
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_ReturnsUserPluginTags() {
+		parent("");
+		response("http://example.com/response", "", "plugin/user/tester", "+plugin/user/admin", "plugin/comment");
+
+		assertThat(userTags(PARENT, ""))
+			.containsExactlyInAnyOrder("plugin/user/tester", "+plugin/user/admin");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_ReturnsResponseUrlAndOrigin() {
+		parent("");
+		response("http://example.com/response", "@test", "plugin/user/tester");
+
+		var result = responseRepository.findAllUserPluginTagsInResponses(PARENT, "");
+
+		assertThat(result).hasSize(1);
+		assertThat(result.getFirst()).containsExactly("plugin/user/tester", "http://example.com/response", "@test");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_FiltersExactOrigin() {
+		parent("");
+		response("http://example.com/resp1", "@test", "plugin/user/local");
+		response("http://example.com/resp2", "@other", "plugin/user/remote");
+		response("http://example.com/resp3", "@testing", "plugin/user/prefix");
+
+		assertThat(userTags(PARENT, "@test")).containsExactly("plugin/user/local");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_IncludesSubOrigins() {
+		parent("");
+		response("http://example.com/resp1", "@test", "plugin/user/local");
+		response("http://example.com/resp2", "@test.sub", "plugin/user/sub");
+
+		assertThat(userTags(PARENT, "@test"))
+			.containsExactlyInAnyOrder("plugin/user/local", "plugin/user/sub");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_UnderscorePrefixMatchesLiteralOnly() {
+		parent("");
+		response("http://example.com/response", "", "_plugin/user/test", "+plugin/comment", "xplugin/user/test");
+
+		var result = userTags(PARENT, "");
+
+		assertThat(result).containsExactly("_plugin/user/test");
+		assertThat(result).doesNotContain("+plugin/comment", "xplugin/user/test");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_WorksWithEmptyPluginTable() {
+		// No plugins in the database at all
+		parent("");
+		response("http://example.com/response", "", "plugin/user/tester", "+plugin/user/admin", "plugin/comment", "public");
+
+		assertThat(userTags(PARENT, ""))
+			.containsExactlyInAnyOrder("plugin/user/tester", "+plugin/user/admin");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_NoMatchingTags() {
+		parent("");
+		response("http://example.com/response", "", "plugin/comment", "plugin/username", "public");
+
+		assertThat(userTags(PARENT, "")).isEmpty();
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_DeduplicatesAcrossResponses() {
+		parent("");
+		response("http://example.com/resp1", "", "plugin/user/tester", "public");
+		response("http://example.com/resp2", "", "plugin/user/tester", "+plugin/user/admin");
+
+		var result = responseRepository.findAllUserPluginTagsInResponses(PARENT, "");
+
+		// One row per tag and response, never repeated within a response
+		assertThat(result).extracting(r -> r[0] + " " + r[1]).containsExactlyInAnyOrder(
+			"plugin/user/tester http://example.com/resp1",
+			"plugin/user/tester http://example.com/resp2",
+			"+plugin/user/admin http://example.com/resp2");
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_ExcludesSelf() {
+		var self = new Ref();
+		self.setUrl("http://example.com/self");
+		self.setOrigin("");
+		self.setSources(List.of("http://example.com/self"));
+		self.setMetadata(Metadata.builder()
+			.expandedTags(List.of("plugin/user/tester"))
+			.build());
+		refRepository.saveAndFlush(self);
+
+		assertThat(userTags("http://example.com/self", "")).isEmpty();
+	}
+
+	@Test
+	void testFindAllUserPluginTagsInResponses_FallsBackToTagsWhenNoExpandedTags() {
+		parent("");
+		var response = new Ref();
+		response.setUrl("http://example.com/response");
+		response.setOrigin("");
+		response.setSources(List.of(PARENT));
+		response.setTags(List.of("plugin/user/tester", "public"));
+		// No metadata / expandedTags set
+		refRepository.saveAndFlush(response);
+
+		assertThat(userTags(PARENT, "")).containsExactly("plugin/user/tester");
+	}
+
+	// --- incremental maintenance ---
+
+	@Test
+	void testUpdateReplacesRows() {
+		parent("");
+		var response = response("http://example.com/response", "", "plugin/comment");
+
+		response.setSources(List.of("http://example.com/other"));
+		response.setMetadata(Metadata.builder()
+			.expandedTags(List.of("plugin/user/tester", "internal"))
+			.build());
+		refRepository.saveAndFlush(response);
+
+		assertThat(responseRepository.findAllResponses(PARENT, "", false)).isEmpty();
+		assertThat(pluginCounts(PARENT, "")).isEmpty();
+		assertThat(responseRepository.findAllResponses("http://example.com/other", "", false)).isEmpty();
+		assertThat(responseRepository.findAllResponses("http://example.com/other", "", true))
+			.containsExactly("http://example.com/response");
+		assertThat(userTags("http://example.com/other", "")).containsExactly("plugin/user/tester");
+	}
+
+	@Test
+	void testUpdateTagsReplacesPlugins() {
+		parent("");
+		var response = response("http://example.com/response", "", "plugin/comment");
+
+		response.setMetadata(Metadata.builder()
+			.expandedTags(List.of("plugin/vote/up"))
+			.build());
+		refRepository.saveAndFlush(response);
+
+		assertThat(pluginCounts(PARENT, "")).containsOnlyKeys("plugin/vote/up");
+	}
+
+	@Test
+	void testDeleteRemovesRows() {
+		parent("");
+		var keep = response("http://example.com/keep", "", "plugin/comment");
+		var gone = response("http://example.com/gone", "", "plugin/comment", "plugin/user/tester");
+
+		refRepository.delete(gone);
+		refRepository.flush();
+
+		assertThat(responseRepository.findAllResponses(PARENT, "", false)).containsExactly(keep.getUrl());
+		assertThat(pluginCounts(PARENT, "")).containsEntry("plugin/comment", 1L);
+		assertThat(userTags(PARENT, "")).isEmpty();
+	}
+
+	// --- backfill ---
+
+	@Test
+	void testBackfillResponses_RebuildsMissingRows() {
+		parent("");
+		response("http://example.com/resp1", "", "plugin/comment");
+		response("http://example.com/resp2", "@a", "plugin/user/tester", "internal");
+		em.createNativeQuery("DELETE FROM ref_response").executeUpdate();
+		assertThat(responseRepository.findAllResponses(PARENT, "", false)).isEmpty();
+
+		assertThat(backfillRepository.backfillResponses("", 10)).isEqualTo(2);
+		assertThat(backfillRepository.backfillResponses("", 10)).isZero();
+
+		assertThat(responseRepository.findAllResponses(PARENT, "", false)).containsExactly("http://example.com/resp1");
+		assertThat(responseRepository.findAllResponses(PARENT, "", true)).containsExactly("http://example.com/resp2");
+		assertThat(pluginCounts(PARENT, "")).containsEntry("plugin/comment", 1L);
+		assertThat(userTags(PARENT, "@a")).containsExactly("plugin/user/tester");
+	}
+
+	@Test
+	void testBackfillResponses_OriginSubtreeInBatches() {
+		parent("");
+		response("http://example.com/resp1", "@a", "plugin/comment");
+		response("http://example.com/resp2", "@a.b", "plugin/comment");
+		response("http://example.com/resp3", "@b", "plugin/comment");
+		em.createNativeQuery("DELETE FROM ref_response").executeUpdate();
+
+		assertThat(backfillRepository.backfillResponses("@a", 1)).isEqualTo(1);
+		assertThat(backfillRepository.backfillResponses("@a", 1)).isEqualTo(1);
+		assertThat(backfillRepository.backfillResponses("@a", 1)).isZero();
+
+		assertThat(responseRepository.findAllResponses(PARENT, "", false))
+			.containsExactlyInAnyOrder("http://example.com/resp1", "http://example.com/resp2");
+	}
+}
@@ -0,0 +1,13 @@
+package jasper.repository;
+
+import jasper.IntegrationTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs {@link ResponseRepositoryIT} against the SQLite triggers and queries
+ * even when the suite runs on PostgreSQL.
+ */
+@IntegrationTest
+@ActiveProfiles({"test", "sqlite", "scripts"})
+public class ResponseRepositorySqliteIT extends ResponseRepositoryIT {
+}
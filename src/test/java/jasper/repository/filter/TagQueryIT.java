@@ -0,0 +1,87 @@
+package jasper.repository.filter;
+
+import jasper.IntegrationTest;
+import jasper.domain.Metadata;
+import jasper.domain.Ref;
+import jasper.repository.RefRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static jasper.component.Meta.expandTags;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in memory {@link TagQuery#test} must select the same Refs as the
+ * compiled {@link TagQuery#refSpec()}.
+ */
+@IntegrationTest
+@Transactional
+public class TagQueryIT {
+
+	@Autowired
+	RefRepository refRepository;
+
+	@BeforeEach
+	void init() {
+		refRepository.deleteAll();
+		ref("", "science/physics", "news");
+		ref("", "science", "funny", "old");
+		ref("", "math", "news/local");
+		ref("", "+plugin/comment", "_user/tester");
+		ref("", "funny");
+		ref("@other", "science", "news");
+		ref("@other", "funny");
+		ref("@other.sub", "science");
+		ref("@otherwise", "science");
+		ref("@third");
+		refRepository.flush();
+	}
+
+	void ref(String origin, String... tags) {
+		var ref = new Ref();
+		ref.setUrl("http://example.com/" + origin + "/" + String.join(",", tags));
+		ref.setOrigin(origin);
+		ref.setTags(List.of(tags));
+		ref.setMetadata(Metadata.builder().expandedTags(expandTags(ref.getTags())).build());
+		refRepository.save(ref);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"science",
+		"science/physics",
+		"science:news",
+		"science|funny",
+		"science:news|funny",
+		"science:(news|funny)",
+		"(science|math):(news|(funny:!old))",
+		"science:!news",
+		"!news",
+		"science@other",
+		"science@",
+		"@other",
+		"!@other",
+		"@other.*",
+		"science@other.*",
+		"science:@other|@third",
+		"*",
+		"+plugin/comment",
+		"_user",
+	})
+	void testMatchesSpec(String query) {
+		var compiled = TagQuery.of(query);
+		var all = refRepository.findAll();
+
+		assertThat(refRepository.findAll(compiled.refSpec()))
+			.extracting(Ref::getUrl)
+			.containsExactlyInAnyOrderElementsOf(all.stream()
+				.filter(compiled::test)
+				.map(Ref::getUrl)
+				.toList());
+	}
+}
@@ -0,0 +1,174 @@
+package jasper.repository.filter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TagQueryUnitTest {
+	private static final Logger logger = LoggerFactory.getLogger(TagQueryUnitTest.class);
+
+	@Test
+	void testCompiledOnce() {
+		var query = TagQuery.of("science:news");
+
+		assertThat(TagQuery.of("science:news")).isSameAs(query);
+		assertThat(TagQuery.of(" science : news ")).isSameAs(query);
+		assertThat(query.refSpec()).isSameAs(TagQuery.of("science:news").refSpec());
+	}
+
+	@Test
+	void testSpecShared() {
+		var query = TagQuery.of("science|funny");
+
+		assertThat(query.spec()).isSameAs(TagQuery.of("science | funny").spec());
+		assertThat(TagQuery.of("science")).isNotSameAs(query);
+	}
+
+	@Test
+	void testTag() {
+		var query = TagQuery.of("science");
+
+		assertThat(query.test(List.of("science"), "")).isTrue();
+		assertThat(query.test(List.of("science/physics"), "")).isTrue();
+		assertThat(query.test(List.of("sciencefiction"), "")).isFalse();
+		assertThat(query.test(List.of("science"), "@other")).isTrue();
+		assertThat(query.test(List.of(), "")).isFalse();
+		assertThat(query.test(null, "")).isFalse();
+	}
+
+	@Test
+	void testChildTag() {
+		var query = TagQuery.of("science/physics");
+
+		assertThat(query.test(List.of("science/physics/quantum"), "")).isTrue();
+		assertThat(query.test(List.of("science"), "")).isFalse();
+	}
+
+	@Test
+	void testAnd() {
+		var query = TagQuery.of("science:news");
+
+		assertThat(query.test(List.of("science", "news"), "")).isTrue();
+		assertThat(query.test(List.of("science"), "")).isFalse();
+		assertThat(query.test(List.of("news"), "")).isFalse();
+	}
+
+	@Test
+	void testOr() {
+		var query = TagQuery.of("science|funny");
+
+		assertThat(query.test(List.of("science"), "")).isTrue();
+		assertThat(query.test(List.of("funny"), "")).isTrue();
+		assertThat(query.test(List.of("news"), "")).isFalse();
+	}
+
+	@Test
+	void testAndBindsTighterThanOr() {
+		var query = TagQuery.of("science:news|funny");
+
+		assertThat(query.test(List.of("science", "news"), "")).isTrue();
+		assertThat(query.test(List.of("science"), "")).isFalse();
+		assertThat(query.test(List.of("funny"), "")).isTrue();
+		assertThat(TagQuery.of("funny|science:news").test(List.of("funny"), "")).isTrue();
+		assertThat(TagQuery.of("funny|science:news").test(List.of("news"), "")).isFalse();
+	}
+
+	@Test
+	void testGroups() {
+		var query = TagQuery.of("science:(news|funny)");
+
+		assertThat(query.test(List.of("science", "funny"), "")).isTrue();
+		assertThat(query.test(List.of("science"), "")).isFalse();
+		assertThat(query.test(List.of("funny"), "")).isFalse();
+	}
+
+	@Test
+	void testNestedGroups() {
+		var query = TagQuery.of("(science|math):(news|(funny:!old))");
+
+		assertThat(query.test(List.of("math", "news"), "")).isTrue();
+		assertThat(query.test(List.of("science", "funny"), "")).isTrue();
+		assertThat(query.test(List.of("science", "funny", "old"), "")).isFalse();
+		assertThat(query.test(List.of("science", "funny", "old", "news"), "")).isTrue();
+		assertThat(query.test(List.of("news"), "")).isFalse();
+	}
+
+	@Test
+	void testNot() {
+		var query = TagQuery.of("science:!news");
+
+		assertThat(query.test(List.of("science"), "")).isTrue();
+		assertThat(query.test(List.of("science", "news/local"), "")).isFalse();
+		assertThat(TagQuery.of("!news").test(List.of(), "")).isTrue();
+		assertThat(TagQuery.of("!news").test(List.of("news"), "")).isFalse();
+		assertThat(TagQuery.of("!news|funny").test(List.of("news", "funny"), "")).isTrue();
+	}
+
+	@Test
+	void testOrigin() {
+		assertThat(TagQuery.of("science@other").test(List.of("science"), "@other")).isTrue();
+		assertThat(TagQuery.of("science@other").test(List.of("science"), "")).isFalse();
+		assertThat(TagQuery.of("science@other").test(List.of("science"), "@other.sub")).isFalse();
+		assertThat(TagQuery.of("science@").test(List.of("science"), "")).isTrue();
+		assertThat(TagQuery.of("science@").test(List.of("science"), "@other")).isFalse();
+		assertThat(TagQuery.of("@other").test(List.of(), "@other")).isTrue();
+		assertThat(TagQuery.of("@other").test(List.of(), "")).isFalse();
+		assertThat(TagQuery.of("!@other").test(List.of(), "")).isTrue();
+		assertThat(TagQuery.of("!@other").test(List.of(), "@other")).isFalse();
+		assertThat(TagQuery.of("science:@other|@third").test(List.of("science"), "@other")).isTrue();
+		assertThat(TagQuery.of("science:@other|@third").test(List.of(), "@third")).isTrue();
+		assertThat(TagQuery.of("science:@other|@third").test(List.of(), "@other")).isFalse();
+	}
+
+	@Test
+	void testWildcards() {
+		assertThat(TagQuery.of("@other.*").test(List.of(), "@other")).isTrue();
+		assertThat(TagQuery.of("@other.*").test(List.of(), "@other.sub")).isTrue();
+		assertThat(TagQuery.of("@other.*").test(List.of(), "@otherwise")).isFalse();
+		assertThat(TagQuery.of("@other.*").test(List.of(), "")).isFalse();
+		assertThat(TagQuery.of("science@*").test(List.of("science"), "@any")).isTrue();
+		assertThat(TagQuery.of("science@other.*").test(List.of("science"), "@other.sub")).isTrue();
+		assertThat(TagQuery.of("science@other.*").test(List.of("news"), "@other.sub")).isFalse();
+		assertThat(TagQuery.of("*").test(List.of("science"), "")).isTrue();
+		assertThat(TagQuery.of("*").test(List.of("science"), "@other")).isFalse();
+		assertThat(TagQuery.of("!@*").test(List.of(), "@other")).isFalse();
+	}
+
+	@Test
+	void testPrefixes() {
+		assertThat(TagQuery.of("+plugin/comment").test(List.of("+plugin/comment"), "")).isTrue();
+		assertThat(TagQuery.of("+plugin/comment").test(List.of("plugin/comment"), "")).isFalse();
+		assertThat(TagQuery.of("_user").test(List.of("_user/tester"), "")).isTrue();
+		assertThat(TagQuery.of("user").test(List.of("_user/tester"), "")).isFalse();
+	}
+
+	/**
+	 * Compare compiling queries against the cached lookup and in memory test.
+	 * Run with -Dbenchmark=true, optionally setting -Dbenchmark.queries for
+	 * the number of distinct queries.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkTagQuery() {
+		var count = Integer.getInteger("benchmark.queries", 100_000);
+		var tags = List.of("science/physics", "news", "+plugin/comment", "_user/tester");
+		var start = System.nanoTime();
+		for (var i = 0; i < count; i++) TagQuery.of("(science|math" + i + "):!news|funny@other.*");
+		var compile = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (var i = 0; i < count; i++) TagQuery.of("(science|math):!news|funny@other.*");
+		var cached = System.nanoTime() - start;
+		var query = TagQuery.of("(science|math):!news|funny@other.*");
+		var matches = 0;
+		start = System.nanoTime();
+		for (var i = 0; i < count; i++) if (query.test(tags, "@other.sub")) matches++;
+		var test = System.nanoTime() - start;
+		logger.info("compile: {} ns, cached: {} ns, test: {} ns per query ({} matches)",
+			compile / count, cached / count, test / count, matches);
+	}
+}
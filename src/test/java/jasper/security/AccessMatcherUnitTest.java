@@ -0,0 +1,79 @@
+package jasper.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jasper.repository.spec.QualifiedTag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static jasper.repository.spec.QualifiedTag.atom;
+import static jasper.repository.spec.QualifiedTag.qt;
+import static jasper.repository.spec.QualifiedTag.selector;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccessMatcherUnitTest {
+
+	SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	List<QualifiedTag> selectors = List.of(
+		selector("public@*"),
+		selector("_secret@other"),
+		selector("+user/alice"),
+		selector("custom@tenant.*"),
+		selector("@exact"),
+		selector("*"));
+
+	List<String> targets = List.of(
+		"public", "public/sub@other", "_secret@other", "+secret@other", "secret@other",
+		"_secret", "+user/alice", "user/alice/x", "_user/alice", "custom@tenant",
+		"custom/sub@tenant.child", "custom@tenantx", "anything@exact", "anything",
+		"+plugin/x@exact", "plugin@nowhere");
+
+	@Test
+	void testMatchesSelectorScan() {
+		var matcher = new AccessMatcher(selectors, meterRegistry);
+		for (var t : targets) {
+			var target = qt(t);
+			var expected = selectors.stream().anyMatch(s -> s.capturesDownwards(target));
+			assertThat(matcher.captures(target)).as(t).isEqualTo(expected);
+			// Memoized decision
+			assertThat(matcher.captures(qt(t))).as(t).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void testNegatedSelector() {
+		var negated = List.of(atom("!_secret"));
+		var matcher = new AccessMatcher(negated, meterRegistry);
+
+		assertThat(matcher.captures(qt("_other"))).isTrue();
+		assertThat(matcher.captures(qt("_secret"))).isFalse();
+	}
+
+	@Test
+	void testAnyTarget() {
+		var matcher = new AccessMatcher(List.of(selector("_secret")), meterRegistry);
+
+		assertThat(matcher.captures(List.of(qt("public"), qt("_secret/sub")))).isTrue();
+		assertThat(matcher.captures(List.of(qt("public"), qt("_other")))).isFalse();
+		assertThat(matcher.captures(List.of())).isFalse();
+	}
+
+	@Test
+	void testEmptySelectors() {
+		assertThat(new AccessMatcher(null, meterRegistry).captures(qt("public"))).isFalse();
+		assertThat(new AccessMatcher(List.of(), meterRegistry).captures(qt("public"))).isFalse();
+	}
+
+	@Test
+	void testCountsMemoizedDecisions() {
+		var matcher = new AccessMatcher(List.of(selector("_secret")), meterRegistry);
+
+		matcher.captures(qt("_secret"));
+		matcher.captures(qt("_secret"));
+		matcher.captures(qt("public"));
+
+		assertThat(meterRegistry.get("jasper.auth.access").tag("result", "hit").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("jasper.auth.access").tag("result", "miss").counter().count()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,76 @@
+package jasper.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jasper.component.ConfigCache;
+import jasper.config.Config.SecurityConfig;
+import jasper.config.Config.ServerConfig;
+import jasper.config.Props;
+import jasper.config.SecurityConfiguration;
+import jasper.repository.RefRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static jasper.security.AuthoritiesConstants.ADMIN;
+import static jasper.security.AuthoritiesConstants.USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AuthFactoryTest {
+
+	Props props;
+	SecurityConfig security;
+	AuthFactory authFactory;
+
+	@BeforeEach
+	void init() {
+		props = new Props();
+		security = new SecurityConfig();
+		var configs = mock(ConfigCache.class);
+		when(configs.root()).thenReturn(new ServerConfig());
+		when(configs.security(anyString())).thenReturn(security);
+		authFactory = new AuthFactory(props, new SecurityConfiguration().roleHierarchy(), configs, mock(RefRepository.class), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void testHeadersIgnoredByDefault() {
+		var auth = authFactory.create("+user/alice", "", USER);
+
+		assertThat(auth.getPrincipal()).isNotEqualTo("+user/alice");
+		assertThat(auth.hasRole(USER)).isFalse();
+	}
+
+	@Test
+	void testUserTagHeaderAllowed() {
+		props.setAllowUserTagHeader(true);
+
+		var auth = authFactory.create("+user/alice", "", USER);
+
+		assertThat(auth.getPrincipal()).isEqualTo("+user/alice");
+		assertThat(auth.hasRole(USER)).isFalse();
+	}
+
+	@Test
+	void testUserRoleHeaderAllowed() {
+		props.setAllowUserTagHeader(true);
+		props.setAllowUserRoleHeader(true);
+
+		var auth = authFactory.create("+user/alice", "", USER);
+
+		assertThat(auth.getPrincipal()).isEqualTo("+user/alice");
+		assertThat(auth.hasRole(USER)).isTrue();
+		assertThat(auth.hasRole(ADMIN)).isFalse();
+	}
+
+	@Test
+	void testDefaultUserMayBeSelected() {
+		security.setDefaultUser("+user/alice");
+
+		var auth = authFactory.create("+user/alice/feeds", "@a", USER);
+
+		assertThat(auth.getPrincipal()).isEqualTo("+user/alice/feeds@a");
+		assertThat(auth.getOrigin()).isEqualTo("@a");
+		assertThat(auth.hasRole(USER)).isFalse();
+	}
+}
@@ -1,5 +1,6 @@
 package jasper.security;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jasper.component.ConfigCache;
 import jasper.config.Config.SecurityConfig;
 import jasper.config.Config.ServerConfig;
@@ -36,7 +37,7 @@ public class AuthMultiTenantUnitTest {
 	RoleHierarchy roleHierarchy = new SecurityConfiguration().roleHierarchy();
 
 	Auth getAuth(User user, String ...roles) {
-		var a = new Auth(new Props(), null, getConfigs(user), null);
+		var a = new Auth(new Props(), null, getConfigs(user), null, new SimpleMeterRegistry());
 		a.props.setLocalOrigin(user.getOrigin());
 		a.principal = user.getQualifiedTag();
 		a.user = Optional.of(user);
@@ -1,5 +1,6 @@
 package jasper.security;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jasper.component.ConfigCache;
 import jasper.config.Config.SecurityConfig;
 import jasper.config.Config.ServerConfig;
@@ -44,7 +45,7 @@ public class AuthUnitTest {
 
 	Auth getAuth(String origin, User user, String ...roles) {
 		user.setOrigin(origin);
-		var a = new Auth(new Props(), null, configCache, null);
+		var a = new Auth(new Props(), null, configCache, null, new SimpleMeterRegistry());
 		a.principal = user.getQualifiedTag();
 		a.user = Optional.of(user);
 		a.roles = getRoles(roles);
@@ -88,7 +89,7 @@ public class AuthUnitTest {
 		var expected = getUser("+user/test");
 		var authentication = mock(Authentication.class);
 		when(authentication.getDetails()).thenReturn(expected);
-		var auth = new Auth(new Props(), roleHierarchy, configCache, getRefRepo());
+		var auth = new Auth(new Props(), roleHierarchy, configCache, getRefRepo(), new SimpleMeterRegistry());
 		auth.authentication = authentication;
 
 		assertThat(auth.getUser()).containsSame(expected);
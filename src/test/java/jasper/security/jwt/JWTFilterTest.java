@@ -55,7 +55,7 @@ class JWTFilterTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProviderImpl(props, configCache, securityMetersService, null);
+        tokenProvider = new TokenProviderImpl(props, configCache, securityMetersService, null, new SimpleMeterRegistry());
         defaultTokenProvider = new TokenProviderImplDefault(props, configCache);
         secret = Base64.getDecoder().decode(base64Secret);
 
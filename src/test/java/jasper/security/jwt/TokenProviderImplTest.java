@@ -16,8 +16,12 @@ import jasper.config.Props;
 import jasper.domain.User;
 import jasper.management.SecurityMetersService;
 import jasper.security.AuthoritiesConstants;
+import jasper.service.dto.TemplateDto;
+import jasper.service.dto.UserDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.security.core.Authentication;
 
 import java.util.ArrayList;
@@ -29,7 +33,9 @@ import java.util.Map;
 import static jasper.repository.spec.QualifiedTag.qt;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class TokenProviderImplTest {
@@ -38,6 +44,7 @@ class TokenProviderImplTest {
 
     private byte[] secret;
     private TokenProviderImpl tokenProvider;
+    private SimpleMeterRegistry meterRegistry;
 
 	ConfigCache configCache = getConfigs();
 	ConfigCache getConfigs() {
@@ -74,7 +81,7 @@ class TokenProviderImplTest {
 	}
 
 	TokenProviderImpl getTokenProvider(Props props) {
-		return new TokenProviderImpl(props, configCache, null, null) {
+		return new TokenProviderImpl(props, configCache, null, null, new SimpleMeterRegistry()) {
 			@Override
 			public Authentication getAuthentication(String jwt, String origin) {
 				return null;
@@ -105,7 +112,8 @@ class TokenProviderImplTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProviderImpl(props, configCache, securityMetersService, null);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenProvider = new TokenProviderImpl(props, configCache, securityMetersService, null, meterRegistry);
         secret = Base64.getDecoder().decode(base64Secret);
     }
 
@@ -159,6 +167,86 @@ class TokenProviderImplTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    private long verified() {
+        return meterRegistry.get("jasper.jwt.verify").timer().count();
+    }
+
+    @Test
+    void testAuthenticationCached() {
+        String token = createToken("anonymous", secret, new Date(System.currentTimeMillis() + 1800 * 1000L));
+
+        assertThat(tokenProvider.validateToken(token, "")).isTrue();
+        var auth = tokenProvider.getAuthentication(token, "");
+        assertThat(tokenProvider.validateToken(token, "")).isTrue();
+        assertThat(tokenProvider.getAuthentication(token, "")).isSameAs(auth);
+
+        assertThat(auth.getPrincipal()).isEqualTo("+user/anonymous");
+        // Validation fills the cache, so the token is only decoded once
+        assertThat(verified()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidTokenNotCached() {
+        String token = createToken("anonymous", secret, new Date(System.currentTimeMillis() - ONE_MINUTE * 1000L));
+
+        assertThat(tokenProvider.validateToken(token, "")).isFalse();
+        assertThat(tokenProvider.validateToken(token, "")).isFalse();
+
+        assertThat(verified()).isEqualTo(2);
+    }
+
+    @Test
+    void testUserUpdateEvictsAuthentication() {
+        String token = createToken("anonymous", secret, new Date(System.currentTimeMillis() + 1800 * 1000L));
+        var auth = tokenProvider.getAuthentication(token, "");
+        var other = new UserDto();
+        other.setTag("+user/bob");
+        other.setOrigin("");
+        tokenProvider.handleUserUpdate(MessageBuilder.withPayload(other).build());
+        assertThat(tokenProvider.getAuthentication(token, "")).isSameAs(auth);
+
+        var user = new UserDto();
+        user.setTag("_user/anonymous");
+        user.setOrigin("");
+        tokenProvider.handleUserUpdate(MessageBuilder.withPayload(user).build());
+
+        assertThat(tokenProvider.getAuthentication(token, "")).isNotSameAs(auth);
+        assertThat(verified()).isEqualTo(2);
+    }
+
+    @Test
+    void testSecurityConfigUpdateEvictsAuthentication() {
+        String token = createToken("anonymous", secret, new Date(System.currentTimeMillis() + 1800 * 1000L));
+        var auth = tokenProvider.getAuthentication(token, "");
+        var other = new TemplateDto();
+        other.setTag("_config/server");
+        other.setOrigin("");
+        tokenProvider.handleTemplateUpdate(MessageBuilder.withPayload(other).build());
+        assertThat(tokenProvider.getAuthentication(token, "")).isSameAs(auth);
+
+        var security = new TemplateDto();
+        security.setTag("_config/security");
+        security.setOrigin("");
+        tokenProvider.handleTemplateUpdate(MessageBuilder.withPayload(security).build());
+
+        assertThat(tokenProvider.getAuthentication(token, "")).isNotSameAs(auth);
+        assertThat(tokenProvider.jwtDecoders).hasSize(1);
+    }
+
+    @Test
+    void testClearedCachesEvictAuthentication() {
+        String token = createToken("anonymous", secret, new Date(System.currentTimeMillis() + 1800 * 1000L));
+        var auth = tokenProvider.getAuthentication(token, "");
+        var listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(configCache, atLeastOnce()).onClear(listener.capture());
+
+        listener.getValue().run();
+
+        assertThat(tokenProvider.getAuthentication(token, "")).isNotSameAs(auth);
+        assertThat(tokenProvider.jwtDecoders).hasSize(1);
+        assertThat(verified()).isEqualTo(2);
+    }
+
     private String createToken(String sub, byte[] key, Date expiration) {
         try {
             var claims = new JWTClaimsSet.Builder()
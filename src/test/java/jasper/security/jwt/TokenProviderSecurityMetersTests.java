@@ -58,7 +58,7 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProviderImpl(new Props(), configCache, securityMetersService, null);
+        tokenProvider = new TokenProviderImpl(new Props(), configCache, securityMetersService, null, new SimpleMeterRegistry());
     }
 
     @Test
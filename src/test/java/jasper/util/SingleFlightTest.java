@@ -0,0 +1,103 @@
+package jasper.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+	@Test
+	void testConcurrentCallersShareLeader() throws Exception {
+		var flight = new SingleFlight("test", new SimpleMeterRegistry());
+		var leaders = new AtomicInteger();
+		var followers = new AtomicInteger();
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			var results = new ArrayList<Future<String>>();
+			results.add(executor.submit(() -> flight.run("key", () -> {
+				leaders.incrementAndGet();
+				started.countDown();
+				await(release);
+				return "leader";
+			}, () -> "unused")));
+			started.await();
+			for (var i = 0; i < 10; i++) {
+				results.add(executor.submit(() -> flight.run("key", () -> {
+					leaders.incrementAndGet();
+					return "leader";
+				}, () -> {
+					followers.incrementAndGet();
+					return "follower";
+				})));
+			}
+			while (flight.waiting() < 10) Thread.sleep(10);
+			release.countDown();
+			assertThat(results.getFirst().get()).isEqualTo("leader");
+			for (var r : results.subList(1, results.size())) assertThat(r.get()).isEqualTo("follower");
+		}
+		assertThat(leaders.get()).isEqualTo(1);
+		assertThat(followers.get()).isEqualTo(10);
+	}
+
+	@Test
+	void testLeaderErrorRethrown() {
+		var flight = new SingleFlight("test", new SimpleMeterRegistry());
+
+		assertThatThrownBy(() -> flight.run("key", () -> { throw new IllegalStateException("boom"); }, () -> "unused"))
+			.isInstanceOf(IllegalStateException.class);
+		// Finished flights are not reused
+		assertThat(flight.run("key", () -> "again", () -> "unused")).isEqualTo("again");
+	}
+
+	@Test
+	void testLeaderErrorWrappedPerWaiter() throws Exception {
+		var flight = new SingleFlight("test", new SimpleMeterRegistry());
+		var boom = new IllegalStateException("boom");
+		var started = new CountDownLatch(1);
+		var release = new CountDownLatch(1);
+		try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			var leader = executor.submit(() -> flight.run("key", () -> {
+				started.countDown();
+				await(release);
+				throw boom;
+			}, () -> "unused"));
+			started.await();
+			var waiters = new ArrayList<Future<Throwable>>();
+			for (var i = 0; i < 2; i++) {
+				waiters.add(executor.submit(() -> {
+					try {
+						flight.run("key", () -> "leader", () -> "follower");
+						return null;
+					} catch (RuntimeException e) {
+						return e;
+					}
+				}));
+			}
+			while (flight.waiting() < 2) Thread.sleep(10);
+			release.countDown();
+			assertThatThrownBy(leader::get).hasCause(boom);
+			var first = waiters.get(0).get();
+			var second = waiters.get(1).get();
+			assertThat(first).isInstanceOf(SingleFlight.FlightFailedException.class).hasCause(boom);
+			assertThat(second).isInstanceOf(SingleFlight.FlightFailedException.class).hasCause(boom);
+			assertThat(first).isNotSameAs(second);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package jasper.web.rest;
+
+import jasper.web.rest.ProxyController.Range;
+import jasper.web.rest.ProxyController.RangeReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ProxyControllerTest {
+	private static final Logger logger = LoggerFactory.getLogger(ProxyControllerTest.class);
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void testParseRanges() {
+		assertThat(ProxyController.parseRanges("bytes=0-9, 20-, -5", 100))
+			.containsExactly(new Range(0, 9), new Range(20, 99), new Range(95, 99));
+		assertThat(ProxyController.parseRanges("bytes=90-200,-200", 100))
+			.containsExactly(new Range(90, 99), new Range(0, 99));
+		assertThat(ProxyController.parseRanges("bytes=100-,50-10", 100)).isEmpty();
+		assertThatThrownBy(() -> ProxyController.parseRanges("bytes=invalid", 100))
+			.isInstanceOf(NumberFormatException.class);
+	}
+
+	@Test
+	void testCoalesceOverlappingRanges() {
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges("bytes=50-59, 0-9, 5-14, 15-19", 100), 100))
+			.containsExactly(new Range(0, 19), new Range(50, 59));
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges("bytes=0-9, 20-29", 100), 100))
+			.containsExactly(new Range(0, 9), new Range(20, 29));
+	}
+
+	@Test
+	void testCoalesceIgnoresRangesLargerThanContent() {
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges("bytes=0-, 0-", 100), 100)).isNull();
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges("bytes=0-60, 40-99", 100), 100)).isNull();
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges("bytes=0-49, 50-99", 100), 100))
+			.containsExactly(new Range(0, 99));
+	}
+
+	@Test
+	void testCoalesceIgnoresTooManyRanges() {
+		var header = new StringBuilder("bytes=");
+		for (var i = 0; i <= ProxyController.MAX_RANGES; i++) header.append(i * 2).append('-').append(i * 2).append(',');
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges(header.toString(), 100), 100)).isNull();
+		header = new StringBuilder("bytes=");
+		for (var i = 0; i < 1000; i++) header.append(i % 100).append('-').append(i % 100).append(',');
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges(header.toString(), 100), 100)).isNull();
+		assertThat(ProxyController.coalesce(ProxyController.parseRanges("bytes=0-0,1-1,2-2,3-3", 100), 100))
+			.containsExactly(new Range(0, 3));
+	}
+
+	@Test
+	void testRangeReaderFile() throws IOException {
+		var data = data(100_000);
+		var file = write(data);
+
+		var out = new ByteArrayOutputStream();
+		try (var reader = new RangeReader(new FileInputStream(file.toFile()))) {
+			reader.copy(70_000, 10, out);
+			reader.copy(5, 10, out);
+			reader.copy(99_990, Long.MAX_VALUE, out);
+		}
+
+		assertThat(out.toByteArray()).isEqualTo(concat(
+			Arrays.copyOfRange(data, 70_000, 70_010),
+			Arrays.copyOfRange(data, 5, 15),
+			Arrays.copyOfRange(data, 99_990, 100_000)));
+	}
+
+	@Test
+	void testRangeReaderStream() throws IOException {
+		var data = data(100_000);
+		var file = write(data);
+
+		var out = new ByteArrayOutputStream();
+		try (var reader = new RangeReader(new BufferedInputStream(new FileInputStream(file.toFile())))) {
+			reader.copy(5, 10, out);
+			reader.copy(70_000, 10, out);
+			reader.copy(99_990, Long.MAX_VALUE, out);
+		}
+
+		assertThat(out.toByteArray()).isEqualTo(concat(
+			Arrays.copyOfRange(data, 5, 15),
+			Arrays.copyOfRange(data, 70_000, 70_010),
+			Arrays.copyOfRange(data, 99_990, 100_000)));
+	}
+
+	/**
+	 * Compare serving random ranges through the file channel against reading
+	 * them through a buffer. Run with -Dbenchmark=true, optionally setting
+	 * -Dbenchmark.mb for the file size.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkRangeReader() throws IOException {
+		var size = Long.getLong("benchmark.mb", 1024) * 1024 * 1024;
+		var file = dir.resolve("large");
+		try (var out = Files.newOutputStream(file)) {
+			var chunk = data(1024 * 1024);
+			for (var written = 0L; written < size; written += chunk.length) out.write(chunk);
+		}
+		for (var channel : new boolean[]{ true, false, true, false }) {
+			var random = new Random(0);
+			var cpu = ManagementFactory.getThreadMXBean();
+			var startCpu = cpu.getCurrentThreadCpuTime();
+			var start = System.nanoTime();
+			var sent = 0L;
+			for (var i = 0; i < 64; i++) {
+				// Seek into the second half, like a player skipping ahead
+				var position = size / 2 + (long) (random.nextDouble() * (size / 2 - 16 * 1024 * 1024));
+				try (var is = open(file, channel);
+					 var reader = new RangeReader(is)) {
+					var out = new CountingOutputStream();
+					reader.copy(position, 16 * 1024 * 1024, out);
+					sent += out.count;
+				}
+			}
+			var seconds = (System.nanoTime() - start) / 1e9;
+			var cpuMs = (cpu.getCurrentThreadCpuTime() - startCpu) / 1e6;
+			var gb = sent / (1024.0 * 1024 * 1024);
+			logger.info("{}: {} MB/s, {} CPU ms/GB",
+				channel ? "transferTo" : "buffered",
+				Math.round(sent / (1024.0 * 1024) / seconds),
+				Math.round(cpuMs / gb));
+		}
+	}
+
+	private InputStream open(Path file, boolean channel) throws IOException {
+		var is = new FileInputStream(file.toFile());
+		return channel ? is : new BufferedInputStream(is);
+	}
+
+	private Path write(byte[] data) throws IOException {
+		var file = dir.resolve("data");
+		Files.write(file, data);
+		return file;
+	}
+
+	private static byte[] data(int size) {
+		var data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+
+	private static byte[] concat(byte[]... parts) {
+		var out = new ByteArrayOutputStream();
+		for (var p : parts) out.writeBytes(p);
+		return out.toByteArray();
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}